@@ -0,0 +1,58 @@
+package tn.esprit;
+
+import android.app.Application;
+import android.content.pm.ApplicationInfo;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+
+import tn.esprit.data.auth.AuthTokenHolder;
+import tn.esprit.data.doctor.DoctorSearchCache;
+import tn.esprit.data.outbox.Outbox;
+import tn.esprit.data.remote.ApiClient;
+import tn.esprit.data.remote.http.HttpCacheStats;
+import tn.esprit.data.remote.http.NetworkTimingStats;
+import tn.esprit.data.remote.http.RequestCoalescer;
+
+/**
+ * Process entry point. Only wires process-wide singletons that need a Context
+ * before the first screen (or receiver) runs.
+ */
+public class DocsApplication extends Application {
+
+    private static final String TAG = "DocsApplication";
+    private static final String NETWORK_TIMINGS_FILE = "network-timings.txt";
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        // Shared OkHttpClient needs the cache dir for its HTTP disk cache
+        ApiClient.init(this);
+        // Session tokens are read from disk here, off the main thread
+        AuthTokenHolder.getInstance(this).preload();
+        // Sends writes left in the outbox by a previous run; also watches connectivity
+        Outbox.getInstance(this).flush();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        // Debug builds: each time the app goes to background, export per-endpoint
+        // p50/p95/p99 to files/network-timings.txt (adb pull / Device File Explorer).
+        if (level == TRIM_MEMORY_UI_HIDDEN && isDebuggable()) {
+            try {
+                NetworkTimingStats.dumpTo(new File(getFilesDir(), NETWORK_TIMINGS_FILE));
+            } catch (IOException e) {
+                Log.w(TAG, "Could not write network timings", e);
+            }
+            Log.d(TAG, "Doctor search cache: " + DoctorSearchCache.summary());
+            Log.d(TAG, "HTTP cache: " + HttpCacheStats.summary());
+            Log.d(TAG, "Coalesced GETs: " + RequestCoalescer.summary());
+        }
+    }
+
+    private boolean isDebuggable() {
+        return (getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+    }
+}
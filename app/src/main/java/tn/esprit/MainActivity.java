@@ -26,11 +26,12 @@ import com.bumptech.glide.Glide;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 import com.google.android.material.navigation.NavigationView;
 
-import tn.esprit.data.auth.AuthLocalDataSource;
+import tn.esprit.data.auth.AuthTokenHolder;
 import tn.esprit.data.notification.NotificationSocketManager;
-import tn.esprit.data.profile.ProfileRepository;
-import tn.esprit.domain.doctor.DoctorProfile;
-import tn.esprit.domain.patient.PatientProfile;
+import tn.esprit.data.profile.ProfileSnapshot;
+import tn.esprit.data.profile.ProfileStore;
+import tn.esprit.data.session.BootstrapState;
+import tn.esprit.data.session.SessionBootstrap;
 import tn.esprit.domain.user.User;
 import tn.esprit.presentation.auth.AuthGateActivity;
 import tn.esprit.presentation.home.HomeUiHelper;
@@ -58,8 +59,9 @@ public class MainActivity extends AppCompatActivity {
     private TextView drawerUserEmail;
     private TextView drawerUserRole;
 
-    private AuthLocalDataSource authLocalDataSource;
-    private ProfileRepository profileRepository;
+    private AuthTokenHolder tokenHolder;
+    private ProfileStore profileStore;
+    private SessionBootstrap sessionBootstrap;
     private NavController navController;
 
     // Notifications ViewModel (activity-scoped)
@@ -70,6 +72,13 @@ public class MainActivity extends AppCompatActivity {
     @Nullable
     private String lastKnownRole;
 
+    // User the notifications WebSocket is connected for (profile refreshes keep it open)
+    @Nullable
+    private Long socketUserId;
+
+    // Bootstrap snapshots keep coming as other requests finish: apply a /me failure only once
+    private boolean bootstrapFailureApplied = false;
+
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -88,8 +97,12 @@ public class MainActivity extends AppCompatActivity {
         textUserRole = findViewById(R.id.text_user_role);
         imageAvatar = findViewById(R.id.image_avatar);
 
-        authLocalDataSource = new AuthLocalDataSource(getApplicationContext());
-        profileRepository = new ProfileRepository(getApplicationContext());
+        tokenHolder = AuthTokenHolder.getInstance(getApplicationContext());
+        profileStore = ProfileStore.getInstance(getApplicationContext());
+
+        // Profile, notifications and role data load in parallel (usually already started by AuthGate)
+        sessionBootstrap = SessionBootstrap.getInstance(getApplicationContext());
+        sessionBootstrap.start();
 
         NavHostFragment navHostFragment =
                 (NavHostFragment) getSupportFragmentManager().findFragmentById(R.id.nav_host_main);
@@ -106,14 +119,10 @@ public class MainActivity extends AppCompatActivity {
                 .get(NotificationsViewModel.class);
         setupNotificationsUnreadBadge();
 
-        // WebSocket -> ViewModel (refresh on push)
+        // WebSocket -> ViewModel (pushes applied to its store; REST resync only after a gap)
         NotificationSocketManager
                 .getInstance(getApplicationContext())
-                .setListener(item -> {
-                    if (notificationsViewModel != null) {
-                        notificationsViewModel.loadNotifications();
-                    }
-                });
+                .setListener(notificationsViewModel.getSocketListener());
 
         // Drawer header
         if (navigationView != null) {
@@ -170,8 +179,16 @@ public class MainActivity extends AppCompatActivity {
         // Set up bottom nav listener ONCE
         setupBottomNavNavigation();
 
-        // Load profile and adapt header + bottom nav + home destination + WS
-        loadUserAndApplyRole();
+        // Cached role: open the right home right away, /me only fills in the header
+        String cachedRole = tokenHolder.getCachedRole();
+        if (cachedRole != null) {
+            applyBottomNavForRole(cachedRole);
+            navigateToHomeForRole(cachedRole);
+        }
+
+        // Adapt header + bottom nav + home destination + WS whenever the shared profile changes
+        profileStore.getSnapshot().observe(this, this::onProfileSnapshot);
+        sessionBootstrap.getState().observe(this, this::onBootstrapState);
     }
 
     @Override
@@ -203,55 +220,55 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
-    /**
-     * Public API used by profile/edit fragments after a successful update.
-     * Must NEVER force navigation away from the current screen.
-     */
-    public void refreshUserProfileUi() {
-        loadUserAndApplyRole();
+    private void onProfileSnapshot(@Nullable ProfileSnapshot snapshot) {
+        if (snapshot == null) return;
+        onProfileLoaded(snapshot.getUser());
     }
 
-    private void loadUserAndApplyRole() {
-        if (profileRepository == null) return;
+    private void onBootstrapState(@Nullable BootstrapState state) {
+        // Successful loads arrive through the ProfileStore; only the failure is handled here
+        if (state == null || bootstrapFailureApplied) return;
 
-        profileRepository.loadProfile(new ProfileRepository.ProfileCallback() {
-            @Override
-            public void onSuccess(User user,
-                                  DoctorProfile doctorProfile,
-                                  PatientProfile patientProfile) {
-                if (isFinishing() || isDestroyed()) {
-                    return;
-                }
+        if (state.isUserFailed() && profileStore.peek() == null) {
+            bootstrapFailureApplied = true;
+            onProfileFailed();
+        }
+    }
+
+    private void onProfileLoaded(@Nullable User user) {
+        if (isFinishing() || isDestroyed()) {
+            return;
+        }
 
-                String role = user != null ? user.getRole() : null;
-                applyHeaderForUser(user, role);
-                applyBottomNavForRole(role);
-                navigateToHomeForRole(role);
+        String role = user != null ? user.getRole() : null;
+        applyHeaderForUser(user, role);
+        applyBottomNavForRole(role);
+        navigateToHomeForRole(role);
+
+        // Start notifications WebSocket for this user (once; refreshes keep the same socket)
+        if (user != null && user.getId() != null && user.getId() > 0L
+                && !user.getId().equals(socketUserId)) {
+            socketUserId = user.getId();
+            NotificationSocketManager
+                    .getInstance(getApplicationContext())
+                    .connect(user.getId());
+        }
+    }
 
-                // Start notifications WebSocket for this user
-                if (user != null && user.getId() != null && user.getId() > 0L) {
-                    NotificationSocketManager
-                            .getInstance(getApplicationContext())
-                            .connect(user.getId());
-                }
-            }
+    private void onProfileFailed() {
+        if (isFinishing() || isDestroyed()) {
+            return;
+        }
+        // Fallback: clear header + generic bottom nav. No leaking previous user.
+        applyHeaderForUser(null, null);
+        applyBottomNavForRole(null);
+        navigateToHomeForRole(null);
 
-            @Override
-            public void onError(Throwable throwable, Integer httpCode, String errorBody) {
-                if (isFinishing() || isDestroyed()) {
-                    return;
-                }
-                // Fallback: clear header + generic bottom nav. No leaking previous user.
-                applyHeaderForUser(null, null);
-                applyBottomNavForRole(null);
-                navigateToHomeForRole(null);
-
-                // Also stop WebSocket if any
-                NotificationSocketManager
-                        .getInstance(getApplicationContext())
-                        .disconnect();
-            }
-        });
+        // Also stop WebSocket if any
+        socketUserId = null;
+        NotificationSocketManager
+                .getInstance(getApplicationContext())
+                .disconnect();
     }
 
     private void applyHeaderForUser(@Nullable User user, @Nullable String role) {
@@ -304,7 +321,7 @@ public class MainActivity extends AppCompatActivity {
         if (imageAvatar != null) {
             if (!TextUtils.isEmpty(imageUrl)) {
                 Glide.with(this)
-                        .load(imageUrl)
+                        .load(profileStore.avatarModel(imageUrl))
                         .placeholder(R.drawable.logo)
                         .error(R.drawable.logo)
                         .circleCrop()
@@ -317,7 +334,7 @@ public class MainActivity extends AppCompatActivity {
         if (drawerAvatar != null) {
             if (!TextUtils.isEmpty(imageUrl)) {
                 Glide.with(this)
-                        .load(imageUrl)
+                        .load(profileStore.avatarModel(imageUrl))
                         .placeholder(R.drawable.logo)
                         .error(R.drawable.logo)
                         .circleCrop()
@@ -533,8 +550,13 @@ public class MainActivity extends AppCompatActivity {
                 .getInstance(getApplicationContext())
                 .disconnect();
 
-        if (authLocalDataSource != null) {
-            authLocalDataSource.clearTokens();
+        if (tokenHolder != null) {
+            tokenHolder.clearTokens();
+        }
+        socketUserId = null;
+        if (sessionBootstrap != null) {
+            // Also clears the shared ProfileStore snapshot
+            sessionBootstrap.reset();
         }
 
         Intent intent = new Intent(this, AuthGateActivity.class);
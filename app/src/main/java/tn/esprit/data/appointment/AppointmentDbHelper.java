@@ -0,0 +1,61 @@
+package tn.esprit.data.appointment;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+/**
+ * SQLite schema of the local appointment cache (see {@link AppointmentLocalStore}).
+ *
+ *  - appointments: one row per (scope, id); the full Appointment is kept as JSON in
+ *    "payload", start_at / status are copied out so they can be indexed and queried.
+ *  - sync_state:   per scope, when the last full and the last delta sync happened.
+ */
+class AppointmentDbHelper extends SQLiteOpenHelper {
+
+    private static final String DB_NAME = "appointments.db";
+    private static final int DB_VERSION = 1;
+
+    static final String TABLE_APPOINTMENTS = "appointments";
+    static final String COL_SCOPE = "scope";
+    static final String COL_ID = "id";
+    static final String COL_START_AT = "start_at";
+    static final String COL_STATUS = "status";
+    static final String COL_PAYLOAD = "payload";
+
+    static final String TABLE_SYNC_STATE = "sync_state";
+    static final String COL_FULL_SYNCED_AT = "full_synced_at";
+    static final String COL_LAST_SYNCED_AT = "last_synced_at";
+
+    AppointmentDbHelper(Context context) {
+        super(context, DB_NAME, null, DB_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_APPOINTMENTS + " ("
+                + COL_SCOPE + " TEXT NOT NULL, "
+                + COL_ID + " INTEGER NOT NULL, "
+                + COL_START_AT + " TEXT, "
+                + COL_STATUS + " TEXT, "
+                + COL_PAYLOAD + " TEXT NOT NULL, "
+                + "PRIMARY KEY (" + COL_SCOPE + ", " + COL_ID + "))");
+        db.execSQL("CREATE INDEX idx_appointments_scope_start ON " + TABLE_APPOINTMENTS
+                + " (" + COL_SCOPE + ", " + COL_START_AT + ")");
+        db.execSQL("CREATE INDEX idx_appointments_scope_status ON " + TABLE_APPOINTMENTS
+                + " (" + COL_SCOPE + ", " + COL_STATUS + ")");
+
+        db.execSQL("CREATE TABLE " + TABLE_SYNC_STATE + " ("
+                + COL_SCOPE + " TEXT PRIMARY KEY, "
+                + COL_FULL_SYNCED_AT + " INTEGER NOT NULL DEFAULT 0, "
+                + COL_LAST_SYNCED_AT + " INTEGER NOT NULL DEFAULT 0)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // Pure cache: rebuild from the server
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_APPOINTMENTS);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_SYNC_STATE);
+        onCreate(db);
+    }
+}
@@ -0,0 +1,291 @@
+package tn.esprit.data.appointment;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.gson.Gson;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import tn.esprit.data.remote.json.GsonProvider;
+import tn.esprit.domain.appointment.Appointment;
+
+/**
+ * On-device copy of the user's appointments, so the appointment screens can render
+ * immediately and only fetch what may have changed since the previous sync.
+ *
+ * Rows are kept per scope ({@link #SCOPE_DOCTOR} for the doctor's agenda,
+ * {@link #SCOPE_PATIENT} for the patient's own bookings). All database work runs on one
+ * background thread; callbacks are invoked on that thread (callers post to LiveData).
+ */
+public final class AppointmentLocalStore {
+
+    private static final String TAG = "AppointmentLocalStore";
+
+    public static final String SCOPE_DOCTOR = "DOCTOR";
+    public static final String SCOPE_PATIENT = "PATIENT";
+
+    // Past appointments still change (e.g. COMPLETED); re-download everything this often
+    private static final long FULL_SYNC_INTERVAL_MILLIS = 24L * 60L * 60L * 1000L;
+
+    private static AppointmentLocalStore instance;
+
+    public static synchronized AppointmentLocalStore getInstance(@NonNull Context context) {
+        if (instance == null) {
+            instance = new AppointmentLocalStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    public interface ReadCallback {
+        void onRead(@NonNull List<Appointment> items, @NonNull SyncState state);
+    }
+
+    /**
+     * When a scope was last synced (epoch millis, 0 = never).
+     */
+    public static final class SyncState {
+
+        private final long fullSyncedAt;
+        private final long lastSyncedAt;
+
+        SyncState(long fullSyncedAt, long lastSyncedAt) {
+            this.fullSyncedAt = fullSyncedAt;
+            this.lastSyncedAt = lastSyncedAt;
+        }
+
+        public boolean hasSynced() {
+            return fullSyncedAt > 0L;
+        }
+
+        public long getLastSyncedAt() {
+            return lastSyncedAt;
+        }
+
+        /**
+         * Lower bound ("from") of the next delta sync, or null when a full sync is due.
+         *
+         * The window starts one day before the day of the previous sync: everything that
+         * could have been booked, moved or changed status since then starts after it.
+         */
+        @Nullable
+        public String deltaFromIso(long nowMillis) {
+            if (!hasSynced() || nowMillis - fullSyncedAt > FULL_SYNC_INTERVAL_MILLIS) {
+                return null;
+            }
+            Calendar cal = Calendar.getInstance();
+            cal.setTimeInMillis(Math.min(lastSyncedAt, nowMillis));
+            cal.add(Calendar.DAY_OF_MONTH, -1);
+            cal.set(Calendar.HOUR_OF_DAY, 0);
+            cal.set(Calendar.MINUTE, 0);
+            cal.set(Calendar.SECOND, 0);
+            cal.set(Calendar.MILLISECOND, 0);
+            return new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss", Locale.US).format(cal.getTime());
+        }
+    }
+
+    private final AppointmentDbHelper dbHelper;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Gson gson = GsonProvider.get();
+
+    private AppointmentLocalStore(Context appContext) {
+        this.dbHelper = new AppointmentDbHelper(appContext);
+    }
+
+    // -------------------------------------------------------------------------
+    // Reads
+    // -------------------------------------------------------------------------
+
+    /**
+     * All cached appointments of the scope, ordered by start time, plus its sync state.
+     */
+    public void read(@NonNull String scope, @NonNull ReadCallback callback) {
+        executor.execute(() -> {
+            List<Appointment> items;
+            SyncState state;
+            try {
+                SQLiteDatabase db = dbHelper.getReadableDatabase();
+                items = queryAll(db, scope);
+                state = querySyncState(db, scope);
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Reading cached appointments failed", e);
+                items = new ArrayList<>();
+                state = new SyncState(0L, 0L);
+            }
+            callback.onRead(items, state);
+        });
+    }
+
+    // -------------------------------------------------------------------------
+    // Writes
+    // -------------------------------------------------------------------------
+
+    /**
+     * Stores a server answer for the window [fromIso, ∞) (everything when fromIso is null):
+     * cached rows of the window that the server no longer returns are removed.
+     * The callback, if any, then receives the whole merged scope.
+     *
+     * Placeholders (negative ids: bookings still in the outbox) are not the server's to
+     * remove; only those listed in {@code stalePlaceholderIds} are dropped.
+     */
+    public void applyWindow(@NonNull String scope,
+                            @Nullable String fromIso,
+                            @NonNull List<Appointment> items,
+                            @NonNull Collection<Long> stalePlaceholderIds,
+                            long syncedAtMillis,
+                            @Nullable ReadCallback callback) {
+        executor.execute(() -> {
+            List<Appointment> merged;
+            SyncState state;
+            try {
+                SQLiteDatabase db = dbHelper.getWritableDatabase();
+                db.beginTransaction();
+                try {
+                    String serverRows = AppointmentDbHelper.COL_SCOPE + " = ? AND "
+                            + AppointmentDbHelper.COL_ID + " >= 0";
+                    if (fromIso == null) {
+                        db.delete(AppointmentDbHelper.TABLE_APPOINTMENTS, serverRows,
+                                new String[]{scope});
+                    } else {
+                        db.delete(AppointmentDbHelper.TABLE_APPOINTMENTS,
+                                serverRows + " AND " + AppointmentDbHelper.COL_START_AT + " >= ?",
+                                new String[]{scope, fromIso});
+                    }
+                    for (Long placeholderId : stalePlaceholderIds) {
+                        deleteRow(db, scope, placeholderId);
+                    }
+                    for (Appointment item : items) {
+                        insertOrReplace(db, scope, item);
+                    }
+                    saveSyncState(db, scope, fromIso == null, syncedAtMillis);
+                    db.setTransactionSuccessful();
+                } finally {
+                    db.endTransaction();
+                }
+                merged = queryAll(db, scope);
+                state = querySyncState(db, scope);
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Saving appointments failed", e);
+                merged = new ArrayList<>(items);
+                state = new SyncState(0L, 0L);
+            }
+            if (callback != null) {
+                callback.onRead(merged, state);
+            }
+        });
+    }
+
+    /**
+     * Single-row update after a local mutation (status change, reschedule).
+     */
+    public void upsert(@NonNull String scope, @NonNull Appointment appointment) {
+        executor.execute(() -> {
+            try {
+                insertOrReplace(dbHelper.getWritableDatabase(), scope, appointment);
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Updating cached appointment failed", e);
+            }
+        });
+    }
+
+    public void delete(@NonNull String scope, long appointmentId) {
+        executor.execute(() -> {
+            try {
+                deleteRow(dbHelper.getWritableDatabase(), scope, appointmentId);
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Deleting cached appointment failed", e);
+            }
+        });
+    }
+
+    /**
+     * Logout: forget every scope.
+     */
+    public void clear() {
+        executor.execute(() -> {
+            try {
+                SQLiteDatabase db = dbHelper.getWritableDatabase();
+                db.delete(AppointmentDbHelper.TABLE_APPOINTMENTS, null, null);
+                db.delete(AppointmentDbHelper.TABLE_SYNC_STATE, null, null);
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Clearing cached appointments failed", e);
+            }
+        });
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers (executor thread only)
+    // -------------------------------------------------------------------------
+
+    @NonNull
+    private List<Appointment> queryAll(SQLiteDatabase db, String scope) {
+        List<Appointment> items = new ArrayList<>();
+        try (Cursor cursor = db.query(AppointmentDbHelper.TABLE_APPOINTMENTS,
+                new String[]{AppointmentDbHelper.COL_PAYLOAD},
+                AppointmentDbHelper.COL_SCOPE + " = ?",
+                new String[]{scope},
+                null, null,
+                AppointmentDbHelper.COL_START_AT + " ASC")) {
+            while (cursor.moveToNext()) {
+                Appointment item = gson.fromJson(cursor.getString(0), Appointment.class);
+                if (item != null) items.add(item);
+            }
+        }
+        return items;
+    }
+
+    @NonNull
+    private SyncState querySyncState(SQLiteDatabase db, String scope) {
+        try (Cursor cursor = db.query(AppointmentDbHelper.TABLE_SYNC_STATE,
+                new String[]{AppointmentDbHelper.COL_FULL_SYNCED_AT, AppointmentDbHelper.COL_LAST_SYNCED_AT},
+                AppointmentDbHelper.COL_SCOPE + " = ?",
+                new String[]{scope},
+                null, null, null)) {
+            if (cursor.moveToFirst()) {
+                return new SyncState(cursor.getLong(0), cursor.getLong(1));
+            }
+        }
+        return new SyncState(0L, 0L);
+    }
+
+    private void insertOrReplace(SQLiteDatabase db, String scope, Appointment item) {
+        if (item == null || item.getId() == null) return;
+        ContentValues values = new ContentValues();
+        values.put(AppointmentDbHelper.COL_SCOPE, scope);
+        values.put(AppointmentDbHelper.COL_ID, item.getId());
+        values.put(AppointmentDbHelper.COL_START_AT, item.getStartAt());
+        values.put(AppointmentDbHelper.COL_STATUS, item.getStatus());
+        values.put(AppointmentDbHelper.COL_PAYLOAD, gson.toJson(item));
+        db.insertWithOnConflict(AppointmentDbHelper.TABLE_APPOINTMENTS, null, values,
+                SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    private void deleteRow(SQLiteDatabase db, String scope, long appointmentId) {
+        db.delete(AppointmentDbHelper.TABLE_APPOINTMENTS,
+                AppointmentDbHelper.COL_SCOPE + " = ? AND " + AppointmentDbHelper.COL_ID + " = ?",
+                new String[]{scope, String.valueOf(appointmentId)});
+    }
+
+    private void saveSyncState(SQLiteDatabase db, String scope, boolean full, long syncedAtMillis) {
+        SyncState previous = querySyncState(db, scope);
+        ContentValues values = new ContentValues();
+        values.put(AppointmentDbHelper.COL_SCOPE, scope);
+        values.put(AppointmentDbHelper.COL_FULL_SYNCED_AT, full ? syncedAtMillis : previous.fullSyncedAt);
+        values.put(AppointmentDbHelper.COL_LAST_SYNCED_AT, syncedAtMillis);
+        db.insertWithOnConflict(AppointmentDbHelper.TABLE_SYNC_STATE, null, values,
+                SQLiteDatabase.CONFLICT_REPLACE);
+    }
+}
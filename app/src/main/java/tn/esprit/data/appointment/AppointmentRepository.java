@@ -4,24 +4,33 @@ import android.content.Context;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
-import tn.esprit.data.auth.AuthLocalDataSource;
+import tn.esprit.data.auth.AuthTokenHolder;
+import tn.esprit.data.outbox.Outbox;
 import tn.esprit.data.remote.ApiClient;
 import tn.esprit.data.remote.appointment.AppointmentApiService;
 import tn.esprit.data.remote.common.ListResponseDto;
+import tn.esprit.data.remote.http.DeferredRequest;
+import tn.esprit.data.remote.http.RequestCoalescer;
+import tn.esprit.data.remote.http.RequestHandle;
 import tn.esprit.domain.appointment.Appointment;
 import tn.esprit.domain.appointment.AppointmentCreateRequest;
 import tn.esprit.domain.appointment.AppointmentStatusUpdateRequest;
 import tn.esprit.domain.appointment.WeeklyCalendarResponse;
-import tn.esprit.domain.auth.AuthTokens;
 import tn.esprit.domain.doctor.DoctorHomeStats;
 
 /**
@@ -29,13 +38,27 @@ import tn.esprit.domain.doctor.DoctorHomeStats;
  */
 public class AppointmentRepository {
 
-    private final AuthLocalDataSource authLocalDataSource;
+    private final AuthTokenHolder tokenHolder;
     private final AppointmentApiService appointmentApiService;
+    private final AppointmentLocalStore localStore;
+    private final Outbox outbox;
 
     public AppointmentRepository(@NonNull Context context) {
-        Context appContext = context.getApplicationContext();
-        this.authLocalDataSource = new AuthLocalDataSource(appContext);
-        this.appointmentApiService = ApiClient.createService(AppointmentApiService.class);
+        this(AuthTokenHolder.getInstance(context.getApplicationContext()),
+                ApiClient.createService(AppointmentApiService.class),
+                AppointmentLocalStore.getInstance(context.getApplicationContext()),
+                Outbox.getInstance(context.getApplicationContext()));
+    }
+
+    @VisibleForTesting
+    AppointmentRepository(@NonNull AuthTokenHolder tokenHolder,
+                          @NonNull AppointmentApiService appointmentApiService,
+                          @NonNull AppointmentLocalStore localStore,
+                          @NonNull Outbox outbox) {
+        this.tokenHolder = tokenHolder;
+        this.appointmentApiService = appointmentApiService;
+        this.localStore = localStore;
+        this.outbox = outbox;
     }
 
     // ------------------------------------------------------------------------
@@ -50,9 +73,30 @@ public class AppointmentRepository {
                      @Nullable String errorBody);
     }
 
+    /**
+     * Offline-first list: {@link #onCached} first (only if the scope was synced before),
+     * then {@link #onSynced} with the merged list or {@link #onError}. Called on a
+     * background thread.
+     */
+    public interface SyncAppointmentsCallback {
+        void onCached(@NonNull List<Appointment> list);
+
+        void onSynced(@NonNull List<Appointment> list);
+
+        void onError(@Nullable Throwable throwable,
+                     @Nullable Integer httpCode,
+                     @Nullable String errorBody);
+    }
+
     public interface CreateAppointmentCallback {
         void onSuccess(@NonNull Appointment appointment);
 
+        /**
+         * Offline or server unavailable: the booking is stored and will be sent later.
+         */
+        default void onQueued() {
+        }
+
         void onError(@Nullable Throwable throwable,
                      @Nullable Integer httpCode,
                      @Nullable String errorBody);
@@ -69,6 +113,14 @@ public class AppointmentRepository {
     public interface UpdateStatusCallback {
         void onSuccess(@NonNull Appointment updated);
 
+        /**
+         * Offline or server unavailable: the decision is stored and will be sent later.
+         *
+         * @param pending copy of the appointment with the new status, as now cached
+         */
+        default void onQueued(@NonNull Appointment pending) {
+        }
+
         void onError(@Nullable Throwable throwable,
                      @Nullable Integer httpCode,
                      @Nullable String errorBody);
@@ -100,15 +152,13 @@ public class AppointmentRepository {
      * @param fromIso ISO-8601 date-time string or null
      * @param toIso   ISO-8601 date-time string or null
      */
-    public void getMyAppointments(@Nullable String fromIso,
-                                  @Nullable String toIso,
-                                  @NonNull LoadAppointmentsCallback callback) {
-        String authHeader = buildAuthHeaderIfAvailable();
-
+    public RequestHandle getMyAppointments(@Nullable String fromIso,
+                                           @Nullable String toIso,
+                                           @NonNull LoadAppointmentsCallback callback) {
         Call<ListResponseDto<Appointment>> call =
-                appointmentApiService.getMyAppointments(authHeader, fromIso, toIso);
+                appointmentApiService.getMyAppointments(fromIso, toIso);
 
-        call.enqueue(new Callback<ListResponseDto<Appointment>>() {
+        return RequestCoalescer.enqueue(call, new Callback<ListResponseDto<Appointment>>() {
             @Override
             public void onResponse(
                     @NonNull Call<ListResponseDto<Appointment>> call,
@@ -146,15 +196,13 @@ public class AppointmentRepository {
      * @param fromIso ISO-8601 date-time string or null
      * @param toIso   ISO-8601 date-time string or null
      */
-    public void getDoctorAppointments(@Nullable String fromIso,
-                                      @Nullable String toIso,
-                                      @NonNull LoadAppointmentsCallback callback) {
-        String authHeader = buildAuthHeaderIfAvailable();
-
+    public RequestHandle getDoctorAppointments(@Nullable String fromIso,
+                                               @Nullable String toIso,
+                                               @NonNull LoadAppointmentsCallback callback) {
         Call<ListResponseDto<Appointment>> call =
-                appointmentApiService.getDoctorAppointments(authHeader, fromIso, toIso);
+                appointmentApiService.getDoctorAppointments(fromIso, toIso);
 
-        call.enqueue(new Callback<ListResponseDto<Appointment>>() {
+        return RequestCoalescer.enqueue(call, new Callback<ListResponseDto<Appointment>>() {
             @Override
             public void onResponse(
                     @NonNull Call<ListResponseDto<Appointment>> call,
@@ -182,6 +230,85 @@ public class AppointmentRepository {
         });
     }
 
+    // ------------------------------------------------------------------------
+    // Offline-first lists (local DB + delta sync)
+    // ------------------------------------------------------------------------
+
+    /**
+     * Current doctor's appointments from the local DB, then refreshed from the server.
+     *
+     * Instead of downloading the whole history each time, only the window that can have
+     * changed since the previous sync is requested (see
+     * {@link AppointmentLocalStore.SyncState#deltaFromIso(long)}); a full download happens
+     * on first use and once a day.
+     */
+    public RequestHandle syncDoctorAppointments(@NonNull SyncAppointmentsCallback callback) {
+        return syncAppointments(AppointmentLocalStore.SCOPE_DOCTOR, callback);
+    }
+
+    /**
+     * Same as {@link #syncDoctorAppointments} for the current patient's bookings.
+     */
+    public RequestHandle syncMyAppointments(@NonNull SyncAppointmentsCallback callback) {
+        return syncAppointments(AppointmentLocalStore.SCOPE_PATIENT, callback);
+    }
+
+    /**
+     * Writes still in the outbox are not on the server yet, so the server's answer alone
+     * would undo them: queued status decisions are applied again on top of it, and booking
+     * placeholders are kept until their booking has left the outbox.
+     */
+    private RequestHandle syncAppointments(@NonNull String scope,
+                                           @NonNull SyncAppointmentsCallback callback) {
+        // The DB read comes first, the network call is attached once started
+        DeferredRequest run = new DeferredRequest();
+        boolean doctor = AppointmentLocalStore.SCOPE_DOCTOR.equals(scope);
+
+        localStore.read(scope, (cached, state) -> {
+            if (run.isCanceled()) return;
+            if (state.hasSynced()) {
+                callback.onCached(cached);
+            }
+
+            long startedAt = System.currentTimeMillis();
+            String fromIso = state.deltaFromIso(startedAt);
+            LoadAppointmentsCallback networkCallback = new LoadAppointmentsCallback() {
+                @Override
+                public void onSuccess(@NonNull List<Appointment> list) {
+                    outbox.getPendingOperations(doctor
+                            ? Outbox.KIND_UPDATE_APPOINTMENT_STATUS
+                            : Outbox.KIND_CREATE_APPOINTMENT, pending -> {
+                        if (run.isCanceled()) return;
+                        List<Appointment> items = doctor ? withPendingStatuses(list, pending) : list;
+                        List<Long> stale = doctor
+                                ? Collections.emptyList()
+                                : stalePlaceholders(cached, pending);
+                        localStore.applyWindow(scope, fromIso, items, stale, startedAt,
+                                (merged, newState) -> {
+                                    if (run.finish()) {
+                                        callback.onSynced(merged);
+                                    }
+                                });
+                    });
+                }
+
+                @Override
+                public void onError(@Nullable Throwable throwable,
+                                    @Nullable Integer httpCode,
+                                    @Nullable String errorBody) {
+                    if (run.finish()) {
+                        callback.onError(throwable, httpCode, errorBody);
+                    }
+                }
+            };
+
+            run.attach(doctor
+                    ? getDoctorAppointments(fromIso, null, networkCallback)
+                    : getMyAppointments(fromIso, null, networkCallback));
+        });
+        return run;
+    }
+
     // ------------------------------------------------------------------------
     // Doctor: Weekly calendar (for patient booking)
     // ------------------------------------------------------------------------
@@ -192,15 +319,13 @@ public class AppointmentRepository {
      * @param doctorId    doctor id
      * @param weekStartIso optional ISO date (yyyy-MM-dd) for week start, or null for current week
      */
-    public void getDoctorWeeklyCalendar(long doctorId,
-                                        @Nullable String weekStartIso,
-                                        @NonNull WeeklyCalendarCallback callback) {
-        String authHeader = buildAuthHeaderIfAvailable();
-
+    public RequestHandle getDoctorWeeklyCalendar(long doctorId,
+                                                 @Nullable String weekStartIso,
+                                                 @NonNull WeeklyCalendarCallback callback) {
         Call<WeeklyCalendarResponse> call =
-                appointmentApiService.getDoctorWeeklyCalendar(authHeader, doctorId, weekStartIso);
+                appointmentApiService.getDoctorWeeklyCalendar(doctorId, weekStartIso);
 
-        call.enqueue(new Callback<WeeklyCalendarResponse>() {
+        return RequestCoalescer.enqueue(call, new Callback<WeeklyCalendarResponse>() {
             @Override
             public void onResponse(
                     @NonNull Call<WeeklyCalendarResponse> call,
@@ -228,38 +353,67 @@ public class AppointmentRepository {
     // Create / cancel / status / reschedule
     // ------------------------------------------------------------------------
 
-    public void createAppointment(@NonNull AppointmentCreateRequest request,
-                                  @NonNull CreateAppointmentCallback callback) {
-        String authHeader = buildAuthHeaderIfAvailable();
+    /**
+     * Goes through the {@link Outbox}: offline, the booking is kept and sent later
+     * ({@link CreateAppointmentCallback#onQueued()}). Meanwhile it is shown in the cached
+     * patient list as a pending appointment with a negative id (minus the outbox id),
+     * replaced by the created one once sent and removed if the server refuses it. Syncs
+     * keep it while the booking is queued, and drop one whose booking left the outbox with
+     * nobody listening (e.g. sent after a process restart).
+     */
+    public RequestHandle createAppointment(@NonNull AppointmentCreateRequest request,
+                                           @NonNull CreateAppointmentCallback callback) {
+        if (!tokenHolder.isSignedIn()) {
+            callback.onError(null, 401, "Not authenticated");
+            return RequestHandle.NONE;
+        }
+
+        return outbox.enqueue(Outbox.KIND_CREATE_APPOINTMENT, null, request, new Outbox.Callback() {
+            // Id of the local placeholder, 0 while there is none
+            private long placeholderId;
 
-        Call<Appointment> call = appointmentApiService.createAppointment(authHeader, request);
-        call.enqueue(new Callback<Appointment>() {
             @Override
-            public void onResponse(
-                    @NonNull Call<Appointment> call,
-                    @NonNull Response<Appointment> response
-            ) {
-                Appointment body = response.body();
-                if (!response.isSuccessful() || body == null) {
-                    callback.onError(null, response.code(), safeErrorBody(response.errorBody()));
+            public void onQueued(long operationId) {
+                placeholderId = -operationId;
+                localStore.upsert(AppointmentLocalStore.SCOPE_PATIENT,
+                        placeholderOf(placeholderId, request));
+                callback.onQueued();
+            }
+
+            @Override
+            public void onSuccess(@Nullable Object body) {
+                dropPlaceholder();
+                if (!(body instanceof Appointment)) {
+                    callback.onError(null, null, null);
                     return;
                 }
-                callback.onSuccess(body);
+                Appointment created = (Appointment) body;
+                if (created.getId() != null) {
+                    localStore.upsert(AppointmentLocalStore.SCOPE_PATIENT, created);
+                }
+                callback.onSuccess(created);
             }
 
             @Override
-            public void onFailure(@NonNull Call<Appointment> call, @NonNull Throwable t) {
-                callback.onError(t, null, null);
+            public void onError(@Nullable Throwable throwable,
+                                @Nullable Integer httpCode,
+                                @Nullable String errorBody) {
+                dropPlaceholder();
+                callback.onError(throwable, httpCode, errorBody);
+            }
+
+            private void dropPlaceholder() {
+                if (placeholderId != 0L) {
+                    localStore.delete(AppointmentLocalStore.SCOPE_PATIENT, placeholderId);
+                }
             }
         });
     }
 
-    public void cancelAppointment(long id,
-                                  @NonNull CancelAppointmentCallback callback) {
-        String authHeader = buildAuthHeaderIfAvailable();
-
-        Call<Void> call = appointmentApiService.cancelAppointment(authHeader, id);
-        call.enqueue(new Callback<Void>() {
+    public RequestHandle cancelAppointment(long id,
+                                           @NonNull CancelAppointmentCallback callback) {
+        Call<Void> call = appointmentApiService.cancelAppointment(id);
+        return RequestHandle.enqueue(call, new Callback<Void>() {
             @Override
             public void onResponse(
                     @NonNull Call<Void> call,
@@ -279,40 +433,57 @@ public class AppointmentRepository {
         });
     }
 
-    public void updateAppointmentStatus(long id,
-                                        @NonNull AppointmentStatusUpdateRequest request,
-                                        @NonNull UpdateStatusCallback callback) {
-        String authHeader = buildAuthHeaderIfAvailable();
+    /**
+     * Goes through the {@link Outbox}; a newer decision on the same appointment replaces
+     * a queued one. While queued, a copy of the appointment with the new status is cached
+     * (the given instance is left untouched).
+     */
+    public RequestHandle updateAppointmentStatus(@NonNull Appointment appointment,
+                                                 @NonNull AppointmentStatusUpdateRequest request,
+                                                 @NonNull UpdateStatusCallback callback) {
+        if (!tokenHolder.isSignedIn()) {
+            callback.onError(null, 401, "Not authenticated");
+            return RequestHandle.NONE;
+        }
+        Long id = appointment.getId();
+        if (id == null) {
+            callback.onError(null, null, "Appointment without id");
+            return RequestHandle.NONE;
+        }
 
-        Call<Appointment> call = appointmentApiService.updateAppointmentStatus(authHeader, id, request);
-        call.enqueue(new Callback<Appointment>() {
+        return outbox.enqueue(Outbox.KIND_UPDATE_APPOINTMENT_STATUS, id, request, new Outbox.Callback() {
             @Override
-            public void onResponse(
-                    @NonNull Call<Appointment> call,
-                    @NonNull Response<Appointment> response
-            ) {
-                Appointment body = response.body();
-                if (!response.isSuccessful() || body == null) {
-                    callback.onError(null, response.code(), safeErrorBody(response.errorBody()));
+            public void onQueued(long operationId) {
+                Appointment pending = withStatus(appointment, request.getStatus());
+                localStore.upsert(AppointmentLocalStore.SCOPE_DOCTOR, pending);
+                callback.onQueued(pending);
+            }
+
+            @Override
+            public void onSuccess(@Nullable Object body) {
+                if (!(body instanceof Appointment)) {
+                    callback.onError(null, null, null);
                     return;
                 }
-                callback.onSuccess(body);
+                Appointment updated = (Appointment) body;
+                localStore.upsert(AppointmentLocalStore.SCOPE_DOCTOR, updated);
+                callback.onSuccess(updated);
             }
 
             @Override
-            public void onFailure(@NonNull Call<Appointment> call, @NonNull Throwable t) {
-                callback.onError(t, null, null);
+            public void onError(@Nullable Throwable throwable,
+                                @Nullable Integer httpCode,
+                                @Nullable String errorBody) {
+                callback.onError(throwable, httpCode, errorBody);
             }
         });
     }
 
-    public void rescheduleAppointment(long id,
-                                      @NonNull AppointmentCreateRequest request,
-                                      @NonNull RescheduleAppointmentCallback callback) {
-        String authHeader = buildAuthHeaderIfAvailable();
-
-        Call<Appointment> call = appointmentApiService.rescheduleAppointment(authHeader, id, request);
-        call.enqueue(new Callback<Appointment>() {
+    public RequestHandle rescheduleAppointment(long id,
+                                               @NonNull AppointmentCreateRequest request,
+                                               @NonNull RescheduleAppointmentCallback callback) {
+        Call<Appointment> call = appointmentApiService.rescheduleAppointment(id, request);
+        return RequestHandle.enqueue(call, new Callback<Appointment>() {
             @Override
             public void onResponse(
                     @NonNull Call<Appointment> call,
@@ -337,13 +508,84 @@ public class AppointmentRepository {
     // Helpers
     // ------------------------------------------------------------------------
 
-    @Nullable
-    private String buildAuthHeaderIfAvailable() {
-        AuthTokens tokens = authLocalDataSource.getTokens();
-        if (tokens == null || tokens.getAccessToken() == null) {
-            return null;
+    /**
+     * What the patient list shows for a booking still in the outbox.
+     */
+    @NonNull
+    private static Appointment placeholderOf(long placeholderId,
+                                             @NonNull AppointmentCreateRequest request) {
+        Appointment placeholder = new Appointment();
+        placeholder.setId(placeholderId);
+        placeholder.setDoctorId(request.getDoctorId());
+        placeholder.setStartAt(request.getStartAt());
+        placeholder.setEndAt(request.getEndAt());
+        placeholder.setReason(request.getReason());
+        placeholder.setTeleconsultation(request.getTeleconsultation());
+        placeholder.setStatus("PENDING");
+        return placeholder;
+    }
+
+    /**
+     * Server list with the status decisions still in the outbox applied, on copies.
+     */
+    @NonNull
+    private static List<Appointment> withPendingStatuses(@NonNull List<Appointment> list,
+                                                         @NonNull List<Outbox.PendingOperation> pending) {
+        if (pending.isEmpty()) return list;
+        Map<Long, String> statuses = new HashMap<>();
+        for (Outbox.PendingOperation op : pending) {
+            AppointmentStatusUpdateRequest request = op.payloadAs(AppointmentStatusUpdateRequest.class);
+            if (op.targetId != null && request != null && request.getStatus() != null) {
+                statuses.put(op.targetId, request.getStatus());
+            }
+        }
+        List<Appointment> result = new ArrayList<>(list.size());
+        for (Appointment item : list) {
+            String status = item != null && item.getId() != null ? statuses.get(item.getId()) : null;
+            result.add(status != null ? withStatus(item, status) : item);
+        }
+        return result;
+    }
+
+    /**
+     * Placeholders cached when the sync started whose booking is no longer queued. One
+     * added during the sync is never listed, so it cannot be dropped by mistake.
+     */
+    @NonNull
+    private static List<Long> stalePlaceholders(@NonNull List<Appointment> cached,
+                                                @NonNull List<Outbox.PendingOperation> pending) {
+        Set<Long> queued = new HashSet<>();
+        for (Outbox.PendingOperation op : pending) {
+            queued.add(-op.operationId);
+        }
+        List<Long> stale = new ArrayList<>();
+        for (Appointment item : cached) {
+            Long id = item.getId();
+            if (id != null && id < 0L && !queued.contains(id)) {
+                stale.add(id);
+            }
         }
-        return "Bearer " + tokens.getAccessToken();
+        return stale;
+    }
+
+    @NonNull
+    private static Appointment withStatus(@NonNull Appointment source, @Nullable String status) {
+        Appointment copy = new Appointment();
+        copy.setId(source.getId());
+        copy.setDoctorId(source.getDoctorId());
+        copy.setDoctorUserId(source.getDoctorUserId());
+        copy.setDoctorFirstName(source.getDoctorFirstName());
+        copy.setDoctorLastName(source.getDoctorLastName());
+        copy.setPatientId(source.getPatientId());
+        copy.setPatientUserId(source.getPatientUserId());
+        copy.setPatientFirstName(source.getPatientFirstName());
+        copy.setPatientLastName(source.getPatientLastName());
+        copy.setStartAt(source.getStartAt());
+        copy.setEndAt(source.getEndAt());
+        copy.setStatus(status);
+        copy.setReason(source.getReason());
+        copy.setTeleconsultation(source.getTeleconsultation());
+        return copy;
     }
 
     @Nullable
@@ -362,11 +604,10 @@ public class AppointmentRepository {
                      @Nullable String errorBody);
     }
 
-    public void getDoctorHomeStats(@NonNull HomeStatsCallback callback) {
-        String authHeader = buildAuthHeaderIfAvailable();
-        Call<DoctorHomeStats> call = appointmentApiService.getDoctorHomeStats(authHeader);
+    public RequestHandle getDoctorHomeStats(@NonNull HomeStatsCallback callback) {
+        Call<DoctorHomeStats> call = appointmentApiService.getDoctorHomeStats();
 
-        call.enqueue(new Callback<DoctorHomeStats>() {
+        return RequestCoalescer.enqueue(call, new Callback<DoctorHomeStats>() {
             @Override
             public void onResponse(@NonNull Call<DoctorHomeStats> call,
                                    @NonNull Response<DoctorHomeStats> response) {
@@ -13,10 +13,10 @@ import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
-import tn.esprit.data.auth.AuthLocalDataSource;
 import tn.esprit.data.remote.ApiClient;
 import tn.esprit.data.remote.appointment.DoctorScheduleApiService;
 import tn.esprit.data.remote.common.ListResponseDto;
+import tn.esprit.data.remote.http.RequestHandle;
 import tn.esprit.domain.appointment.DoctorSchedule;
 
 /**
@@ -28,12 +28,9 @@ import tn.esprit.domain.appointment.DoctorSchedule;
  */
 public class DoctorScheduleRepository {
 
-    private final AuthLocalDataSource authLocalDataSource;
     private final DoctorScheduleApiService apiService;
 
     public DoctorScheduleRepository(@NonNull Context context) {
-        Context appContext = context.getApplicationContext();
-        this.authLocalDataSource = new AuthLocalDataSource(appContext);
         this.apiService = ApiClient.createService(DoctorScheduleApiService.class);
     }
 
@@ -64,13 +61,11 @@ public class DoctorScheduleRepository {
     /**
      * GET /api/doctors/me/schedule
      */
-    public void getMySchedule(@NonNull LoadScheduleCallback callback) {
-        String authHeader = buildAuthHeaderIfAvailable();
-
+    public RequestHandle getMySchedule(@NonNull LoadScheduleCallback callback) {
         Call<ListResponseDto<DoctorSchedule>> call =
-                apiService.getMySchedule(authHeader);
+                apiService.getMySchedule();
 
-        call.enqueue(new Callback<ListResponseDto<DoctorSchedule>>() {
+        return RequestHandle.enqueue(call, new Callback<ListResponseDto<DoctorSchedule>>() {
             @Override
             public void onResponse(@NonNull Call<ListResponseDto<DoctorSchedule>> call,
                                    @NonNull Response<ListResponseDto<DoctorSchedule>> response) {
@@ -101,14 +96,12 @@ public class DoctorScheduleRepository {
      *
      * Sends the full weekly schedule (only active days, as built in DoctorScheduleEditFragment).
      */
-    public void updateMySchedule(@NonNull List<DoctorSchedule> entries,
-                                 @NonNull ScheduleCallback callback) {
-        String authHeader = buildAuthHeaderIfAvailable();
-
+    public RequestHandle updateMySchedule(@NonNull List<DoctorSchedule> entries,
+                                          @NonNull ScheduleCallback callback) {
         Call<ListResponseDto<DoctorSchedule>> call =
-                apiService.updateMySchedule(authHeader, entries);
+                apiService.updateMySchedule(entries);
 
-        call.enqueue(new Callback<ListResponseDto<DoctorSchedule>>() {
+        return RequestHandle.enqueue(call, new Callback<ListResponseDto<DoctorSchedule>>() {
             @Override
             public void onResponse(@NonNull Call<ListResponseDto<DoctorSchedule>> call,
                                    @NonNull Response<ListResponseDto<DoctorSchedule>> response) {
@@ -138,15 +131,6 @@ public class DoctorScheduleRepository {
     // Helpers
     // ---------------------------------------------------------------------
 
-    @Nullable
-    private String buildAuthHeaderIfAvailable() {
-        tn.esprit.domain.auth.AuthTokens tokens = authLocalDataSource.getTokens();
-        if (tokens == null || tokens.getAccessToken() == null) {
-            return null;
-        }
-        return "Bearer " + tokens.getAccessToken();
-    }
-
     @Nullable
     private String safeErrorBody(@Nullable ResponseBody body) {
         if (body == null) return null;
@@ -0,0 +1,61 @@
+package tn.esprit.data.auth;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import tn.esprit.domain.auth.AuthTokens;
+
+/**
+ * Adds the Authorization header from {@link AuthTokenHolder} to every backend call
+ * (REST and the WebSocket handshake), and refreshes the access token shortly
+ * BEFORE it expires so requests don't have to fail with 401 first.
+ *
+ * /auth/** calls (login, signup, refresh) are left untouched.
+ */
+public class AuthInterceptor implements Interceptor {
+
+    // Refresh when less than this is left on the access token
+    private static final long REFRESH_MARGIN_MILLIS = 60_000L;
+
+    private final AuthTokenHolder tokenHolder;
+    private final TokenRefresher tokenRefresher;
+
+    public AuthInterceptor(@NonNull AuthTokenHolder tokenHolder) {
+        this.tokenHolder = tokenHolder;
+        this.tokenRefresher = tokenHolder.getTokenRefresher();
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        if (isAuthEndpoint(request)) {
+            return chain.proceed(request);
+        }
+
+        AuthTokens tokens = tokenHolder.getTokens();
+        if (tokens == null || tokens.getAccessToken() == null) {
+            return chain.proceed(request);
+        }
+
+        if (tokenHolder.isExpiringWithin(REFRESH_MARGIN_MILLIS)) {
+            AuthTokens refreshed = tokenRefresher.refresh(tokens.getAccessToken());
+            if (refreshed != null) {
+                tokens = refreshed;
+            }
+        }
+
+        Request authorized = request.newBuilder()
+                .header("Authorization", AuthTokenHolder.buildHeader(tokens))
+                .build();
+        return chain.proceed(authorized);
+    }
+
+    static boolean isAuthEndpoint(@NonNull Request request) {
+        return request.url().encodedPath().startsWith("/auth/");
+    }
+}
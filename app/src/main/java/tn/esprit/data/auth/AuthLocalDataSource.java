@@ -7,28 +7,43 @@ import tn.esprit.domain.auth.AuthTokens;
 
 /**
  * Local persistence for auth tokens using SharedPreferences.
+ * Only {@link AuthTokenHolder} uses it (on its background thread).
  */
-public class AuthLocalDataSource {
+class AuthLocalDataSource {
 
     private static final String PREFS_NAME = "auth_prefs";
     private static final String KEY_ACCESS_TOKEN = "access_token";
     private static final String KEY_REFRESH_TOKEN = "refresh_token";
     private static final String KEY_TOKEN_TYPE = "token_type";
     private static final String KEY_EXPIRES_IN = "expires_in";
+    private static final String KEY_EXPIRES_AT = "expires_at";
+    private static final String KEY_ROLE = "role";
 
     private final SharedPreferences preferences;
 
-    public AuthLocalDataSource(Context context) {
+    AuthLocalDataSource(Context context) {
         this.preferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
     }
 
     public void saveTokens(AuthTokens tokens) {
+        if (tokens == null) return;
+        long expiresAt = tokens.getExpiresIn() != null
+                ? System.currentTimeMillis() + tokens.getExpiresIn() * 1000L
+                : -1L;
+        saveTokens(tokens, expiresAt);
+    }
+
+    /**
+     * @param expiresAtMillis absolute expiry (epoch millis) of the access token, -1 if unknown
+     */
+    public void saveTokens(AuthTokens tokens, long expiresAtMillis) {
         if (tokens == null) return;
         preferences.edit()
                 .putString(KEY_ACCESS_TOKEN, tokens.getAccessToken())
                 .putString(KEY_REFRESH_TOKEN, tokens.getRefreshToken())
                 .putString(KEY_TOKEN_TYPE, tokens.getTokenType())
                 .putLong(KEY_EXPIRES_IN, tokens.getExpiresIn() != null ? tokens.getExpiresIn() : -1L)
+                .putLong(KEY_EXPIRES_AT, expiresAtMillis)
                 .apply();
     }
 
@@ -46,6 +61,24 @@ public class AuthLocalDataSource {
         return new AuthTokens(accessToken, refreshToken, tokenType, expiresInValue);
     }
 
+    /**
+     * Absolute expiry of the stored access token (epoch millis), or -1 if unknown.
+     */
+    public long getExpiresAtMillis() {
+        return preferences.getLong(KEY_EXPIRES_AT, -1L);
+    }
+
+    /**
+     * Role of the signed-in user as last seen on /me (cleared with the tokens on logout).
+     */
+    public void saveRole(String role) {
+        preferences.edit().putString(KEY_ROLE, role).apply();
+    }
+
+    public String getRole() {
+        return preferences.getString(KEY_ROLE, null);
+    }
+
     public void clearTokens() {
         preferences.edit().clear().apply();
     }
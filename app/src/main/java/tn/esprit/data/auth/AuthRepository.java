@@ -6,6 +6,7 @@ import tn.esprit.data.remote.ApiClient.LoginRequestDto;
 import tn.esprit.data.remote.ApiClient.RefreshTokenRequestDto;
 import tn.esprit.data.remote.ApiClient.SignupRequestDto;
 import tn.esprit.data.remote.ApiClient.TokenResponseDto;
+import tn.esprit.data.remote.http.RequestHandle;
 import tn.esprit.domain.auth.AuthTokens;
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -40,10 +41,10 @@ public class AuthRepository {
     /**
      * Calls /auth/login with the given credentials.
      */
-    public void login(String email, String password, final LoginCallback callback) {
+    public RequestHandle login(String email, String password, final LoginCallback callback) {
         LoginRequestDto request = new LoginRequestDto(email, password);
 
-        authApiService.login(request).enqueue(new Callback<TokenResponseDto>() {
+        return RequestHandle.enqueue(authApiService.login(request), new Callback<TokenResponseDto>() {
             @Override
             public void onResponse(Call<TokenResponseDto> call, Response<TokenResponseDto> response) {
                 handleTokenResponse(response, new InternalCallback() {
@@ -69,13 +70,13 @@ public class AuthRepository {
     /**
      * Calls /auth/signup with the given registration data.
      */
-    public void signup(String firstname,
-                       String lastname,
-                       String email,
-                       String phone,
-                       String password,
-                       String role,
-                       final SignupCallback callback) {
+    public RequestHandle signup(String firstname,
+                                String lastname,
+                                String email,
+                                String phone,
+                                String password,
+                                String role,
+                                final SignupCallback callback) {
 
         SignupRequestDto request = new SignupRequestDto(
                 firstname,
@@ -86,7 +87,7 @@ public class AuthRepository {
                 role
         );
 
-        authApiService.signup(request).enqueue(new Callback<TokenResponseDto>() {
+        return RequestHandle.enqueue(authApiService.signup(request), new Callback<TokenResponseDto>() {
             @Override
             public void onResponse(Call<TokenResponseDto> call, Response<TokenResponseDto> response) {
                 handleTokenResponse(response, new InternalCallback() {
@@ -112,10 +113,10 @@ public class AuthRepository {
     /**
      * Calls /auth/refresh with the given refresh token.
      */
-    public void refreshToken(String refreshToken, final RefreshCallback callback) {
+    public RequestHandle refreshToken(String refreshToken, final RefreshCallback callback) {
         RefreshTokenRequestDto request = new RefreshTokenRequestDto(refreshToken);
 
-        authApiService.refresh(request).enqueue(new Callback<TokenResponseDto>() {
+        return RequestHandle.enqueue(authApiService.refresh(request), new Callback<TokenResponseDto>() {
             @Override
             public void onResponse(Call<TokenResponseDto> call, Response<TokenResponseDto> response) {
                 handleTokenResponse(response, new InternalCallback() {
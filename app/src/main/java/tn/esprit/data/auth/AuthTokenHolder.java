@@ -0,0 +1,200 @@
+package tn.esprit.data.auth;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import tn.esprit.domain.auth.AuthTokens;
+
+/**
+ * Process-wide session: in-memory copy of the current auth tokens.
+ *
+ * SharedPreferences are read once, off the main thread when {@link #preload()} runs at
+ * startup (otherwise on first access), then every request is served from volatile
+ * fields. Writes go to memory first and are persisted through
+ * {@link AuthLocalDataSource} on a background thread, in call order.
+ *
+ * {@link Listener}s hear about new tokens (login, refresh) and logout.
+ *
+ * This holder is the only entry point to the stored tokens; AuthLocalDataSource is
+ * package-private so the in-memory copy cannot get out of sync.
+ */
+public final class AuthTokenHolder {
+
+    private static AuthTokenHolder instance;
+
+    public static synchronized AuthTokenHolder getInstance(@NonNull Context context) {
+        if (instance == null) {
+            instance = new AuthTokenHolder(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Token changes, delivered on the main thread.
+     */
+    public interface Listener {
+        /**
+         * @param tokens new tokens, null after logout
+         */
+        void onTokensChanged(@Nullable AuthTokens tokens);
+    }
+
+    private final AuthLocalDataSource authLocalDataSource;
+    private final TokenRefresher tokenRefresher;
+    // Preload and writes; one thread keeps them in order
+    private final ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    @Nullable
+    private volatile AuthTokens tokens;
+    private volatile long expiresAtMillis = -1L;
+    @Nullable
+    private volatile String cachedRole;
+    private volatile boolean loaded = false;
+
+    private AuthTokenHolder(Context appContext) {
+        this.authLocalDataSource = new AuthLocalDataSource(appContext);
+        this.tokenRefresher = new TokenRefresher(this);
+    }
+
+    /**
+     * Reads the stored session in the background (Application.onCreate) so the first
+     * getTokens() on the main thread finds it in memory.
+     */
+    public void preload() {
+        if (loaded) return;
+        diskExecutor.execute(this::ensureLoaded);
+    }
+
+    public void addListener(@NonNull Listener listener) {
+        listeners.addIfAbsent(listener);
+    }
+
+    public void removeListener(@NonNull Listener listener) {
+        listeners.remove(listener);
+    }
+
+    @Nullable
+    public AuthTokens getTokens() {
+        ensureLoaded();
+        return tokens;
+    }
+
+    /**
+     * True when an access token is held. The Authorization header itself is only ever
+     * added by {@link AuthInterceptor}; callers use this to fail fast when signed out.
+     */
+    public boolean isSignedIn() {
+        return buildHeader(getTokens()) != null;
+    }
+
+    /**
+     * Current access token, null when signed out. Identifies the session, e.g. so two
+     * users never share a response; the header itself is still {@link AuthInterceptor}'s.
+     */
+    @Nullable
+    public String getAccessToken() {
+        AuthTokens current = getTokens();
+        return current != null ? current.getAccessToken() : null;
+    }
+
+    /**
+     * True when the access token expires within {@code marginMillis}.
+     * Unknown expiry is treated as "not expiring" (the 401 path still covers it).
+     */
+    public boolean isExpiringWithin(long marginMillis) {
+        ensureLoaded();
+        long expiresAt = expiresAtMillis;
+        return expiresAt > 0L && System.currentTimeMillis() + marginMillis >= expiresAt;
+    }
+
+    /**
+     * Role from the last successful /me of this session ("DOCTOR" / "PATIENT"), null if unknown.
+     * Lets startup pick the doctor or patient screens before /me answers.
+     */
+    @Nullable
+    public String getCachedRole() {
+        ensureLoaded();
+        return cachedRole;
+    }
+
+    public void saveRole(@Nullable String role) {
+        ensureLoaded();
+        if (role == null || role.equals(cachedRole)) return;
+        cachedRole = role;
+        diskExecutor.execute(() -> authLocalDataSource.saveRole(role));
+    }
+
+    public void saveTokens(@NonNull AuthTokens newTokens) {
+        long expiresAt = newTokens.getExpiresIn() != null
+                ? System.currentTimeMillis() + newTokens.getExpiresIn() * 1000L
+                : -1L;
+        synchronized (this) {
+            tokens = newTokens;
+            expiresAtMillis = expiresAt;
+            loaded = true;
+        }
+        diskExecutor.execute(() -> authLocalDataSource.saveTokens(newTokens, expiresAt));
+        notifyListeners(newTokens);
+    }
+
+    public void clearTokens() {
+        boolean wasSignedIn;
+        synchronized (this) {
+            wasSignedIn = !loaded || tokens != null;
+            tokens = null;
+            expiresAtMillis = -1L;
+            cachedRole = null;
+            loaded = true;
+        }
+        diskExecutor.execute(authLocalDataSource::clearTokens);
+        if (wasSignedIn) {
+            notifyListeners(null);
+        }
+    }
+
+    /**
+     * Shared by AuthInterceptor and TokenAuthenticator so they single-flight together.
+     */
+    TokenRefresher getTokenRefresher() {
+        return tokenRefresher;
+    }
+
+    @Nullable
+    static String buildHeader(@Nullable AuthTokens tokens) {
+        if (tokens == null || tokens.getAccessToken() == null) {
+            return null;
+        }
+        String type = tokens.getTokenType() != null ? tokens.getTokenType() : "Bearer";
+        return type + " " + tokens.getAccessToken();
+    }
+
+    private void notifyListeners(@Nullable AuthTokens current) {
+        if (listeners.isEmpty()) return;
+        mainHandler.post(() -> {
+            for (Listener listener : listeners) {
+                listener.onTokensChanged(current);
+            }
+        });
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        synchronized (this) {
+            if (loaded) return;
+            tokens = authLocalDataSource.getTokens();
+            expiresAtMillis = tokens != null ? authLocalDataSource.getExpiresAtMillis() : -1L;
+            cachedRole = tokens != null ? authLocalDataSource.getRole() : null;
+            loaded = true;
+        }
+    }
+}
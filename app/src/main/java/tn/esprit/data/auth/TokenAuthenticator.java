@@ -0,0 +1,57 @@
+package tn.esprit.data.auth;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import okhttp3.Authenticator;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.Route;
+import tn.esprit.domain.auth.AuthTokens;
+
+/**
+ * Reacts to 401 responses: refreshes the access token once (shared by all requests
+ * that failed at the same time, see {@link TokenRefresher}) and replays the request
+ * with the new token. Gives up (returns null) after one retry, or for /auth/** calls,
+ * so the original 401 reaches the repository callback.
+ */
+public class TokenAuthenticator implements Authenticator {
+
+    private final TokenRefresher tokenRefresher;
+
+    public TokenAuthenticator(@NonNull AuthTokenHolder tokenHolder) {
+        this.tokenRefresher = tokenHolder.getTokenRefresher();
+    }
+
+    @Nullable
+    @Override
+    public Request authenticate(@Nullable Route route, @NonNull Response response) {
+        Request failed = response.request();
+        if (AuthInterceptor.isAuthEndpoint(failed) || response.priorResponse() != null) {
+            return null;
+        }
+
+        String failedHeader = failed.header("Authorization");
+        String failedToken = extractToken(failedHeader);
+        if (failedToken == null) {
+            // Request was not authenticated at all: nothing to refresh
+            return null;
+        }
+
+        AuthTokens refreshed = tokenRefresher.refresh(failedToken);
+        if (refreshed == null) {
+            return null;
+        }
+
+        return failed.newBuilder()
+                .header("Authorization", AuthTokenHolder.buildHeader(refreshed))
+                .build();
+    }
+
+    @Nullable
+    private static String extractToken(@Nullable String header) {
+        if (header == null) return null;
+        int space = header.indexOf(' ');
+        return space >= 0 ? header.substring(space + 1).trim() : header.trim();
+    }
+}
@@ -0,0 +1,78 @@
+package tn.esprit.data.auth;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+
+import retrofit2.Response;
+import tn.esprit.data.remote.ApiClient;
+import tn.esprit.data.remote.ApiClient.RefreshTokenRequestDto;
+import tn.esprit.data.remote.ApiClient.TokenResponseDto;
+import tn.esprit.domain.auth.AuthTokens;
+
+/**
+ * Single-flight /auth/refresh.
+ *
+ * Called from OkHttp threads (AuthInterceptor / TokenAuthenticator), so it blocks.
+ * Concurrent callers queue on the same lock; the first one refreshes, the others
+ * see that the access token already changed and reuse the new one. A burst of
+ * 401s therefore results in exactly one /auth/refresh call.
+ */
+final class TokenRefresher {
+
+    private static final String TAG = "TokenRefresher";
+
+    private final AuthTokenHolder tokenHolder;
+
+    TokenRefresher(@NonNull AuthTokenHolder tokenHolder) {
+        this.tokenHolder = tokenHolder;
+    }
+
+    /**
+     * @param staleAccessToken the access token the caller saw fail / expire
+     * @return the tokens to use from now on, or null if the session cannot be refreshed
+     */
+    @Nullable
+    synchronized AuthTokens refresh(@Nullable String staleAccessToken) {
+        AuthTokens current = tokenHolder.getTokens();
+        if (current == null || current.getRefreshToken() == null) {
+            return null;
+        }
+
+        // Another thread refreshed while we were waiting for the lock
+        if (current.getAccessToken() != null
+                && !current.getAccessToken().equals(staleAccessToken)) {
+            return current;
+        }
+
+        try {
+            Response<TokenResponseDto> response = ApiClient.getAuthApiService()
+                    .refresh(new RefreshTokenRequestDto(current.getRefreshToken()))
+                    .execute();
+
+            TokenResponseDto body = response.body();
+            if (!response.isSuccessful() || body == null || body.getAccessToken() == null) {
+                if (response.code() == 400 || response.code() == 401 || response.code() == 403) {
+                    // Refresh token rejected: the session is over
+                    tokenHolder.clearTokens();
+                }
+                return null;
+            }
+
+            AuthTokens refreshed = new AuthTokens(
+                    body.getAccessToken(),
+                    body.getRefreshToken() != null ? body.getRefreshToken() : current.getRefreshToken(),
+                    body.getTokenType() != null ? body.getTokenType() : current.getTokenType(),
+                    body.getExpiresIn()
+            );
+            tokenHolder.saveTokens(refreshed);
+            return refreshed;
+        } catch (IOException e) {
+            Log.w(TAG, "Token refresh failed", e);
+            return null;
+        }
+    }
+}
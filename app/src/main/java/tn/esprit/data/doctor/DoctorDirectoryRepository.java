@@ -1,9 +1,13 @@
 package tn.esprit.data.doctor;
 
 import android.content.Context;
+import android.util.Log;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.google.gson.Gson;
+
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
@@ -12,31 +16,34 @@ import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
-import tn.esprit.data.auth.AuthLocalDataSource;
 import tn.esprit.data.remote.ApiClient;
 import tn.esprit.data.remote.common.ListResponseDto;
 import tn.esprit.data.remote.doctor.DoctorApiService;
-import tn.esprit.domain.auth.AuthTokens;
+import tn.esprit.data.remote.http.DeferredRequest;
+import tn.esprit.data.remote.http.RequestHandle;
+import tn.esprit.data.remote.json.GsonProvider;
 import tn.esprit.domain.doctor.DoctorPublicProfile;
 import tn.esprit.domain.doctor.DoctorSearchFilters;
 import tn.esprit.domain.doctor.DoctorSearchResult;
 
 /**
  * Repository for doctor directory operations:
- *  - searching doctors
+ *  - searching doctors (through {@link DoctorSearchCache})
  *  - loading public doctor profile for landing screen.
  *
  * No mapping layer: Retrofit parses backend DTOs directly into domain models.
  */
 public class DoctorDirectoryRepository {
 
-    private final AuthLocalDataSource authLocalDataSource;
+    private static final String TAG = "DoctorDirectoryRepo";
+
     private final DoctorApiService doctorApiService;
+    private final DoctorSearchCache searchCache;
 
     public DoctorDirectoryRepository(Context context) {
         Context appContext = context.getApplicationContext();
-        this.authLocalDataSource = new AuthLocalDataSource(appContext);
         this.doctorApiService = ApiClient.createService(DoctorApiService.class);
+        this.searchCache = DoctorSearchCache.getInstance(appContext);
     }
 
     // ---------- Search ----------
@@ -54,15 +61,51 @@ public class DoctorDirectoryRepository {
                      @Nullable String errorBody);
     }
 
-    public void searchDoctors(DoctorSearchFilters filters, SearchCallback callback) {
+    /**
+     * Cached search: a fresh cache entry is delivered synchronously and no request is made;
+     * a stale one is delivered right away, then revalidated, and onSuccess is called a
+     * second time only if the server answer differs. Callbacks may run on any thread.
+     */
+    public RequestHandle searchDoctors(DoctorSearchFilters filters, SearchCallback callback) {
         if (filters == null) {
             filters = new DoctorSearchFilters();
         }
+        final DoctorSearchFilters query = filters;
+        final String key = DoctorSearchCache.keyOf(query);
 
-        String authHeader = buildAuthHeaderIfAvailable();
+        DoctorSearchCache.Entry cached = searchCache.getFromMemory(key);
+        if (cached != null && cached.isFresh(System.currentTimeMillis())) {
+            callback.onSuccess(cached.results);
+            return RequestHandle.NONE;
+        }
 
+        DeferredRequest run = new DeferredRequest();
+        if (cached != null) {
+            callback.onSuccess(cached.results);
+            run.attach(fetchDoctors(query, key, cached, run, callback));
+            return run;
+        }
+
+        searchCache.loadFromDisk(key, stored -> {
+            if (run.isCanceled()) return;
+            if (stored != null) {
+                callback.onSuccess(stored.results);
+                if (stored.isFresh(System.currentTimeMillis())) {
+                    run.finish();
+                    return;
+                }
+            }
+            run.attach(fetchDoctors(query, key, stored, run, callback));
+        });
+        return run;
+    }
+
+    private RequestHandle fetchDoctors(@NonNull DoctorSearchFilters filters,
+                                       @NonNull String key,
+                                       @Nullable DoctorSearchCache.Entry served,
+                                       @NonNull DeferredRequest run,
+                                       @NonNull SearchCallback callback) {
         Call<ListResponseDto<DoctorSearchResult>> call = doctorApiService.searchDoctors(
-                authHeader,
                 filters.getQuery(),
                 filters.getSpecialtyId(),
                 filters.getCity(),
@@ -71,13 +114,13 @@ public class DoctorDirectoryRepository {
                 filters.getAcceptingNewPatients()
         );
 
-        call.enqueue(new Callback<ListResponseDto<DoctorSearchResult>>() {
+        return RequestHandle.enqueue(call, new Callback<ListResponseDto<DoctorSearchResult>>() {
             @Override
             public void onResponse(Call<ListResponseDto<DoctorSearchResult>> call,
                                    Response<ListResponseDto<DoctorSearchResult>> response) {
                 if (!response.isSuccessful()) {
                     String errorBody = safeErrorBody(response.errorBody());
-                    callback.onError(null, response.code(), errorBody);
+                    deliverError(null, response.code(), errorBody);
                     return;
                 }
 
@@ -87,16 +130,38 @@ public class DoctorDirectoryRepository {
                                 ? body.getItems()
                                 : Collections.emptyList();
 
-                callback.onSuccess(items);
+                DoctorSearchCache.Entry entry = searchCache.put(key, items);
+                if (!run.finish()) return;
+                if (served != null && sameResults(served.results, entry.results)) return;
+                callback.onSuccess(entry.results);
             }
 
             @Override
             public void onFailure(Call<ListResponseDto<DoctorSearchResult>> call, Throwable t) {
-                callback.onError(t, null, null);
+                deliverError(t, null, null);
+            }
+
+            private void deliverError(@Nullable Throwable t,
+                                      @Nullable Integer httpCode,
+                                      @Nullable String errorBody) {
+                if (!run.finish()) return;
+                if (served != null) {
+                    // Stale results are already on screen: keep them
+                    Log.w(TAG, "Search revalidation failed (" + httpCode + ")", t);
+                    return;
+                }
+                callback.onError(t, httpCode, errorBody);
             }
         });
     }
 
+    private static boolean sameResults(@NonNull List<DoctorSearchResult> a,
+                                       @NonNull List<DoctorSearchResult> b) {
+        if (a.size() != b.size()) return false;
+        Gson gson = GsonProvider.get();
+        return gson.toJson(a).equals(gson.toJson(b));
+    }
+
     // ---------- Public profile ----------
 
     public interface PublicProfileCallback {
@@ -107,13 +172,11 @@ public class DoctorDirectoryRepository {
                      @Nullable String errorBody);
     }
 
-    public void getDoctorPublicProfile(long doctorId, PublicProfileCallback callback) {
-        String authHeader = buildAuthHeaderIfAvailable();
-
+    public RequestHandle getDoctorPublicProfile(long doctorId, PublicProfileCallback callback) {
         Call<DoctorPublicProfile> call =
-                doctorApiService.getDoctorPublicProfile(authHeader, doctorId);
+                doctorApiService.getDoctorPublicProfile(doctorId);
 
-        call.enqueue(new Callback<DoctorPublicProfile>() {
+        return RequestHandle.enqueue(call, new Callback<DoctorPublicProfile>() {
             @Override
             public void onResponse(Call<DoctorPublicProfile> call,
                                    Response<DoctorPublicProfile> response) {
@@ -142,15 +205,6 @@ public class DoctorDirectoryRepository {
 
     // ---------- Helpers ----------
 
-    @Nullable
-    private String buildAuthHeaderIfAvailable() {
-        AuthTokens tokens = authLocalDataSource.getTokens();
-        if (tokens == null || tokens.getAccessToken() == null) {
-            return null;
-        }
-        return "Bearer " + tokens.getAccessToken();
-    }
-
     @Nullable
     private String safeErrorBody(@Nullable ResponseBody body) {
         if (body == null) return null;
@@ -13,11 +13,10 @@ import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
-import tn.esprit.data.auth.AuthLocalDataSource;
 import tn.esprit.data.remote.ApiClient;
 import tn.esprit.data.remote.common.ListResponseDto;
 import tn.esprit.data.remote.doctor.DoctorApiService;
-import tn.esprit.domain.auth.AuthTokens;
+import tn.esprit.data.remote.http.RequestHandle;
 import tn.esprit.domain.patient.PatientProfile;
 
 /**
@@ -28,12 +27,9 @@ import tn.esprit.domain.patient.PatientProfile;
  */
 public class DoctorPatientsRepository {
 
-    private final AuthLocalDataSource authLocalDataSource;
     private final DoctorApiService doctorApiService;
 
     public DoctorPatientsRepository(@NonNull Context context) {
-        Context appContext = context.getApplicationContext();
-        this.authLocalDataSource = new AuthLocalDataSource(appContext);
         this.doctorApiService = ApiClient.createService(DoctorApiService.class);
     }
 
@@ -53,13 +49,11 @@ public class DoctorPatientsRepository {
      * GET /api/doctors/me/patients
      * Uses ListResponse wrapper from backend.
      */
-    public void getMyPatients(@NonNull LoadPatientsCallback callback) {
-        String authHeader = buildAuthHeaderIfAvailable();
-
+    public RequestHandle getMyPatients(@NonNull LoadPatientsCallback callback) {
         Call<ListResponseDto<PatientProfile>> call =
-                doctorApiService.getMyPatients(authHeader);
+                doctorApiService.getMyPatients();
 
-        call.enqueue(new Callback<ListResponseDto<PatientProfile>>() {
+        return RequestHandle.enqueue(call, new Callback<ListResponseDto<PatientProfile>>() {
             @Override
             public void onResponse(
                     @NonNull Call<ListResponseDto<PatientProfile>> call,
@@ -106,14 +100,12 @@ public class DoctorPatientsRepository {
      *
      * @param patientUserId the User.id of the patient
      */
-    public void getMyPatient(long patientUserId,
-                             @NonNull LoadPatientCallback callback) {
-        String authHeader = buildAuthHeaderIfAvailable();
-
+    public RequestHandle getMyPatient(long patientUserId,
+                                      @NonNull LoadPatientCallback callback) {
         Call<PatientProfile> call =
-                doctorApiService.getMyPatientByUserId(authHeader, patientUserId);
+                doctorApiService.getMyPatientByUserId(patientUserId);
 
-        call.enqueue(new Callback<PatientProfile>() {
+        return RequestHandle.enqueue(call, new Callback<PatientProfile>() {
             @Override
             public void onResponse(
                     @NonNull Call<PatientProfile> call,
@@ -158,13 +150,11 @@ public class DoctorPatientsRepository {
     /**
      * DELETE /api/doctors/me/patients/{patientUserId}
      */
-    public void removePatient(long patientUserId,
-                              @NonNull RemovePatientCallback callback) {
-        String authHeader = buildAuthHeaderIfAvailable();
+    public RequestHandle removePatient(long patientUserId,
+                                       @NonNull RemovePatientCallback callback) {
+        Call<Void> call = doctorApiService.removePatientFromMe(patientUserId);
 
-        Call<Void> call = doctorApiService.removePatientFromMe(authHeader, patientUserId);
-
-        call.enqueue(new Callback<Void>() {
+        return RequestHandle.enqueue(call, new Callback<Void>() {
             @Override
             public void onResponse(
                     @NonNull Call<Void> call,
@@ -191,15 +181,6 @@ public class DoctorPatientsRepository {
     // Helpers
     // ------------------------------------------------------------------------
 
-    @Nullable
-    private String buildAuthHeaderIfAvailable() {
-        AuthTokens tokens = authLocalDataSource.getTokens();
-        if (tokens == null || tokens.getAccessToken() == null) {
-            return null;
-        }
-        return "Bearer " + tokens.getAccessToken();
-    }
-
     @Nullable
     private String safeErrorBody(@Nullable ResponseBody body) {
         if (body == null) return null;
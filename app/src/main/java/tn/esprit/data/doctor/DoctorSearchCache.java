@@ -0,0 +1,313 @@
+package tn.esprit.data.doctor;
+
+import android.content.Context;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import tn.esprit.data.remote.json.GsonProvider;
+import tn.esprit.domain.doctor.DoctorSearchFilters;
+import tn.esprit.domain.doctor.DoctorSearchResult;
+
+/**
+ * Two-level LRU cache of doctor search results, keyed by normalized {@link DoctorSearchFilters}.
+ *
+ *  - memory: the last {@link #MEMORY_ENTRIES} searches;
+ *  - disk:   the last {@link #DISK_ENTRIES} searches as JSON files in cacheDir/doctor_search
+ *            (file mtime = last use).
+ *
+ * Entries younger than {@link #FRESH_MILLIS} are served as is; older ones, up to
+ * {@link #MAX_STALE_MILLIS}, are served immediately and revalidated by the caller
+ * (see DoctorDirectoryRepository). Disk reads and writes run on one background thread.
+ */
+public final class DoctorSearchCache {
+
+    private static final String TAG = "DoctorSearchCache";
+
+    private static final int MEMORY_ENTRIES = 64;
+    private static final int DISK_ENTRIES = 256;
+    static final long FRESH_MILLIS = 2L * 60L * 1000L;
+    static final long MAX_STALE_MILLIS = 24L * 60L * 60L * 1000L;
+
+    private static final String DIR_NAME = "doctor_search";
+    private static final Type ENTRY_TYPE = new TypeToken<DiskEntry>() {}.getType();
+
+    private static DoctorSearchCache instance;
+
+    static synchronized DoctorSearchCache getInstance(@NonNull Context context) {
+        if (instance == null) {
+            instance = new DoctorSearchCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    interface DiskCallback {
+        /**
+         * Called on the cache thread; entry is null on a miss.
+         */
+        void onLoaded(@Nullable Entry entry);
+    }
+
+    /**
+     * Cached results and their age.
+     */
+    static final class Entry {
+        final List<DoctorSearchResult> results;
+        final long storedAt;
+
+        Entry(@NonNull List<DoctorSearchResult> results, long storedAt) {
+            this.results = results;
+            this.storedAt = storedAt;
+        }
+
+        boolean isFresh(long now) {
+            return now - storedAt < FRESH_MILLIS;
+        }
+    }
+
+    // Gson shape of a disk file
+    private static final class DiskEntry {
+        String key;
+        long storedAt;
+        List<DoctorSearchResult> results;
+    }
+
+    private final LruCache<String, Entry> memory = new LruCache<>(MEMORY_ENTRIES);
+    private final File dir;
+    private final LongSupplier clock;
+    private final Gson gson = GsonProvider.get();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    // Hit-rate counters (process lifetime)
+    private static final AtomicLong memoryHits = new AtomicLong();
+    private static final AtomicLong diskHits = new AtomicLong();
+    private static final AtomicLong staleHits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+
+    private DoctorSearchCache(Context appContext) {
+        this(new File(appContext.getCacheDir(), DIR_NAME), System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock "now" the age of an entry is measured against
+     */
+    @VisibleForTesting
+    DoctorSearchCache(@NonNull File dir, @NonNull LongSupplier clock) {
+        this.dir = dir;
+        this.clock = clock;
+    }
+
+    // -------------------------------------------------------------------------
+    // Key
+    // -------------------------------------------------------------------------
+
+    /**
+     * Stable key: text filters trimmed, lower-cased, inner whitespace collapsed.
+     */
+    @NonNull
+    static String keyOf(@NonNull DoctorSearchFilters filters) {
+        return "q=" + normalize(filters.getQuery())
+                + "|specialty=" + (filters.getSpecialtyId() != null ? filters.getSpecialtyId() : "")
+                + "|city=" + normalize(filters.getCity())
+                + "|country=" + normalize(filters.getCountry())
+                + "|tele=" + (filters.getTeleconsultationEnabled() != null ? filters.getTeleconsultationEnabled() : "")
+                + "|new=" + (filters.getAcceptingNewPatients() != null ? filters.getAcceptingNewPatients() : "");
+    }
+
+    @NonNull
+    private static String normalize(@Nullable String value) {
+        if (value == null) return "";
+        return value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    // -------------------------------------------------------------------------
+    // Lookup / store
+    // -------------------------------------------------------------------------
+
+    /**
+     * Memory only; safe on the main thread.
+     */
+    @Nullable
+    Entry getFromMemory(@NonNull String key) {
+        Entry entry = memory.get(key);
+        if (entry == null) return null;
+        long now = clock.getAsLong();
+        if (now - entry.storedAt > MAX_STALE_MILLIS) {
+            memory.remove(key);
+            return null;
+        }
+        memoryHits.incrementAndGet();
+        if (!entry.isFresh(now)) staleHits.incrementAndGet();
+        return entry;
+    }
+
+    /**
+     * Disk lookup after a memory miss. Counts a miss when absent.
+     */
+    void loadFromDisk(@NonNull String key, @NonNull DiskCallback callback) {
+        executor.execute(() -> callback.onLoaded(readFile(key)));
+    }
+
+    /**
+     * Stores fresh results in memory right away and on disk in the background.
+     */
+    @NonNull
+    Entry put(@NonNull String key, @NonNull List<DoctorSearchResult> results) {
+        Entry entry = new Entry(
+                Collections.unmodifiableList(new ArrayList<>(results)),
+                clock.getAsLong()
+        );
+        memory.put(key, entry);
+        executor.execute(() -> writeFile(key, entry));
+        return entry;
+    }
+
+    // -------------------------------------------------------------------------
+    // Metrics
+    // -------------------------------------------------------------------------
+
+    /**
+     * Share of searches answered from the cache (memory or disk, fresh or stale).
+     */
+    public static double getHitRatio() {
+        long hits = memoryHits.get() + diskHits.get();
+        long total = hits + misses.get();
+        return total == 0 ? 0d : (double) hits / total;
+    }
+
+    @VisibleForTesting
+    static void resetMetrics() {
+        memoryHits.set(0);
+        diskHits.set(0);
+        staleHits.set(0);
+        misses.set(0);
+    }
+
+    @NonNull
+    public static String summary() {
+        return "memory=" + memoryHits.get()
+                + ", disk=" + diskHits.get()
+                + ", stale=" + staleHits.get()
+                + ", misses=" + misses.get()
+                + ", ratio=" + String.format(Locale.US, "%.2f", getHitRatio());
+    }
+
+    // -------------------------------------------------------------------------
+    // Disk (executor thread only)
+    // -------------------------------------------------------------------------
+
+    @Nullable
+    private Entry readFile(@NonNull String key) {
+        File file = fileFor(key);
+        Entry entry = null;
+        if (file.isFile()) {
+            try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+                DiskEntry stored = gson.fromJson(reader, ENTRY_TYPE);
+                long now = clock.getAsLong();
+                if (stored != null && key.equals(stored.key) && stored.results != null
+                        && now - stored.storedAt <= MAX_STALE_MILLIS) {
+                    entry = new Entry(Collections.unmodifiableList(stored.results), stored.storedAt);
+                    //noinspection ResultOfMethodCallIgnored
+                    file.setLastModified(now);
+                    memory.put(key, entry);
+                }
+            } catch (IOException | RuntimeException e) {
+                Log.w(TAG, "Dropping unreadable cache entry", e);
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+            }
+        }
+
+        if (entry == null) {
+            misses.incrementAndGet();
+        } else {
+            diskHits.incrementAndGet();
+            if (!entry.isFresh(clock.getAsLong())) staleHits.incrementAndGet();
+        }
+        return entry;
+    }
+
+    private void writeFile(@NonNull String key, @NonNull Entry entry) {
+        if (!dir.isDirectory() && !dir.mkdirs()) return;
+
+        DiskEntry stored = new DiskEntry();
+        stored.key = key;
+        stored.storedAt = entry.storedAt;
+        stored.results = entry.results;
+
+        File file = fileFor(key);
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            gson.toJson(stored, ENTRY_TYPE, writer);
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Could not write cache entry", e);
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+            return;
+        }
+        trimDisk();
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    @NonNull
+    private File fileFor(@NonNull String key) {
+        return new File(dir, sha1(key) + ".json");
+    }
+
+    private void trimDisk() {
+        File[] files = dir.listFiles();
+        if (files == null || files.length <= DISK_ENTRIES) return;
+
+        // Least recently used first
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (int i = 0; i < files.length - DISK_ENTRIES; i++) {
+            //noinspection ResultOfMethodCallIgnored
+            files[i].delete();
+        }
+    }
+
+    @NonNull
+    private static String sha1(@NonNull String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1")
+                    .digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(String.format(Locale.US, "%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(value.hashCode());
+        }
+    }
+}
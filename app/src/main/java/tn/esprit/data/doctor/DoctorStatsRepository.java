@@ -11,14 +11,14 @@ import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
-import tn.esprit.data.auth.AuthLocalDataSource;
 import tn.esprit.data.remote.ApiClient;
 import tn.esprit.data.remote.doctor.DoctorStatsApiService;
+import tn.esprit.data.remote.http.RequestCoalescer;
+import tn.esprit.data.remote.http.RequestHandle;
 import tn.esprit.domain.doctor.DoctorHomeStats;
 
 public class DoctorStatsRepository {
 
-    private final AuthLocalDataSource authLocalDataSource;
     private final DoctorStatsApiService api;
 
     public interface StatsCallback {
@@ -29,22 +29,13 @@ public class DoctorStatsRepository {
     }
 
     public DoctorStatsRepository(@NonNull Context ctx) {
-        authLocalDataSource = new AuthLocalDataSource(ctx);
         api = ApiClient.createService(DoctorStatsApiService.class);
     }
 
-    @Nullable
-    private String authHeader() {
-        if (authLocalDataSource.getTokens() == null) return null;
-        if (authLocalDataSource.getTokens().getAccessToken() == null) return null;
-        return "Bearer " + authLocalDataSource.getTokens().getAccessToken();
-    }
-
-    public void loadStats(@NonNull StatsCallback callback) {
-        String h = authHeader();
-        Call<DoctorHomeStats> call = api.getDoctorStats(h);
+    public RequestHandle loadStats(@NonNull StatsCallback callback) {
+        Call<DoctorHomeStats> call = api.getDoctorStats();
 
-        call.enqueue(new Callback<DoctorHomeStats>() {
+        return RequestCoalescer.enqueue(call, new Callback<DoctorHomeStats>() {
             @Override
             public void onResponse(
                     @NonNull Call<DoctorHomeStats> call,
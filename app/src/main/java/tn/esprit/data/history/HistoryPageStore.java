@@ -0,0 +1,160 @@
+package tn.esprit.data.history;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import tn.esprit.data.remote.json.GsonProvider;
+import tn.esprit.domain.history.UserHistoryEntry;
+
+/**
+ * Local cache of history pages, keyed by (category, before cursor).
+ *
+ * Cursors are entry ids, so an older page stays valid when new events arrive; only the
+ * newest page of a category changes and is always revalidated by the repository. At
+ * most {@link #MAX_PAGES} pages are kept (least recently fetched dropped first, the
+ * oldest write first among pages fetched in the same millisecond).
+ *
+ * Reads and writes run on one background thread; callbacks are called there.
+ */
+public final class HistoryPageStore {
+
+    private static final String TAG = "HistoryPageStore";
+
+    static final int MAX_PAGES = 120;
+    private static final long HEAD = -1L;
+    private static final Type ENTRIES_TYPE = new TypeToken<List<UserHistoryEntry>>() {}.getType();
+
+    private static HistoryPageStore instance;
+
+    public static synchronized HistoryPageStore getInstance(@NonNull Context context) {
+        if (instance == null) {
+            instance = new HistoryPageStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * One stored page.
+     */
+    public static final class Page {
+        @NonNull
+        public final List<UserHistoryEntry> items;
+        @Nullable
+        public final Long nextCursor;
+        public final long fetchedAt;
+
+        Page(@NonNull List<UserHistoryEntry> items, @Nullable Long nextCursor, long fetchedAt) {
+            this.items = items;
+            this.nextCursor = nextCursor;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+
+    public interface ReadCallback {
+        /**
+         * @param page null on a miss
+         */
+        void onRead(@Nullable Page page);
+    }
+
+    private final HistoryDbHelper dbHelper;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Gson gson = GsonProvider.get();
+
+    @VisibleForTesting
+    HistoryPageStore(Context appContext) {
+        this.dbHelper = new HistoryDbHelper(appContext);
+    }
+
+    public void read(@NonNull String category,
+                     @Nullable Long beforeId,
+                     @NonNull ReadCallback callback) {
+        executor.execute(() -> {
+            Page page = null;
+            try (Cursor cursor = dbHelper.getReadableDatabase().query(HistoryDbHelper.TABLE_PAGES,
+                    new String[]{
+                            HistoryDbHelper.COL_PAYLOAD,
+                            HistoryDbHelper.COL_NEXT_CURSOR,
+                            HistoryDbHelper.COL_FETCHED_AT
+                    },
+                    HistoryDbHelper.COL_CATEGORY + " = ? AND " + HistoryDbHelper.COL_BEFORE_ID + " = ?",
+                    new String[]{category, String.valueOf(beforeId != null ? beforeId : HEAD)},
+                    null, null, null)) {
+                if (cursor.moveToFirst()) {
+                    List<UserHistoryEntry> items = gson.fromJson(cursor.getString(0), ENTRIES_TYPE);
+                    if (items != null) {
+                        page = new Page(items,
+                                cursor.isNull(1) ? null : cursor.getLong(1),
+                                cursor.getLong(2));
+                    }
+                }
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Reading cached history page failed", e);
+            }
+            callback.onRead(page);
+        });
+    }
+
+    public void write(@NonNull String category,
+                      @Nullable Long beforeId,
+                      @NonNull List<UserHistoryEntry> items,
+                      @Nullable Long nextCursor) {
+        String payload = gson.toJson(items, ENTRIES_TYPE);
+        long fetchedAt = System.currentTimeMillis();
+        executor.execute(() -> {
+            try {
+                SQLiteDatabase db = dbHelper.getWritableDatabase();
+                ContentValues values = new ContentValues();
+                values.put(HistoryDbHelper.COL_CATEGORY, category);
+                values.put(HistoryDbHelper.COL_BEFORE_ID, beforeId != null ? beforeId : HEAD);
+                if (nextCursor != null) {
+                    values.put(HistoryDbHelper.COL_NEXT_CURSOR, nextCursor);
+                } else {
+                    values.putNull(HistoryDbHelper.COL_NEXT_CURSOR);
+                }
+                values.put(HistoryDbHelper.COL_PAYLOAD, payload);
+                values.put(HistoryDbHelper.COL_FETCHED_AT, fetchedAt);
+                db.insertWithOnConflict(HistoryDbHelper.TABLE_PAGES, null, values,
+                        SQLiteDatabase.CONFLICT_REPLACE);
+                trim(db);
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Saving history page failed", e);
+            }
+        });
+    }
+
+    /**
+     * Logout: forget every page.
+     */
+    public void clear() {
+        executor.execute(() -> {
+            try {
+                dbHelper.getWritableDatabase().delete(HistoryDbHelper.TABLE_PAGES, null, null);
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Clearing history pages failed", e);
+            }
+        });
+    }
+
+    private static void trim(@NonNull SQLiteDatabase db) {
+        db.execSQL("DELETE FROM " + HistoryDbHelper.TABLE_PAGES
+                + " WHERE rowid NOT IN (SELECT rowid FROM " + HistoryDbHelper.TABLE_PAGES
+                + " ORDER BY " + HistoryDbHelper.COL_FETCHED_AT + " DESC, rowid DESC"
+                + " LIMIT " + MAX_PAGES + ")");
+    }
+}
@@ -2,41 +2,84 @@ package tn.esprit.data.history;
 
 import android.content.Context;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 
 import java.io.IOException;
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.LongSupplier;
 
 import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
-import tn.esprit.data.auth.AuthLocalDataSource;
+import tn.esprit.data.auth.AuthTokenHolder;
 import tn.esprit.data.remote.ApiClient;
 import tn.esprit.data.remote.history.UserHistoryApiService;
-import tn.esprit.domain.auth.AuthTokens;
+import tn.esprit.data.remote.http.DeferredRequest;
+import tn.esprit.data.remote.http.RequestHandle;
+import tn.esprit.domain.history.HistoryCategory;
 import tn.esprit.domain.history.UserHistoryEntry;
 
 /**
- * Repository to fetch the current user's history entries from backend.
+ * Repository to fetch the current user's history entries from backend, one page at a time.
  *
  * Uses:
- *   GET /api/history
+ *   GET /api/history?limit=&before=&category=
+ *
+ * Pages are cached in {@link HistoryPageStore}. The newest page is shown from the cache
+ * and always revalidated; an older page is served from the cache while younger than
+ * {@link #OLDER_PAGE_TTL_MILLIS} (its content only changes on deletions).
+ *
+ * A backend that ignores the paging parameters answers with more than {@link #PAGE_SIZE}
+ * entries: that answer is taken as the complete history (no next page). Entries are also
+ * filtered by category here in case the backend ignores "category".
  */
 public class UserHistoryRepository {
 
-    private final AuthLocalDataSource authLocalDataSource;
+    public static final int PAGE_SIZE = 30;
+    static final long OLDER_PAGE_TTL_MILLIS = 60L * 60L * 1000L;
+
+    private final AuthTokenHolder tokenHolder;
     private final UserHistoryApiService apiService;
+    private final HistoryPageStore pageStore;
+    private final LongSupplier clock;
 
     public UserHistoryRepository(Context context) {
-        Context appContext = context.getApplicationContext();
-        this.authLocalDataSource = new AuthLocalDataSource(appContext);
-        this.apiService = ApiClient.createService(UserHistoryApiService.class);
+        this(AuthTokenHolder.getInstance(context.getApplicationContext()),
+                ApiClient.createService(UserHistoryApiService.class),
+                HistoryPageStore.getInstance(context),
+                System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock "now" the age of a cached page is measured against
+     */
+    @VisibleForTesting
+    public UserHistoryRepository(@NonNull AuthTokenHolder tokenHolder,
+                                 @NonNull UserHistoryApiService apiService,
+                                 @NonNull HistoryPageStore pageStore,
+                                 @NonNull LongSupplier clock) {
+        this.tokenHolder = tokenHolder;
+        this.apiService = apiService;
+        this.pageStore = pageStore;
+        this.clock = clock;
     }
 
-    public interface LoadCallback {
-        void onSuccess(List<UserHistoryEntry> items);
+    /**
+     * Called on a background thread. For the newest page, {@link #onPage} may be called
+     * twice: cached (fromCache = true), then fresh.
+     */
+    public interface PageCallback {
+        /**
+         * @param items      entries of the page matching the category, newest first
+         * @param nextCursor "before" of the next page, null when this was the last one
+         */
+        void onPage(@NonNull List<UserHistoryEntry> items,
+                    @Nullable Long nextCursor,
+                    boolean fromCache);
 
         /**
          * @param throwable underlying exception (may be null on HTTP error)
@@ -49,40 +92,96 @@ public class UserHistoryRepository {
     }
 
     /**
-     * Loads the authenticated user's history (newest first).
+     * Loads one page of the authenticated user's history (newest first).
+     *
+     * @param beforeId null for the newest page, otherwise the nextCursor of the previous page
      */
-    public void loadHistory(LoadCallback callback) {
-        if (callback == null) return;
-
-        AuthTokens tokens = authLocalDataSource.getTokens();
-        if (tokens == null || tokens.getAccessToken() == null) {
+    public RequestHandle loadPage(@NonNull HistoryCategory category,
+                                  @Nullable Long beforeId,
+                                  @NonNull PageCallback callback) {
+        if (!tokenHolder.isSignedIn()) {
             callback.onError(null, 401, "Not authenticated");
-            return;
+            return RequestHandle.NONE;
         }
 
-        String authHeader = "Bearer " + tokens.getAccessToken();
+        DeferredRequest handle = new DeferredRequest();
+        pageStore.read(category.name(), beforeId, cached -> {
+            if (handle.isCanceled()) return;
+
+            boolean head = beforeId == null;
+            if (cached != null && !head
+                    && clock.getAsLong() - cached.fetchedAt < OLDER_PAGE_TTL_MILLIS) {
+                if (handle.finish()) {
+                    callback.onPage(cached.items, cached.nextCursor, true);
+                }
+                return;
+            }
+            if (cached != null && head) {
+                callback.onPage(cached.items, cached.nextCursor, true);
+            }
+            handle.attach(fetchPage(category, beforeId, cached, handle, callback));
+        });
+        return handle;
+    }
 
-        Call<List<UserHistoryEntry>> call = apiService.getMyHistory(authHeader);
-        call.enqueue(new Callback<List<UserHistoryEntry>>() {
+    // ---------------------------------------------------------------------
+    // Network
+    // ---------------------------------------------------------------------
+
+    @NonNull
+    private RequestHandle fetchPage(@NonNull HistoryCategory category,
+                                    @Nullable Long beforeId,
+                                    @Nullable HistoryPageStore.Page cached,
+                                    @NonNull DeferredRequest handle,
+                                    @NonNull PageCallback callback) {
+        Call<List<UserHistoryEntry>> call = apiService.getMyHistory(
+                PAGE_SIZE, beforeId, category.getApiValue());
+        return RequestHandle.enqueue(call, new Callback<List<UserHistoryEntry>>() {
             @Override
             public void onResponse(Call<List<UserHistoryEntry>> call,
                                    Response<List<UserHistoryEntry>> response) {
                 if (!response.isSuccessful()) {
-                    callback.onError(null, response.code(), safeErrorBody(response.errorBody()));
+                    fail(null, response.code(), safeErrorBody(response.errorBody()));
                     return;
                 }
 
                 List<UserHistoryEntry> body = response.body();
-                if (body == null) {
-                    callback.onSuccess(Collections.emptyList());
-                } else {
-                    callback.onSuccess(body);
+                List<UserHistoryEntry> all = body != null ? body : new ArrayList<>();
+
+                // A full page has a successor; more than a page = paging not supported
+                Long nextCursor = null;
+                if (all.size() == PAGE_SIZE) {
+                    nextCursor = all.get(all.size() - 1).getId();
+                }
+
+                List<UserHistoryEntry> items = new ArrayList<>(all.size());
+                for (UserHistoryEntry entry : all) {
+                    if (entry != null && category.matches(entry)) {
+                        items.add(entry);
+                    }
+                }
+
+                pageStore.write(category.name(), beforeId, items, nextCursor);
+                if (handle.finish()) {
+                    callback.onPage(items, nextCursor, false);
                 }
             }
 
             @Override
             public void onFailure(Call<List<UserHistoryEntry>> call, Throwable t) {
-                callback.onError(t, null, null);
+                fail(t, null, null);
+            }
+
+            private void fail(@Nullable Throwable t,
+                              @Nullable Integer code,
+                              @Nullable String errorBody) {
+                if (!handle.finish()) return;
+                if (cached != null && beforeId != null) {
+                    // Offline: an old copy of an older page beats an error
+                    callback.onPage(cached.items, cached.nextCursor, true);
+                } else {
+                    callback.onError(t, code, errorBody);
+                }
             }
         });
     }
@@ -0,0 +1,324 @@
+package tn.esprit.data.indicator;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import tn.esprit.domain.indicator.PatientIndicator;
+
+/**
+ * In-memory time series of patient indicators, indexed by (patient, type, measuredAt).
+ *
+ * Each patient ("scope") keeps one sorted map for all types and one per type, keyed by
+ * measuredAt then id, so a type / range filter is a subMap lookup (O(log n) + results)
+ * instead of a new request. The store also remembers which [from, to] ranges were
+ * fetched (for all types or one type); {@link #missingRange} tells the repository what
+ * still has to come from the server, and {@link #mergeRange} folds the answer in.
+ *
+ * measuredAt values are ISO-8601 local date-times ("2025-02-03T10:15:30"), which sort
+ * lexicographically. Thread-safe.
+ */
+public final class IndicatorSeriesStore {
+
+    // Fetched ranges are trusted this long (other devices may add measurements)
+    private static final long COVERAGE_TTL_MILLIS = 5L * 60L * 1000L;
+    private static final int MAX_SCOPES = 8;
+    private static final int MAX_RANGES_PER_KEY = 16;
+
+    // Open bounds: before / after every ISO timestamp
+    private static final String MIN = "";
+    private static final String MAX = "\uFFFF";
+
+    private static final Long ALL_TYPES = -1L;
+
+    private static IndicatorSeriesStore instance;
+
+    public static synchronized IndicatorSeriesStore getInstance() {
+        if (instance == null) {
+            instance = new IndicatorSeriesStore();
+        }
+        return instance;
+    }
+
+    /**
+     * Inclusive range to request; null bounds are open.
+     */
+    public static final class Range {
+        @Nullable
+        public final String fromIso;
+        @Nullable
+        public final String toIso;
+
+        Range(@NonNull String from, @NonNull String to) {
+            this.fromIso = MIN.equals(from) ? null : from;
+            this.toIso = MAX.equals(to) ? null : to;
+        }
+    }
+
+    private static final class Covered {
+        final String from;
+        final String to;
+        final long fetchedAt;
+
+        Covered(String from, String to, long fetchedAt) {
+            this.from = from;
+            this.to = to;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+
+    private static final class Series {
+        final NavigableMap<String, PatientIndicator> all = new TreeMap<>();
+        final Map<Long, NavigableMap<String, PatientIndicator>> byType = new HashMap<>();
+        final Map<Long, String> keyById = new HashMap<>();
+        // Type id (or ALL_TYPES) → fetched ranges
+        final Map<Long, List<Covered>> coverage = new HashMap<>();
+    }
+
+    // Least recently used scope evicted first
+    private final LinkedHashMap<String, Series> scopes =
+            new LinkedHashMap<String, Series>(MAX_SCOPES, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Series> eldest) {
+                    return size() > MAX_SCOPES;
+                }
+            };
+
+    private IndicatorSeriesStore() {
+    }
+
+    // -------------------------------------------------------------------------
+    // Queries
+    // -------------------------------------------------------------------------
+
+    /**
+     * Stored indicators of the scope, newest first, optionally filtered by type and
+     * inclusive measuredAt range.
+     */
+    @NonNull
+    public synchronized List<PatientIndicator> query(@NonNull String scope,
+                                                     @Nullable Long typeId,
+                                                     @Nullable String fromIso,
+                                                     @Nullable String toIso) {
+        Series series = scopes.get(scope);
+        if (series == null) return new ArrayList<>();
+
+        NavigableMap<String, PatientIndicator> source =
+                typeId != null ? series.byType.get(typeId) : series.all;
+        if (source == null) return new ArrayList<>();
+
+        return new ArrayList<>(window(source, lower(fromIso), upper(toIso))
+                .descendingMap()
+                .values());
+    }
+
+    /**
+     * Part of the requested range not covered by a recent fetch (for this type or for
+     * all types), as one range spanning every gap; null when everything is covered.
+     *
+     * @param refresh explicit refresh by the user: the whole range is requested again,
+     *                whatever was fetched before
+     */
+    @Nullable
+    public synchronized Range missingRange(@NonNull String scope,
+                                           @Nullable Long typeId,
+                                           @Nullable String fromIso,
+                                           @Nullable String toIso,
+                                           boolean refresh) {
+        String from = lower(fromIso);
+        String to = upper(toIso);
+
+        Series series = scopes.get(scope);
+        if (series == null || refresh) return new Range(from, to);
+
+        long now = SystemClock.elapsedRealtime();
+        List<Covered> fresh = new ArrayList<>();
+        collectFresh(series.coverage.get(ALL_TYPES), now, fresh);
+        if (typeId != null) {
+            collectFresh(series.coverage.get(typeId), now, fresh);
+        }
+        Collections.sort(fresh, (a, b) -> a.from.compareTo(b.from));
+
+        // Sweep: first and last points of [from, to] that no fetched range contains
+        String firstGap = null;
+        String lastGapEnd = null;
+        String cursor = from;
+        for (Covered covered : fresh) {
+            if (covered.to.compareTo(cursor) < 0) continue;
+            if (covered.from.compareTo(to) > 0) break;
+            if (covered.from.compareTo(cursor) > 0) {
+                if (firstGap == null) firstGap = cursor;
+                lastGapEnd = covered.from;
+            }
+            if (covered.to.compareTo(cursor) > 0) cursor = covered.to;
+            if (cursor.compareTo(to) >= 0) break;
+        }
+        if (cursor.compareTo(to) < 0) {
+            if (firstGap == null) firstGap = cursor;
+            lastGapEnd = to;
+        }
+
+        return firstGap == null ? null : new Range(firstGap, lastGapEnd);
+    }
+
+    // -------------------------------------------------------------------------
+    // Writes
+    // -------------------------------------------------------------------------
+
+    /**
+     * Server answer for (typeId, [fromIso, toIso]): stored rows of that window that are
+     * not in items anymore are removed, the others inserted or replaced, and the window
+     * is marked as fetched.
+     */
+    public synchronized void mergeRange(@NonNull String scope,
+                                        @Nullable Long typeId,
+                                        @Nullable String fromIso,
+                                        @Nullable String toIso,
+                                        @NonNull List<PatientIndicator> items) {
+        String from = lower(fromIso);
+        String to = upper(toIso);
+        Series series = seriesFor(scope);
+
+        NavigableMap<String, PatientIndicator> source =
+                typeId != null ? series.byType.get(typeId) : series.all;
+        if (source != null) {
+            List<PatientIndicator> stale = new ArrayList<>(window(source, from, to).values());
+            for (PatientIndicator old : stale) {
+                remove(series, old.getId());
+            }
+        }
+        for (PatientIndicator item : items) {
+            put(series, item);
+        }
+
+        Long coverageKey = typeId != null ? typeId : ALL_TYPES;
+        List<Covered> ranges = series.coverage.get(coverageKey);
+        if (ranges == null) {
+            ranges = new ArrayList<>();
+            series.coverage.put(coverageKey, ranges);
+        }
+        ranges.add(new Covered(from, to, SystemClock.elapsedRealtime()));
+        if (ranges.size() > MAX_RANGES_PER_KEY) {
+            ranges.remove(0);
+        }
+    }
+
+    /**
+     * Single measurement created on this device.
+     */
+    public synchronized void upsert(@NonNull String scope, @Nullable PatientIndicator item) {
+        if (item == null) return;
+        put(seriesFor(scope), item);
+    }
+
+    public synchronized void delete(@NonNull String scope, long indicatorId) {
+        Series series = scopes.get(scope);
+        if (series != null) {
+            remove(series, indicatorId);
+        }
+    }
+
+    /**
+     * Logout: forget every patient.
+     */
+    public synchronized void clear() {
+        scopes.clear();
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers (caller holds "this")
+    // -------------------------------------------------------------------------
+
+    @NonNull
+    private Series seriesFor(@NonNull String scope) {
+        Series series = scopes.get(scope);
+        if (series == null) {
+            series = new Series();
+            scopes.put(scope, series);
+        }
+        return series;
+    }
+
+    private static void put(@NonNull Series series, @NonNull PatientIndicator item) {
+        if (item.getId() == null) return;
+        remove(series, item.getId());
+
+        String key = keyOf(item);
+        series.all.put(key, item);
+        series.keyById.put(item.getId(), key);
+        if (item.getIndicatorTypeId() != null) {
+            NavigableMap<String, PatientIndicator> typed = series.byType.get(item.getIndicatorTypeId());
+            if (typed == null) {
+                typed = new TreeMap<>();
+                series.byType.put(item.getIndicatorTypeId(), typed);
+            }
+            typed.put(key, item);
+        }
+    }
+
+    private static void remove(@NonNull Series series, @Nullable Long id) {
+        if (id == null) return;
+        String key = series.keyById.remove(id);
+        if (key == null) return;
+
+        PatientIndicator old = series.all.remove(key);
+        if (old != null && old.getIndicatorTypeId() != null) {
+            NavigableMap<String, PatientIndicator> typed = series.byType.get(old.getIndicatorTypeId());
+            if (typed != null) {
+                typed.remove(key);
+                if (typed.isEmpty()) series.byType.remove(old.getIndicatorTypeId());
+            }
+        }
+    }
+
+    // measuredAt, then the id (zero-padded so it sorts numerically) to keep keys unique
+    @NonNull
+    private static String keyOf(@NonNull PatientIndicator item) {
+        String measuredAt = item.getMeasuredAt() != null ? item.getMeasuredAt() : MIN;
+        return measuredAt + '#' + String.format(Locale.US, "%019d", item.getId());
+    }
+
+    @NonNull
+    private static NavigableMap<String, PatientIndicator> window(
+            @NonNull NavigableMap<String, PatientIndicator> source,
+            @NonNull String from,
+            @NonNull String to) {
+        if (from.compareTo(to) > 0) return new TreeMap<>();
+        // "#" keeps every id of the last second inside the upper bound
+        return source.subMap(from, true, to + '#' + MAX, true);
+    }
+
+    private static void collectFresh(@Nullable List<Covered> ranges, long now, List<Covered> out) {
+        if (ranges == null) return;
+        for (Iterator<Covered> it = ranges.iterator(); it.hasNext(); ) {
+            Covered covered = it.next();
+            if (now - covered.fetchedAt > COVERAGE_TTL_MILLIS) {
+                it.remove();
+            } else {
+                out.add(covered);
+            }
+        }
+    }
+
+    @NonNull
+    private static String lower(@Nullable String fromIso) {
+        return fromIso != null ? fromIso : MIN;
+    }
+
+    @NonNull
+    private static String upper(@Nullable String toIso) {
+        return toIso != null ? toIso : MAX;
+    }
+}
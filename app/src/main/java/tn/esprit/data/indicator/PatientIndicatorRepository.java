@@ -6,15 +6,21 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import java.io.IOException;
+import java.text.SimpleDateFormat;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.Locale;
 
 import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
+import tn.esprit.data.auth.AuthTokenHolder;
+import tn.esprit.data.outbox.Outbox;
 import tn.esprit.data.remote.ApiClient;
 import tn.esprit.data.remote.common.ListResponseDto;
+import tn.esprit.data.remote.http.RequestHandle;
 import tn.esprit.data.remote.indicator.IndicatorApiService;
 import tn.esprit.data.remote.indicator.IndicatorApiService.PatientIndicatorCreateRequestDto;
 import tn.esprit.domain.indicator.IndicatorType;
@@ -23,17 +29,30 @@ import tn.esprit.domain.indicator.PatientIndicator;
 /**
  * Repository for patient indicators.
  *
- * NOTE: This repository does NOT know how to get auth tokens.
- * Callers should pass a ready-made Authorization header (e.g. "Bearer ..."),
- * or null for now (backend will then respond 401).
+ * The Authorization header is added by AuthInterceptor; callers never pass one.
  */
 public class PatientIndicatorRepository {
 
+    /**
+     * {@link IndicatorSeriesStore} scope of the current patient's own indicators.
+     */
+    public static final String SCOPE_ME = "me";
+
     private final IndicatorApiService apiService;
+    private final AuthTokenHolder tokenHolder;
+    private final IndicatorSeriesStore seriesStore;
+    private final Outbox outbox;
 
     public PatientIndicatorRepository(@NonNull Context context) {
-        // Context is currently unused, but kept for consistency with other repos
         this.apiService = ApiClient.createService(IndicatorApiService.class);
+        this.tokenHolder = AuthTokenHolder.getInstance(context);
+        this.seriesStore = IndicatorSeriesStore.getInstance();
+        this.outbox = Outbox.getInstance(context.getApplicationContext());
+    }
+
+    @NonNull
+    public static String scopeForPatient(long patientUserId) {
+        return "patient:" + patientUserId;
     }
 
     // ------------------------------------------------------------------------
@@ -54,10 +73,10 @@ public class PatientIndicatorRepository {
      * GET /indicator-types
      * No auth header for now.
      */
-    public void getIndicatorTypes(@NonNull IndicatorTypesCallback callback) {
+    public RequestHandle getIndicatorTypes(@NonNull IndicatorTypesCallback callback) {
         Call<ListResponseDto<IndicatorType>> call = apiService.getIndicatorTypes();
 
-        call.enqueue(new Callback<ListResponseDto<IndicatorType>>() {
+        return RequestHandle.enqueue(call, new Callback<ListResponseDto<IndicatorType>>() {
             @Override
             public void onResponse(
                     @NonNull Call<ListResponseDto<IndicatorType>> call,
@@ -109,16 +128,15 @@ public class PatientIndicatorRepository {
      *
      * Any of indicatorTypeId, fromIso, toIso can be null.
      */
-    public void getMyIndicators(@Nullable String authorizationHeader,
-                                @Nullable Long indicatorTypeId,
-                                @Nullable String fromIso,
-                                @Nullable String toIso,
-                                @NonNull IndicatorsCallback callback) {
+    public RequestHandle getMyIndicators(@Nullable Long indicatorTypeId,
+                                         @Nullable String fromIso,
+                                         @Nullable String toIso,
+                                         @NonNull IndicatorsCallback callback) {
 
         Call<ListResponseDto<PatientIndicator>> call =
-                apiService.getMyIndicators(authorizationHeader, indicatorTypeId, fromIso, toIso);
+                apiService.getMyIndicators(indicatorTypeId, fromIso, toIso);
 
-        call.enqueue(new Callback<ListResponseDto<PatientIndicator>>() {
+        return RequestHandle.enqueue(call, new Callback<ListResponseDto<PatientIndicator>>() {
             @Override
             public void onResponse(
                     @NonNull Call<ListResponseDto<PatientIndicator>> call,
@@ -160,29 +178,26 @@ public class PatientIndicatorRepository {
     /**
      * Retrieve indicators for a given patient as a doctor.
      *
-     * @param authorizationHeader e.g. "Bearer <token>"
-     * @param patientUserId       patient user id (required)
-     * @param indicatorTypeId     optional filter
-     * @param fromIso             optional ISO-8601 from date-time
-     * @param toIso               optional ISO-8601 to date-time
+     * @param patientUserId   patient user id (required)
+     * @param indicatorTypeId optional filter
+     * @param fromIso         optional ISO-8601 from date-time
+     * @param toIso           optional ISO-8601 to date-time
      */
-    public void getIndicatorsForPatientAsDoctor(@Nullable String authorizationHeader,
-                                                @NonNull Long patientUserId,
-                                                @Nullable Long indicatorTypeId,
-                                                @Nullable String fromIso,
-                                                @Nullable String toIso,
-                                                @NonNull IndicatorsCallback callback) {
+    public RequestHandle getIndicatorsForPatientAsDoctor(@NonNull Long patientUserId,
+                                                         @Nullable Long indicatorTypeId,
+                                                         @Nullable String fromIso,
+                                                         @Nullable String toIso,
+                                                         @NonNull IndicatorsCallback callback) {
 
         Call<ListResponseDto<PatientIndicator>> call =
                 apiService.getIndicatorsForPatientAsDoctor(
-                        authorizationHeader,
                         patientUserId,
                         indicatorTypeId,
                         fromIso,
                         toIso
                 );
 
-        call.enqueue(new Callback<ListResponseDto<PatientIndicator>>() {
+        return RequestHandle.enqueue(call, new Callback<ListResponseDto<PatientIndicator>>() {
             @Override
             public void onResponse(
                     @NonNull Call<ListResponseDto<PatientIndicator>> call,
@@ -217,6 +232,75 @@ public class PatientIndicatorRepository {
         });
     }
 
+    // ------------------------------------------------------------------------
+    // Local time series (type / range filters without a new request)
+    // ------------------------------------------------------------------------
+
+    /**
+     * Indicators of the current patient, newest first. Answered from
+     * {@link IndicatorSeriesStore} when the range was fetched recently (the callback then
+     * runs before this returns); otherwise only the missing part is requested and merged.
+     *
+     * @param refresh user asked for fresh data: the whole range is requested again
+     */
+    public RequestHandle loadMyIndicators(@Nullable Long indicatorTypeId,
+                                          @Nullable String fromIso,
+                                          @Nullable String toIso,
+                                          boolean refresh,
+                                          @NonNull IndicatorsCallback callback) {
+        return loadSeries(SCOPE_ME, null, indicatorTypeId, fromIso, toIso, refresh, callback);
+    }
+
+    /**
+     * Doctor view of a patient's indicators, served like {@link #loadMyIndicators}.
+     */
+    public RequestHandle loadIndicatorsForPatient(long patientUserId,
+                                                  @Nullable Long indicatorTypeId,
+                                                  @Nullable String fromIso,
+                                                  @Nullable String toIso,
+                                                  boolean refresh,
+                                                  @NonNull IndicatorsCallback callback) {
+        return loadSeries(scopeForPatient(patientUserId), patientUserId,
+                indicatorTypeId, fromIso, toIso, refresh, callback);
+    }
+
+    private RequestHandle loadSeries(@NonNull String scope,
+                                     @Nullable Long patientUserId,
+                                     @Nullable Long indicatorTypeId,
+                                     @Nullable String fromIso,
+                                     @Nullable String toIso,
+                                     boolean refresh,
+                                     @NonNull IndicatorsCallback callback) {
+        IndicatorSeriesStore.Range missing =
+                seriesStore.missingRange(scope, indicatorTypeId, fromIso, toIso, refresh);
+        if (missing == null) {
+            callback.onSuccess(seriesStore.query(scope, indicatorTypeId, fromIso, toIso));
+            return RequestHandle.NONE;
+        }
+
+        IndicatorsCallback merge = new IndicatorsCallback() {
+            @Override
+            public void onSuccess(List<PatientIndicator> fetched) {
+                seriesStore.mergeRange(scope, indicatorTypeId, missing.fromIso, missing.toIso,
+                        fetched != null ? fetched : Collections.emptyList());
+                callback.onSuccess(seriesStore.query(scope, indicatorTypeId, fromIso, toIso));
+            }
+
+            @Override
+            public void onError(@Nullable Throwable throwable,
+                                @Nullable Integer httpCode,
+                                @Nullable String errorBody) {
+                callback.onError(throwable, httpCode, errorBody);
+            }
+        };
+
+        if (patientUserId == null) {
+            return getMyIndicators(indicatorTypeId, missing.fromIso, missing.toIso, merge);
+        }
+        return getIndicatorsForPatientAsDoctor(patientUserId,
+                indicatorTypeId, missing.fromIso, missing.toIso, merge);
+    }
+
     // ------------------------------------------------------------------------
     // Add new indicator for current patient
     // ------------------------------------------------------------------------
@@ -224,6 +308,12 @@ public class PatientIndicatorRepository {
     public interface AddIndicatorCallback {
         void onSuccess(PatientIndicator created);
 
+        /**
+         * Offline or server unavailable: the measurement is stored and will be sent later.
+         */
+        default void onQueued() {
+        }
+
         void onError(@Nullable Throwable throwable,
                      @Nullable Integer httpCode,
                      @Nullable String errorBody);
@@ -232,47 +322,76 @@ public class PatientIndicatorRepository {
     /**
      * Adds a new indicator measurement for the current patient.
      *
-     * @param authorizationHeader e.g. "Bearer <token>" (can be null for now)
-     * @param request             create request DTO
+     * Goes through the {@link Outbox}, which signs the request with the current session
+     * when it is sent: offline, the measurement is kept and sent later
+     * ({@link AddIndicatorCallback#onQueued()}). Until then the series holds it under a
+     * negative id (minus the outbox id), swapped for the created one once sent.
+     *
+     * @param request create request DTO
      */
-    public void addMyIndicator(@Nullable String authorizationHeader,
-                               @NonNull PatientIndicatorCreateRequestDto request,
-                               @NonNull AddIndicatorCallback callback) {
+    public RequestHandle addMyIndicator(@NonNull PatientIndicatorCreateRequestDto request,
+                                        @NonNull AddIndicatorCallback callback) {
+        if (!tokenHolder.isSignedIn()) {
+            callback.onError(null, 401, "Not authenticated");
+            return RequestHandle.NONE;
+        }
 
-        Call<PatientIndicator> call = apiService.addMyIndicator(authorizationHeader, request);
+        return outbox.enqueue(Outbox.KIND_ADD_INDICATOR, null, request, new Outbox.Callback() {
+            // Id of the local placeholder, 0 while there is none
+            private long placeholderId;
 
-        call.enqueue(new Callback<PatientIndicator>() {
             @Override
-            public void onResponse(
-                    @NonNull Call<PatientIndicator> call,
-                    @NonNull Response<PatientIndicator> response
-            ) {
-                if (response.isSuccessful()) {
-                    PatientIndicator body = response.body();
-                    callback.onSuccess(body);
-                } else {
-                    String errorText = null;
-                    ResponseBody errorBody = response.errorBody();
-                    if (errorBody != null) {
-                        try {
-                            errorText = errorBody.string();
-                        } catch (IOException ignored) {
-                        }
-                    }
-                    callback.onError(null, response.code(), errorText);
-                }
+            public void onQueued(long operationId) {
+                placeholderId = -operationId;
+                seriesStore.upsert(SCOPE_ME, placeholderOf(placeholderId, request));
+                callback.onQueued();
             }
 
             @Override
-            public void onFailure(
-                    @NonNull Call<PatientIndicator> call,
-                    @NonNull Throwable t
-            ) {
-                callback.onError(t, null, null);
+            public void onSuccess(@Nullable Object body) {
+                dropPlaceholder();
+                PatientIndicator created = body instanceof PatientIndicator
+                        ? (PatientIndicator) body
+                        : null;
+                seriesStore.upsert(SCOPE_ME, created);
+                callback.onSuccess(created);
+            }
+
+            @Override
+            public void onError(@Nullable Throwable throwable,
+                                @Nullable Integer httpCode,
+                                @Nullable String errorBody) {
+                dropPlaceholder();
+                callback.onError(throwable, httpCode, errorBody);
+            }
+
+            private void dropPlaceholder() {
+                if (placeholderId != 0L) {
+                    seriesStore.delete(SCOPE_ME, placeholderId);
+                }
             }
         });
     }
 
+    /**
+     * What the series shows for a measurement still in the outbox.
+     */
+    @NonNull
+    private static PatientIndicator placeholderOf(long placeholderId,
+                                                  @NonNull PatientIndicatorCreateRequestDto request) {
+        PatientIndicator placeholder = new PatientIndicator();
+        placeholder.setId(placeholderId);
+        placeholder.setIndicatorTypeId(request.getIndicatorTypeId());
+        placeholder.setNumericValue(request.getNumericValue());
+        placeholder.setTextValue(request.getTextValue());
+        placeholder.setNote(request.getNote());
+        // The server stamps it with now() when none is given
+        placeholder.setMeasuredAt(request.getMeasuredAt() != null
+                ? request.getMeasuredAt()
+                : new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss", Locale.US).format(new Date()));
+        return placeholder;
+    }
+
     // ------------------------------------------------------------------------
     // Delete indicator for current patient
     // ------------------------------------------------------------------------
@@ -288,22 +407,21 @@ public class PatientIndicatorRepository {
     /**
      * Deletes a single indicator of the current patient.
      *
-     * @param authorizationHeader e.g. "Bearer <token>" (can be null for now)
-     * @param indicatorId         id to delete (required)
+     * @param indicatorId id to delete (required)
      */
-    public void deleteMyIndicator(@Nullable String authorizationHeader,
-                                  @NonNull Long indicatorId,
-                                  @NonNull DeleteIndicatorCallback callback) {
+    public RequestHandle deleteMyIndicator(@NonNull Long indicatorId,
+                                           @NonNull DeleteIndicatorCallback callback) {
 
-        Call<Void> call = apiService.deleteMyIndicator(authorizationHeader, indicatorId);
+        Call<Void> call = apiService.deleteMyIndicator(indicatorId);
 
-        call.enqueue(new Callback<Void>() {
+        return RequestHandle.enqueue(call, new Callback<Void>() {
             @Override
             public void onResponse(
                     @NonNull Call<Void> call,
                     @NonNull Response<Void> response
             ) {
                 if (response.isSuccessful()) {
+                    seriesStore.delete(SCOPE_ME, indicatorId);
                     callback.onSuccess();
                 } else {
                     String errorText = null;
@@ -0,0 +1,56 @@
+package tn.esprit.data.medication;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+/**
+ * SQLite schema of the local medication catalog (see {@link MedicationCatalogStore}).
+ *
+ *  - medications:  one row per catalog entry.
+ *  - catalog_meta: key/value pairs (ETag and time of the last refresh).
+ */
+class MedicationCatalogDbHelper extends SQLiteOpenHelper {
+
+    private static final String DB_NAME = "medication_catalog.db";
+    private static final int DB_VERSION = 1;
+
+    static final String TABLE_MEDICATIONS = "medications";
+    static final String COL_ID = "id";
+    static final String COL_CODE = "code";
+    static final String COL_NAME = "name";
+    static final String COL_DESCRIPTION = "description";
+    static final String COL_ACTIVE = "active";
+
+    static final String TABLE_META = "catalog_meta";
+    static final String COL_KEY = "key";
+    static final String COL_VALUE = "value";
+
+    static final String META_ETAG = "etag";
+    static final String META_REFRESHED_AT = "refreshed_at";
+
+    MedicationCatalogDbHelper(Context context) {
+        super(context, DB_NAME, null, DB_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_MEDICATIONS + " ("
+                + COL_ID + " INTEGER PRIMARY KEY, "
+                + COL_CODE + " TEXT, "
+                + COL_NAME + " TEXT, "
+                + COL_DESCRIPTION + " TEXT, "
+                + COL_ACTIVE + " INTEGER)");
+        db.execSQL("CREATE TABLE " + TABLE_META + " ("
+                + COL_KEY + " TEXT PRIMARY KEY, "
+                + COL_VALUE + " TEXT)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // Pure cache: rebuild from the server
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_MEDICATIONS);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_META);
+        onCreate(db);
+    }
+}
@@ -0,0 +1,296 @@
+package tn.esprit.data.medication;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import tn.esprit.domain.medication.Medication;
+
+/**
+ * Medication catalog persisted on the device and searchable without the network.
+ *
+ * The catalog is read from SQLite once per process and turned into a
+ * {@link MedicationSearchIndex}; {@link #search(String, int)} then answers autocomplete
+ * queries in memory (call it off the main thread, e.g. from a Filter).
+ *
+ * {@link #ensureFresh()} refreshes the catalog in the background at most every
+ * {@link #REFRESH_INTERVAL_MILLIS}. The API has no "changed since" query, so the delta
+ * is computed here: an unchanged ETag skips the work, otherwise only added / changed /
+ * removed rows are written and the index is rebuilt.
+ */
+public final class MedicationCatalogStore {
+
+    private static final String TAG = "MedicationCatalog";
+
+    private static final long REFRESH_INTERVAL_MILLIS = 6L * 60L * 60L * 1000L;
+
+    private static MedicationCatalogStore instance;
+
+    public static synchronized MedicationCatalogStore getInstance(@NonNull Context context) {
+        if (instance == null) {
+            instance = new MedicationCatalogStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private final MedicationCatalogDbHelper dbHelper;
+    private final MedicationRepository repository;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private volatile MedicationSearchIndex index = MedicationSearchIndex.EMPTY;
+
+    // Executor thread only
+    private boolean loadedFromDb;
+    // Guarded by "this"
+    private boolean refreshing;
+
+    private MedicationCatalogStore(Context appContext) {
+        this.dbHelper = new MedicationCatalogDbHelper(appContext);
+        this.repository = new MedicationRepository(appContext);
+    }
+
+    // -------------------------------------------------------------------------
+    // Queries (any thread)
+    // -------------------------------------------------------------------------
+
+    /**
+     * Best matches for query (name / code prefix first, then infix), at most limit.
+     */
+    @NonNull
+    public List<Medication> search(@Nullable String query, int limit) {
+        return index.search(query, limit);
+    }
+
+    /**
+     * Entry whose {@link Medication#getDisplayName()} equals displayName, if any.
+     */
+    @Nullable
+    public Medication findByDisplayName(@NonNull String displayName) {
+        return index.findByDisplayName(displayName.trim());
+    }
+
+    public boolean isEmpty() {
+        return index.size() == 0;
+    }
+
+    // -------------------------------------------------------------------------
+    // Loading / refresh
+    // -------------------------------------------------------------------------
+
+    /**
+     * Loads the stored catalog (first call) and refreshes it from the server when it is
+     * missing or older than the refresh interval. Returns immediately.
+     */
+    public void ensureFresh() {
+        executor.execute(() -> {
+            loadFromDbOnce();
+            String refreshedAt = readMeta(MedicationCatalogDbHelper.META_REFRESHED_AT);
+            long last = refreshedAt != null ? parseLong(refreshedAt) : 0L;
+            long now = System.currentTimeMillis();
+            if (index.size() == 0 || last <= 0L || now - last > REFRESH_INTERVAL_MILLIS) {
+                refresh();
+            }
+        });
+    }
+
+    private void refresh() {
+        synchronized (this) {
+            if (refreshing) return;
+            refreshing = true;
+        }
+
+        repository.getMedicationCatalog(new MedicationRepository.CatalogCallback() {
+            @Override
+            public void onSuccess(@NonNull List<Medication> medications, @Nullable String etag) {
+                executor.execute(() -> {
+                    try {
+                        applyCatalog(medications, etag);
+                    } finally {
+                        synchronized (MedicationCatalogStore.this) {
+                            refreshing = false;
+                        }
+                    }
+                });
+            }
+
+            @Override
+            public void onError(@Nullable Throwable throwable,
+                                @Nullable Integer httpCode,
+                                @Nullable String errorBody) {
+                Log.w(TAG, "Catalog refresh failed (" + httpCode + ")", throwable);
+                synchronized (MedicationCatalogStore.this) {
+                    refreshing = false;
+                }
+            }
+        });
+    }
+
+    // -------------------------------------------------------------------------
+    // Executor thread
+    // -------------------------------------------------------------------------
+
+    private void loadFromDbOnce() {
+        if (loadedFromDb) return;
+        loadedFromDb = true;
+
+        long start = SystemClock.elapsedRealtime();
+        List<Medication> stored = new ArrayList<>();
+        try (Cursor cursor = dbHelper.getReadableDatabase().query(
+                MedicationCatalogDbHelper.TABLE_MEDICATIONS,
+                new String[]{
+                        MedicationCatalogDbHelper.COL_ID,
+                        MedicationCatalogDbHelper.COL_CODE,
+                        MedicationCatalogDbHelper.COL_NAME,
+                        MedicationCatalogDbHelper.COL_DESCRIPTION,
+                        MedicationCatalogDbHelper.COL_ACTIVE
+                },
+                null, null, null, null, null)) {
+            while (cursor.moveToNext()) {
+                stored.add(new Medication(
+                        cursor.getLong(0),
+                        cursor.getString(1),
+                        cursor.getString(2),
+                        cursor.getString(3),
+                        cursor.isNull(4) ? null : cursor.getInt(4) != 0
+                ));
+            }
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Reading stored catalog failed", e);
+            return;
+        }
+
+        index = new MedicationSearchIndex(stored);
+        Log.d(TAG, "Loaded " + stored.size() + " medications in "
+                + (SystemClock.elapsedRealtime() - start) + " ms");
+    }
+
+    private void applyCatalog(@NonNull List<Medication> medications, @Nullable String etag) {
+        loadFromDbOnce();
+        String now = String.valueOf(System.currentTimeMillis());
+
+        String storedEtag = readMeta(MedicationCatalogDbHelper.META_ETAG);
+        if (etag != null && etag.equals(storedEtag) && index.size() > 0) {
+            writeMeta(MedicationCatalogDbHelper.META_REFRESHED_AT, now);
+            return;
+        }
+
+        Map<Long, Medication> current = new HashMap<>();
+        for (Medication med : index.search(null, Integer.MAX_VALUE)) {
+            if (med.getId() != null) current.put(med.getId(), med);
+        }
+
+        int written = 0;
+        int removed = 0;
+        Set<Long> seen = new HashSet<>();
+        try {
+            SQLiteDatabase db = dbHelper.getWritableDatabase();
+            db.beginTransaction();
+            try {
+                for (Medication med : medications) {
+                    if (med == null || med.getId() == null) continue;
+                    seen.add(med.getId());
+                    if (sameContent(current.get(med.getId()), med)) continue;
+                    db.insertWithOnConflict(MedicationCatalogDbHelper.TABLE_MEDICATIONS, null,
+                            toValues(med), SQLiteDatabase.CONFLICT_REPLACE);
+                    written++;
+                }
+                for (Long id : current.keySet()) {
+                    if (seen.contains(id)) continue;
+                    db.delete(MedicationCatalogDbHelper.TABLE_MEDICATIONS,
+                            MedicationCatalogDbHelper.COL_ID + " = ?",
+                            new String[]{String.valueOf(id)});
+                    removed++;
+                }
+                putMeta(db, MedicationCatalogDbHelper.META_ETAG, etag);
+                putMeta(db, MedicationCatalogDbHelper.META_REFRESHED_AT, now);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Saving catalog failed", e);
+        }
+
+        if (written > 0 || removed > 0 || index.size() == 0) {
+            index = new MedicationSearchIndex(medications);
+        }
+        Log.d(TAG, "Catalog refreshed: " + written + " written, " + removed + " removed");
+    }
+
+    @Nullable
+    private String readMeta(@NonNull String key) {
+        try (Cursor cursor = dbHelper.getReadableDatabase().query(
+                MedicationCatalogDbHelper.TABLE_META,
+                new String[]{MedicationCatalogDbHelper.COL_VALUE},
+                MedicationCatalogDbHelper.COL_KEY + " = ?",
+                new String[]{key},
+                null, null, null)) {
+            return cursor.moveToFirst() ? cursor.getString(0) : null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private void writeMeta(@NonNull String key, @Nullable String value) {
+        try {
+            putMeta(dbHelper.getWritableDatabase(), key, value);
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Saving catalog metadata failed", e);
+        }
+    }
+
+    private static void putMeta(SQLiteDatabase db, @NonNull String key, @Nullable String value) {
+        ContentValues values = new ContentValues();
+        values.put(MedicationCatalogDbHelper.COL_KEY, key);
+        values.put(MedicationCatalogDbHelper.COL_VALUE, value);
+        db.insertWithOnConflict(MedicationCatalogDbHelper.TABLE_META, null, values,
+                SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    @NonNull
+    private static ContentValues toValues(@NonNull Medication med) {
+        ContentValues values = new ContentValues();
+        values.put(MedicationCatalogDbHelper.COL_ID, med.getId());
+        values.put(MedicationCatalogDbHelper.COL_CODE, med.getCode());
+        values.put(MedicationCatalogDbHelper.COL_NAME, med.getName());
+        values.put(MedicationCatalogDbHelper.COL_DESCRIPTION, med.getDescription());
+        if (med.getActive() != null) {
+            values.put(MedicationCatalogDbHelper.COL_ACTIVE, med.getActive() ? 1 : 0);
+        } else {
+            values.putNull(MedicationCatalogDbHelper.COL_ACTIVE);
+        }
+        return values;
+    }
+
+    private static boolean sameContent(@Nullable Medication a, @NonNull Medication b) {
+        return a != null
+                && Objects.equals(a.getCode(), b.getCode())
+                && Objects.equals(a.getName(), b.getName())
+                && Objects.equals(a.getDescription(), b.getDescription())
+                && Objects.equals(a.getActive(), b.getActive());
+    }
+
+    private static long parseLong(@NonNull String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package tn.esprit.data.medication;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+/**
+ * SQLite schema of the medication reminders (see {@link MedicationReminderStore}).
+ *
+ *  - reminders: one row per prescription line with a daily reminder (time + the
+ *    medication name shown in the notification).
+ */
+class MedicationReminderDbHelper extends SQLiteOpenHelper {
+
+    private static final String DB_NAME = "medication_reminders.db";
+    private static final int DB_VERSION = 1;
+
+    static final String TABLE_REMINDERS = "reminders";
+    static final String COL_LINE_ID = "line_id";
+    static final String COL_HOUR = "hour";
+    static final String COL_MINUTE = "minute";
+    static final String COL_MEDICATION_NAME = "medication_name";
+
+    MedicationReminderDbHelper(Context context) {
+        super(context, DB_NAME, null, DB_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_REMINDERS + " ("
+                + COL_LINE_ID + " INTEGER PRIMARY KEY, "
+                + COL_HOUR + " INTEGER NOT NULL, "
+                + COL_MINUTE + " INTEGER NOT NULL, "
+                + COL_MEDICATION_NAME + " TEXT NOT NULL)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // Version 1 is the only schema; reminders are user data, so a future version
+        // must migrate instead of dropping the table
+    }
+}
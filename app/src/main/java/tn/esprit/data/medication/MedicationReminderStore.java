@@ -0,0 +1,313 @@
+package tn.esprit.data.medication;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.TextUtils;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Daily medication reminders, keyed by prescription line id.
+ *
+ * Rows live in SQLite (medication_reminders.db) and are read, in a single query, into a
+ * map on the store's executor as soon as the store is created. {@link #get} never touches
+ * the database and is safe on the main thread (the adapter asks for every bound line):
+ * until the map is loaded it only sees this process's writes, and {@link #whenLoaded}
+ * tells the screen when to rebind. Writes update the map right away and go to disk in the
+ * background, several lines in one transaction with {@link #putAll}.
+ *
+ * Reminders saved by older versions as loose SharedPreferences keys are imported by the
+ * first load, then the preferences are cleared. A failed load is retried by the next
+ * read. Thread-safe.
+ */
+public final class MedicationReminderStore {
+
+    private static final String TAG = "MedicationReminderStore";
+
+    // Pre-SQLite storage: line_<id>_hour / _minute / _name
+    private static final String LEGACY_PREFS_NAME = "medication_reminders";
+    private static final String LEGACY_KEY_PREFIX = "line_";
+    private static final String LEGACY_SUFFIX_HOUR = "_hour";
+    private static final String LEGACY_SUFFIX_MINUTE = "_minute";
+    private static final String LEGACY_SUFFIX_NAME = "_name";
+
+    private static MedicationReminderStore instance;
+
+    public static synchronized MedicationReminderStore getInstance(@NonNull Context context) {
+        if (instance == null) {
+            instance = new MedicationReminderStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * One reminder: every day at hour:minute for the given line.
+     */
+    public static final class Reminder {
+        public final long lineId;
+        public final int hour;
+        public final int minute;
+        @NonNull
+        public final String medicationName;
+
+        public Reminder(long lineId, int hour, int minute, @NonNull String medicationName) {
+            this.lineId = lineId;
+            this.hour = hour;
+            this.minute = minute;
+            this.medicationName = medicationName;
+        }
+    }
+
+    private final Context appContext;
+    private final MedicationReminderDbHelper dbHelper;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Guarded by "this". Until loaded: only the lines written since, in writtenBeforeLoad
+    private final Map<Long, Reminder> reminders = new HashMap<>();
+    private final Set<Long> writtenBeforeLoad = new HashSet<>();
+    private final List<Runnable> onLoaded = new ArrayList<>();
+    private boolean loaded;
+    private boolean loadQueued;
+
+    @VisibleForTesting
+    MedicationReminderStore(Context appContext) {
+        this.appContext = appContext;
+        this.dbHelper = new MedicationReminderDbHelper(appContext);
+        queueLoad();
+    }
+
+    // -------------------------------------------------------------------------
+    // Reads
+    // -------------------------------------------------------------------------
+
+    /**
+     * Reminder of this line; null while the stored ones are still loading.
+     */
+    @Nullable
+    public synchronized Reminder get(long lineId) {
+        if (!loaded) queueLoad();
+        return reminders.get(lineId);
+    }
+
+    /**
+     * Every stored reminder (boot rescheduling). Waits for the load: not on the main thread.
+     */
+    @WorkerThread
+    @NonNull
+    public List<Reminder> getAll() {
+        try {
+            executor.submit(this::load).get();
+        } catch (ExecutionException e) {
+            Log.w(TAG, "Loading reminders failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            return new ArrayList<>(reminders.values());
+        }
+    }
+
+    /**
+     * Runs action on the main thread once the stored reminders are in memory (right away,
+     * posted, when they already are).
+     */
+    public void whenLoaded(@NonNull Runnable action) {
+        synchronized (this) {
+            if (!loaded) {
+                onLoaded.add(action);
+                queueLoad();
+                return;
+            }
+        }
+        mainHandler.post(action);
+    }
+
+    // -------------------------------------------------------------------------
+    // Writes
+    // -------------------------------------------------------------------------
+
+    public void put(@NonNull Reminder reminder) {
+        putAll(Collections.singletonList(reminder));
+    }
+
+    /**
+     * Inserts or replaces several reminders in one transaction.
+     */
+    public void putAll(@NonNull Collection<Reminder> items) {
+        if (items.isEmpty()) return;
+        List<Reminder> copy = new ArrayList<>(items);
+        synchronized (this) {
+            for (Reminder reminder : copy) {
+                reminders.put(reminder.lineId, reminder);
+                if (!loaded) writtenBeforeLoad.add(reminder.lineId);
+            }
+        }
+        executor.execute(() -> {
+            try {
+                SQLiteDatabase db = dbHelper.getWritableDatabase();
+                db.beginTransaction();
+                try {
+                    for (Reminder reminder : copy) {
+                        insertOrReplace(db, reminder);
+                    }
+                    db.setTransactionSuccessful();
+                } finally {
+                    db.endTransaction();
+                }
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Saving reminders failed", e);
+            }
+        });
+    }
+
+    public void remove(long lineId) {
+        synchronized (this) {
+            reminders.remove(lineId);
+            if (!loaded) writtenBeforeLoad.add(lineId);
+        }
+        executor.execute(() -> {
+            try {
+                dbHelper.getWritableDatabase().delete(MedicationReminderDbHelper.TABLE_REMINDERS,
+                        MedicationReminderDbHelper.COL_LINE_ID + " = ?",
+                        new String[]{String.valueOf(lineId)});
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Deleting reminder failed", e);
+            }
+        });
+    }
+
+    // -------------------------------------------------------------------------
+    // Load (executor thread)
+    // -------------------------------------------------------------------------
+
+    // Caller holds "this"
+    private void queueLoad() {
+        if (loadQueued) return;
+        loadQueued = true;
+        executor.execute(this::load);
+    }
+
+    private void load() {
+        synchronized (this) {
+            loadQueued = false;
+            if (loaded) return;
+        }
+
+        Map<Long, Reminder> stored = new HashMap<>();
+        try {
+            SQLiteDatabase db = dbHelper.getWritableDatabase();
+            importLegacyPrefs(db);
+            try (Cursor cursor = db.query(MedicationReminderDbHelper.TABLE_REMINDERS,
+                    new String[]{
+                            MedicationReminderDbHelper.COL_LINE_ID,
+                            MedicationReminderDbHelper.COL_HOUR,
+                            MedicationReminderDbHelper.COL_MINUTE,
+                            MedicationReminderDbHelper.COL_MEDICATION_NAME
+                    },
+                    null, null, null, null, null)) {
+                while (cursor.moveToNext()) {
+                    Reminder reminder = new Reminder(
+                            cursor.getLong(0),
+                            cursor.getInt(1),
+                            cursor.getInt(2),
+                            cursor.getString(3)
+                    );
+                    stored.put(reminder.lineId, reminder);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Nothing cached: the next read tries again
+            Log.w(TAG, "Reading reminders failed", e);
+            return;
+        }
+
+        List<Runnable> actions;
+        synchronized (this) {
+            // Lines written meanwhile keep their newer value (or stay removed)
+            for (Map.Entry<Long, Reminder> entry : stored.entrySet()) {
+                if (!writtenBeforeLoad.contains(entry.getKey())) {
+                    reminders.put(entry.getKey(), entry.getValue());
+                }
+            }
+            writtenBeforeLoad.clear();
+            loaded = true;
+            actions = new ArrayList<>(onLoaded);
+            onLoaded.clear();
+        }
+        for (Runnable action : actions) {
+            mainHandler.post(action);
+        }
+    }
+
+    private void importLegacyPrefs(@NonNull SQLiteDatabase db) {
+        SharedPreferences prefs =
+                appContext.getSharedPreferences(LEGACY_PREFS_NAME, Context.MODE_PRIVATE);
+        Map<String, ?> all = prefs.getAll();
+        if (all == null || all.isEmpty()) return;
+
+        db.beginTransaction();
+        try {
+            for (String key : all.keySet()) {
+                if (!key.startsWith(LEGACY_KEY_PREFIX) || !key.endsWith(LEGACY_SUFFIX_HOUR)) {
+                    continue;
+                }
+                String idPart = key.substring(
+                        LEGACY_KEY_PREFIX.length(),
+                        key.length() - LEGACY_SUFFIX_HOUR.length()
+                );
+                long lineId;
+                try {
+                    lineId = Long.parseLong(idPart);
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                String base = LEGACY_KEY_PREFIX + idPart;
+                int hour = prefs.getInt(key, -1);
+                int minute = prefs.getInt(base + LEGACY_SUFFIX_MINUTE, -1);
+                String name = prefs.getString(base + LEGACY_SUFFIX_NAME, null);
+                if (hour < 0 || minute < 0 || TextUtils.isEmpty(name)) {
+                    continue;
+                }
+                insertOrReplace(db, new Reminder(lineId, hour, minute, name));
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        prefs.edit().clear().apply();
+        Log.d(TAG, "Imported legacy reminder preferences");
+    }
+
+    private static void insertOrReplace(@NonNull SQLiteDatabase db, @NonNull Reminder reminder) {
+        ContentValues values = new ContentValues();
+        values.put(MedicationReminderDbHelper.COL_LINE_ID, reminder.lineId);
+        values.put(MedicationReminderDbHelper.COL_HOUR, reminder.hour);
+        values.put(MedicationReminderDbHelper.COL_MINUTE, reminder.minute);
+        values.put(MedicationReminderDbHelper.COL_MEDICATION_NAME, reminder.medicationName);
+        db.insertWithOnConflict(MedicationReminderDbHelper.TABLE_REMINDERS, null, values,
+                SQLiteDatabase.CONFLICT_REPLACE);
+    }
+}
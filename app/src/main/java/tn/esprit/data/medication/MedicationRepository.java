@@ -15,6 +15,7 @@ import retrofit2.Callback;
 import retrofit2.Response;
 import tn.esprit.data.remote.ApiClient;
 import tn.esprit.data.remote.common.ListResponseDto;
+import tn.esprit.data.remote.http.RequestHandle;
 import tn.esprit.data.remote.medication.MedicationApiService;
 import tn.esprit.domain.medication.Medication;
 
@@ -23,6 +24,7 @@ import tn.esprit.domain.medication.Medication;
  *
  * Current scope:
  *  - Load list of medications (optionally filtered by query) for doctor flows.
+ *  - Load the full catalog with its ETag for {@link MedicationCatalogStore}.
  */
 public class MedicationRepository {
 
@@ -45,17 +47,28 @@ public class MedicationRepository {
                      @Nullable String errorBody);
     }
 
+    public interface CatalogCallback {
+        /**
+         * @param etag ETag of the catalog response, null if the server sent none
+         */
+        void onSuccess(@NonNull List<Medication> medications, @Nullable String etag);
+
+        void onError(@Nullable Throwable throwable,
+                     @Nullable Integer httpCode,
+                     @Nullable String errorBody);
+    }
+
     /**
      * Retrieve list of medications.
      *
      * @param query optional filter; null for full list.
      */
-    public void getMedications(@Nullable String query,
-                               @NonNull MedicationsCallback callback) {
+    public RequestHandle getMedications(@Nullable String query,
+                                        @NonNull MedicationsCallback callback) {
 
         Call<ListResponseDto<Medication>> call = apiService.getMedications(query);
 
-        call.enqueue(new Callback<ListResponseDto<Medication>>() {
+        return RequestHandle.enqueue(call, new Callback<ListResponseDto<Medication>>() {
             @Override
             public void onResponse(
                     @NonNull Call<ListResponseDto<Medication>> call,
@@ -85,6 +98,44 @@ public class MedicationRepository {
         });
     }
 
+    /**
+     * Full catalog (GET /api/medications without query) together with its ETag, so the
+     * local catalog can tell an unchanged catalog from a new one.
+     */
+    public RequestHandle getMedicationCatalog(@NonNull CatalogCallback callback) {
+
+        Call<ListResponseDto<Medication>> call = apiService.getMedications(null);
+
+        return RequestHandle.enqueue(call, new Callback<ListResponseDto<Medication>>() {
+            @Override
+            public void onResponse(
+                    @NonNull Call<ListResponseDto<Medication>> call,
+                    @NonNull Response<ListResponseDto<Medication>> response
+            ) {
+                if (!response.isSuccessful()) {
+                    callback.onError(null, response.code(), safeErrorBody(response.errorBody()));
+                    return;
+                }
+
+                ListResponseDto<Medication> body = response.body();
+                List<Medication> items =
+                        (body != null && body.getItems() != null)
+                                ? body.getItems()
+                                : Collections.emptyList();
+
+                callback.onSuccess(items, response.headers().get("ETag"));
+            }
+
+            @Override
+            public void onFailure(
+                    @NonNull Call<ListResponseDto<Medication>> call,
+                    @NonNull Throwable t
+            ) {
+                callback.onError(t, null, null);
+            }
+        });
+    }
+
     // ---------------------------------------------------------------------
     // Helpers
     // ---------------------------------------------------------------------
@@ -0,0 +1,261 @@
+package tn.esprit.data.medication;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import tn.esprit.domain.medication.Medication;
+
+/**
+ * Immutable in-memory search index over the medication catalog (name and code).
+ *
+ *  - prefix: entries sorted by normalized name, plus a second order by code; a query
+ *    is located with a binary search and the matching range read in order.
+ *  - infix:  trigram → ascending entry positions; the candidates are the intersection
+ *    of the query's trigrams, then checked with contains().
+ *
+ * Results are ranked: name prefix, code prefix, word start inside the name, any other
+ * infix (queries of 3+ characters only); each rank in alphabetical order, top N overall.
+ * Text is lower-cased and accent-stripped, so "amoxi" also finds "Amoxicilline".
+ */
+final class MedicationSearchIndex {
+
+    static final MedicationSearchIndex EMPTY = new MedicationSearchIndex(Collections.emptyList());
+
+    private static final int GRAM = 3;
+
+    // Entry i: items[i], names[i], codes[i]; sorted by names
+    private final Medication[] items;
+    private final String[] names;
+    private final String[] codes;
+    // Entry positions sorted by code (entries without code excluded)
+    private final int[] byCode;
+    private final Map<String, int[]> grams;
+    private final Map<String, Medication> byDisplayName;
+
+    MedicationSearchIndex(@NonNull List<Medication> source) {
+        List<Medication> valid = new ArrayList<>(source.size());
+        for (Medication med : source) {
+            if (med != null) valid.add(med);
+        }
+
+        int n = valid.size();
+        Integer[] order = new Integer[n];
+        String[] rawNames = new String[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+            rawNames[i] = normalize(valid.get(i).getDisplayName());
+        }
+        Arrays.sort(order, (a, b) -> rawNames[a].compareTo(rawNames[b]));
+
+        items = new Medication[n];
+        names = new String[n];
+        codes = new String[n];
+        byDisplayName = new HashMap<>(n * 2);
+        List<Integer> withCode = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Medication med = valid.get(order[i]);
+            items[i] = med;
+            names[i] = rawNames[order[i]];
+            codes[i] = normalize(med.getCode());
+            if (!codes[i].isEmpty()) withCode.add(i);
+            byDisplayName.put(med.getDisplayName(), med);
+        }
+
+        Collections.sort(withCode, (a, b) -> codes[a].compareTo(codes[b]));
+        byCode = new int[withCode.size()];
+        for (int i = 0; i < byCode.length; i++) {
+            byCode[i] = withCode.get(i);
+        }
+
+        grams = buildGrams();
+    }
+
+    int size() {
+        return items.length;
+    }
+
+    @Nullable
+    Medication findByDisplayName(@NonNull String displayName) {
+        return byDisplayName.get(displayName);
+    }
+
+    /**
+     * Up to limit entries matching query, best first. An empty query returns the first
+     * entries alphabetically.
+     */
+    @NonNull
+    List<Medication> search(@Nullable String query, int limit) {
+        List<Medication> out = new ArrayList<>(Math.min(limit, items.length));
+        if (limit <= 0 || items.length == 0) return out;
+
+        String q = normalize(query);
+        if (q.isEmpty()) {
+            for (int i = 0; i < items.length && out.size() < limit; i++) {
+                out.add(items[i]);
+            }
+            return out;
+        }
+
+        Set<Integer> seen = new HashSet<>();
+
+        // 1. Name prefix
+        for (int i = lowerBound(q); i < names.length && out.size() < limit; i++) {
+            if (!names[i].startsWith(q)) break;
+            seen.add(i);
+            out.add(items[i]);
+        }
+
+        // 2. Code prefix
+        for (int k = lowerBoundCode(q); k < byCode.length && out.size() < limit; k++) {
+            int i = byCode[k];
+            if (!codes[i].startsWith(q)) break;
+            if (seen.add(i)) out.add(items[i]);
+        }
+
+        if (out.size() >= limit || q.length() < GRAM) return out;
+
+        // 3 / 4. Infix through the trigram index
+        int[] candidates = candidatesFor(q);
+        if (candidates == null) return out;
+
+        String wordStart = " " + q;
+        List<Medication> infix = new ArrayList<>();
+        for (int i : candidates) {
+            if (out.size() >= limit) break;
+            if (seen.contains(i)) continue;
+            if (names[i].contains(wordStart)) {
+                seen.add(i);
+                out.add(items[i]);
+            } else if (infix.size() < limit && (names[i].contains(q) || codes[i].contains(q))) {
+                infix.add(items[i]);
+            }
+        }
+        for (int k = 0; k < infix.size() && out.size() < limit; k++) {
+            out.add(infix.get(k));
+        }
+        return out;
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    @NonNull
+    static String normalize(@Nullable String value) {
+        if (value == null) return "";
+        String stripped = Normalizer.normalize(value.trim(), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "");
+        return stripped.toLowerCase(Locale.ROOT);
+    }
+
+    private int lowerBound(String q) {
+        int lo = 0;
+        int hi = names.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (names[mid].compareTo(q) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private int lowerBoundCode(String q) {
+        int lo = 0;
+        int hi = byCode.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (codes[byCode[mid]].compareTo(q) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    @NonNull
+    private Map<String, int[]> buildGrams() {
+        Map<String, IntList> lists = new HashMap<>();
+        for (int i = 0; i < items.length; i++) {
+            addGrams(lists, names[i], i);
+            addGrams(lists, codes[i], i);
+        }
+        Map<String, int[]> result = new HashMap<>(lists.size() * 2);
+        for (Map.Entry<String, IntList> e : lists.entrySet()) {
+            result.put(e.getKey(), e.getValue().toArray());
+        }
+        return result;
+    }
+
+    private static void addGrams(Map<String, IntList> lists, String text, int position) {
+        for (int start = 0; start + GRAM <= text.length(); start++) {
+            String gram = text.substring(start, start + GRAM);
+            IntList list = lists.get(gram);
+            if (list == null) {
+                list = new IntList();
+                lists.put(gram, list);
+            }
+            list.addIfLast(position);
+        }
+    }
+
+    /**
+     * Positions containing every trigram of q (ascending), or null if one trigram is unknown.
+     */
+    @Nullable
+    private int[] candidatesFor(String q) {
+        int[] result = null;
+        for (int start = 0; start + GRAM <= q.length(); start++) {
+            int[] postings = grams.get(q.substring(start, start + GRAM));
+            if (postings == null) return null;
+            result = result == null ? postings : intersect(result, postings);
+            if (result.length == 0) return result;
+        }
+        return result;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else {
+                out[k++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, k);
+    }
+
+    /**
+     * Growable int array; positions are added in ascending order, duplicates skipped.
+     */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void addIfLast(int value) {
+            if (size > 0 && values[size - 1] == value) return;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
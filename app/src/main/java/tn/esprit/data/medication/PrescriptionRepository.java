@@ -13,11 +13,10 @@ import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
-import tn.esprit.data.auth.AuthLocalDataSource;
 import tn.esprit.data.remote.ApiClient;
 import tn.esprit.data.remote.common.ListResponseDto;
+import tn.esprit.data.remote.http.RequestHandle;
 import tn.esprit.data.remote.medication.PrescriptionApiService;
-import tn.esprit.domain.auth.AuthTokens;
 import tn.esprit.domain.medication.Prescription;
 import tn.esprit.domain.medication.PrescriptionCreateRequest;
 import tn.esprit.domain.medication.PrescriptionLine;
@@ -36,12 +35,9 @@ import tn.esprit.domain.medication.PrescriptionLine;
  */
 public class PrescriptionRepository {
 
-    private final AuthLocalDataSource authLocalDataSource;
     private final PrescriptionApiService apiService;
 
     public PrescriptionRepository(@NonNull Context context) {
-        Context appContext = context.getApplicationContext();
-        this.authLocalDataSource = new AuthLocalDataSource(appContext);
         this.apiService = ApiClient.createService(PrescriptionApiService.class);
     }
 
@@ -91,19 +87,16 @@ public class PrescriptionRepository {
      * @param patientUserId patient User.id
      * @param activeOnly    pass true to only see active prescriptions, or null for all
      */
-    public void getPrescriptionsForPatientAsDoctor(long patientUserId,
-                                                   @Nullable Boolean activeOnly,
-                                                   @NonNull PrescriptionsCallback callback) {
-        String authHeader = buildAuthHeaderIfAvailable();
-
+    public RequestHandle getPrescriptionsForPatientAsDoctor(long patientUserId,
+                                                            @Nullable Boolean activeOnly,
+                                                            @NonNull PrescriptionsCallback callback) {
         Call<ListResponseDto<Prescription>> call =
                 apiService.getPrescriptionsForPatientAsDoctor(
-                        authHeader,
                         patientUserId,
                         activeOnly
                 );
 
-        call.enqueue(new Callback<ListResponseDto<Prescription>>() {
+        return RequestHandle.enqueue(call, new Callback<ListResponseDto<Prescription>>() {
             @Override
             public void onResponse(
                     @NonNull Call<ListResponseDto<Prescription>> call,
@@ -140,19 +133,16 @@ public class PrescriptionRepository {
     /**
      * POST /api/doctors/me/patients/{patientUserId}/prescriptions
      */
-    public void createPrescriptionForPatient(long patientUserId,
-                                             @NonNull PrescriptionCreateRequest request,
-                                             @NonNull CreatePrescriptionCallback callback) {
-        String authHeader = buildAuthHeaderIfAvailable();
-
+    public RequestHandle createPrescriptionForPatient(long patientUserId,
+                                                      @NonNull PrescriptionCreateRequest request,
+                                                      @NonNull CreatePrescriptionCallback callback) {
         Call<Prescription> call =
                 apiService.createPrescriptionForPatientAsDoctor(
-                        authHeader,
                         patientUserId,
                         request
                 );
 
-        call.enqueue(new Callback<Prescription>() {
+        return RequestHandle.enqueue(call, new Callback<Prescription>() {
             @Override
             public void onResponse(
                     @NonNull Call<Prescription> call,
@@ -187,17 +177,14 @@ public class PrescriptionRepository {
     /**
      * DELETE /api/doctors/me/prescriptions/{prescriptionId}
      */
-    public void deletePrescriptionForDoctor(long prescriptionId,
-                                            @NonNull DeletePrescriptionCallback callback) {
-        String authHeader = buildAuthHeaderIfAvailable();
-
+    public RequestHandle deletePrescriptionForDoctor(long prescriptionId,
+                                                     @NonNull DeletePrescriptionCallback callback) {
         Call<Void> call =
                 apiService.deletePrescriptionAsDoctor(
-                        authHeader,
                         prescriptionId
                 );
 
-        call.enqueue(new Callback<Void>() {
+        return RequestHandle.enqueue(call, new Callback<Void>() {
             @Override
             public void onResponse(
                     @NonNull Call<Void> call,
@@ -227,17 +214,14 @@ public class PrescriptionRepository {
     /**
      * GET /api/prescriptions/me?activeOnly=true
      */
-    public void getMyPrescriptions(@Nullable Boolean activeOnly,
-                                   @NonNull PrescriptionsCallback callback) {
-        String authHeader = buildAuthHeaderIfAvailable();
-
+    public RequestHandle getMyPrescriptions(@Nullable Boolean activeOnly,
+                                            @NonNull PrescriptionsCallback callback) {
         Call<ListResponseDto<Prescription>> call =
                 apiService.getMyPrescriptions(
-                        authHeader,
                         activeOnly
                 );
 
-        call.enqueue(new Callback<ListResponseDto<Prescription>>() {
+        return RequestHandle.enqueue(call, new Callback<ListResponseDto<Prescription>>() {
             @Override
             public void onResponse(
                     @NonNull Call<ListResponseDto<Prescription>> call,
@@ -274,22 +258,19 @@ public class PrescriptionRepository {
     /**
      * PATCH /api/prescriptions/me/lines/{lineId}/reminder
      */
-    public void updateMyLineReminder(long lineId,
-                                     boolean reminderEnabled,
-                                     @NonNull UpdateReminderCallback callback) {
-        String authHeader = buildAuthHeaderIfAvailable();
-
+    public RequestHandle updateMyLineReminder(long lineId,
+                                              boolean reminderEnabled,
+                                              @NonNull UpdateReminderCallback callback) {
         PrescriptionApiService.ReminderUpdateRequestDto body =
                 new PrescriptionApiService.ReminderUpdateRequestDto(reminderEnabled);
 
         Call<PrescriptionLine> call =
                 apiService.updateMyLineReminder(
-                        authHeader,
                         lineId,
                         body
                 );
 
-        call.enqueue(new Callback<PrescriptionLine>() {
+        return RequestHandle.enqueue(call, new Callback<PrescriptionLine>() {
             @Override
             public void onResponse(
                     @NonNull Call<PrescriptionLine> call,
@@ -322,15 +303,6 @@ public class PrescriptionRepository {
     // Helpers
     // ---------------------------------------------------------------------
 
-    @Nullable
-    private String buildAuthHeaderIfAvailable() {
-        AuthTokens tokens = authLocalDataSource.getTokens();
-        if (tokens == null || tokens.getAccessToken() == null) {
-            return null;
-        }
-        return "Bearer " + tokens.getAccessToken();
-    }
-
     @Nullable
     private String safeErrorBody(@Nullable ResponseBody body) {
         if (body == null) return null;
@@ -0,0 +1,46 @@
+package tn.esprit.data.notification;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+/**
+ * SQLite schema of the notification page cache (see {@link NotificationPageStore}).
+ *
+ *  - pages: one row per before cursor; the notifications are kept as JSON in "payload",
+ *    next_cursor is the "before" of the following page (null on the last). The newest
+ *    page has before_id = -1.
+ */
+class NotificationDbHelper extends SQLiteOpenHelper {
+
+    private static final String DB_NAME = "notification_pages.db";
+    private static final int DB_VERSION = 1;
+
+    static final String TABLE_PAGES = "pages";
+    static final String COL_BEFORE_ID = "before_id";
+    static final String COL_NEXT_CURSOR = "next_cursor";
+    static final String COL_PAYLOAD = "payload";
+    static final String COL_FETCHED_AT = "fetched_at";
+
+    NotificationDbHelper(Context context) {
+        super(context, DB_NAME, null, DB_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_PAGES + " ("
+                + COL_BEFORE_ID + " INTEGER PRIMARY KEY, "
+                + COL_NEXT_CURSOR + " INTEGER, "
+                + COL_PAYLOAD + " TEXT NOT NULL, "
+                + COL_FETCHED_AT + " INTEGER NOT NULL)");
+        db.execSQL("CREATE INDEX idx_pages_fetched ON " + TABLE_PAGES
+                + " (" + COL_FETCHED_AT + ")");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // Pure cache: rebuild from the server
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_PAGES);
+        onCreate(db);
+    }
+}
@@ -0,0 +1,153 @@
+package tn.esprit.data.notification;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import tn.esprit.data.remote.json.GsonProvider;
+import tn.esprit.domain.notification.NotificationItem;
+
+/**
+ * Local cache of notification pages, keyed by before cursor.
+ *
+ * Cursors are notification ids, so an older page stays valid when new notifications
+ * arrive; the newest page is always revalidated by the repository. At most
+ * {@link #MAX_PAGES} pages are kept (least recently fetched dropped first).
+ *
+ * Reads and writes run on one background thread; callbacks are called there.
+ */
+public final class NotificationPageStore {
+
+    private static final String TAG = "NotificationPageStore";
+
+    private static final int MAX_PAGES = 60;
+    private static final long HEAD = -1L;
+    private static final Type ITEMS_TYPE = new TypeToken<List<NotificationItem>>() {}.getType();
+
+    private static NotificationPageStore instance;
+
+    public static synchronized NotificationPageStore getInstance(@NonNull Context context) {
+        if (instance == null) {
+            instance = new NotificationPageStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * One stored page.
+     */
+    public static final class Page {
+        @NonNull
+        public final List<NotificationItem> items;
+        @Nullable
+        public final Long nextCursor;
+        public final long fetchedAt;
+
+        Page(@NonNull List<NotificationItem> items, @Nullable Long nextCursor, long fetchedAt) {
+            this.items = items;
+            this.nextCursor = nextCursor;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+
+    public interface ReadCallback {
+        /**
+         * @param page null on a miss
+         */
+        void onRead(@Nullable Page page);
+    }
+
+    private final NotificationDbHelper dbHelper;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Gson gson = GsonProvider.get();
+
+    private NotificationPageStore(Context appContext) {
+        this.dbHelper = new NotificationDbHelper(appContext);
+    }
+
+    public void read(@Nullable Long beforeId, @NonNull ReadCallback callback) {
+        executor.execute(() -> {
+            Page page = null;
+            try (Cursor cursor = dbHelper.getReadableDatabase().query(NotificationDbHelper.TABLE_PAGES,
+                    new String[]{
+                            NotificationDbHelper.COL_PAYLOAD,
+                            NotificationDbHelper.COL_NEXT_CURSOR,
+                            NotificationDbHelper.COL_FETCHED_AT
+                    },
+                    NotificationDbHelper.COL_BEFORE_ID + " = ?",
+                    new String[]{String.valueOf(beforeId != null ? beforeId : HEAD)},
+                    null, null, null)) {
+                if (cursor.moveToFirst()) {
+                    List<NotificationItem> items = gson.fromJson(cursor.getString(0), ITEMS_TYPE);
+                    if (items != null) {
+                        page = new Page(items,
+                                cursor.isNull(1) ? null : cursor.getLong(1),
+                                cursor.getLong(2));
+                    }
+                }
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Reading cached notification page failed", e);
+            }
+            callback.onRead(page);
+        });
+    }
+
+    public void write(@Nullable Long beforeId,
+                      @NonNull List<NotificationItem> items,
+                      @Nullable Long nextCursor) {
+        String payload = gson.toJson(items, ITEMS_TYPE);
+        long fetchedAt = System.currentTimeMillis();
+        executor.execute(() -> {
+            try {
+                SQLiteDatabase db = dbHelper.getWritableDatabase();
+                ContentValues values = new ContentValues();
+                values.put(NotificationDbHelper.COL_BEFORE_ID, beforeId != null ? beforeId : HEAD);
+                if (nextCursor != null) {
+                    values.put(NotificationDbHelper.COL_NEXT_CURSOR, nextCursor);
+                } else {
+                    values.putNull(NotificationDbHelper.COL_NEXT_CURSOR);
+                }
+                values.put(NotificationDbHelper.COL_PAYLOAD, payload);
+                values.put(NotificationDbHelper.COL_FETCHED_AT, fetchedAt);
+                db.insertWithOnConflict(NotificationDbHelper.TABLE_PAGES, null, values,
+                        SQLiteDatabase.CONFLICT_REPLACE);
+                trim(db);
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Saving notification page failed", e);
+            }
+        });
+    }
+
+    /**
+     * Logout: forget every page.
+     */
+    public void clear() {
+        executor.execute(() -> {
+            try {
+                dbHelper.getWritableDatabase().delete(NotificationDbHelper.TABLE_PAGES, null, null);
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Clearing notification pages failed", e);
+            }
+        });
+    }
+
+    private static void trim(@NonNull SQLiteDatabase db) {
+        db.execSQL("DELETE FROM " + NotificationDbHelper.TABLE_PAGES
+                + " WHERE " + NotificationDbHelper.COL_BEFORE_ID + " NOT IN (SELECT "
+                + NotificationDbHelper.COL_BEFORE_ID + " FROM " + NotificationDbHelper.TABLE_PAGES
+                + " ORDER BY " + NotificationDbHelper.COL_FETCHED_AT + " DESC LIMIT " + MAX_PAGES + ")");
+    }
+}
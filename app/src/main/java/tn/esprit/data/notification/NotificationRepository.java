@@ -2,9 +2,12 @@ package tn.esprit.data.notification;
 
 import android.content.Context;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -13,29 +16,59 @@ import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
 
-import tn.esprit.data.auth.AuthLocalDataSource;
+import tn.esprit.data.auth.AuthTokenHolder;
+import tn.esprit.data.outbox.Outbox;
 import tn.esprit.data.remote.ApiClient;
 import tn.esprit.data.remote.common.ListResponseDto;
+import tn.esprit.data.remote.http.DeferredRequest;
+import tn.esprit.data.remote.http.RequestCoalescer;
+import tn.esprit.data.remote.http.RequestHandle;
 import tn.esprit.data.remote.notification.NotificationApiService;
-import tn.esprit.domain.auth.AuthTokens;
 import tn.esprit.domain.notification.NotificationItem;
 
 /**
  * Repository for loading and updating notifications for the current user.
  *
  * Uses:
- *  - GET /api/notifications/me
+ *  - GET /api/notifications/me?limit=&before=
+ *  - GET /api/notifications/me?limit=&after= (catch-up after a socket reconnect)
+ *  - GET /api/notifications/me/unread-count
  *  - POST /api/notifications/{id}/read
+ *
+ * Notifications are read one page of {@link #PAGE_SIZE} at a time and cached in
+ * {@link NotificationPageStore}: the newest page is shown from the cache and always
+ * revalidated, an older page is served from the cache while younger than
+ * {@link #OLDER_PAGE_TTL_MILLIS} (only its read flags change).
+ *
+ * A backend that ignores the paging parameters answers with more than a page: that
+ * answer is taken as the complete list (no next page).
  */
 public class NotificationRepository {
 
-    private final AuthLocalDataSource authLocalDataSource;
+    public static final int PAGE_SIZE = 30;
+    private static final long OLDER_PAGE_TTL_MILLIS = 60L * 60L * 1000L;
+
+    private final AuthTokenHolder tokenHolder;
     private final NotificationApiService notificationApiService;
+    private final Outbox outbox;
+    private final NotificationPageStore pageStore;
 
     public NotificationRepository(Context context) {
-        Context appContext = context.getApplicationContext();
-        this.authLocalDataSource = new AuthLocalDataSource(appContext);
-        this.notificationApiService = ApiClient.createService(NotificationApiService.class);
+        this(AuthTokenHolder.getInstance(context.getApplicationContext()),
+                ApiClient.createService(NotificationApiService.class),
+                Outbox.getInstance(context.getApplicationContext()),
+                NotificationPageStore.getInstance(context.getApplicationContext()));
+    }
+
+    @VisibleForTesting
+    public NotificationRepository(@NonNull AuthTokenHolder tokenHolder,
+                                  @NonNull NotificationApiService notificationApiService,
+                                  @NonNull Outbox outbox,
+                                  @NonNull NotificationPageStore pageStore) {
+        this.tokenHolder = tokenHolder;
+        this.notificationApiService = notificationApiService;
+        this.outbox = outbox;
+        this.pageStore = pageStore;
     }
 
     // -------------------------------------------------------------------------
@@ -43,7 +76,49 @@ public class NotificationRepository {
     // -------------------------------------------------------------------------
 
     public interface LoadNotificationsCallback {
-        void onSuccess(List<NotificationItem> notifications);
+        /**
+         * @param nextCursor "before" of the next page, null when this is the last one
+         */
+        void onSuccess(List<NotificationItem> notifications, @Nullable Long nextCursor);
+
+        void onError(@Nullable Throwable throwable,
+                     @Nullable Integer httpCode,
+                     @Nullable String errorBody);
+    }
+
+    /**
+     * Called on a background thread. For the newest page, {@link #onPage} may be called
+     * twice: cached (fromCache = true), then fresh.
+     */
+    public interface PageCallback {
+        /**
+         * @param items      notifications of the page, newest first
+         * @param nextCursor "before" of the next (older) page, null when this was the last one
+         */
+        void onPage(@NonNull List<NotificationItem> items,
+                    @Nullable Long nextCursor,
+                    boolean fromCache);
+
+        void onError(@Nullable Throwable throwable,
+                     @Nullable Integer httpCode,
+                     @Nullable String errorBody);
+    }
+
+    public interface UnreadCountCallback {
+        void onSuccess(int count);
+
+        void onError(@Nullable Throwable throwable,
+                     @Nullable Integer httpCode,
+                     @Nullable String errorBody);
+    }
+
+    public interface MissedCallback {
+        /**
+         * @param missed   notifications newer than the given id, newest first
+         * @param complete false when more were missed than one page holds (caller should
+         *                 reload the newest page instead)
+         */
+        void onSuccess(@NonNull List<NotificationItem> missed, boolean complete);
 
         void onError(@Nullable Throwable throwable,
                      @Nullable Integer httpCode,
@@ -53,6 +128,12 @@ public class NotificationRepository {
     public interface MarkAsReadCallback {
         void onSuccess();
 
+        /**
+         * Offline or server unavailable: the read mark is stored and will be sent later.
+         */
+        default void onQueued() {
+        }
+
         void onError(@Nullable Throwable throwable,
                      @Nullable Integer httpCode,
                      @Nullable String errorBody);
@@ -62,19 +143,21 @@ public class NotificationRepository {
     // API calls
     // -------------------------------------------------------------------------
 
-    public void getMyNotifications(LoadNotificationsCallback callback) {
-        AuthTokens tokens = authLocalDataSource.getTokens();
-        if (tokens == null || tokens.getAccessToken() == null) {
+    /**
+     * Newest page only (SessionBootstrap prefetch); also refreshes the cached head page.
+     */
+    public RequestHandle getMyNotifications(LoadNotificationsCallback callback) {
+        if (!tokenHolder.isSignedIn()) {
             if (callback != null) {
                 callback.onError(null, 401, "Not authenticated");
             }
-            return;
+            return RequestHandle.NONE;
         }
 
-        String authHeader = buildAuthHeader(tokens);
-
-        notificationApiService.getMyNotifications(authHeader)
-                .enqueue(new Callback<ListResponseDto<NotificationItem>>() {
+        // Socket pushes, markAsRead and MainActivity can all ask at once: share one call
+        return RequestCoalescer.enqueue(
+                notificationApiService.getMyNotifications(PAGE_SIZE, null, null),
+                new Callback<ListResponseDto<NotificationItem>>() {
                     @Override
                     public void onResponse(
                             Call<ListResponseDto<NotificationItem>> call,
@@ -91,12 +174,10 @@ public class NotificationRepository {
                             return;
                         }
 
-                        ListResponseDto<NotificationItem> body = response.body();
-                        if (body == null || body.getItems() == null) {
-                            callback.onSuccess(Collections.emptyList());
-                        } else {
-                            callback.onSuccess(body.getItems());
-                        }
+                        List<NotificationItem> items = itemsOf(response.body());
+                        Long nextCursor = nextCursorOf(response.body());
+                        pageStore.write(null, items, nextCursor);
+                        callback.onSuccess(items, nextCursor);
                     }
 
                     @Override
@@ -111,41 +192,196 @@ public class NotificationRepository {
                 });
     }
 
-    public void markAsRead(long notificationId, MarkAsReadCallback callback) {
-        AuthTokens tokens = authLocalDataSource.getTokens();
-        if (tokens == null || tokens.getAccessToken() == null) {
+    /**
+     * Loads one page of the current user's notifications (newest first).
+     *
+     * @param beforeId null for the newest page, otherwise the nextCursor of the previous page
+     */
+    public RequestHandle loadPage(@Nullable Long beforeId, @NonNull PageCallback callback) {
+        if (!tokenHolder.isSignedIn()) {
+            callback.onError(null, 401, "Not authenticated");
+            return RequestHandle.NONE;
+        }
+        DeferredRequest handle = new DeferredRequest();
+        pageStore.read(beforeId, cached -> {
+            if (handle.isCanceled()) return;
+
+            boolean head = beforeId == null;
+            if (cached != null && !head
+                    && System.currentTimeMillis() - cached.fetchedAt < OLDER_PAGE_TTL_MILLIS) {
+                if (handle.finish()) {
+                    callback.onPage(cached.items, cached.nextCursor, true);
+                }
+                return;
+            }
+            if (cached != null && head) {
+                callback.onPage(cached.items, cached.nextCursor, true);
+            }
+            handle.attach(fetchPage(beforeId, cached, handle, callback));
+        });
+        return handle;
+    }
+
+    /**
+     * Notifications created after {@code afterId} (the newest one seen), at most one page.
+     * Also filtered here, for a backend that ignores "after" and sends the newest page.
+     */
+    public RequestHandle loadSince(long afterId, @NonNull MissedCallback callback) {
+        if (!tokenHolder.isSignedIn()) {
+            callback.onError(null, 401, "Not authenticated");
+            return RequestHandle.NONE;
+        }
+
+        return RequestHandle.enqueue(
+                notificationApiService.getMyNotifications(PAGE_SIZE, null, afterId),
+                new Callback<ListResponseDto<NotificationItem>>() {
+                    @Override
+                    public void onResponse(Call<ListResponseDto<NotificationItem>> call,
+                                           Response<ListResponseDto<NotificationItem>> response) {
+                        if (!response.isSuccessful()) {
+                            callback.onError(null, response.code(),
+                                    safeErrorBody(response.errorBody()));
+                            return;
+                        }
+
+                        ListResponseDto<NotificationItem> body = response.body();
+                        List<NotificationItem> all = itemsOf(body);
+                        List<NotificationItem> missed = new ArrayList<>(all.size());
+                        for (NotificationItem item : all) {
+                            if (item.getId() > afterId) {
+                                missed.add(item);
+                            }
+                        }
+                        // Without the server's flag, a full page of newer items may hide more
+                        Boolean hasMore = body != null ? body.getHasMore() : null;
+                        callback.onSuccess(missed, hasMore != null
+                                ? !hasMore
+                                : missed.size() < PAGE_SIZE);
+                    }
+
+                    @Override
+                    public void onFailure(Call<ListResponseDto<NotificationItem>> call,
+                                          Throwable t) {
+                        callback.onError(t, null, null);
+                    }
+                });
+    }
+
+    /**
+     * Unread notifications across all pages, not only the ones loaded.
+     */
+    public RequestHandle getUnreadCount(@NonNull UnreadCountCallback callback) {
+        if (!tokenHolder.isSignedIn()) {
+            callback.onError(null, 401, "Not authenticated");
+            return RequestHandle.NONE;
+        }
+
+        return RequestCoalescer.enqueue(
+                notificationApiService.getUnreadCount(),
+                new Callback<NotificationApiService.UnreadCountDto>() {
+                    @Override
+                    public void onResponse(Call<NotificationApiService.UnreadCountDto> call,
+                                           Response<NotificationApiService.UnreadCountDto> response) {
+                        NotificationApiService.UnreadCountDto body = response.body();
+                        if (!response.isSuccessful() || body == null) {
+                            callback.onError(null, response.code(),
+                                    safeErrorBody(response.errorBody()));
+                            return;
+                        }
+                        callback.onSuccess((int) Math.min(Integer.MAX_VALUE, Math.max(0L, body.getCount())));
+                    }
+
+                    @Override
+                    public void onFailure(Call<NotificationApiService.UnreadCountDto> call,
+                                          Throwable t) {
+                        callback.onError(t, null, null);
+                    }
+                });
+    }
+
+    /**
+     * Goes through the {@link Outbox}: offline, the read mark is kept and sent later
+     * ({@link MarkAsReadCallback#onQueued()}); repeated marks of one notification are
+     * sent once.
+     */
+    public RequestHandle markAsRead(long notificationId, MarkAsReadCallback callback) {
+        if (!tokenHolder.isSignedIn()) {
             if (callback != null) {
                 callback.onError(null, 401, "Not authenticated");
             }
-            return;
+            return RequestHandle.NONE;
         }
 
-        String authHeader = buildAuthHeader(tokens);
-
-        notificationApiService.markAsRead(authHeader, notificationId)
-                .enqueue(new Callback<Void>() {
+        return outbox.enqueue(Outbox.KIND_MARK_NOTIFICATION_READ, notificationId, null,
+                new Outbox.Callback() {
                     @Override
-                    public void onResponse(
-                            Call<Void> call,
-                            Response<Void> response
-                    ) {
-                        if (callback == null) return;
+                    public void onQueued(long operationId) {
+                        if (callback != null) {
+                            callback.onQueued();
+                        }
+                    }
 
-                        if (!response.isSuccessful()) {
-                            callback.onError(
-                                    null,
-                                    response.code(),
-                                    safeErrorBody(response.errorBody())
-                            );
-                        } else {
+                    @Override
+                    public void onSuccess(@Nullable Object body) {
+                        if (callback != null) {
                             callback.onSuccess();
                         }
                     }
 
                     @Override
-                    public void onFailure(Call<Void> call, Throwable t) {
+                    public void onError(@Nullable Throwable throwable,
+                                        @Nullable Integer httpCode,
+                                        @Nullable String errorBody) {
                         if (callback != null) {
-                            callback.onError(t, null, null);
+                            callback.onError(throwable, httpCode, errorBody);
+                        }
+                    }
+                });
+    }
+
+    // -------------------------------------------------------------------------
+    // Network
+    // -------------------------------------------------------------------------
+
+    @NonNull
+    private RequestHandle fetchPage(@Nullable Long beforeId,
+                                    @Nullable NotificationPageStore.Page cached,
+                                    @NonNull DeferredRequest handle,
+                                    @NonNull PageCallback callback) {
+        return RequestCoalescer.enqueue(
+                notificationApiService.getMyNotifications(PAGE_SIZE, beforeId, null),
+                new Callback<ListResponseDto<NotificationItem>>() {
+                    @Override
+                    public void onResponse(Call<ListResponseDto<NotificationItem>> call,
+                                           Response<ListResponseDto<NotificationItem>> response) {
+                        if (!response.isSuccessful()) {
+                            fail(null, response.code(), safeErrorBody(response.errorBody()));
+                            return;
+                        }
+
+                        List<NotificationItem> items = itemsOf(response.body());
+                        Long nextCursor = nextCursorOf(response.body());
+                        pageStore.write(beforeId, items, nextCursor);
+                        if (handle.finish()) {
+                            callback.onPage(items, nextCursor, false);
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Call<ListResponseDto<NotificationItem>> call,
+                                          Throwable t) {
+                        fail(t, null, null);
+                    }
+
+                    private void fail(@Nullable Throwable t,
+                                      @Nullable Integer code,
+                                      @Nullable String errorBody) {
+                        if (!handle.finish()) return;
+                        if (cached != null && beforeId != null) {
+                            // Offline: an old copy of an older page beats an error
+                            callback.onPage(cached.items, cached.nextCursor, true);
+                        } else {
+                            callback.onError(t, code, errorBody);
                         }
                     }
                 });
@@ -155,9 +391,41 @@ public class NotificationRepository {
     // Helpers
     // -------------------------------------------------------------------------
 
-    private String buildAuthHeader(AuthTokens tokens) {
-        String type = tokens.getTokenType() != null ? tokens.getTokenType() : "Bearer";
-        return type + " " + tokens.getAccessToken();
+    /**
+     * "before" of the page following this one. The server's nextCursor / hasMore win;
+     * without them a full page has a successor and more than a page means the backend
+     * does not page (complete list). Sizes count the items as sent, before filtering.
+     */
+    @Nullable
+    public static Long nextCursorOf(@Nullable ListResponseDto<NotificationItem> body) {
+        if (body == null) return null;
+        if (body.getHasMore() != null && !body.getHasMore()) return null;
+        if (body.getNextCursor() != null) return body.getNextCursor();
+
+        List<NotificationItem> sent = body.getItems();
+        if (sent == null) return null;
+        if (body.getHasMore() == null && sent.size() != PAGE_SIZE) return null;
+        for (int i = sent.size() - 1; i >= 0; i--) {
+            NotificationItem item = sent.get(i);
+            if (item != null && item.getId() != null) {
+                return item.getId();
+            }
+        }
+        return null;
+    }
+
+    @NonNull
+    private static List<NotificationItem> itemsOf(@Nullable ListResponseDto<NotificationItem> body) {
+        if (body == null || body.getItems() == null) {
+            return Collections.emptyList();
+        }
+        List<NotificationItem> items = new ArrayList<>(body.getItems().size());
+        for (NotificationItem item : body.getItems()) {
+            if (item != null && item.getId() != null) {
+                items.add(item);
+            }
+        }
+        return items;
     }
 
     @Nullable
@@ -1,22 +1,35 @@
 package tn.esprit.data.notification;
 
 import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.os.SystemClock;
 import android.util.Log;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 
 import com.google.gson.Gson;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
+import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.WebSocket;
 import okhttp3.WebSocketListener;
+import okio.ByteString;
 
-import tn.esprit.data.auth.AuthLocalDataSource;
-import tn.esprit.domain.auth.AuthTokens;
+import tn.esprit.data.auth.AuthTokenHolder;
+import tn.esprit.data.remote.ApiClient;
+import tn.esprit.data.remote.json.GsonProvider;
 import tn.esprit.domain.notification.NotificationItem;
 
 /**
@@ -28,18 +41,48 @@ import tn.esprit.domain.notification.NotificationItem;
  * Subscribes to:
  *   /topic/users/{userId}/appointments
  *
- * When a MESSAGE frame arrives, it parses the body as NotificationItem
- * and notifies the registered listener.
+ * Frames (text or binary messages) go through a {@link StompFrameDecoder}; when a
+ * MESSAGE frame arrives, its body is parsed as NotificationItem and the registered
+ * listener is notified.
+ *
+ * Session: IDLE → CONNECTING (socket + CONNECT) → CONNECTED (subscribed, heart-beats
+ * running) → WAITING_RETRY on any loss → CONNECTING again after a backoff with jitter,
+ * or immediately when a network becomes available. A switch to another network
+ * reconnects right away even while CONNECTED: the old socket is bound to a network that
+ * may already be gone and would only be noticed dead after the heart-beat deadline.
+ * After a reconnect the listener gets {@link Listener#onSubscribed(boolean)
+ * onSubscribed(true)} and catches up on the pushes it missed.
  */
 public class NotificationSocketManager {
 
     private static final String TAG = "NotificationSocket";
-    // IMPORTANT: use the native WebSocket endpoint (no SockJS)
-    private static final String WS_URL = "ws://10.0.2.2:8080/ws-mobile";
+    // IMPORTANT: use the native WebSocket endpoint (no SockJS). Resolved against the REST
+    // base URL so the handshake can reuse a pooled REST connection.
+    private static final String WS_PATH = "ws-mobile";
     private static final char STOMP_NULL = '\u0000';
 
+    // Heart-beat interval we offer and ask for (STOMP "heart-beat:cx,cy")
+    private static final long HEARTBEAT_MILLIS = 10_000L;
+    // Server heart-beat intervals without a byte before the link is considered dead
+    private static final long HEARTBEAT_MISSED_FACTOR = 2L;
+    private static final long RECONNECT_BASE_MILLIS = 1_000L;
+    private static final long RECONNECT_MAX_MILLIS = 60_000L;
+
     public interface Listener {
         void onNotification(@Nullable NotificationItem item);
+
+        /**
+         * SUBSCRIBE sent after CONNECTED. resumed = true when the same user was subscribed
+         * before (reconnect): pushes sent in between were missed.
+         */
+        default void onSubscribed(boolean resumed) {
+        }
+
+        /**
+         * A MESSAGE frame could not be parsed: one push was lost.
+         */
+        default void onMessageLost() {
+        }
     }
 
     private static NotificationSocketManager instance;
@@ -51,118 +94,338 @@ public class NotificationSocketManager {
         return instance;
     }
 
-    private final Context appContext;
+    @VisibleForTesting
+    enum State {
+        // Not wanted (no user yet, or disconnect())
+        IDLE,
+        // WebSocket opening / CONNECT sent, waiting for CONNECTED
+        CONNECTING,
+        // CONNECTED received and subscribed
+        CONNECTED,
+        // Connection lost, reconnect scheduled
+        WAITING_RETRY
+    }
+
     private final OkHttpClient okHttpClient;
-    private final AuthLocalDataSource authLocalDataSource;
+    private final HttpUrl baseUrl;
+    private final AuthTokenHolder tokenHolder;
     private final Gson gson;
+    // Heart-beats, dead-link checks and reconnect delays
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+    private final Random random = new Random();
 
+    // Everything below is guarded by "this"
     @Nullable
     private WebSocket webSocket;
+    // Bumped for every new socket: events of a replaced socket are ignored
+    private int socketGeneration;
+    private State state = State.IDLE;
+    private int failedAttempts;
+    @Nullable
+    private ScheduledFuture<?> reconnectTask;
+    private final List<ScheduledFuture<?>> heartbeatTasks = new ArrayList<>();
 
     private long currentUserId = -1L;
-    private boolean connected = false;
-    private boolean subscribed = false;
+    // User of the last successful subscription; reset by an explicit disconnect()
+    private long lastSubscribedUserId = -1L;
+    // Default network last reported; null before the first one or once it is lost
+    @Nullable
+    private Network defaultNetwork;
+
+    // Any frame or heart-beat from the server
+    private volatile long lastReceivedAt;
 
     @Nullable
     private Listener listener;
 
     private NotificationSocketManager(Context appContext) {
-        this.appContext = appContext;
-        this.okHttpClient = new OkHttpClient.Builder().build();
-        this.authLocalDataSource = new AuthLocalDataSource(appContext);
-        this.gson = new Gson();
+        // Shared with Retrofit: same dispatcher, connection pool and ping interval
+        this(appContext, ApiClient.getOkHttpClient(), ApiClient.getBaseUrl());
+    }
+
+    @VisibleForTesting
+    public NotificationSocketManager(@NonNull Context appContext,
+                                     @NonNull OkHttpClient okHttpClient,
+                                     @NonNull HttpUrl baseUrl) {
+        this.okHttpClient = okHttpClient;
+        this.baseUrl = baseUrl;
+        this.tokenHolder = AuthTokenHolder.getInstance(appContext);
+        this.gson = GsonProvider.get();
+        // Logout (or a rejected refresh token): the socket still carries the old session
+        tokenHolder.addListener(tokens -> {
+            if (tokens == null) disconnect();
+        });
+        watchConnectivity(appContext);
     }
 
     /**
      * Start (or restart) the WebSocket connection for the given user id.
      * Safe to call multiple times; any existing connection is closed first.
+     *
+     * The session then stays up on its own: a lost connection (failure, close, missed
+     * server heart-beats) is retried with exponential backoff and right away when a
+     * network becomes available, until {@link #disconnect()}.
      */
     public synchronized void connect(long userId) {
         currentUserId = userId;
+        failedAttempts = 0;
+        openSocket();
+    }
 
-        // Close previous socket if any
-        if (webSocket != null) {
-            try {
-                webSocket.close(1000, "Reconnecting");
-            } catch (Exception ignored) {
-            }
-            webSocket = null;
-        }
-        connected = false;
-        subscribed = false;
+    /**
+     * Stop the WebSocket connection, if any.
+     */
+    public synchronized void disconnect() {
+        closeSocket("Client disconnect");
+        cancelReconnect();
+        state = State.IDLE;
+        lastSubscribedUserId = -1L;
+    }
 
-        AuthTokens tokens = authLocalDataSource.getTokens();
-        if (tokens == null || tokens.getAccessToken() == null) {
+    /**
+     * Register a listener to receive new NotificationItem pushes.
+     * Passing null clears the listener.
+     */
+    public synchronized void setListener(@Nullable Listener listener) {
+        this.listener = listener;
+    }
+
+    @VisibleForTesting
+    synchronized State getState() {
+        return state;
+    }
+
+    // -------------------------------------------------------------------------
+    // Session state machine (all under "this")
+    // -------------------------------------------------------------------------
+
+    private void openSocket() {
+        closeSocket("Reconnecting");
+        cancelReconnect();
+
+        if (!tokenHolder.isSignedIn()) {
             Log.w(TAG, "connect: no auth tokens, skipping WebSocket connect");
+            state = State.IDLE;
             return;
         }
 
-        String type = tokens.getTokenType() != null ? tokens.getTokenType() : "Bearer";
-        String authHeader = type + " " + tokens.getAccessToken();
-
+        // AuthInterceptor signs the handshake like any REST call
         Request request = new Request.Builder()
-                .url(WS_URL)
-                .addHeader("Authorization", authHeader)
+                .url(baseUrl.resolve(WS_PATH))
                 .build();
 
+        state = State.CONNECTING;
+        final int generation = ++socketGeneration;
+        // One per socket: a partial frame never carries over to the next connection
+        final StompFrameDecoder decoder = new StompFrameDecoder(new StompFrameDecoder.Handler() {
+            @Override
+            public void onFrame(@NonNull StompFrameDecoder.Frame frame) {
+                handleFrame(generation, frame);
+            }
+
+            @Override
+            public void onMalformed(@NonNull String reason) {
+                Log.e(TAG, "Dropped STOMP data: " + reason);
+                Listener l = currentListener();
+                if (l != null) {
+                    l.onMessageLost();
+                }
+            }
+        });
         webSocket = okHttpClient.newWebSocket(request, new WebSocketListener() {
             @Override
             public void onOpen(WebSocket webSocket, okhttp3.Response response) {
                 Log.d(TAG, "WebSocket onOpen");
-                connected = true;
-                subscribed = false;
+                if (!isCurrent(generation)) return;
+                lastReceivedAt = SystemClock.elapsedRealtime();
                 sendConnectFrame(webSocket);
             }
 
             @Override
             public void onMessage(WebSocket webSocket, String text) {
-                // There may be multiple frames separated by the NULL char
-                String[] frames = text.split(String.valueOf(STOMP_NULL));
-                for (String frame : frames) {
-                    if (frame.trim().isEmpty()) continue;
-                    handleFrame(frame);
-                }
+                if (!isCurrent(generation)) return;
+                lastReceivedAt = SystemClock.elapsedRealtime();
+                decoder.feed(text);
+            }
+
+            @Override
+            public void onMessage(WebSocket webSocket, ByteString bytes) {
+                if (!isCurrent(generation)) return;
+                lastReceivedAt = SystemClock.elapsedRealtime();
+                decoder.feed(bytes);
+            }
+
+            @Override
+            public void onClosing(WebSocket webSocket, int code, String reason) {
+                // Server going away: answered by closeSocket(), no need to wait for onClosed
+                Log.d(TAG, "WebSocket onClosing: " + code + " / " + reason);
+                connectionLost(generation);
             }
 
             @Override
             public void onClosed(WebSocket webSocket, int code, String reason) {
                 Log.d(TAG, "WebSocket onClosed: " + code + " / " + reason);
-                connected = false;
-                subscribed = false;
-                NotificationSocketManager.this.webSocket = null;
+                connectionLost(generation);
             }
 
             @Override
             public void onFailure(WebSocket webSocket, Throwable t, @Nullable okhttp3.Response response) {
                 Log.e(TAG, "WebSocket onFailure", t);
-                connected = false;
-                subscribed = false;
-                NotificationSocketManager.this.webSocket = null;
+                connectionLost(generation);
             }
         });
     }
 
-    /**
-     * Stop the WebSocket connection, if any.
-     */
-    public synchronized void disconnect() {
+    private void closeSocket(@NonNull String reason) {
+        stopHeartbeats();
+        socketGeneration++;
         if (webSocket != null) {
             try {
-                webSocket.close(1000, "Client disconnect");
+                webSocket.close(1000, reason);
             } catch (Exception ignored) {
             }
             webSocket = null;
         }
-        connected = false;
-        subscribed = false;
+    }
+
+    private synchronized boolean isCurrent(int generation) {
+        return generation == socketGeneration;
     }
 
     /**
-     * Register a listener to receive new NotificationItem pushes.
-     * Passing null clears the listener.
+     * Closed, failed or silent socket: reconnect after a backoff with jitter, unless the
+     * session was stopped meanwhile.
      */
-    public synchronized void setListener(@Nullable Listener listener) {
-        this.listener = listener;
+    private synchronized void connectionLost(int generation) {
+        if (generation != socketGeneration || state == State.IDLE) return;
+        closeSocket("Connection lost");
+        state = State.WAITING_RETRY;
+
+        long delay = backoffDelay(failedAttempts, random.nextDouble());
+        failedAttempts++;
+        Log.d(TAG, "Reconnecting in " + delay + " ms (attempt " + failedAttempts + ")");
+
+        reconnectTask = timer.schedule(this::reconnectNow, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Exponential backoff with "equal jitter": half fixed, half random.
+     *
+     * @param jitter random value in [0, 1)
+     */
+    @VisibleForTesting
+    static long backoffDelay(int failedAttempts, double jitter) {
+        long ceiling = Math.min(RECONNECT_MAX_MILLIS,
+                RECONNECT_BASE_MILLIS << Math.min(failedAttempts, 10));
+        return ceiling / 2 + (long) (jitter * (ceiling / 2));
+    }
+
+    private synchronized void reconnectNow() {
+        reconnectTask = null;
+        if (state == State.WAITING_RETRY) {
+            openSocket();
+        }
+    }
+
+    private void cancelReconnect() {
+        if (reconnectTask != null) {
+            reconnectTask.cancel(false);
+            reconnectTask = null;
+        }
+    }
+
+    private void watchConnectivity(@NonNull Context appContext) {
+        ConnectivityManager cm =
+                (ConnectivityManager) appContext.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (cm == null) return;
+        try {
+            cm.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+                @Override
+                public void onAvailable(@NonNull Network network) {
+                    onNetworkAvailable(network);
+                }
+
+                @Override
+                public void onLost(@NonNull Network network) {
+                    synchronized (NotificationSocketManager.this) {
+                        if (network.equals(defaultNetwork)) defaultNetwork = null;
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Cannot watch connectivity; relying on backoff", e);
+        }
+    }
+
+    /**
+     * New default network: network back after a loss, or switched (Wi-Fi ↔ mobile).
+     * Either way there is no point waiting for the backoff or the heart-beat deadline.
+     */
+    @VisibleForTesting
+    synchronized void onNetworkAvailable(@NonNull Network network) {
+        boolean switched = !network.equals(defaultNetwork);
+        defaultNetwork = network;
+        if (state == State.WAITING_RETRY || (switched && state != State.IDLE)) {
+            Log.d(TAG, "Network available, reconnecting now (was " + state + ")");
+            failedAttempts = 0;
+            openSocket();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Heart-beats
+    // -------------------------------------------------------------------------
+
+    /**
+     * Negotiated as in STOMP 1.2: we send every max(ours, theirs wanted) and expect
+     * something every max(ours wanted, theirs); 0 on either side disables that direction.
+     */
+    private void startHeartbeats(int generation, @Nullable String serverHeartBeat) {
+        stopHeartbeats();
+
+        long serverSends = 0L;
+        long serverWants = 0L;
+        if (serverHeartBeat != null) {
+            String[] parts = serverHeartBeat.split(",");
+            if (parts.length == 2) {
+                try {
+                    serverSends = Long.parseLong(parts[0].trim());
+                    serverWants = Long.parseLong(parts[1].trim());
+                } catch (NumberFormatException e) {
+                    Log.w(TAG, "Bad heart-beat header: " + serverHeartBeat);
+                }
+            }
+        }
+
+        if (serverWants > 0L) {
+            long sendEvery = Math.max(HEARTBEAT_MILLIS, serverWants);
+            heartbeatTasks.add(timer.scheduleAtFixedRate(() -> {
+                WebSocket ws = currentSocket(generation);
+                if (ws != null) ws.send("\n");
+            }, sendEvery, sendEvery, TimeUnit.MILLISECONDS));
+        }
+        if (serverSends > 0L) {
+            long expectEvery = Math.max(HEARTBEAT_MILLIS, serverSends);
+            long deadline = expectEvery * HEARTBEAT_MISSED_FACTOR;
+            heartbeatTasks.add(timer.scheduleAtFixedRate(() -> {
+                if (SystemClock.elapsedRealtime() - lastReceivedAt > deadline) {
+                    Log.w(TAG, "No heart-beat from server for " + deadline + " ms");
+                    connectionLost(generation);
+                }
+            }, expectEvery, expectEvery, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private void stopHeartbeats() {
+        for (ScheduledFuture<?> task : heartbeatTasks) {
+            task.cancel(false);
+        }
+        heartbeatTasks.clear();
+    }
+
+    @Nullable
+    private synchronized WebSocket currentSocket(int generation) {
+        return generation == socketGeneration ? webSocket : null;
     }
 
     // -------------------------------------------------------------------------
@@ -174,7 +437,7 @@ public class NotificationSocketManager {
         StringBuilder sb = new StringBuilder();
         sb.append("CONNECT\n");
         sb.append("accept-version:1.1,1.2\n");
-        sb.append("heart-beat:10000,10000\n");
+        sb.append("heart-beat:").append(HEARTBEAT_MILLIS).append(',').append(HEARTBEAT_MILLIS).append("\n");
         sb.append("\n");
         sb.append(STOMP_NULL);
         ws.send(sb.toString());
@@ -195,70 +458,58 @@ public class NotificationSocketManager {
         ws.send(sb.toString());
     }
 
-    private void handleFrame(String frame) {
-        String[] lines = frame.split("\n");
-        int index = 0;
-
-        // Skip any leading empty lines
-        while (index < lines.length && lines[index].trim().isEmpty()) {
-            index++;
-        }
-        if (index >= lines.length) return;
-
-        String command = lines[index].trim();
-        index++;
-
-        Map<String, String> headers = new HashMap<>();
-        // Read headers until empty line
-        for (; index < lines.length; index++) {
-            String line = lines[index];
-            if (line.trim().isEmpty()) {
-                index++;
-                break;
-            }
-            int colonPos = line.indexOf(':');
-            if (colonPos > 0) {
-                String key = line.substring(0, colonPos).trim();
-                String value = line.substring(colonPos + 1).trim();
-                headers.put(key, value);
-            }
+    private void handleFrame(int generation, @NonNull StompFrameDecoder.Frame frame) {
+        if (frame.isCommand("CONNECTED")) {
+            Log.d(TAG, "STOMP CONNECTED");
+            onStompConnected(generation, frame.getHeader("heart-beat"));
+        } else if (frame.isCommand("MESSAGE")) {
+            handleMessageFrame(frame.getBody());
+        } else if (frame.isCommand("ERROR")) {
+            Log.e(TAG, "STOMP ERROR frame: " + frame.getHeader("message") + " / " + frame.getBody());
+            // The broker closes the connection after an ERROR frame
+            connectionLost(generation);
         }
+    }
 
-        // Remaining lines are body
-        StringBuilder bodyBuilder = new StringBuilder();
-        for (; index < lines.length; index++) {
-            bodyBuilder.append(lines[index]);
-            if (index < lines.length - 1) {
-                bodyBuilder.append('\n');
+    private void onStompConnected(int generation, @Nullable String serverHeartBeat) {
+        boolean resumed;
+        synchronized (this) {
+            if (generation != socketGeneration || state != State.CONNECTING || webSocket == null) {
+                return;
             }
-        }
-        String body = bodyBuilder.toString();
+            sendSubscribeFrame(webSocket);
+            state = State.CONNECTED;
+            failedAttempts = 0;
+            startHeartbeats(generation, serverHeartBeat);
 
-        if ("CONNECTED".equalsIgnoreCase(command)) {
-            Log.d(TAG, "STOMP CONNECTED");
-            if (webSocket != null && !subscribed) {
-                sendSubscribeFrame(webSocket);
-                subscribed = true;
-            }
-        } else if ("MESSAGE".equalsIgnoreCase(command)) {
-            handleMessageFrame(headers, body);
-        } else if ("ERROR".equalsIgnoreCase(command)) {
-            Log.e(TAG, "STOMP ERROR frame: " + body);
+            resumed = lastSubscribedUserId == currentUserId;
+            lastSubscribedUserId = currentUserId;
+        }
+        Listener l = currentListener();
+        if (l != null) {
+            l.onSubscribed(resumed);
         }
     }
 
-    private void handleMessageFrame(Map<String, String> headers, String body) {
+    private void handleMessageFrame(@NonNull String body) {
+        Listener l = currentListener();
+        NotificationItem item;
         try {
-            NotificationItem item = gson.fromJson(body, NotificationItem.class);
-            Listener l;
-            synchronized (this) {
-                l = this.listener;
-            }
-            if (l != null) {
-                l.onNotification(item);
-            }
+            item = gson.fromJson(body, NotificationItem.class);
         } catch (Exception e) {
             Log.e(TAG, "Failed to parse notification JSON", e);
+            if (l != null) {
+                l.onMessageLost();
+            }
+            return;
         }
+        if (l != null) {
+            l.onNotification(item);
+        }
+    }
+
+    @Nullable
+    private synchronized Listener currentListener() {
+        return listener;
     }
 }
@@ -0,0 +1,374 @@
+package tn.esprit.data.notification;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import tn.esprit.domain.notification.NotificationItem;
+
+/**
+ * In-memory window over the paged notification list, newest first.
+ *
+ * At most {@link #MAX_PAGES} pages are held. Scrolling down appends the next older page
+ * ({@link #appendOlder}) and drops the newest one once the window is full; its cursor is
+ * remembered so scrolling back up can load it again ({@link #prependNewer}). WebSocket
+ * pushes and local "mark as read" are applied in place ({@link #upsert(NotificationItem)},
+ * {@link #markRead(long)}). Each page is kept sorted (tree set) and every held item is
+ * indexed by id, so a push or a read mark costs O(log n) whatever the window size. Pushes
+ * never grow the window past {@link #MAX_ITEMS}: the oldest items are dropped and reloaded
+ * when scrolled back to.
+ *
+ * The unread count is tracked apart from the window: it comes from the server
+ * ({@link #setUnreadCount(int)}) and is adjusted by pushes and read marks. Until the
+ * server count is known, it is the number of unread items in the newest page. A push only
+ * adds to it when it is a notification never seen before (newer than any held or pushed
+ * one); a replayed or re-sent one is already counted.
+ *
+ * Thread-safe: pushes arrive on the OkHttp thread, REST answers on background threads.
+ */
+public final class NotificationStore {
+
+    static final int MAX_PAGES = 5;
+    // Cap for a backend that ignores paging and sends everything as one page
+    static final int MAX_ITEMS = MAX_PAGES * NotificationRepository.PAGE_SIZE;
+
+    // Newest first; LocalDateTime ISO strings sort lexicographically, id breaks ties
+    private static final Comparator<NotificationItem> NEWEST_FIRST = (o1, o2) -> {
+        String d1 = o1.getCreatedAt() != null ? o1.getCreatedAt() : "";
+        String d2 = o2.getCreatedAt() != null ? o2.getCreatedAt() : "";
+        int byDate = d2.compareTo(d1);
+        if (byDate != 0) return byDate;
+        long id1 = o1.getId() != null ? o1.getId() : 0L;
+        long id2 = o2.getId() != null ? o2.getId() : 0L;
+        return Long.compare(id2, id1);
+    };
+
+    private static final class Page {
+        // "before" this page was loaded with; null for the newest page
+        @Nullable
+        final Long before;
+        final TreeSet<NotificationItem> items = new TreeSet<>(NEWEST_FIRST);
+        // Moves up when pushes push the oldest items out of the window
+        @Nullable
+        Long next;
+
+        Page(@Nullable Long before, @NonNull List<NotificationItem> items, @Nullable Long next) {
+            this.before = before;
+            this.items.addAll(items);
+            this.next = next;
+        }
+    }
+
+    // Newest page first
+    private final Deque<Page> window = new ArrayDeque<>();
+    // Pages dropped above the window, most recently dropped last; only their cursors
+    // are kept (ArrayDeque cannot hold the null cursor of the newest page)
+    private final Deque<Page> droppedNewer = new ArrayDeque<>();
+    private final Map<Long, Page> pageOf = new HashMap<>();
+    // Held instance per id: the tree sets find items by sort key, not by id
+    private final Map<Long, NotificationItem> held = new HashMap<>();
+
+    // Highest id held or pushed since the last refresh: catch-up point after a reconnect
+    private long newestId = -1L;
+    private int unread;
+    private boolean unreadKnown;
+
+    /**
+     * Refresh: the window restarts from the newest page.
+     */
+    public synchronized void replaceHead(@Nullable List<NotificationItem> items,
+                                         @Nullable Long nextCursor) {
+        window.clear();
+        droppedNewer.clear();
+        pageOf.clear();
+        held.clear();
+        newestId = -1L;
+
+        List<NotificationItem> sorted = sortedCopy(items);
+        if (sorted.size() > MAX_ITEMS) {
+            sorted = new ArrayList<>(sorted.subList(0, MAX_ITEMS));
+            nextCursor = null;
+        }
+        Page head = new Page(null, sorted, nextCursor);
+        window.addFirst(head);
+        index(head);
+
+        if (!unreadKnown) {
+            unread = 0;
+            for (NotificationItem item : sorted) {
+                if (!item.isRead()) unread++;
+            }
+        }
+    }
+
+    /**
+     * Adds the page following the oldest one held; drops the newest page if the window
+     * is full.
+     *
+     * @return false if the page does not follow the window anymore (stale answer)
+     */
+    public synchronized boolean appendOlder(long before,
+                                            @Nullable List<NotificationItem> items,
+                                            @Nullable Long nextCursor) {
+        Page last = window.peekLast();
+        if (last == null || last.next == null || last.next != before) return false;
+
+        Page page = new Page(before, sortedCopy(items), nextCursor);
+        window.addLast(page);
+        index(page);
+        if (window.size() > MAX_PAGES) {
+            Page dropped = window.removeFirst();
+            unindex(dropped);
+            // Only the cursor is needed to load it again
+            droppedNewer.addLast(new Page(dropped.before, Collections.emptyList(), dropped.next));
+        }
+        return true;
+    }
+
+    /**
+     * Puts back the page dropped last above the window; drops the oldest page if the
+     * window is full.
+     *
+     * A second answer for the page now on top (the newest page comes from the cache,
+     * then from the network) replaces it.
+     *
+     * @return false if the page was not the one expected (stale answer)
+     */
+    public synchronized boolean prependNewer(@Nullable Long before,
+                                             @Nullable List<NotificationItem> items,
+                                             @Nullable Long nextCursor) {
+        Page top = window.peekFirst();
+        if (top != null && sameCursor(top.before, before)) {
+            window.removeFirst();
+            unindex(top);
+        } else {
+            Page expected = droppedNewer.peekLast();
+            if (expected == null || !sameCursor(expected.before, before)) return false;
+            droppedNewer.removeLast();
+        }
+
+        Page page = new Page(before, sortedCopy(items), nextCursor);
+        window.addFirst(page);
+        index(page);
+        if (window.size() > MAX_PAGES) {
+            unindex(window.removeLast());
+        }
+        return true;
+    }
+
+    /**
+     * Applies a pushed item: replaces the held one with the same id, or inserts a new one
+     * when the newest page is in the window (otherwise it shows up once scrolled back there).
+     *
+     * @return false if the item has no id (caller should resync)
+     */
+    public synchronized boolean upsert(@NonNull NotificationItem item) {
+        Long id = item.getId();
+        if (id == null) return false;
+
+        boolean unseen = id > newestId;
+        newestId = Math.max(newestId, id);
+        Page page = pageOf.get(id);
+        if (page != null) {
+            NotificationItem previous = held.get(id);
+            page.items.remove(previous);
+            if (previous.isRead() != item.isRead()) {
+                unread = Math.max(0, unread + (item.isRead() ? -1 : 1));
+            }
+        } else {
+            // Not held and not new: out of the window, already counted, shown once loaded
+            if (!unseen) return true;
+            if (!item.isRead()) unread++;
+            Page head = window.peekFirst();
+            if (head == null || head.before != null) return true;
+            page = head;
+        }
+
+        page.items.add(item);
+        pageOf.put(id, page);
+        held.put(id, item);
+        trimOldest();
+        return true;
+    }
+
+    /**
+     * Local "mark as read", applied before the backend answers.
+     *
+     * @return true if the item was held and unread
+     */
+    public synchronized boolean markRead(long id) {
+        return setRead(id, true);
+    }
+
+    /**
+     * Undoes {@link #markRead(long)} when the backend refused it.
+     *
+     * @return true if the item was held and read
+     */
+    public synchronized boolean markUnread(long id) {
+        return setRead(id, false);
+    }
+
+    /**
+     * Server-side unread count, over all notifications.
+     */
+    public synchronized void setUnreadCount(int count) {
+        unread = Math.max(0, count);
+        unreadKnown = true;
+    }
+
+    /**
+     * Immutable copy of the window, newest first.
+     */
+    @NonNull
+    public synchronized List<NotificationItem> snapshot() {
+        List<NotificationItem> all = new ArrayList<>(held.size());
+        for (Page page : window) {
+            all.addAll(page.items);
+        }
+        return Collections.unmodifiableList(all);
+    }
+
+    public synchronized int getUnreadCount() {
+        return unread;
+    }
+
+    /**
+     * "before" of the next older page, null at the end of the list.
+     */
+    @Nullable
+    public synchronized Long getOlderCursor() {
+        Page last = window.peekLast();
+        return last != null ? last.next : null;
+    }
+
+    /**
+     * Id of the newest notification seen, -1 before the first page.
+     */
+    public synchronized long getNewestId() {
+        return newestId;
+    }
+
+    public synchronized boolean hasNewer() {
+        return !droppedNewer.isEmpty();
+    }
+
+    /**
+     * "before" of the page to load above the window (null = newest page); only
+     * meaningful when {@link #hasNewer()}.
+     */
+    @Nullable
+    public synchronized Long getNewerCursor() {
+        Page page = droppedNewer.peekLast();
+        return page != null ? page.before : null;
+    }
+
+    public synchronized void clear() {
+        window.clear();
+        droppedNewer.clear();
+        pageOf.clear();
+        held.clear();
+        newestId = -1L;
+        unread = 0;
+        unreadKnown = false;
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    private boolean setRead(long id, boolean read) {
+        Page page = pageOf.get(id);
+        if (page == null) return false;
+        NotificationItem current = held.get(id);
+        if (current.isRead() == read) return false;
+
+        // Copy instead of mutating: the list handed to the UI still holds the old instance
+        NotificationItem updated = copyOf(current);
+        updated.setRead(read);
+        page.items.remove(current);
+        page.items.add(updated);
+        held.put(id, updated);
+        unread = Math.max(0, unread + (read ? -1 : 1));
+        return true;
+    }
+
+    /**
+     * Drops the oldest held items past {@link #MAX_ITEMS}. The last page's cursor moves up
+     * to its new oldest item ("before" is exclusive), so scrolling down loads them again.
+     */
+    private void trimOldest() {
+        while (held.size() > MAX_ITEMS) {
+            Page last = window.peekLast();
+            NotificationItem oldest = last.items.pollLast();
+            pageOf.remove(oldest.getId());
+            held.remove(oldest.getId());
+            if (last.items.isEmpty()) {
+                // The page above already points at it (a lone page is never emptied)
+                window.removeLast();
+            } else {
+                last.next = last.items.last().getId();
+            }
+        }
+    }
+
+    private void index(@NonNull Page page) {
+        for (NotificationItem item : page.items) {
+            pageOf.put(item.getId(), page);
+            held.put(item.getId(), item);
+            newestId = Math.max(newestId, item.getId());
+        }
+    }
+
+    private void unindex(@NonNull Page page) {
+        for (NotificationItem item : page.items) {
+            if (pageOf.get(item.getId()) == page) {
+                pageOf.remove(item.getId());
+                held.remove(item.getId());
+            }
+        }
+    }
+
+    @NonNull
+    private List<NotificationItem> sortedCopy(@Nullable List<NotificationItem> items) {
+        List<NotificationItem> sorted = new ArrayList<>();
+        if (items == null) return sorted;
+        Set<Long> seen = new HashSet<>();
+        for (NotificationItem item : items) {
+            // Skip ids already held (duplicate in the payload, or shifted by a push)
+            if (item == null || item.getId() == null
+                    || pageOf.containsKey(item.getId()) || !seen.add(item.getId())) continue;
+            sorted.add(item);
+        }
+        Collections.sort(sorted, NEWEST_FIRST);
+        return sorted;
+    }
+
+    private static boolean sameCursor(@Nullable Long a, @Nullable Long b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    @NonNull
+    private static NotificationItem copyOf(@NonNull NotificationItem source) {
+        NotificationItem copy = new NotificationItem();
+        copy.setId(source.getId());
+        copy.setType(source.getType());
+        copy.setTitle(source.getTitle());
+        copy.setMessage(source.getMessage());
+        copy.setAppointmentId(source.getAppointmentId());
+        copy.setCreatedAt(source.getCreatedAt());
+        copy.setRead(source.isRead());
+        return copy;
+    }
+}
@@ -0,0 +1,425 @@
+package tn.esprit.data.notification;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import okio.ByteString;
+
+/**
+ * Streaming STOMP 1.2 frame decoder for one WebSocket connection.
+ *
+ * WebSocket messages are appended to one reusable byte buffer (text messages are
+ * UTF-8 encoded in place): a frame split over several messages waits for the rest,
+ * several frames in one message are all delivered, EOLs between frames (server
+ * heart-beats) are skipped. The body ends at "content-length" when the header is
+ * present, otherwise at the first NUL. The NUL search of a partial body resumes where
+ * the previous message stopped, so a large body is scanned once; the command and
+ * header lines of a partial frame are short and are parsed again from the frame start.
+ *
+ * A dropped frame (too large, or a body not ending where "content-length" said) is
+ * skipped up to its closing NUL, even when that arrives in later messages, so the rest
+ * of it is never taken for new frames.
+ *
+ * Nothing is copied while scanning: the {@link Frame} handed to the handler is a view
+ * over the buffer (header offsets only) and is reused for the next frame; strings are
+ * built only for what the handler asks for.
+ *
+ * Not thread-safe: feed it from the socket's reader thread only.
+ */
+final class StompFrameDecoder {
+
+    interface Handler {
+        /**
+         * @param frame only valid during this call
+         */
+        void onFrame(@NonNull Frame frame);
+
+        /**
+         * A frame was dropped (too large, or its body did not end where
+         * "content-length" said).
+         */
+        void onMalformed(@NonNull String reason);
+    }
+
+    // Frames above this are dropped instead of buffered
+    static final int MAX_FRAME_BYTES = 1024 * 1024;
+
+    private static final byte NUL = 0;
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+    private static final byte COLON = ':';
+    private static final byte BACKSLASH = '\\';
+
+    // parseFrame(): frame not complete yet / frame dropped (skip from dropFrom)
+    private static final int INCOMPLETE = -1;
+    private static final int MALFORMED = -2;
+
+    private final Handler handler;
+    private final Frame frame = new Frame();
+
+    private byte[] buffer = new byte[4096];
+    // Unconsumed data is buffer[start, end)
+    private int start;
+    private int end;
+    // Body NUL scan of a partial frame resumes here (absolute index, -1 = none)
+    private int nulSearchFrom = -1;
+    // Dropping a frame: bytes still to discard before looking for its NUL, then the NUL
+    private boolean skipping;
+    private long skipBytes;
+    // Set by parseFrame() with MALFORMED: where the dropped frame's NUL is looked for
+    // (absolute index, may lie past the data received so far)
+    private long dropFrom;
+
+    StompFrameDecoder(@NonNull Handler handler) {
+        this.handler = handler;
+    }
+
+    void feed(@NonNull String text) {
+        int length = text.length();
+        // UTF-8: at most 3 bytes per UTF-16 char (a surrogate pair is 4 bytes for 2 chars)
+        ensureCapacity(length * 3);
+        byte[] buf = buffer;
+        int pos = end;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                buf[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                buf[pos++] = (byte) (0xC0 | (c >> 6));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, text.charAt(++i));
+                buf[pos++] = (byte) (0xF0 | (cp >> 18));
+                buf[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                buf[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Lone surrogate: same replacement as String.getBytes(UTF_8)
+                buf[pos++] = '?';
+            } else {
+                buf[pos++] = (byte) (0xE0 | (c >> 12));
+                buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        end = pos;
+        drain();
+    }
+
+    void feed(@NonNull ByteString bytes) {
+        int size = bytes.size();
+        ensureCapacity(size);
+        bytes.copyInto(0, buffer, end, size);
+        end += size;
+        drain();
+    }
+
+    /**
+     * Forget the buffered bytes (all consumed, or discarded while skipping).
+     */
+    private void reset() {
+        start = 0;
+        end = 0;
+        nulSearchFrom = -1;
+    }
+
+    // -------------------------------------------------------------------------
+    // Scanning
+    // -------------------------------------------------------------------------
+
+    private void drain() {
+        while (true) {
+            if (skipping && !skipDropped()) {
+                reset();
+                return;
+            }
+
+            // EOLs between frames are heart-beats
+            while (start < end && (buffer[start] == LF || buffer[start] == CR)) {
+                start++;
+            }
+            if (start == end) {
+                reset();
+                return;
+            }
+
+            int next = parseFrame(start);
+            if (next == MALFORMED) {
+                startSkipping(dropFrom);
+                continue;
+            }
+            if (next == INCOMPLETE) {
+                if (end - start > MAX_FRAME_BYTES) {
+                    handler.onMalformed("Frame larger than " + MAX_FRAME_BYTES + " bytes");
+                    // No NUL up to nulSearchFrom when the body scan had started
+                    startSkipping(Math.max(start, nulSearchFrom));
+                    continue;
+                }
+                return;
+            }
+            start = next;
+            nulSearchFrom = -1;
+        }
+    }
+
+    private void startSkipping(long from) {
+        skipping = true;
+        skipBytes = from - start;
+        nulSearchFrom = -1;
+    }
+
+    /**
+     * Discards the rest of a dropped frame.
+     *
+     * @return true once past its NUL, false if all buffered data was discarded and
+     * the NUL is still to come
+     */
+    private boolean skipDropped() {
+        int available = end - start;
+        if (skipBytes >= available) {
+            skipBytes -= available;
+            start = end;
+            return false;
+        }
+        start += (int) skipBytes;
+        skipBytes = 0L;
+
+        int nul = indexOf(NUL, start, end);
+        if (nul < 0) {
+            start = end;
+            return false;
+        }
+        start = nul + 1;
+        skipping = false;
+        return true;
+    }
+
+    /**
+     * @return index after the frame's NUL, {@link #INCOMPLETE} or {@link #MALFORMED}
+     */
+    private int parseFrame(int pos) {
+        byte[] buf = buffer;
+        frame.clear();
+
+        int lineEnd = indexOf(LF, pos, end);
+        if (lineEnd < 0) return INCOMPLETE;
+        frame.commandStart = pos;
+        frame.commandEnd = stripCr(pos, lineEnd);
+
+        int p = lineEnd + 1;
+        while (true) {
+            lineEnd = indexOf(LF, p, end);
+            if (lineEnd < 0) return INCOMPLETE;
+            int lineStop = stripCr(p, lineEnd);
+            if (lineStop == p) {
+                // Blank line: end of headers
+                p = lineEnd + 1;
+                break;
+            }
+            int colon = indexOf(COLON, p, lineStop);
+            if (colon > p) {
+                frame.addHeader(p, colon, colon + 1, lineStop);
+            }
+            p = lineEnd + 1;
+        }
+
+        int nul;
+        long contentLength = frame.contentLength();
+        if (contentLength >= 0L) {
+            if (contentLength > MAX_FRAME_BYTES) {
+                handler.onMalformed("content-length " + contentLength + " too large");
+                // The body may hold NULs: its own NUL is only looked for past it
+                dropFrom = p + contentLength;
+                return MALFORMED;
+            }
+            if (end - p < contentLength + 1) return INCOMPLETE;
+            nul = p + (int) contentLength;
+            if (buf[nul] != NUL) {
+                handler.onMalformed("Body longer than content-length " + contentLength);
+                // Resynchronize on the next NUL
+                dropFrom = nul;
+                return MALFORMED;
+            }
+        } else {
+            nul = indexOf(NUL, Math.max(p, nulSearchFrom), end);
+            if (nul < 0) {
+                nulSearchFrom = end;
+                return INCOMPLETE;
+            }
+        }
+
+        frame.bodyStart = p;
+        frame.bodyEnd = nul;
+        handler.onFrame(frame);
+        return nul + 1;
+    }
+
+    private int indexOf(byte value, int from, int to) {
+        byte[] buf = buffer;
+        for (int i = from; i < to; i++) {
+            if (buf[i] == value) return i;
+        }
+        return -1;
+    }
+
+    private int stripCr(int lineStart, int lf) {
+        return lf > lineStart && buffer[lf - 1] == CR ? lf - 1 : lf;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (start > 0) {
+            // Drop consumed bytes first
+            int remaining = end - start;
+            System.arraycopy(buffer, start, buffer, 0, remaining);
+            if (nulSearchFrom >= 0) nulSearchFrom -= start;
+            start = 0;
+            end = remaining;
+        }
+        if (end + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, end + extra));
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Frame view
+    // -------------------------------------------------------------------------
+
+    /**
+     * One decoded frame, as offsets into the decoder's buffer.
+     */
+    final class Frame {
+
+        private int commandStart;
+        private int commandEnd;
+        private int bodyStart;
+        private int bodyEnd;
+        // Per header: key start, key end, value start, value end
+        private int[] headers = new int[16 * 4];
+        private int headerCount;
+
+        private void clear() {
+            headerCount = 0;
+        }
+
+        private void addHeader(int keyStart, int keyEnd, int valueStart, int valueEnd) {
+            int base = headerCount * 4;
+            if (base + 4 > headers.length) {
+                headers = Arrays.copyOf(headers, headers.length * 2);
+            }
+            headers[base] = keyStart;
+            headers[base + 1] = keyEnd;
+            headers[base + 2] = valueStart;
+            headers[base + 3] = valueEnd;
+            headerCount++;
+        }
+
+        /**
+         * Compares the command without building a string.
+         */
+        boolean isCommand(@NonNull String command) {
+            return equalsAscii(commandStart, commandEnd, command);
+        }
+
+        @NonNull
+        String getCommand() {
+            return new String(buffer, commandStart, commandEnd - commandStart, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Value of the first header with this name (repeated headers: first wins),
+         * unescaped as STOMP 1.2 requires for every frame but CONNECT / CONNECTED.
+         */
+        @Nullable
+        String getHeader(@NonNull String name) {
+            int index = findHeader(name);
+            if (index < 0) return null;
+            int valueStart = headers[index * 4 + 2];
+            int valueEnd = headers[index * 4 + 3];
+            boolean escaped = !isCommand("CONNECTED") && !isCommand("CONNECT");
+            if (escaped && indexOf(BACKSLASH, valueStart, valueEnd) >= 0) {
+                return unescape(valueStart, valueEnd);
+            }
+            return new String(buffer, valueStart, valueEnd - valueStart, StandardCharsets.UTF_8);
+        }
+
+        @NonNull
+        String getBody() {
+            return new String(buffer, bodyStart, bodyEnd - bodyStart, StandardCharsets.UTF_8);
+        }
+
+        int getBodyLength() {
+            return bodyEnd - bodyStart;
+        }
+
+        /**
+         * "content-length" as a number; -1 if absent or not a number.
+         */
+        private long contentLength() {
+            int index = findHeader("content-length");
+            if (index < 0) return -1L;
+            int from = headers[index * 4 + 2];
+            int to = headers[index * 4 + 3];
+            if (from == to || to - from > 10) return -1L;
+            long value = 0L;
+            for (int i = from; i < to; i++) {
+                byte b = buffer[i];
+                if (b < '0' || b > '9') return -1L;
+                value = value * 10L + (b - '0');
+            }
+            return value;
+        }
+
+        private int findHeader(@NonNull String name) {
+            for (int i = 0; i < headerCount; i++) {
+                if (equalsAscii(headers[i * 4], headers[i * 4 + 1], name)) return i;
+            }
+            return -1;
+        }
+
+        private boolean equalsAscii(int from, int to, @NonNull String value) {
+            if (to - from != value.length()) return false;
+            for (int i = 0; i < value.length(); i++) {
+                if (buffer[from + i] != value.charAt(i)) return false;
+            }
+            return true;
+        }
+
+        @NonNull
+        private String unescape(int from, int to) {
+            byte[] out = new byte[to - from];
+            int n = 0;
+            for (int i = from; i < to; i++) {
+                byte b = buffer[i];
+                if (b == BACKSLASH && i + 1 < to) {
+                    byte e = buffer[++i];
+                    switch (e) {
+                        case 'n':
+                            out[n++] = LF;
+                            break;
+                        case 'r':
+                            out[n++] = CR;
+                            break;
+                        case 'c':
+                            out[n++] = COLON;
+                            break;
+                        case '\\':
+                            out[n++] = BACKSLASH;
+                            break;
+                        default:
+                            // Undefined escape: keep it as sent
+                            out[n++] = BACKSLASH;
+                            out[n++] = e;
+                            break;
+                    }
+                } else {
+                    out[n++] = b;
+                }
+            }
+            return new String(out, 0, n, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,828 @@
+package tn.esprit.data.outbox;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Response;
+import tn.esprit.data.auth.AuthTokenHolder;
+import tn.esprit.data.remote.ApiClient;
+import tn.esprit.data.remote.appointment.AppointmentApiService;
+import tn.esprit.data.remote.http.DeferredRequest;
+import tn.esprit.data.remote.http.RequestHandle;
+import tn.esprit.data.remote.indicator.IndicatorApiService;
+import tn.esprit.data.remote.indicator.IndicatorApiService.PatientIndicatorCreateRequestDto;
+import tn.esprit.data.remote.json.GsonProvider;
+import tn.esprit.data.remote.notification.NotificationApiService;
+import tn.esprit.domain.appointment.AppointmentCreateRequest;
+import tn.esprit.domain.appointment.AppointmentStatusUpdateRequest;
+
+/**
+ * Durable queue of user writes (booking, accept / reject, mark as read, new indicator).
+ *
+ * Each operation is stored in SQLite with its own idempotency key before anything is
+ * sent, then sent in order. A network error or a 401 / 408 / 429 / 5xx keeps it queued
+ * (the callback gets {@link Callback#onQueued(long)} once, so the caller can apply it
+ * optimistically) and the queue is retried with backoff and whenever a network becomes
+ * available. Any other HTTP error is final, and so is the {@value #MAX_ATTEMPTS}th
+ * transient answer of the server for the same operation (network errors are not counted:
+ * being offline is what the queue is for); both are reported through
+ * {@link Callback#onError} and the queue moves on to the next operation.
+ *
+ * Coalescing: a status change replaces a queued status change of the same appointment,
+ * a repeated "mark as read" joins the queued one, and consecutive "mark as read" at the
+ * head of the queue are sent together in one round.
+ *
+ * Callbacks are kept in memory only and delivered on the main thread; after a process
+ * restart the queue is still flushed, results then only reach the local stores through
+ * the next sync. A failure nobody was listening for is kept as a failed record instead,
+ * see {@link #getFailedOperations} and {@link #dismissFailed}.
+ */
+public final class Outbox {
+
+    private static final String TAG = "Outbox";
+
+    public static final String KIND_CREATE_APPOINTMENT = "CREATE_APPOINTMENT";
+    public static final String KIND_UPDATE_APPOINTMENT_STATUS = "UPDATE_APPOINTMENT_STATUS";
+    public static final String KIND_MARK_NOTIFICATION_READ = "MARK_NOTIFICATION_READ";
+    public static final String KIND_ADD_INDICATOR = "ADD_INDICATOR";
+
+    private static final long RETRY_BASE_MILLIS = 15_000L;
+    private static final long RETRY_MAX_MILLIS = 10L * 60L * 1000L;
+    private static final int HEAD_BATCH = 32;
+    static final int MAX_ATTEMPTS = 8;
+
+    private static Outbox instance;
+
+    public static synchronized Outbox getInstance(@NonNull Context context) {
+        if (instance == null) {
+            instance = new Outbox(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    public interface Callback {
+        /**
+         * Not delivered yet (offline or server unavailable); it stays queued and is sent
+         * later. Called at most once, before onSuccess / onError.
+         *
+         * @param operationId outbox id, stable until the operation is resolved
+         */
+        void onQueued(long operationId);
+
+        /**
+         * @param body parsed response body (null for empty responses)
+         */
+        void onSuccess(@Nullable Object body);
+
+        /**
+         * Rejected by the server, or still failing after {@value #MAX_ATTEMPTS} attempts.
+         */
+        void onError(@Nullable Throwable throwable,
+                     @Nullable Integer httpCode,
+                     @Nullable String errorBody);
+    }
+
+    public interface FailedOperationsCallback {
+        void onResult(@NonNull List<FailedOperation> failed);
+    }
+
+    public interface PendingOperationsCallback {
+        void onResult(@NonNull List<PendingOperation> pending);
+    }
+
+    /**
+     * An operation not sent yet. Lets a sync keep showing what is still queued, even when
+     * the callback that applied it locally is gone (process restarted).
+     */
+    public static final class PendingOperation {
+        public final long operationId;
+        @Nullable
+        public final Long targetId;
+        @Nullable
+        private final String payload;
+
+        PendingOperation(long operationId, @Nullable Long targetId, @Nullable String payload) {
+            this.operationId = operationId;
+            this.targetId = targetId;
+            this.payload = payload;
+        }
+
+        /**
+         * The request body given to {@link #enqueue}, read back.
+         */
+        @Nullable
+        public <T> T payloadAs(@NonNull Class<T> type) {
+            return payload != null ? GsonProvider.get().fromJson(payload, type) : null;
+        }
+    }
+
+    /**
+     * An operation that was given up on while no callback was listening (process restarted,
+     * screen gone). Kept until {@link #dismissFailed(long)} so the UI can tell the user.
+     */
+    public static final class FailedOperation {
+        public final long operationId;
+        public final String kind;
+        @Nullable
+        public final Long targetId;
+        @Nullable
+        public final Integer httpCode;
+        @Nullable
+        public final String errorBody;
+        public final long failedAtMillis;
+
+        FailedOperation(long operationId, String kind, @Nullable Long targetId,
+                        @Nullable Integer httpCode, @Nullable String errorBody,
+                        long failedAtMillis) {
+            this.operationId = operationId;
+            this.kind = kind;
+            this.targetId = targetId;
+            this.httpCode = httpCode;
+            this.errorBody = errorBody;
+            this.failedAtMillis = failedAtMillis;
+        }
+    }
+
+    private enum Outcome { SENT, REJECTED, RETRY }
+
+    private static final class Operation {
+        long seq;
+        String kind;
+        Long targetId;
+        String payload;
+        String idempotencyKey;
+        int attempts;
+
+        // Result of the last attempt
+        Outcome outcome;
+        Object body;
+        Throwable throwable;
+        Integer httpCode;
+        String errorBody;
+    }
+
+    private final OutboxDbHelper dbHelper;
+    private final AuthTokenHolder tokenHolder;
+    private final AppointmentApiService appointmentApi;
+    private final NotificationApiService notificationApi;
+    private final IndicatorApiService indicatorApi;
+    private final Gson gson = GsonProvider.get();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // DB work and flushes; one thread keeps the order
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+    // Guarded by "this"
+    private final Map<Long, List<Callback>> callbacks = new HashMap<>();
+    private final Set<Long> queuedNotified = new HashSet<>();
+
+    // Executor thread only
+    private int consecutiveFailures;
+    private boolean retryScheduled;
+    // A parallel round is in flight; it resumes the flush when its last answer is in
+    private boolean sending;
+
+    private Outbox(Context appContext) {
+        this(appContext,
+                AuthTokenHolder.getInstance(appContext),
+                ApiClient.createService(AppointmentApiService.class),
+                ApiClient.createService(NotificationApiService.class),
+                ApiClient.createService(IndicatorApiService.class));
+    }
+
+    @VisibleForTesting
+    public Outbox(@NonNull Context appContext,
+                  @NonNull AuthTokenHolder tokenHolder,
+                  @NonNull AppointmentApiService appointmentApi,
+                  @NonNull NotificationApiService notificationApi,
+                  @NonNull IndicatorApiService indicatorApi) {
+        this.dbHelper = new OutboxDbHelper(appContext);
+        this.tokenHolder = tokenHolder;
+        this.appointmentApi = appointmentApi;
+        this.notificationApi = notificationApi;
+        this.indicatorApi = indicatorApi;
+        watchConnectivity(appContext);
+    }
+
+    // -------------------------------------------------------------------------
+    // Public API
+    // -------------------------------------------------------------------------
+
+    /**
+     * Stores the operation and starts a flush. Cancelling the returned handle only drops
+     * the callback: an accepted write is still sent.
+     *
+     * @param targetId appointment / notification id the operation applies to, if any
+     * @param payload  request body, serialized with Gson
+     */
+    @NonNull
+    public RequestHandle enqueue(@NonNull String kind,
+                                 @Nullable Long targetId,
+                                 @Nullable Object payload,
+                                 @NonNull Callback callback) {
+        DeferredRequest handle = new DeferredRequest();
+        Callback guarded = guard(handle, callback);
+        String payloadJson = payload != null ? gson.toJson(payload) : null;
+
+        executor.execute(() -> {
+            long seq;
+            try {
+                seq = insertOrCoalesce(kind, targetId, payloadJson);
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Could not store " + kind, e);
+                mainHandler.post(() -> guarded.onError(e, null, null));
+                return;
+            }
+            synchronized (this) {
+                List<Callback> list = callbacks.get(seq);
+                if (list == null) {
+                    list = new ArrayList<>();
+                    callbacks.put(seq, list);
+                }
+                list.add(guarded);
+                if (queuedNotified.contains(seq)) {
+                    // Joined an operation already waiting for the network
+                    mainHandler.post(() -> guarded.onQueued(seq));
+                }
+            }
+            flushNow();
+        });
+        return handle;
+    }
+
+    /**
+     * Sends whatever is queued (app start, network back...). Returns immediately.
+     */
+    public void flush() {
+        executor.execute(this::flushNow);
+    }
+
+    /**
+     * Failed operations not reported to any callback yet, oldest first, on the main thread.
+     */
+    public void getFailedOperations(@NonNull FailedOperationsCallback callback) {
+        executor.execute(() -> {
+            List<FailedOperation> failed = readFailed();
+            mainHandler.post(() -> callback.onResult(failed));
+        });
+    }
+
+    /**
+     * Operations of the given kind still waiting to be sent, oldest first, on the main thread.
+     */
+    public void getPendingOperations(@NonNull String kind,
+                                     @NonNull PendingOperationsCallback callback) {
+        executor.execute(() -> {
+            List<PendingOperation> pending = readPending(kind);
+            mainHandler.post(() -> callback.onResult(pending));
+        });
+    }
+
+    /**
+     * The user has seen the failure: forget the record.
+     */
+    public void dismissFailed(long operationId) {
+        executor.execute(() -> {
+            try {
+                dbHelper.getWritableDatabase().delete(OutboxDbHelper.TABLE_OPERATIONS,
+                        OutboxDbHelper.COL_SEQ + " = ? AND " + OutboxDbHelper.COL_STATUS + " = ?",
+                        new String[]{String.valueOf(operationId), OutboxDbHelper.STATUS_FAILED});
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Dismissing failed outbox entry failed", e);
+            }
+        });
+    }
+
+    /**
+     * Logout: drop every pending write and failed record, they belong to the previous user.
+     */
+    public void clear() {
+        synchronized (this) {
+            callbacks.clear();
+            queuedNotified.clear();
+        }
+        executor.execute(() -> {
+            try {
+                dbHelper.getWritableDatabase().delete(OutboxDbHelper.TABLE_OPERATIONS, null, null);
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Clearing outbox failed", e);
+            }
+            consecutiveFailures = 0;
+        });
+    }
+
+    // -------------------------------------------------------------------------
+    // Flush (executor thread)
+    // -------------------------------------------------------------------------
+
+    private void flushNow() {
+        while (!sending) {
+            List<Operation> head = readHead();
+            if (head.isEmpty()) {
+                consecutiveFailures = 0;
+                return;
+            }
+
+            if (!tokenHolder.isSignedIn()) {
+                // Logged out: clear() follows, or the next login flushes
+                return;
+            }
+
+            List<Operation> batch = new ArrayList<>();
+            batch.add(head.get(0));
+            if (KIND_MARK_NOTIFICATION_READ.equals(head.get(0).kind)) {
+                for (int i = 1; i < head.size(); i++) {
+                    if (!KIND_MARK_NOTIFICATION_READ.equals(head.get(i).kind)) break;
+                    batch.add(head.get(i));
+                }
+            }
+
+            if (batch.size() > 1) {
+                sending = true;
+                sendInParallel(batch);
+                return;
+            }
+            send(batch.get(0));
+            if (!settle(batch)) return;
+        }
+    }
+
+    /**
+     * Last answer of a parallel round is in.
+     */
+    private void finishRound(@NonNull List<Operation> batch) {
+        sending = false;
+        if (settle(batch)) flushNow();
+    }
+
+    /**
+     * Stores the outcome of a round and reports it. Returns false when the head is still
+     * pending, i.e. the queue has to wait for the scheduled retry.
+     */
+    private boolean settle(@NonNull List<Operation> batch) {
+        boolean retry = false;
+        for (Operation op : batch) {
+            if (op.outcome == Outcome.RETRY) {
+                if (op.httpCode != null && op.attempts + 1 >= MAX_ATTEMPTS) {
+                    // The server keeps failing it: stop holding up the queue
+                    fail(op);
+                    continue;
+                }
+                retry = true;
+                if (op.httpCode != null) markAttempt(op.seq);
+                notifyQueued(op.seq);
+            } else if (op.outcome == Outcome.SENT) {
+                delete(op.seq);
+                deliver(op);
+            } else {
+                fail(op);
+            }
+        }
+        if (retry) {
+            scheduleRetry();
+            return false;
+        }
+        consecutiveFailures = 0;
+        return true;
+    }
+
+    private void fail(@NonNull Operation op) {
+        Log.w(TAG, op.kind + " failed (" + op.httpCode + ", " + op.attempts + " attempts): "
+                + op.errorBody);
+        if (deliver(op)) {
+            delete(op.seq);
+        } else {
+            markFailed(op);
+        }
+    }
+
+    private void send(@NonNull Operation op) {
+        Call<?> call = buildCall(op);
+        if (call == null) {
+            reject(op, "Unknown operation " + op.kind);
+            return;
+        }
+        try {
+            record(op, call.execute());
+        } catch (IOException e) {
+            op.outcome = Outcome.RETRY;
+            op.throwable = e;
+        }
+    }
+
+    /**
+     * Independent operations (mark as read): one round, in parallel. The executor is not
+     * held meanwhile; the last answer posts {@link #finishRound} back to it.
+     */
+    private void sendInParallel(@NonNull List<Operation> batch) {
+        AtomicInteger remaining = new AtomicInteger(batch.size());
+        Runnable answered = () -> {
+            if (remaining.decrementAndGet() == 0) {
+                executor.execute(() -> finishRound(batch));
+            }
+        };
+        for (Operation op : batch) {
+            Call<?> call = buildCall(op);
+            if (call == null) {
+                reject(op, "Unknown operation " + op.kind);
+                answered.run();
+                continue;
+            }
+            enqueueRaw(call, op, answered);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void enqueueRaw(@NonNull Call<?> call,
+                                   @NonNull Operation op,
+                                   @NonNull Runnable answered) {
+        ((Call<Object>) call).enqueue(new retrofit2.Callback<Object>() {
+            @Override
+            public void onResponse(@NonNull Call<Object> c, @NonNull Response<Object> response) {
+                record(op, response);
+                answered.run();
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<Object> c, @NonNull Throwable t) {
+                op.outcome = Outcome.RETRY;
+                op.throwable = t;
+                answered.run();
+            }
+        });
+    }
+
+    private static void record(@NonNull Operation op, @NonNull Response<?> response) {
+        op.httpCode = response.code();
+        if (response.isSuccessful()) {
+            op.outcome = Outcome.SENT;
+            op.body = response.body();
+            return;
+        }
+        op.errorBody = safeErrorBody(response.errorBody());
+        int code = response.code();
+        boolean transientError = code == 401 || code == 408 || code == 429 || code >= 500;
+        op.outcome = transientError ? Outcome.RETRY : Outcome.REJECTED;
+    }
+
+    private static void reject(@NonNull Operation op, @NonNull String reason) {
+        op.outcome = Outcome.REJECTED;
+        op.errorBody = reason;
+    }
+
+    @Nullable
+    private Call<?> buildCall(@NonNull Operation op) {
+        switch (op.kind) {
+            case KIND_CREATE_APPOINTMENT:
+                return appointmentApi.createAppointment(op.idempotencyKey,
+                        gson.fromJson(op.payload, AppointmentCreateRequest.class));
+            case KIND_UPDATE_APPOINTMENT_STATUS:
+                if (op.targetId == null) return null;
+                return appointmentApi.updateAppointmentStatus(op.idempotencyKey,
+                        op.targetId, gson.fromJson(op.payload, AppointmentStatusUpdateRequest.class));
+            case KIND_MARK_NOTIFICATION_READ:
+                if (op.targetId == null) return null;
+                return notificationApi.markAsRead(op.idempotencyKey, op.targetId);
+            case KIND_ADD_INDICATOR:
+                return indicatorApi.addMyIndicator(op.idempotencyKey,
+                        gson.fromJson(op.payload, PatientIndicatorCreateRequestDto.class));
+            default:
+                return null;
+        }
+    }
+
+    private void scheduleRetry() {
+        consecutiveFailures++;
+        if (retryScheduled) return;
+        retryScheduled = true;
+
+        long delay = Math.min(RETRY_MAX_MILLIS,
+                RETRY_BASE_MILLIS << Math.min(consecutiveFailures - 1, 10));
+        executor.schedule(() -> {
+            retryScheduled = false;
+            flushNow();
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    // -------------------------------------------------------------------------
+    // Storage (executor thread)
+    // -------------------------------------------------------------------------
+
+    private long insertOrCoalesce(@NonNull String kind,
+                                  @Nullable Long targetId,
+                                  @Nullable String payloadJson) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        String coalesceKey = coalesceKeyOf(kind, targetId);
+
+        if (coalesceKey != null) {
+            try (Cursor cursor = db.query(OutboxDbHelper.TABLE_OPERATIONS,
+                    new String[]{OutboxDbHelper.COL_SEQ},
+                    OutboxDbHelper.COL_COALESCE_KEY + " = ? AND "
+                            + OutboxDbHelper.COL_STATUS + " = ?",
+                    new String[]{coalesceKey, OutboxDbHelper.STATUS_PENDING},
+                    null, null, OutboxDbHelper.COL_SEQ + " DESC", "1")) {
+                if (cursor.moveToFirst()) {
+                    long seq = cursor.getLong(0);
+                    if (KIND_UPDATE_APPOINTMENT_STATUS.equals(kind)) {
+                        // Latest decision wins; a new key since the request changed
+                        ContentValues values = new ContentValues();
+                        values.put(OutboxDbHelper.COL_PAYLOAD, payloadJson);
+                        values.put(OutboxDbHelper.COL_IDEMPOTENCY_KEY, UUID.randomUUID().toString());
+                        db.update(OutboxDbHelper.TABLE_OPERATIONS, values,
+                                OutboxDbHelper.COL_SEQ + " = ?",
+                                new String[]{String.valueOf(seq)});
+                    }
+                    return seq;
+                }
+            }
+        }
+
+        ContentValues values = new ContentValues();
+        values.put(OutboxDbHelper.COL_KIND, kind);
+        if (targetId != null) {
+            values.put(OutboxDbHelper.COL_TARGET_ID, targetId);
+        }
+        values.put(OutboxDbHelper.COL_PAYLOAD, payloadJson);
+        values.put(OutboxDbHelper.COL_IDEMPOTENCY_KEY, UUID.randomUUID().toString());
+        values.put(OutboxDbHelper.COL_COALESCE_KEY, coalesceKey);
+        values.put(OutboxDbHelper.COL_CREATED_AT, System.currentTimeMillis());
+        return db.insertOrThrow(OutboxDbHelper.TABLE_OPERATIONS, null, values);
+    }
+
+    @NonNull
+    private List<Operation> readHead() {
+        List<Operation> ops = new ArrayList<>();
+        try (Cursor cursor = dbHelper.getReadableDatabase().query(OutboxDbHelper.TABLE_OPERATIONS,
+                new String[]{
+                        OutboxDbHelper.COL_SEQ,
+                        OutboxDbHelper.COL_KIND,
+                        OutboxDbHelper.COL_TARGET_ID,
+                        OutboxDbHelper.COL_PAYLOAD,
+                        OutboxDbHelper.COL_IDEMPOTENCY_KEY,
+                        OutboxDbHelper.COL_ATTEMPTS
+                },
+                OutboxDbHelper.COL_STATUS + " = ?",
+                new String[]{OutboxDbHelper.STATUS_PENDING},
+                null, null,
+                OutboxDbHelper.COL_SEQ + " ASC",
+                String.valueOf(HEAD_BATCH))) {
+            while (cursor.moveToNext()) {
+                Operation op = new Operation();
+                op.seq = cursor.getLong(0);
+                op.kind = cursor.getString(1);
+                op.targetId = cursor.isNull(2) ? null : cursor.getLong(2);
+                op.payload = cursor.getString(3);
+                op.idempotencyKey = cursor.getString(4);
+                op.attempts = cursor.getInt(5);
+                ops.add(op);
+            }
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Reading outbox failed", e);
+        }
+        return ops;
+    }
+
+    private void markAttempt(long seq) {
+        try {
+            dbHelper.getWritableDatabase().execSQL("UPDATE " + OutboxDbHelper.TABLE_OPERATIONS
+                            + " SET " + OutboxDbHelper.COL_ATTEMPTS + " = " + OutboxDbHelper.COL_ATTEMPTS
+                            + " + 1 WHERE " + OutboxDbHelper.COL_SEQ + " = ?",
+                    new Object[]{seq});
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Updating outbox failed", e);
+        }
+    }
+
+    private void markFailed(@NonNull Operation op) {
+        ContentValues values = new ContentValues();
+        values.put(OutboxDbHelper.COL_STATUS, OutboxDbHelper.STATUS_FAILED);
+        values.put(OutboxDbHelper.COL_HTTP_CODE, op.httpCode);
+        values.put(OutboxDbHelper.COL_ERROR_BODY, op.errorBody != null
+                ? op.errorBody
+                : op.throwable != null ? String.valueOf(op.throwable) : null);
+        values.put(OutboxDbHelper.COL_FAILED_AT, System.currentTimeMillis());
+        try {
+            dbHelper.getWritableDatabase().update(OutboxDbHelper.TABLE_OPERATIONS, values,
+                    OutboxDbHelper.COL_SEQ + " = ?",
+                    new String[]{String.valueOf(op.seq)});
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Updating outbox failed", e);
+        }
+    }
+
+    @NonNull
+    private List<PendingOperation> readPending(@NonNull String kind) {
+        List<PendingOperation> pending = new ArrayList<>();
+        try (Cursor cursor = dbHelper.getReadableDatabase().query(OutboxDbHelper.TABLE_OPERATIONS,
+                new String[]{
+                        OutboxDbHelper.COL_SEQ,
+                        OutboxDbHelper.COL_TARGET_ID,
+                        OutboxDbHelper.COL_PAYLOAD
+                },
+                OutboxDbHelper.COL_KIND + " = ? AND " + OutboxDbHelper.COL_STATUS + " = ?",
+                new String[]{kind, OutboxDbHelper.STATUS_PENDING},
+                null, null,
+                OutboxDbHelper.COL_SEQ + " ASC")) {
+            while (cursor.moveToNext()) {
+                pending.add(new PendingOperation(
+                        cursor.getLong(0),
+                        cursor.isNull(1) ? null : cursor.getLong(1),
+                        cursor.getString(2)));
+            }
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Reading pending outbox entries failed", e);
+        }
+        return pending;
+    }
+
+    @NonNull
+    private List<FailedOperation> readFailed() {
+        List<FailedOperation> failed = new ArrayList<>();
+        try (Cursor cursor = dbHelper.getReadableDatabase().query(OutboxDbHelper.TABLE_OPERATIONS,
+                new String[]{
+                        OutboxDbHelper.COL_SEQ,
+                        OutboxDbHelper.COL_KIND,
+                        OutboxDbHelper.COL_TARGET_ID,
+                        OutboxDbHelper.COL_HTTP_CODE,
+                        OutboxDbHelper.COL_ERROR_BODY,
+                        OutboxDbHelper.COL_FAILED_AT
+                },
+                OutboxDbHelper.COL_STATUS + " = ?",
+                new String[]{OutboxDbHelper.STATUS_FAILED},
+                null, null,
+                OutboxDbHelper.COL_SEQ + " ASC")) {
+            while (cursor.moveToNext()) {
+                failed.add(new FailedOperation(
+                        cursor.getLong(0),
+                        cursor.getString(1),
+                        cursor.isNull(2) ? null : cursor.getLong(2),
+                        cursor.isNull(3) ? null : cursor.getInt(3),
+                        cursor.getString(4),
+                        cursor.getLong(5)));
+            }
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Reading failed outbox entries failed", e);
+        }
+        return failed;
+    }
+
+    private void delete(long seq) {
+        try {
+            dbHelper.getWritableDatabase().delete(OutboxDbHelper.TABLE_OPERATIONS,
+                    OutboxDbHelper.COL_SEQ + " = ?",
+                    new String[]{String.valueOf(seq)});
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Deleting outbox entry failed", e);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Callbacks
+    // -------------------------------------------------------------------------
+
+    private void notifyQueued(long seq) {
+        List<Callback> targets;
+        synchronized (this) {
+            if (!queuedNotified.add(seq)) return;
+            List<Callback> list = callbacks.get(seq);
+            targets = list != null ? new ArrayList<>(list) : new ArrayList<>();
+        }
+        mainHandler.post(() -> {
+            for (Callback callback : targets) {
+                callback.onQueued(seq);
+            }
+        });
+    }
+
+    /**
+     * Returns whether a callback still listening gets the result.
+     */
+    private boolean deliver(@NonNull Operation op) {
+        List<Callback> targets;
+        synchronized (this) {
+            queuedNotified.remove(op.seq);
+            targets = callbacks.remove(op.seq);
+        }
+        if (targets == null) return false;
+
+        boolean listened = false;
+        for (Callback callback : targets) {
+            if (!(callback instanceof Guarded) || !((Guarded) callback).isCanceled()) {
+                listened = true;
+            }
+        }
+        mainHandler.post(() -> {
+            for (Callback callback : targets) {
+                if (op.outcome == Outcome.SENT) {
+                    callback.onSuccess(op.body);
+                } else {
+                    callback.onError(op.throwable, op.httpCode, op.errorBody);
+                }
+            }
+        });
+        return listened;
+    }
+
+    @NonNull
+    private static Callback guard(@NonNull DeferredRequest handle, @NonNull Callback callback) {
+        return new Guarded() {
+            @Override
+            public boolean isCanceled() {
+                return handle.isCanceled();
+            }
+
+            @Override
+            public void onQueued(long operationId) {
+                if (!handle.isCanceled()) callback.onQueued(operationId);
+            }
+
+            @Override
+            public void onSuccess(@Nullable Object body) {
+                if (handle.finish()) callback.onSuccess(body);
+            }
+
+            @Override
+            public void onError(@Nullable Throwable throwable,
+                                @Nullable Integer httpCode,
+                                @Nullable String errorBody) {
+                if (handle.finish()) callback.onError(throwable, httpCode, errorBody);
+            }
+        };
+    }
+
+    private interface Guarded extends Callback {
+        boolean isCanceled();
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    @Nullable
+    private static String coalesceKeyOf(@NonNull String kind, @Nullable Long targetId) {
+        if (targetId == null) return null;
+        switch (kind) {
+            case KIND_UPDATE_APPOINTMENT_STATUS:
+            case KIND_MARK_NOTIFICATION_READ:
+                return kind + ":" + targetId;
+            default:
+                return null;
+        }
+    }
+
+    private void watchConnectivity(@NonNull Context appContext) {
+        ConnectivityManager cm =
+                (ConnectivityManager) appContext.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (cm == null) return;
+        try {
+            cm.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+                @Override
+                public void onAvailable(@NonNull Network network) {
+                    executor.execute(() -> {
+                        consecutiveFailures = 0;
+                        flushNow();
+                    });
+                }
+            });
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Cannot watch connectivity; relying on retries", e);
+        }
+    }
+
+    @Nullable
+    private static String safeErrorBody(@Nullable ResponseBody body) {
+        if (body == null) return null;
+        try {
+            return body.string();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
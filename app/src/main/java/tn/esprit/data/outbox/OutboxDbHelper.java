@@ -0,0 +1,71 @@
+package tn.esprit.data.outbox;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+/**
+ * SQLite schema of the write outbox (see {@link Outbox}).
+ *
+ *  - operations: one row per pending mutation, sent in "seq" order. The request body is
+ *    kept as JSON in "payload"; "coalesce_key" identifies operations that a newer one on
+ *    the same target can replace (status change) or absorb (mark as read). A row given up
+ *    on is kept with status FAILED and its last answer until the UI dismisses it.
+ */
+class OutboxDbHelper extends SQLiteOpenHelper {
+
+    private static final String DB_NAME = "outbox.db";
+    private static final int DB_VERSION = 2;
+
+    static final String TABLE_OPERATIONS = "operations";
+    static final String COL_SEQ = "seq";
+    static final String COL_KIND = "kind";
+    static final String COL_TARGET_ID = "target_id";
+    static final String COL_PAYLOAD = "payload";
+    static final String COL_IDEMPOTENCY_KEY = "idempotency_key";
+    static final String COL_COALESCE_KEY = "coalesce_key";
+    static final String COL_CREATED_AT = "created_at";
+    static final String COL_ATTEMPTS = "attempts";
+    static final String COL_STATUS = "status";
+    static final String COL_HTTP_CODE = "http_code";
+    static final String COL_ERROR_BODY = "error_body";
+    static final String COL_FAILED_AT = "failed_at";
+
+    static final String STATUS_PENDING = "PENDING";
+    static final String STATUS_FAILED = "FAILED";
+
+    OutboxDbHelper(Context context) {
+        super(context, DB_NAME, null, DB_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_OPERATIONS + " ("
+                + COL_SEQ + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + COL_KIND + " TEXT NOT NULL, "
+                + COL_TARGET_ID + " INTEGER, "
+                + COL_PAYLOAD + " TEXT, "
+                + COL_IDEMPOTENCY_KEY + " TEXT NOT NULL, "
+                + COL_COALESCE_KEY + " TEXT, "
+                + COL_CREATED_AT + " INTEGER NOT NULL, "
+                + COL_ATTEMPTS + " INTEGER NOT NULL DEFAULT 0, "
+                + COL_STATUS + " TEXT NOT NULL DEFAULT '" + STATUS_PENDING + "', "
+                + COL_HTTP_CODE + " INTEGER, "
+                + COL_ERROR_BODY + " TEXT, "
+                + COL_FAILED_AT + " INTEGER)");
+        db.execSQL("CREATE INDEX idx_operations_coalesce ON " + TABLE_OPERATIONS
+                + " (" + COL_COALESCE_KEY + ")");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion < 2) {
+            // Keep the queued writes: they are the user's
+            db.execSQL("ALTER TABLE " + TABLE_OPERATIONS + " ADD COLUMN " + COL_STATUS
+                    + " TEXT NOT NULL DEFAULT '" + STATUS_PENDING + "'");
+            db.execSQL("ALTER TABLE " + TABLE_OPERATIONS + " ADD COLUMN " + COL_HTTP_CODE + " INTEGER");
+            db.execSQL("ALTER TABLE " + TABLE_OPERATIONS + " ADD COLUMN " + COL_ERROR_BODY + " TEXT");
+            db.execSQL("ALTER TABLE " + TABLE_OPERATIONS + " ADD COLUMN " + COL_FAILED_AT + " INTEGER");
+        }
+    }
+}
@@ -9,18 +9,19 @@ import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
 
-import tn.esprit.data.auth.AuthLocalDataSource;
+import tn.esprit.data.auth.AuthTokenHolder;
 import tn.esprit.data.remote.ApiClient;
 import tn.esprit.data.remote.doctor.DoctorApiService;
 import tn.esprit.data.remote.doctor.DoctorApiService.DoctorPracticeSetupRequestDto;
 import tn.esprit.data.remote.doctor.DoctorApiService.DoctorProfileUpdateRequestDto;
+import tn.esprit.data.remote.http.RequestCoalescer;
+import tn.esprit.data.remote.http.RequestHandle;
 import tn.esprit.data.remote.patient.PatientApiService;
 import tn.esprit.data.remote.patient.PatientApiService.PatientProfileUpdateRequestDto;
 import tn.esprit.data.remote.user.UserAccountApiService;
 import tn.esprit.data.remote.user.UserAccountApiService.UserUpdateRequestDto;
 import tn.esprit.data.remote.user.UserApiService;
 import tn.esprit.data.remote.user.UserImageApiService;
-import tn.esprit.domain.auth.AuthTokens;
 import tn.esprit.domain.doctor.DoctorProfile;
 import tn.esprit.domain.patient.PatientProfile;
 import tn.esprit.domain.user.User;
@@ -36,12 +37,15 @@ import tn.esprit.domain.user.User;
  *  - PUT /me                             → update base user info
  *  - POST /users/me/profile-image        → upload avatar image
  *
- * All calls use the AuthLocalDataSource to fetch the current access token.
+ * All calls use the AuthTokenHolder (in-memory) to fetch the current access token.
  */
 public class ProfileRepository {
 
+    private static final String ROLE_DOCTOR = "DOCTOR";
+    private static final String ROLE_PATIENT = "PATIENT";
+
     private final Context appContext;
-    private final AuthLocalDataSource authLocalDataSource;
+    private final AuthTokenHolder tokenHolder;
 
     private final UserApiService userApiService;
     private final DoctorApiService doctorApiService;
@@ -51,7 +55,7 @@ public class ProfileRepository {
 
     public ProfileRepository(Context context) {
         this.appContext = context.getApplicationContext();
-        this.authLocalDataSource = new AuthLocalDataSource(appContext);
+        this.tokenHolder = AuthTokenHolder.getInstance(appContext);
 
         this.userApiService = ApiClient.createService(UserApiService.class);
         this.doctorApiService = ApiClient.createService(DoctorApiService.class);
@@ -74,6 +78,38 @@ public class ProfileRepository {
                      @Nullable String errorBody);
     }
 
+    public interface ProfileSnapshotCallback {
+        void onSuccess(ProfileSnapshot snapshot);
+
+        void onError(Throwable throwable,
+                     @Nullable Integer httpCode,
+                     @Nullable String errorBody);
+    }
+
+    public interface CurrentUserCallback {
+        void onSuccess(User user);
+
+        void onError(Throwable throwable,
+                     @Nullable Integer httpCode,
+                     @Nullable String errorBody);
+    }
+
+    public interface DoctorProfileCallback {
+        void onSuccess(@Nullable DoctorProfile doctorProfile);
+
+        void onError(Throwable throwable,
+                     @Nullable Integer httpCode,
+                     @Nullable String errorBody);
+    }
+
+    public interface PatientProfileCallback {
+        void onSuccess(@Nullable PatientProfile patientProfile);
+
+        void onError(Throwable throwable,
+                     @Nullable Integer httpCode,
+                     @Nullable String errorBody);
+    }
+
     public interface DoctorProfileUpdateCallback {
         void onSuccess(DoctorProfile updatedProfile);
 
@@ -110,23 +146,63 @@ public class ProfileRepository {
     // Load full profile (User + Doctor/Patient depending on role)
     // ------------------------------------------------------------
 
-    public void loadProfile(ProfileCallback callback) {
-        AuthTokens tokens = authLocalDataSource.getTokens();
-        if (tokens == null || tokens.getAccessToken() == null) {
-            if (callback != null) {
-                callback.onError(null, 401, "Not authenticated");
+    /**
+     * Same as {@link #loadProfileSnapshot(ProfileSnapshotCallback)}, with the snapshot
+     * unpacked for callers that only need the parts.
+     */
+    public RequestHandle loadProfile(ProfileCallback callback) {
+        return loadProfileSnapshot(new ProfileSnapshotCallback() {
+            @Override
+            public void onSuccess(ProfileSnapshot snapshot) {
+                if (callback != null) {
+                    callback.onSuccess(snapshot.getUser(),
+                            snapshot.getDoctorProfile(),
+                            snapshot.getPatientProfile());
+                }
             }
-            return;
-        }
 
-        final String authHeader = "Bearer " + tokens.getAccessToken();
+            @Override
+            public void onError(Throwable throwable,
+                                @Nullable Integer httpCode,
+                                @Nullable String errorBody) {
+                if (callback != null) {
+                    callback.onError(throwable, httpCode, errorBody);
+                }
+            }
+        });
+    }
+
+    /**
+     * Loads /me and the role profile in parallel.
+     *
+     * The role profile is started right away from the role cached by the previous /me
+     * (see {@link AuthTokenHolder#getCachedRole()}), so the usual case costs one round-trip
+     * instead of two. When /me answers with another role, the guessed call is cancelled and
+     * the right one started; without a cached role this falls back to /me, then the profile.
+     *
+     * Most screens should go through {@link ProfileStore} instead, which shares the result.
+     */
+    public RequestHandle loadProfileSnapshot(ProfileSnapshotCallback callback) {
+        ProfileLoad load = new ProfileLoad(callback);
+        load.start(tokenHolder.getCachedRole());
+        return load;
+    }
+
+    // ------------------------------------------------------------
+    // Single parts (used by loadProfileSnapshot)
+    // ------------------------------------------------------------
 
-        userApiService.getCurrentUser(authHeader).enqueue(new Callback<User>() {
+    public RequestHandle loadCurrentUser(CurrentUserCallback callback) {
+        if (!tokenHolder.isSignedIn()) {
+            callback.onError(null, 401, "Not authenticated");
+            return RequestHandle.NONE;
+        }
+
+        // MainActivity and ProfileFragment load the profile at the same time: share calls
+        return RequestCoalescer.enqueue(userApiService.getCurrentUser(), new Callback<User>() {
             @Override
             public void onResponse(Call<User> call,
                                    Response<User> response) {
-                if (callback == null) return;
-
                 if (!response.isSuccessful()) {
                     callback.onError(
                             null,
@@ -145,39 +221,33 @@ public class ProfileRepository {
                     );
                     return;
                 }
-
-                String role = user.getRole();
-                if (role != null && "DOCTOR".equalsIgnoreCase(role)) {
-                    fetchDoctorProfile(user, authHeader, callback);
-                } else if (role != null && "PATIENT".equalsIgnoreCase(role)) {
-                    fetchPatientProfile(user, authHeader, callback);
-                } else {
-                    callback.onSuccess(user, null, null);
-                }
+                callback.onSuccess(user);
             }
 
             @Override
             public void onFailure(Call<User> call, Throwable t) {
-                if (callback != null) {
-                    callback.onError(t, null, null);
-                }
+                callback.onError(t, null, null);
             }
         });
     }
 
-    private void fetchDoctorProfile(User user,
-                                    String authHeader,
-                                    ProfileCallback callback) {
-        doctorApiService.getMyProfile(authHeader).enqueue(new Callback<DoctorProfile>() {
+    /**
+     * GET /api/doctors/me. A 404 (profile not created yet) is reported as success with null.
+     */
+    public RequestHandle loadDoctorProfile(DoctorProfileCallback callback) {
+        if (!tokenHolder.isSignedIn()) {
+            callback.onError(null, 401, "Not authenticated");
+            return RequestHandle.NONE;
+        }
+
+        return RequestCoalescer.enqueue(doctorApiService.getMyProfile(), new Callback<DoctorProfile>() {
             @Override
             public void onResponse(Call<DoctorProfile> call,
                                    Response<DoctorProfile> response) {
-                if (callback == null) return;
-
                 if (!response.isSuccessful()) {
                     // If doctor profile is not yet created, backend may return 404.
                     if (response.code() == 404) {
-                        callback.onSuccess(user, null, null);
+                        callback.onSuccess(null);
                     } else {
                         callback.onError(
                                 null,
@@ -188,31 +258,33 @@ public class ProfileRepository {
                     return;
                 }
 
-                callback.onSuccess(user, response.body(), null);
+                callback.onSuccess(response.body());
             }
 
             @Override
             public void onFailure(Call<DoctorProfile> call, Throwable t) {
-                if (callback != null) {
-                    callback.onError(t, null, null);
-                }
+                callback.onError(t, null, null);
             }
         });
     }
 
-    private void fetchPatientProfile(User user,
-                                     String authHeader,
-                                     ProfileCallback callback) {
-        patientApiService.getMyProfile(authHeader).enqueue(new Callback<PatientProfile>() {
+    /**
+     * GET /patients/me. A 404 (profile not created yet) is reported as success with null.
+     */
+    public RequestHandle loadPatientProfile(PatientProfileCallback callback) {
+        if (!tokenHolder.isSignedIn()) {
+            callback.onError(null, 401, "Not authenticated");
+            return RequestHandle.NONE;
+        }
+
+        return RequestCoalescer.enqueue(patientApiService.getMyProfile(), new Callback<PatientProfile>() {
             @Override
             public void onResponse(Call<PatientProfile> call,
                                    Response<PatientProfile> response) {
-                if (callback == null) return;
-
                 if (!response.isSuccessful()) {
                     // If patient profile is not yet created, backend may return 404.
                     if (response.code() == 404) {
-                        callback.onSuccess(user, null, null);
+                        callback.onSuccess(null);
                     } else {
                         callback.onError(
                                 null,
@@ -223,14 +295,12 @@ public class ProfileRepository {
                     return;
                 }
 
-                callback.onSuccess(user, null, response.body());
+                callback.onSuccess(response.body());
             }
 
             @Override
             public void onFailure(Call<PatientProfile> call, Throwable t) {
-                if (callback != null) {
-                    callback.onError(t, null, null);
-                }
+                callback.onError(t, null, null);
             }
         });
     }
@@ -239,19 +309,17 @@ public class ProfileRepository {
     // Doctor profile update
     // ------------------------------------------------------------
 
-    public void updateDoctorProfile(DoctorProfileUpdateRequestDto request,
-                                    DoctorProfileUpdateCallback callback) {
-        AuthTokens tokens = authLocalDataSource.getTokens();
-        if (tokens == null || tokens.getAccessToken() == null) {
+    public RequestHandle updateDoctorProfile(DoctorProfileUpdateRequestDto request,
+                                             DoctorProfileUpdateCallback callback) {
+        if (!tokenHolder.isSignedIn()) {
             if (callback != null) {
                 callback.onError(null, 401, "Not authenticated");
             }
-            return;
+            return RequestHandle.NONE;
         }
-        String authHeader = "Bearer " + tokens.getAccessToken();
-
-        doctorApiService.updateMyProfile(authHeader, request)
-                .enqueue(new Callback<DoctorProfile>() {
+        return RequestHandle.enqueue(
+                doctorApiService.updateMyProfile(request),
+                new Callback<DoctorProfile>() {
                     @Override
                     public void onResponse(Call<DoctorProfile> call,
                                            Response<DoctorProfile> response) {
@@ -281,19 +349,17 @@ public class ProfileRepository {
     // Patient profile update
     // ------------------------------------------------------------
 
-    public void updatePatientProfile(PatientProfileUpdateRequestDto request,
-                                     PatientProfileUpdateCallback callback) {
-        AuthTokens tokens = authLocalDataSource.getTokens();
-        if (tokens == null || tokens.getAccessToken() == null) {
+    public RequestHandle updatePatientProfile(PatientProfileUpdateRequestDto request,
+                                              PatientProfileUpdateCallback callback) {
+        if (!tokenHolder.isSignedIn()) {
             if (callback != null) {
                 callback.onError(null, 401, "Not authenticated");
             }
-            return;
+            return RequestHandle.NONE;
         }
-        String authHeader = "Bearer " + tokens.getAccessToken();
-
-        patientApiService.updateMyProfile(authHeader, request)
-                .enqueue(new Callback<PatientProfile>() {
+        return RequestHandle.enqueue(
+                patientApiService.updateMyProfile(request),
+                new Callback<PatientProfile>() {
                     @Override
                     public void onResponse(Call<PatientProfile> call,
                                            Response<PatientProfile> response) {
@@ -323,19 +389,17 @@ public class ProfileRepository {
     // Base user update (/me)
     // ------------------------------------------------------------
 
-    public void updateBaseUser(UserUpdateRequestDto request,
-                               BaseUserUpdateCallback callback) {
-        AuthTokens tokens = authLocalDataSource.getTokens();
-        if (tokens == null || tokens.getAccessToken() == null) {
+    public RequestHandle updateBaseUser(UserUpdateRequestDto request,
+                                        BaseUserUpdateCallback callback) {
+        if (!tokenHolder.isSignedIn()) {
             if (callback != null) {
                 callback.onError(null, 401, "Not authenticated");
             }
-            return;
+            return RequestHandle.NONE;
         }
-        String authHeader = "Bearer " + tokens.getAccessToken();
-
-        userAccountApiService.updateCurrentUser(authHeader, request)
-                .enqueue(new Callback<User>() {
+        return RequestHandle.enqueue(
+                userAccountApiService.updateCurrentUser(request),
+                new Callback<User>() {
                     @Override
                     public void onResponse(Call<User> call,
                                            Response<User> response) {
@@ -365,19 +429,17 @@ public class ProfileRepository {
     // Doctor practice setup (onboarding)
     // ------------------------------------------------------------
 
-    public void setupDoctorPractice(DoctorPracticeSetupRequestDto request,
-                                    DoctorProfileUpdateCallback callback) {
-        AuthTokens tokens = authLocalDataSource.getTokens();
-        if (tokens == null || tokens.getAccessToken() == null) {
+    public RequestHandle setupDoctorPractice(DoctorPracticeSetupRequestDto request,
+                                             DoctorProfileUpdateCallback callback) {
+        if (!tokenHolder.isSignedIn()) {
             if (callback != null) {
                 callback.onError(null, 401, "Not authenticated");
             }
-            return;
+            return RequestHandle.NONE;
         }
-        String authHeader = "Bearer " + tokens.getAccessToken();
-
-        doctorApiService.setupPracticeForCurrentDoctor(authHeader, request)
-                .enqueue(new Callback<DoctorProfile>() {
+        return RequestHandle.enqueue(
+                doctorApiService.setupPracticeForCurrentDoctor(request),
+                new Callback<DoctorProfile>() {
                     @Override
                     public void onResponse(Call<DoctorProfile> call,
                                            Response<DoctorProfile> response) {
@@ -407,8 +469,8 @@ public class ProfileRepository {
     // Profile image upload
     // ------------------------------------------------------------
 
-    public void uploadProfileImage(MultipartBody.Part imagePart,
-                                   ProfileImageUpdateCallback callback) {
+    public RequestHandle uploadProfileImage(MultipartBody.Part imagePart,
+                                            ProfileImageUpdateCallback callback) {
         if (imagePart == null) {
             if (callback != null) {
                 callback.onError(
@@ -417,20 +479,18 @@ public class ProfileRepository {
                         "Image part is null"
                 );
             }
-            return;
+            return RequestHandle.NONE;
         }
 
-        AuthTokens tokens = authLocalDataSource.getTokens();
-        if (tokens == null || tokens.getAccessToken() == null) {
+        if (!tokenHolder.isSignedIn()) {
             if (callback != null) {
                 callback.onError(null, 401, "Not authenticated");
             }
-            return;
+            return RequestHandle.NONE;
         }
-        String authHeader = "Bearer " + tokens.getAccessToken();
-
-        userImageApiService.uploadMyProfileImage(authHeader, imagePart)
-                .enqueue(new Callback<User>() {
+        return RequestHandle.enqueue(
+                userImageApiService.uploadMyProfileImage(imagePart),
+                new Callback<User>() {
                     @Override
                     public void onResponse(Call<User> call,
                                            Response<User> response) {
@@ -469,4 +529,240 @@ public class ProfileRepository {
             return null;
         }
     }
+
+    // ------------------------------------------------------------
+    // Parallel profile load
+    // ------------------------------------------------------------
+
+    /**
+     * One loadProfileSnapshot() run: /me plus the role profile for the role we currently
+     * believe in. Cancelling it cancels both calls; callbacks fire at most once.
+     */
+    private final class ProfileLoad implements RequestHandle {
+
+        private final ProfileSnapshotCallback callback;
+
+        private RequestHandle userCall = RequestHandle.NONE;
+        private RequestHandle roleCall = RequestHandle.NONE;
+
+        // Role the running roleCall was started for (null when none)
+        @Nullable
+        private String roleInFlight;
+        @Nullable
+        private User user;
+        private boolean roleDone;
+        @Nullable
+        private DoctorProfile doctorProfile;
+        @Nullable
+        private PatientProfile patientProfile;
+
+        // Role call failed before /me confirmed its role
+        private boolean roleFailed;
+        private Throwable roleThrowable;
+        private Integer roleHttpCode;
+        private String roleErrorBody;
+
+        private boolean finished;
+        private boolean canceled;
+
+        ProfileLoad(ProfileSnapshotCallback callback) {
+            this.callback = callback;
+        }
+
+        void start(@Nullable String cachedRole) {
+            if (hasRoleProfile(cachedRole)) {
+                startRole(cachedRole);
+            }
+
+            RequestHandle handle = loadCurrentUser(new CurrentUserCallback() {
+                @Override
+                public void onSuccess(User loaded) {
+                    onUser(loaded);
+                }
+
+                @Override
+                public void onError(Throwable throwable,
+                                    @Nullable Integer httpCode,
+                                    @Nullable String errorBody) {
+                    RequestHandle pendingRole;
+                    synchronized (ProfileLoad.this) {
+                        pendingRole = roleCall;
+                    }
+                    pendingRole.cancel();
+                    fail(throwable, httpCode, errorBody);
+                }
+            });
+            synchronized (this) {
+                userCall = handle;
+            }
+        }
+
+        private void onUser(User loaded) {
+            String role = loaded.getRole();
+            tokenHolder.saveRole(role);
+
+            RequestHandle stale = RequestHandle.NONE;
+            boolean restart = false;
+            boolean failRole;
+            synchronized (this) {
+                user = loaded;
+                if (!hasRoleProfile(role)) {
+                    // No role profile to load: drop a guessed call, if any
+                    stale = roleCall;
+                    roleCall = RequestHandle.NONE;
+                    roleInFlight = null;
+                    doctorProfile = null;
+                    patientProfile = null;
+                    roleFailed = false;
+                    roleDone = true;
+                } else if (!role.equalsIgnoreCase(roleInFlight)) {
+                    // Cached role missing or wrong: reconcile with the real one
+                    stale = roleCall;
+                    restart = true;
+                }
+                failRole = roleFailed && !restart;
+            }
+            stale.cancel();
+
+            if (restart) {
+                startRole(role);
+            } else if (failRole) {
+                fail(roleThrowable, roleHttpCode, roleErrorBody);
+            } else {
+                finishIfComplete();
+            }
+        }
+
+        private void startRole(String role) {
+            synchronized (this) {
+                if (canceled || finished) return;
+                roleInFlight = role;
+                roleDone = false;
+                roleFailed = false;
+                doctorProfile = null;
+                patientProfile = null;
+            }
+
+            RequestHandle handle;
+            if (ROLE_DOCTOR.equalsIgnoreCase(role)) {
+                handle = loadDoctorProfile(new DoctorProfileCallback() {
+                    @Override
+                    public void onSuccess(@Nullable DoctorProfile profile) {
+                        onRoleLoaded(role, profile, null);
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable,
+                                        @Nullable Integer httpCode,
+                                        @Nullable String errorBody) {
+                        onRoleError(role, throwable, httpCode, errorBody);
+                    }
+                });
+            } else {
+                handle = loadPatientProfile(new PatientProfileCallback() {
+                    @Override
+                    public void onSuccess(@Nullable PatientProfile profile) {
+                        onRoleLoaded(role, null, profile);
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable,
+                                        @Nullable Integer httpCode,
+                                        @Nullable String errorBody) {
+                        onRoleError(role, throwable, httpCode, errorBody);
+                    }
+                });
+            }
+
+            boolean cancelNow;
+            synchronized (this) {
+                // A reconcile may already have moved on to another role
+                cancelNow = canceled || finished || !role.equals(roleInFlight);
+                if (!cancelNow) roleCall = handle;
+            }
+            if (cancelNow) handle.cancel();
+        }
+
+        private void onRoleLoaded(String role,
+                                  @Nullable DoctorProfile doctor,
+                                  @Nullable PatientProfile patient) {
+            synchronized (this) {
+                if (!role.equals(roleInFlight)) return;
+                doctorProfile = doctor;
+                patientProfile = patient;
+                roleDone = true;
+            }
+            finishIfComplete();
+        }
+
+        private void onRoleError(String role,
+                                 Throwable throwable,
+                                 @Nullable Integer httpCode,
+                                 @Nullable String errorBody) {
+            synchronized (this) {
+                if (!role.equals(roleInFlight)) return;
+                if (user == null) {
+                    // Might be a wrong guess (e.g. 403 for the other role): wait for /me
+                    roleFailed = true;
+                    roleThrowable = throwable;
+                    roleHttpCode = httpCode;
+                    roleErrorBody = errorBody;
+                    return;
+                }
+            }
+            fail(throwable, httpCode, errorBody);
+        }
+
+        private void finishIfComplete() {
+            ProfileSnapshot snapshot;
+            synchronized (this) {
+                if (canceled || finished || user == null || !roleDone) return;
+                finished = true;
+                snapshot = new ProfileSnapshot(user, doctorProfile, patientProfile);
+            }
+            if (callback != null) {
+                callback.onSuccess(snapshot);
+            }
+        }
+
+        private void fail(Throwable throwable,
+                          @Nullable Integer httpCode,
+                          @Nullable String errorBody) {
+            synchronized (this) {
+                if (canceled || finished) return;
+                finished = true;
+            }
+            if (callback != null) {
+                callback.onError(throwable, httpCode, errorBody);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            RequestHandle pendingUser;
+            RequestHandle pendingRole;
+            synchronized (this) {
+                if (canceled || finished) return;
+                canceled = true;
+                pendingUser = userCall;
+                pendingRole = roleCall;
+            }
+            pendingUser.cancel();
+            pendingRole.cancel();
+        }
+
+        @Override
+        public synchronized boolean isCanceled() {
+            return canceled;
+        }
+
+        @Override
+        public synchronized boolean isDone() {
+            return canceled || finished;
+        }
+    }
+
+    private static boolean hasRoleProfile(@Nullable String role) {
+        return ROLE_DOCTOR.equalsIgnoreCase(role) || ROLE_PATIENT.equalsIgnoreCase(role);
+    }
 }
@@ -0,0 +1,100 @@
+package tn.esprit.data.profile;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import tn.esprit.domain.doctor.DoctorProfile;
+import tn.esprit.domain.patient.PatientProfile;
+import tn.esprit.domain.user.User;
+
+/**
+ * Immutable result of one profile load: the /me user plus the profile matching its role
+ * (doctor or patient; null when the role has none or it is not created yet).
+ */
+public final class ProfileSnapshot {
+
+    static final long RESTORED = -1L;
+
+    @NonNull
+    private final User user;
+    @Nullable
+    private final DoctorProfile doctorProfile;
+    @Nullable
+    private final PatientProfile patientProfile;
+    private final long loadedAt;
+
+    public ProfileSnapshot(@NonNull User user,
+                           @Nullable DoctorProfile doctorProfile,
+                           @Nullable PatientProfile patientProfile) {
+        this(user, doctorProfile, patientProfile, SystemClock.elapsedRealtime());
+    }
+
+    /**
+     * @param loadedAt elapsedRealtime() of the load, or {@link #RESTORED} for a copy read
+     *                 back from disk (never fresh)
+     */
+    ProfileSnapshot(@NonNull User user,
+                    @Nullable DoctorProfile doctorProfile,
+                    @Nullable PatientProfile patientProfile,
+                    long loadedAt) {
+        this.user = user;
+        this.doctorProfile = doctorProfile;
+        this.patientProfile = patientProfile;
+        this.loadedAt = loadedAt;
+    }
+
+    @NonNull
+    ProfileSnapshot withUser(@NonNull User newUser) {
+        return new ProfileSnapshot(newUser, doctorProfile, patientProfile);
+    }
+
+    @NonNull
+    ProfileSnapshot withDoctorProfile(@Nullable DoctorProfile newProfile) {
+        return new ProfileSnapshot(user, newProfile, patientProfile);
+    }
+
+    @NonNull
+    ProfileSnapshot withPatientProfile(@Nullable PatientProfile newProfile) {
+        return new ProfileSnapshot(user, doctorProfile, newProfile);
+    }
+
+    @NonNull
+    public User getUser() {
+        return user;
+    }
+
+    @Nullable
+    public String getRole() {
+        return user.getRole();
+    }
+
+    @Nullable
+    public DoctorProfile getDoctorProfile() {
+        return doctorProfile;
+    }
+
+    @Nullable
+    public PatientProfile getPatientProfile() {
+        return patientProfile;
+    }
+
+    /**
+     * elapsedRealtime() when the snapshot was built ({@link #RESTORED} if read from disk).
+     */
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * True for the copy persisted by a previous run, shown until /me answers.
+     */
+    public boolean isRestored() {
+        return loadedAt == RESTORED;
+    }
+
+    public boolean isFresh(long maxAgeMillis) {
+        return !isRestored() && SystemClock.elapsedRealtime() - loadedAt < maxAgeMillis;
+    }
+}
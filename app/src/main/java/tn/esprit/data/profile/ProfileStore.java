@@ -0,0 +1,392 @@
+package tn.esprit.data.profile;
+
+import android.content.Context;
+import android.os.Looper;
+import android.text.TextUtils;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.google.gson.Gson;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import tn.esprit.data.remote.http.RequestHandle;
+import tn.esprit.data.remote.json.GsonProvider;
+import tn.esprit.domain.doctor.DoctorProfile;
+import tn.esprit.domain.patient.PatientProfile;
+import tn.esprit.domain.user.User;
+
+/**
+ * Process-wide holder of the current user's {@link ProfileSnapshot}.
+ *
+ * MainActivity (header, bottom nav, WebSocket), ProfileFragment and SessionBootstrap all
+ * read the same snapshot instead of each loading /me + role profile on their own.
+ * {@link #refresh(ProfileRepository.ProfileSnapshotCallback)} is single-flight: callers
+ * arriving while a load runs wait for that load.
+ *
+ * Stale-while-revalidate: the last snapshot is saved to disk and published again on the
+ * next cold start ({@link ProfileSnapshot#isRestored()}) until /me answers. Update calls
+ * hand their response to the apply* methods instead of reloading; after an avatar upload
+ * the picked image is kept for the new URL and displayed from the device
+ * ({@link #avatarModel(String)}).
+ */
+public final class ProfileStore {
+
+    private static final String TAG = "ProfileStore";
+
+    private static final String SNAPSHOT_FILE = "profile_snapshot.json";
+    private static final String AVATAR_PREFIX = "profile_avatar_";
+
+    private static ProfileStore instance;
+
+    public static synchronized ProfileStore getInstance(@NonNull Context context) {
+        if (instance == null) {
+            instance = new ProfileStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    // Gson shape of the snapshot file
+    private static final class StoredSnapshot {
+        User user;
+        DoctorProfile doctorProfile;
+        PatientProfile patientProfile;
+        String localAvatarUrl;
+        String localAvatarFile;
+    }
+
+    private final ProfileRepository profileRepository;
+    private final MutableLiveData<ProfileSnapshot> snapshot = new MutableLiveData<>();
+    private final File filesDir;
+    private final Gson gson = GsonProvider.get();
+    private final ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
+
+    // Guarded by "this"
+    @Nullable
+    private ProfileSnapshot current;
+    private RequestHandle inFlight = RequestHandle.NONE;
+    private final List<ProfileRepository.ProfileSnapshotCallback> waiters = new ArrayList<>();
+    // Bumped by clear(): a restore started before must not publish
+    private int generation;
+    // Uploaded avatar URL → local copy of the picked image
+    @Nullable
+    private String localAvatarUrl;
+    @Nullable
+    private File localAvatarFile;
+
+    private ProfileStore(Context appContext) {
+        this.profileRepository = new ProfileRepository(appContext);
+        this.filesDir = appContext.getFilesDir();
+        restore();
+    }
+
+    /**
+     * Latest snapshot; null until the first successful load (or restore) and after
+     * {@link #clear()}.
+     */
+    public LiveData<ProfileSnapshot> getSnapshot() {
+        return snapshot;
+    }
+
+    @Nullable
+    public synchronized ProfileSnapshot peek() {
+        return current;
+    }
+
+    /**
+     * Reloads the profile (joining a load already in flight). The callback, if any,
+     * gets the new snapshot or the error; observers of {@link #getSnapshot()} only see
+     * successful loads.
+     */
+    public void refresh(@Nullable ProfileRepository.ProfileSnapshotCallback callback) {
+        synchronized (this) {
+            if (callback != null) {
+                waiters.add(callback);
+            }
+            if (!inFlight.isDone()) {
+                return;
+            }
+        }
+
+        final RequestHandle[] self = new RequestHandle[1];
+        RequestHandle handle = profileRepository.loadProfileSnapshot(
+                new ProfileRepository.ProfileSnapshotCallback() {
+                    @Override
+                    public void onSuccess(ProfileSnapshot loaded) {
+                        List<ProfileRepository.ProfileSnapshotCallback> done;
+                        synchronized (ProfileStore.this) {
+                            if (self[0] != null && self[0] != inFlight) return; // cleared meanwhile
+                            publish(loaded);
+                            done = takeWaiters();
+                        }
+                        for (ProfileRepository.ProfileSnapshotCallback waiter : done) {
+                            waiter.onSuccess(loaded);
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable,
+                                        @Nullable Integer httpCode,
+                                        @Nullable String errorBody) {
+                        List<ProfileRepository.ProfileSnapshotCallback> done;
+                        synchronized (ProfileStore.this) {
+                            if (self[0] != null && self[0] != inFlight) return;
+                            done = takeWaiters();
+                        }
+                        for (ProfileRepository.ProfileSnapshotCallback waiter : done) {
+                            waiter.onError(throwable, httpCode, errorBody);
+                        }
+                    }
+                });
+
+        synchronized (this) {
+            self[0] = handle;
+            if (!handle.isDone()) {
+                inFlight = handle;
+            }
+        }
+    }
+
+    /**
+     * Uses the current snapshot when younger than maxAgeMillis, otherwise refreshes.
+     * A restored snapshot is never fresh: it stays on screen while the refresh runs.
+     */
+    public void loadIfStale(long maxAgeMillis,
+                            @Nullable ProfileRepository.ProfileSnapshotCallback callback) {
+        ProfileSnapshot cached = peek();
+        if (cached != null && cached.isFresh(maxAgeMillis)) {
+            if (callback != null) {
+                callback.onSuccess(cached);
+            }
+            return;
+        }
+        refresh(callback);
+    }
+
+    // -------------------------------------------------------------------------
+    // Local updates (responses of the update calls)
+    // -------------------------------------------------------------------------
+
+    /**
+     * /me as returned by PUT /me or the profile image upload. Without a usable response
+     * (null body) the profile is reloaded instead; same for the two methods below.
+     */
+    public void applyUser(@Nullable User user) {
+        synchronized (this) {
+            if (user != null) {
+                publish(current != null
+                        ? current.withUser(user)
+                        : new ProfileSnapshot(user, null, null));
+                return;
+            }
+        }
+        refresh(null);
+    }
+
+    public void applyDoctorProfile(@Nullable DoctorProfile profile) {
+        synchronized (this) {
+            if (profile != null && current != null) {
+                publish(current.withDoctorProfile(profile));
+                return;
+            }
+        }
+        refresh(null);
+    }
+
+    public void applyPatientProfile(@Nullable PatientProfile profile) {
+        synchronized (this) {
+            if (profile != null && current != null) {
+                publish(current.withPatientProfile(profile));
+                return;
+            }
+        }
+        refresh(null);
+    }
+
+    /**
+     * Response of the profile image upload: keeps the picked image as the local source of
+     * the new avatar URL (so it is shown without downloading it back), then applies user.
+     */
+    public void applyUploadedAvatar(@NonNull User user, @NonNull byte[] imageBytes) {
+        String imageUrl = user.getProfileImage();
+        if (TextUtils.isEmpty(imageUrl)) {
+            applyUser(user);
+            return;
+        }
+
+        final int startGeneration;
+        synchronized (this) {
+            startGeneration = generation;
+        }
+        diskExecutor.execute(() -> {
+            // One file per URL: Glide keys File models by path, a reused name would show the old image
+            File file = new File(filesDir, AVATAR_PREFIX + Integer.toHexString(imageUrl.hashCode()));
+            boolean saved;
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                out.write(imageBytes);
+                saved = true;
+            } catch (IOException e) {
+                Log.w(TAG, "Could not keep uploaded avatar", e);
+                saved = false;
+            }
+
+            File previous = null;
+            synchronized (this) {
+                if (generation != startGeneration) return; // logged out meanwhile
+                if (saved) {
+                    previous = localAvatarFile;
+                    localAvatarUrl = imageUrl;
+                    localAvatarFile = file;
+                }
+                applyUser(user);
+            }
+            if (previous != null && !previous.equals(file)) {
+                //noinspection ResultOfMethodCallIgnored
+                previous.delete();
+            }
+        });
+    }
+
+    /**
+     * What to hand to Glide for imageUrl: the local copy kept by
+     * {@link #applyUploadedAvatar(User, byte[])} when there is one, otherwise the URL itself.
+     */
+    @Nullable
+    public synchronized Object avatarModel(@Nullable String imageUrl) {
+        if (imageUrl != null && imageUrl.equals(localAvatarUrl) && localAvatarFile != null) {
+            return localAvatarFile;
+        }
+        return imageUrl;
+    }
+
+    /**
+     * Logout: cancel the running load and forget the previous user (memory and disk).
+     */
+    public void clear() {
+        RequestHandle running;
+        synchronized (this) {
+            running = inFlight;
+            inFlight = RequestHandle.NONE;
+            waiters.clear();
+            current = null;
+            generation++;
+            localAvatarUrl = null;
+            localAvatarFile = null;
+            setValue(null);
+        }
+        running.cancel();
+
+        diskExecutor.execute(() -> {
+            //noinspection ResultOfMethodCallIgnored
+            new File(filesDir, SNAPSHOT_FILE).delete();
+            File[] avatars = filesDir.listFiles((dir, name) -> name.startsWith(AVATAR_PREFIX));
+            if (avatars == null) return;
+            for (File avatar : avatars) {
+                //noinspection ResultOfMethodCallIgnored
+                avatar.delete();
+            }
+        });
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    // Caller holds "this"
+    private void publish(@NonNull ProfileSnapshot next) {
+        current = next;
+        setValue(next);
+        persist(next, localAvatarUrl, localAvatarFile);
+    }
+
+    private void setValue(@Nullable ProfileSnapshot value) {
+        // Synchronous on the main thread so observers never see the previous user's snapshot
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            snapshot.setValue(value);
+        } else {
+            snapshot.postValue(value);
+        }
+    }
+
+    @NonNull
+    private List<ProfileRepository.ProfileSnapshotCallback> takeWaiters() {
+        List<ProfileRepository.ProfileSnapshotCallback> done = new ArrayList<>(waiters);
+        waiters.clear();
+        return done;
+    }
+
+    private void persist(@NonNull ProfileSnapshot value,
+                         @Nullable String avatarUrl,
+                         @Nullable File avatarFile) {
+        StoredSnapshot stored = new StoredSnapshot();
+        stored.user = value.getUser();
+        stored.doctorProfile = value.getDoctorProfile();
+        stored.patientProfile = value.getPatientProfile();
+        stored.localAvatarUrl = avatarUrl;
+        stored.localAvatarFile = avatarFile != null ? avatarFile.getName() : null;
+
+        diskExecutor.execute(() -> {
+            File file = new File(filesDir, SNAPSHOT_FILE);
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+                gson.toJson(stored, StoredSnapshot.class, writer);
+            } catch (IOException | RuntimeException e) {
+                Log.w(TAG, "Could not save profile snapshot", e);
+            }
+        });
+    }
+
+    private void restore() {
+        final int startGeneration;
+        synchronized (this) {
+            startGeneration = generation;
+        }
+
+        diskExecutor.execute(() -> {
+            File file = new File(filesDir, SNAPSHOT_FILE);
+            if (!file.isFile()) return;
+
+            StoredSnapshot stored;
+            try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+                stored = gson.fromJson(reader, StoredSnapshot.class);
+            } catch (IOException | RuntimeException e) {
+                Log.w(TAG, "Dropping unreadable profile snapshot", e);
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+                return;
+            }
+            if (stored == null || stored.user == null) return;
+
+            synchronized (this) {
+                // A load or a logout got there first
+                if (generation != startGeneration || current != null) return;
+
+                if (stored.localAvatarUrl != null && stored.localAvatarFile != null) {
+                    File avatar = new File(filesDir, stored.localAvatarFile);
+                    if (avatar.isFile()) {
+                        localAvatarUrl = stored.localAvatarUrl;
+                        localAvatarFile = avatar;
+                    }
+                }
+                current = new ProfileSnapshot(stored.user, stored.doctorProfile,
+                        stored.patientProfile, ProfileSnapshot.RESTORED);
+                setValue(current);
+            }
+        });
+    }
+}
@@ -1,17 +1,45 @@
 package tn.esprit.data.remote;
 
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
-import okhttp3.logging.HttpLoggingInterceptor;
+import okhttp3.Protocol;
 import retrofit2.Call;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 import retrofit2.http.Body;
 import retrofit2.http.POST;
+import tn.esprit.data.auth.AuthInterceptor;
+import tn.esprit.data.auth.AuthTokenHolder;
+import tn.esprit.data.auth.TokenAuthenticator;
+import tn.esprit.data.remote.http.CachePolicyInterceptor;
+import tn.esprit.data.remote.http.NetworkLoggingInterceptor;
+import tn.esprit.data.remote.http.NetworkTimingEventListener;
+import tn.esprit.data.remote.http.OfflineCacheInterceptor;
+import tn.esprit.data.remote.http.RequestCoalescer;
+import tn.esprit.data.remote.http.RetryInterceptor;
+import tn.esprit.data.remote.json.GsonProvider;
 
 /**
  * Provides a configured Retrofit instance to talk to the Spring Boot backend.
  * Uses 10.0.2.2 so the Android emulator can reach localhost:8080 on your machine.
  *
+ * All REST services and the notifications WebSocket share ONE OkHttpClient
+ * (see {@link #getOkHttpClient()}), so there is a single connection pool and
+ * a single dispatcher thread pool for the whole process.
+ *
  * NOTE: This client is intentionally small and focused on auth for now.
  * Later we can split it into separate files (AuthApi, UserApi, DoctorApi...)
  * to avoid it becoming a god-class.
@@ -19,29 +47,135 @@ import retrofit2.http.POST;
 public class ApiClient {
 
     private static final String BASE_URL = "http://10.0.2.2:8080/";
+
+    // Everything goes to one backend host, so the per-host limit is the one that matters.
+    // OkHttp's default (5) queues screens that fire 6-8 calls at once (home, profile).
+    private static final int MAX_REQUESTS = 32;
+    private static final int MAX_REQUESTS_PER_HOST = 8;
+
+    // Keep a few idle sockets warm between screens instead of re-handshaking.
+    private static final int MAX_IDLE_CONNECTIONS = 5;
+    private static final long KEEP_ALIVE_MINUTES = 5L;
+
+    private static final long CONNECT_TIMEOUT_SECONDS = 15L;
+    private static final long READ_TIMEOUT_SECONDS = 30L;
+    private static final long WRITE_TIMEOUT_SECONDS = 30L;
+
+    // WebSocket ping (OkHttp level). Detects dead notification sockets.
+    private static final long PING_INTERVAL_SECONDS = 20L;
+
+    // Disk cache for @CachePolicy endpoints (catalogs). LRU-evicted past this size.
+    private static final String HTTP_CACHE_DIR = "http_cache";
+    private static final long HTTP_CACHE_MAX_BYTES = 10L * 1024L * 1024L;
+
+    private static HttpUrl baseUrl = HttpUrl.get(BASE_URL);
+    private static Context appContext;
+    private static OkHttpClient okHttpClient;
     private static Retrofit retrofit;
 
     private ApiClient() {
         // No instances
     }
+
+    /**
+     * Must be called once from Application.onCreate(), before any service is created,
+     * so the shared client can get its disk cache directory and auth token holder.
+     */
+    public static synchronized void init(@NonNull Context context) {
+        appContext = context.getApplicationContext();
+
+        // Full (truncated) bodies in debug builds, nothing in release.
+        // Can still be changed at runtime through NetworkLoggingInterceptor.setLevel().
+        boolean debuggable =
+                (appContext.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+        NetworkLoggingInterceptor.setLevel(debuggable
+                ? NetworkLoggingInterceptor.Level.BODY
+                : NetworkLoggingInterceptor.Level.NONE);
+
+        // In-flight GETs are only shared within one session
+        AuthTokenHolder tokenHolder = AuthTokenHolder.getInstance(appContext);
+        RequestCoalescer.setSessionKeySource(tokenHolder::getAccessToken);
+    }
+
+    /**
+     * Backend root; REST paths and the notifications WebSocket are resolved against it.
+     */
+    @NonNull
+    public static synchronized HttpUrl getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Points every service created afterwards at another backend (a local test server).
+     * The OkHttpClient, and so its connection pool, is kept.
+     */
+    @VisibleForTesting
+    public static synchronized void setBaseUrl(@NonNull HttpUrl url) {
+        baseUrl = url;
+        retrofit = null;
+    }
+
     public static <T> T createService(Class<T> serviceClass) {
         return getRetrofit().create(serviceClass);
     }
 
-    private static Retrofit getRetrofit() {
-        if (retrofit == null) {
-            HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
-            // Always log BODY for now (you can change to NONE for production)
-            logging.setLevel(HttpLoggingInterceptor.Level.BODY);
-
-            OkHttpClient client = new OkHttpClient.Builder()
-                    .addInterceptor(logging)
-                    .build();
+    /**
+     * Process-wide OkHttpClient. Use this (or {@code newBuilder()} on it) instead of
+     * creating a new client, so connections and dispatcher threads are shared.
+     */
+    public static synchronized OkHttpClient getOkHttpClient() {
+        if (okHttpClient == null) {
+            Dispatcher dispatcher = new Dispatcher();
+            dispatcher.setMaxRequests(MAX_REQUESTS);
+            dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+
+            ConnectionPool connectionPool = new ConnectionPool(
+                    MAX_IDLE_CONNECTIONS,
+                    KEEP_ALIVE_MINUTES,
+                    TimeUnit.MINUTES
+            );
+
+            OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                    .dispatcher(dispatcher)
+                    .connectionPool(connectionPool)
+                    .connectTimeout(CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                    .readTimeout(READ_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                    .writeTimeout(WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                    .pingInterval(PING_INTERVAL_SECONDS, TimeUnit.SECONDS)
+                    // The backend is plain HTTP/1.1 anyway. WebSockets force HTTP/1.1, and a
+                    // pooled connection is only reused for the same protocol list, so this
+                    // lets the socket handshake take an idle REST connection.
+                    .protocols(Collections.singletonList(Protocol.HTTP_1_1))
+                    .eventListenerFactory(NetworkTimingEventListener.FACTORY)
+                    .addInterceptor(new OfflineCacheInterceptor())
+                    // Inside the offline fallback: disk is only used once retries are exhausted
+                    // (calls retried by RequestScheduler hold the fallback until their last attempt)
+                    .addInterceptor(new RetryInterceptor());
+
+            if (appContext != null) {
+                // Authorization header + proactive / on-401 token refresh
+                AuthTokenHolder tokenHolder = AuthTokenHolder.getInstance(appContext);
+                builder.addInterceptor(new AuthInterceptor(tokenHolder));
+                builder.authenticator(new TokenAuthenticator(tokenHolder));
+
+                File cacheDir = new File(appContext.getCacheDir(), HTTP_CACHE_DIR);
+                builder.cache(new Cache(cacheDir, HTTP_CACHE_MAX_BYTES));
+            }
+
+            builder.addInterceptor(new NetworkLoggingInterceptor())
+                    .addNetworkInterceptor(new CachePolicyInterceptor());
+
+            okHttpClient = builder.build();
+        }
+        return okHttpClient;
+    }
 
+    private static synchronized Retrofit getRetrofit() {
+        if (retrofit == null) {
             retrofit = new Retrofit.Builder()
-                    .baseUrl(BASE_URL)
-                    .client(client)
-                    .addConverterFactory(GsonConverterFactory.create())
+                    .baseUrl(baseUrl)
+                    .client(getOkHttpClient())
+                    .addConverterFactory(GsonConverterFactory.create(GsonProvider.get()))
                     .build();
         }
         return retrofit;
@@ -11,64 +11,65 @@ import retrofit2.http.PUT;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
 import tn.esprit.data.remote.common.ListResponseDto;
+import tn.esprit.data.remote.http.Priority;
+import tn.esprit.data.remote.http.RequestPriority;
+import tn.esprit.data.remote.http.RetryInterceptor;
+import tn.esprit.data.remote.http.RetryPolicy;
 import tn.esprit.domain.appointment.Appointment;
 import tn.esprit.domain.appointment.AppointmentCreateRequest;
 import tn.esprit.domain.appointment.AppointmentStatusUpdateRequest;
 import tn.esprit.domain.appointment.WeeklyCalendarResponse;
 import tn.esprit.domain.doctor.DoctorHomeStats;
 
+@RetryPolicy
 public interface AppointmentApiService {
 
+    // Sent by the Outbox with execute(), outside RequestScheduler: no @RequestPriority
     @POST("api/appointments")
     Call<Appointment> createAppointment(
-            @Header("Authorization") String authorization,
+            @Header(RetryInterceptor.IDEMPOTENCY_KEY_HEADER) String idempotencyKey,
             @Body AppointmentCreateRequest request
     );
 
     @GET("api/appointments/me")
     Call<ListResponseDto<Appointment>> getMyAppointments(
-            @Header("Authorization") String authorization,
             @Query("from") String fromIso,
             @Query("to") String toIso
     );
 
     @GET("api/doctors/me/appointments")
     Call<ListResponseDto<Appointment>> getDoctorAppointments(
-            @Header("Authorization") String authorization,
             @Query("from") String fromIso,
             @Query("to") String toIso
     );
 
     @DELETE("api/appointments/{id}")
     Call<Void> cancelAppointment(
-            @Header("Authorization") String authorization,
             @Path("id") long id
     );
 
     @PATCH("api/appointments/{id}/status")
     Call<Appointment> updateAppointmentStatus(
-            @Header("Authorization") String authorization,
+            @Header(RetryInterceptor.IDEMPOTENCY_KEY_HEADER) String idempotencyKey,
             @Path("id") long id,
             @Body AppointmentStatusUpdateRequest request
     );
 
     @PUT("api/appointments/{id}")
     Call<Appointment> rescheduleAppointment(
-            @Header("Authorization") String authorization,
             @Path("id") long id,
             @Body AppointmentCreateRequest request
     );
 
+    // Slot picker in BookAppointmentBottomSheet
+    @RequestPriority(Priority.INTERACTIVE)
     @GET("api/doctors/{doctorId}/weekly-calendar")
     Call<WeeklyCalendarResponse> getDoctorWeeklyCalendar(
-            @Header("Authorization") String authorization,
             @Path("doctorId") long doctorId,
             @Query("weekStart") String weekStartIso
     );
 
     @GET("api/doctors/me/home-stats")
-    Call<DoctorHomeStats> getDoctorHomeStats(
-            @Header("Authorization") String authorization
-    );
+    Call<DoctorHomeStats> getDoctorHomeStats();
 
 }
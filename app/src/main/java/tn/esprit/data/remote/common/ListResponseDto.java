@@ -8,13 +8,19 @@ import java.util.List;
  * JSON example:
  * {
  *   "items": [ ... ],
- *   "total": 3
+ *   "total": 3,
+ *   "nextCursor": 41,
+ *   "hasMore": true
  * }
+ *
+ * nextCursor / hasMore are only sent by paged endpoints; null when absent.
  */
 public class ListResponseDto<T> {
 
     private List<T> items;
     private long total;
+    private Long nextCursor;
+    private Boolean hasMore;
 
     public ListResponseDto() {
     }
@@ -34,4 +40,20 @@ public class ListResponseDto<T> {
     public void setTotal(long total) {
         this.total = total;
     }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public Boolean getHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(Boolean hasMore) {
+        this.hasMore = hasMore;
+    }
 }
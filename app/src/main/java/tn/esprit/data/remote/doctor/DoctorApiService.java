@@ -6,17 +6,20 @@ import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.DELETE;
 import retrofit2.http.GET;
-import retrofit2.http.Header;
 import retrofit2.http.POST;
 import retrofit2.http.PUT;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
 import tn.esprit.data.remote.common.ListResponseDto;
+import tn.esprit.data.remote.http.Priority;
+import tn.esprit.data.remote.http.RequestPriority;
+import tn.esprit.data.remote.http.RetryPolicy;
 import tn.esprit.domain.doctor.DoctorProfile;
 import tn.esprit.domain.doctor.DoctorPublicProfile;
 import tn.esprit.domain.doctor.DoctorSearchResult;
 import tn.esprit.domain.patient.PatientProfile;
 
+@RetryPolicy
 public interface DoctorApiService {
 
     /**
@@ -24,9 +27,7 @@ public interface DoctorApiService {
      * Returns the current doctor's profile.
      */
     @GET("/api/doctors/me")
-    Call<DoctorProfile> getMyProfile(
-            @Header("Authorization") String authHeader
-    );
+    Call<DoctorProfile> getMyProfile();
 
     /**
      * PUT /api/doctors/me
@@ -34,7 +35,6 @@ public interface DoctorApiService {
      */
     @PUT("/api/doctors/me")
     Call<DoctorProfile> updateMyProfile(
-            @Header("Authorization") String authHeader,
             @Body DoctorProfileUpdateRequestDto request
     );
 
@@ -45,7 +45,6 @@ public interface DoctorApiService {
      */
     @POST("/api/doctors/me/practice-setup")
     Call<DoctorProfile> setupPracticeForCurrentDoctor(
-            @Header("Authorization") String authHeader,
             @Body DoctorPracticeSetupRequestDto request
     );
 
@@ -56,9 +55,7 @@ public interface DoctorApiService {
      * Returns patients linked to the current doctor, wrapped in ListResponse.
      */
     @GET("/api/doctors/me/patients")
-    Call<ListResponseDto<PatientProfile>> getMyPatients(
-            @Header("Authorization") String authHeader
-    );
+    Call<ListResponseDto<PatientProfile>> getMyPatients();
 
     /**
      * GET /api/doctors/me/patients/{patientUserId}
@@ -66,7 +63,6 @@ public interface DoctorApiService {
      */
     @GET("/api/doctors/me/patients/{patientUserId}")
     Call<PatientProfile> getMyPatientByUserId(
-            @Header("Authorization") String authHeader,
             @Path("patientUserId") Long patientUserId
     );
 
@@ -76,7 +72,6 @@ public interface DoctorApiService {
      */
     @DELETE("/api/doctors/me/patients/{patientUserId}")
     Call<Void> removePatientFromMe(
-            @Header("Authorization") String authHeader,
             @Path("patientUserId") Long patientUserId
     );
 
@@ -89,9 +84,9 @@ public interface DoctorApiService {
      *
      * Backend now wraps results in ListResponse<DoctorSearchResultDto>.
      */
+    @RequestPriority(Priority.INTERACTIVE)
     @GET("/api/doctors/search")
     Call<ListResponseDto<DoctorSearchResult>> searchDoctors(
-            @Header("Authorization") String authHeader,
             @Query("q") String query,
             @Query("specialtyId") Long specialtyId,
             @Query("city") String city,
@@ -107,7 +102,6 @@ public interface DoctorApiService {
      */
     @GET("/api/doctors/{doctorId}/public")
     Call<DoctorPublicProfile> getDoctorPublicProfile(
-            @Header("Authorization") String authHeader,
             @Path("doctorId") Long doctorId
     );
 
@@ -6,19 +6,21 @@ import java.util.List;
 import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.GET;
-import retrofit2.http.Header;
 import retrofit2.http.Path;
+import tn.esprit.data.remote.http.CachePolicy;
+import tn.esprit.data.remote.http.RetryPolicy;
 
+@RetryPolicy
 public interface SpecialtyApiService {
 
+    // Catalog data: served from the HTTP disk cache, revalidated hourly
+    @CachePolicy(maxAgeSeconds = 60 * 60, maxStaleSeconds = 7 * 24 * 60 * 60)
     @GET("/api/specialties")
-    Call<List<SpecialtyDto>> getAllSpecialties(
-            @Header("Authorization") String authHeader
-    );
+    Call<List<SpecialtyDto>> getAllSpecialties();
 
+    @CachePolicy(maxAgeSeconds = 60 * 60, maxStaleSeconds = 7 * 24 * 60 * 60)
     @GET("/api/specialties/{specialtyId}/acts")
     Call<List<ActDto>> getActsBySpecialty(
-            @Header("Authorization") String authHeader,
             @Path("specialtyId") Long specialtyId
     );
 
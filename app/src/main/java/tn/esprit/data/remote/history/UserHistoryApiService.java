@@ -4,22 +4,27 @@ import java.util.List;
 
 import retrofit2.Call;
 import retrofit2.http.GET;
-import retrofit2.http.Header;
+import retrofit2.http.Query;
+import tn.esprit.data.remote.http.RetryPolicy;
 import tn.esprit.domain.history.UserHistoryEntry;
 
 /**
  * Retrofit API for user history.
  *
  * Backend:
- *   GET /api/history
+ *   GET /api/history?limit=30&before=1234&category=APPOINTMENTS
  *   Authorization: Bearer <token>
  *
- * Currently no query params are used on the Android side.
+ * Newest first. "before" is the id of the last entry of the previous page (exclusive);
+ * null parameters are left out of the URL.
  */
+@RetryPolicy
 public interface UserHistoryApiService {
 
     @GET("/api/history")
     Call<List<UserHistoryEntry>> getMyHistory(
-            @Header("Authorization") String authHeader
+            @Query("limit") Integer limit,
+            @Query("before") Long beforeId,
+            @Query("category") String category
     );
 }
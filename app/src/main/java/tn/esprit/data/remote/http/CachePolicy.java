@@ -0,0 +1,39 @@
+package tn.esprit.data.remote.http;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a Retrofit GET method as cacheable in the shared OkHttp disk cache.
+ *
+ * Only meant for catalog-style endpoints whose payload is the same for every user
+ * (specialties, acts, indicator types, medications). The disk cache is keyed by URL,
+ * so user-specific endpoints must NOT carry this annotation.
+ *
+ * Example:
+ * <pre>
+ *   &#64;CachePolicy(maxAgeSeconds = 3600, maxStaleSeconds = 7 * 24 * 3600)
+ *   &#64;GET("/api/specialties")
+ *   Call&lt;List&lt;SpecialtyDto&gt;&gt; getAllSpecialties(...);
+ * </pre>
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CachePolicy {
+
+    /**
+     * How long a cached response is served without contacting the backend.
+     * 0 = always revalidate (If-None-Match / If-Modified-Since, 304 when unchanged).
+     */
+    int maxAgeSeconds() default 0;
+
+    /**
+     * How old a cached response may be when the network is unreachable.
+     * 0 = no offline fallback.
+     */
+    int maxStaleSeconds() default 0;
+}
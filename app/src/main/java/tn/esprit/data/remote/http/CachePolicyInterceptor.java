@@ -0,0 +1,60 @@
+package tn.esprit.data.remote.http;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import retrofit2.Invocation;
+
+/**
+ * NETWORK interceptor: rewrites the caching headers of responses coming from
+ * endpoints annotated with {@link CachePolicy}.
+ *
+ * The backend (Spring Security) sends "Cache-Control: no-cache, no-store" on every
+ * response, which would keep OkHttp from storing anything. For annotated endpoints we
+ * replace it with "public, max-age=N". ETag / Last-Modified are kept untouched so
+ * OkHttp can revalidate with If-None-Match / If-Modified-Since once max-age expires.
+ *
+ * 304 answers are rewritten too: OkHttp merges their headers into the stored entry, and a
+ * "no-store" merged in that way would turn the next load into a full download.
+ */
+public class CachePolicyInterceptor implements Interceptor {
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        Response response = chain.proceed(request);
+
+        CachePolicy policy = findPolicy(request);
+        if (policy == null || !(response.isSuccessful() || response.code() == 304)) {
+            return response;
+        }
+
+        return response.newBuilder()
+                .removeHeader("Pragma")
+                .removeHeader("Expires")
+                .header("Cache-Control", "public, max-age=" + Math.max(0, policy.maxAgeSeconds()))
+                .build();
+    }
+
+    /**
+     * Returns the {@link CachePolicy} of the Retrofit method behind this request,
+     * or null when the request is not a GET or the method is not annotated.
+     */
+    @Nullable
+    static CachePolicy findPolicy(@NonNull Request request) {
+        if (!"GET".equals(request.method())) {
+            return null;
+        }
+        Invocation invocation = request.tag(Invocation.class);
+        if (invocation == null) {
+            return null;
+        }
+        return invocation.method().getAnnotation(CachePolicy.class);
+    }
+}
@@ -0,0 +1,57 @@
+package tn.esprit.data.remote.http;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Handle for work whose network call starts later (after a disk read, a cache lookup...).
+ *
+ * The repository returns it right away, {@link #attach(RequestHandle)}es the call once it
+ * is started and calls {@link #finish()} before delivering the final result. Cancelling
+ * cancels the attached call; a call attached after cancellation is cancelled immediately.
+ */
+public final class DeferredRequest implements RequestHandle {
+
+    private RequestHandle attached = RequestHandle.NONE;
+    private boolean canceled;
+    private boolean done;
+
+    public void attach(@NonNull RequestHandle handle) {
+        synchronized (this) {
+            if (!canceled) {
+                attached = handle;
+                return;
+            }
+        }
+        handle.cancel();
+    }
+
+    /**
+     * True for the one caller allowed to deliver the final result (false once cancelled).
+     */
+    public synchronized boolean finish() {
+        if (canceled || done) return false;
+        done = true;
+        return true;
+    }
+
+    @Override
+    public void cancel() {
+        RequestHandle running;
+        synchronized (this) {
+            if (canceled || done) return;
+            canceled = true;
+            running = attached;
+        }
+        running.cancel();
+    }
+
+    @Override
+    public synchronized boolean isCanceled() {
+        return canceled;
+    }
+
+    @Override
+    public synchronized boolean isDone() {
+        return canceled || done;
+    }
+}
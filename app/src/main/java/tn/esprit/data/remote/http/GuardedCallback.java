@@ -0,0 +1,59 @@
+package tn.esprit.data.remote.http;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Callback wrapper backing {@link RequestHandle}: drops delivery once cancelled and runs
+ * {@code onCancel} (abort the call, detach from a shared call...) the first time only.
+ */
+final class GuardedCallback<T> implements Callback<T>, RequestHandle {
+
+    private final Callback<T> delegate;
+    private final Runnable onCancel;
+
+    private final AtomicBoolean canceled = new AtomicBoolean();
+    private volatile boolean delivered;
+
+    GuardedCallback(@NonNull Callback<T> delegate, @NonNull Runnable onCancel) {
+        this.delegate = delegate;
+        this.onCancel = onCancel;
+    }
+
+    @Override
+    public void onResponse(@NonNull Call<T> call, @NonNull Response<T> response) {
+        if (canceled.get()) return;
+        delivered = true;
+        delegate.onResponse(call, response);
+    }
+
+    @Override
+    public void onFailure(@NonNull Call<T> call, @NonNull Throwable t) {
+        if (canceled.get()) return;
+        delivered = true;
+        delegate.onFailure(call, t);
+    }
+
+    @Override
+    public void cancel() {
+        if (delivered) return;
+        if (canceled.compareAndSet(false, true)) {
+            onCancel.run();
+        }
+    }
+
+    @Override
+    public boolean isCanceled() {
+        return canceled.get();
+    }
+
+    @Override
+    public boolean isDone() {
+        return delivered || canceled.get();
+    }
+}
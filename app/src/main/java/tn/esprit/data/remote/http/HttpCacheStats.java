@@ -0,0 +1,89 @@
+package tn.esprit.data.remote.http;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Response;
+
+/**
+ * Hit / miss counters for endpoints annotated with {@link CachePolicy}.
+ *
+ *  - hits:             served straight from disk, no network at all
+ *  - conditionalHits:  revalidated with the backend, answered 304 (headers only)
+ *  - misses:           full body downloaded
+ *  - offlineHits:      network failed, stale entry served from disk
+ *
+ * Counters live for the process lifetime; {@link #summary()} is meant for logs
+ * and debug screens.
+ */
+public final class HttpCacheStats {
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong conditionalHits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong offlineHits = new AtomicLong();
+
+    private HttpCacheStats() {
+        // No instances
+    }
+
+    static void record(@NonNull Response response) {
+        boolean fromCache = response.cacheResponse() != null;
+        boolean fromNetwork = response.networkResponse() != null;
+
+        if (fromCache && !fromNetwork) {
+            hits.incrementAndGet();
+        } else if (fromCache) {
+            conditionalHits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+    }
+
+    static void recordOfflineHit() {
+        offlineHits.incrementAndGet();
+    }
+
+    public static long getHits() {
+        return hits.get();
+    }
+
+    public static long getConditionalHits() {
+        return conditionalHits.get();
+    }
+
+    public static long getMisses() {
+        return misses.get();
+    }
+
+    public static long getOfflineHits() {
+        return offlineHits.get();
+    }
+
+    /**
+     * Share of requests that did NOT download a full body.
+     */
+    public static double getHitRatio() {
+        long saved = hits.get() + conditionalHits.get() + offlineHits.get();
+        long total = saved + misses.get();
+        return total == 0 ? 0d : (double) saved / total;
+    }
+
+    public static void reset() {
+        hits.set(0);
+        conditionalHits.set(0);
+        misses.set(0);
+        offlineHits.set(0);
+    }
+
+    @NonNull
+    public static String summary() {
+        return "hits=" + hits.get()
+                + ", 304=" + conditionalHits.get()
+                + ", misses=" + misses.get()
+                + ", offline=" + offlineHits.get()
+                + ", ratio=" + String.format(Locale.US, "%.2f", getHitRatio());
+    }
+}
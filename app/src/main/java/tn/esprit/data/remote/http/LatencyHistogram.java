@@ -0,0 +1,64 @@
+package tn.esprit.data.remote.http;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-bucket latency histogram (milliseconds), lock-free.
+ *
+ * Memory is constant (one long per bucket) whatever the number of samples.
+ * Percentiles are reported as the upper bound of the bucket holding the rank,
+ * which is precise enough to spot slow endpoints / phases.
+ */
+public final class LatencyHistogram {
+
+    // Upper bounds (inclusive) in ms. Last bucket is "> 30 s".
+    private static final long[] BOUNDS_MS = {
+            1, 2, 5, 10, 20, 35, 50, 75, 100, 150, 200, 300, 500, 750,
+            1_000, 1_500, 2_000, 3_000, 5_000, 10_000, 30_000, Long.MAX_VALUE
+    };
+
+    private final AtomicLongArray counts = new AtomicLongArray(BOUNDS_MS.length);
+
+    public void record(long millis) {
+        if (millis < 0) return;
+        counts.incrementAndGet(bucketOf(millis));
+    }
+
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * @param percentile 0..100 (e.g. 50, 95, 99)
+     * @return bucket upper bound in ms, -1 when empty
+     */
+    public long percentile(double percentile) {
+        long total = count();
+        if (total == 0) return -1L;
+
+        long rank = (long) Math.ceil(percentile / 100d * total);
+        if (rank < 1) rank = 1;
+
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return BOUNDS_MS[i];
+            }
+        }
+        return BOUNDS_MS[BOUNDS_MS.length - 1];
+    }
+
+    private static int bucketOf(long millis) {
+        for (int i = 0; i < BOUNDS_MS.length; i++) {
+            if (millis <= BOUNDS_MS[i]) {
+                return i;
+            }
+        }
+        return BOUNDS_MS.length - 1;
+    }
+}
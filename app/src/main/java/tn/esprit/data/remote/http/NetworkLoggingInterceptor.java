@@ -0,0 +1,189 @@
+package tn.esprit.data.remote.http;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Headers;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.MultipartBody;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+
+/**
+ * Replacement for HttpLoggingInterceptor that is safe to leave installed in release builds.
+ *
+ *  - Level is global and can be changed at runtime ({@link #setLevel(Level)}).
+ *    ApiClient sets BODY for debuggable builds and NONE otherwise; with NONE the
+ *    interceptor is a single volatile read + chain.proceed().
+ *  - Only a sample of requests is logged ({@link #setSampleRate(double)}).
+ *  - Bodies are truncated to {@link #setMaxBodyBytes(long)} and only peeked, never
+ *    fully buffered. Multipart and binary bodies (images, octet-stream) are skipped.
+ *  - Authorization / Cookie headers are redacted.
+ */
+public class NetworkLoggingInterceptor implements Interceptor {
+
+    private static final String TAG = "OkHttp";
+
+    public enum Level {
+        /** No logging at all. */
+        NONE,
+        /** Request line + response status and duration. */
+        BASIC,
+        /** BASIC + headers (sensitive ones redacted). */
+        HEADERS,
+        /** HEADERS + truncated textual bodies. */
+        BODY
+    }
+
+    private static volatile Level level = Level.NONE;
+    private static volatile double sampleRate = 1d;
+    private static volatile long maxBodyBytes = 4L * 1024L;
+
+    public static void setLevel(@NonNull Level newLevel) {
+        level = newLevel;
+    }
+
+    @NonNull
+    public static Level getLevel() {
+        return level;
+    }
+
+    /**
+     * @param rate fraction of requests to log, 0..1
+     */
+    public static void setSampleRate(double rate) {
+        sampleRate = Math.max(0d, Math.min(1d, rate));
+    }
+
+    public static void setMaxBodyBytes(long bytes) {
+        maxBodyBytes = Math.max(0L, bytes);
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Level current = level;
+        Request request = chain.request();
+        if (current == Level.NONE || !isSampled()) {
+            return chain.proceed(request);
+        }
+
+        boolean logHeaders = current == Level.HEADERS || current == Level.BODY;
+        boolean logBody = current == Level.BODY;
+
+        Log.d(TAG, "--> " + request.method() + " " + request.url());
+        if (logHeaders) {
+            logHeaders(request.headers());
+        }
+        if (logBody) {
+            logRequestBody(request.body());
+        }
+
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            Log.d(TAG, "<-- HTTP FAILED: " + e);
+            throw e;
+        }
+        long tookMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Log.d(TAG, "<-- " + response.code() + " " + request.url() + " (" + tookMs + "ms)");
+        if (logHeaders) {
+            logHeaders(response.headers());
+        }
+        if (logBody) {
+            logResponseBody(response);
+        }
+        return response;
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    private static boolean isSampled() {
+        double rate = sampleRate;
+        return rate >= 1d || (rate > 0d && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    private static void logHeaders(@NonNull Headers headers) {
+        for (int i = 0; i < headers.size(); i++) {
+            String name = headers.name(i);
+            String value = isSensitive(name) ? "██" : headers.value(i);
+            Log.d(TAG, name + ": " + value);
+        }
+    }
+
+    private static boolean isSensitive(@NonNull String headerName) {
+        return "Authorization".equalsIgnoreCase(headerName)
+                || "Cookie".equalsIgnoreCase(headerName)
+                || "Set-Cookie".equalsIgnoreCase(headerName);
+    }
+
+    private static void logRequestBody(@Nullable RequestBody body) throws IOException {
+        if (body == null) return;
+
+        long length = body.contentLength();
+        if (body instanceof MultipartBody || !isText(body.contentType())
+                || body.isDuplex() || body.isOneShot()) {
+            Log.d(TAG, "(request body omitted, " + length + " bytes)");
+            return;
+        }
+        if (length > maxBodyBytes) {
+            // Don't serialize a large body a second time just to log its head
+            Log.d(TAG, "(request body omitted, " + length + " bytes > cap)");
+            return;
+        }
+
+        Buffer buffer = new Buffer();
+        body.writeTo(buffer);
+        Log.d(TAG, buffer.readString(charsetOf(body.contentType())));
+    }
+
+    private static void logResponseBody(@NonNull Response response) throws IOException {
+        ResponseBody body = response.body();
+        if (body == null) return;
+
+        if (!isText(body.contentType())) {
+            Log.d(TAG, "(response body omitted, " + body.contentLength() + " bytes)");
+            return;
+        }
+
+        long cap = maxBodyBytes;
+        ResponseBody peeked = response.peekBody(cap);
+        long peekedLength = peeked.contentLength();
+        String text = peeked.string();
+        boolean truncated = peekedLength >= cap && body.contentLength() != peekedLength;
+        Log.d(TAG, truncated ? text + "… (truncated)" : text);
+    }
+
+    private static boolean isText(@Nullable MediaType type) {
+        if (type == null) return false;
+        String t = type.type();
+        String sub = type.subtype();
+        return "text".equals(t)
+                || sub.contains("json")
+                || sub.contains("xml")
+                || "x-www-form-urlencoded".equals(sub);
+    }
+
+    @NonNull
+    private static Charset charsetOf(@Nullable MediaType type) {
+        Charset charset = type != null ? type.charset(StandardCharsets.UTF_8) : null;
+        return charset != null ? charset : StandardCharsets.UTF_8;
+    }
+}
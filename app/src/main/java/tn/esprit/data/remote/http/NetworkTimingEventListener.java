@@ -0,0 +1,180 @@
+package tn.esprit.data.remote.http;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import retrofit2.Invocation;
+import retrofit2.http.DELETE;
+import retrofit2.http.GET;
+import retrofit2.http.HTTP;
+import retrofit2.http.PATCH;
+import retrofit2.http.POST;
+import retrofit2.http.PUT;
+
+/**
+ * One listener per call: measures DNS, connect, TLS, request write, time-to-first-byte,
+ * body read and total duration, and records them in {@link NetworkTimingStats}.
+ *
+ * Phases that don't happen (pooled connection → no DNS / connect) are simply not recorded.
+ */
+public class NetworkTimingEventListener extends EventListener {
+
+    public static final EventListener.Factory FACTORY = new EventListener.Factory() {
+        @NonNull
+        @Override
+        public EventListener create(@NonNull Call call) {
+            return new NetworkTimingEventListener(endpointOf(call.request()));
+        }
+    };
+
+    private final String endpoint;
+
+    private long callStart;
+    private long dnsStart;
+    private long connectStart;
+    private long secureConnectStart;
+    private long requestStart;
+    private long requestEnd;
+    private long responseBodyStart;
+
+    private NetworkTimingEventListener(@NonNull String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    @Override
+    public void callStart(@NonNull Call call) {
+        callStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsStart(@NonNull Call call, @NonNull String domainName) {
+        dnsStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(@NonNull Call call, @NonNull String domainName,
+                       @NonNull List<InetAddress> inetAddressList) {
+        record(NetworkTimingStats.Phase.DNS, dnsStart);
+    }
+
+    @Override
+    public void connectStart(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress,
+                             @NonNull Proxy proxy) {
+        connectStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectStart(@NonNull Call call) {
+        secureConnectStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(@NonNull Call call, @Nullable Handshake handshake) {
+        record(NetworkTimingStats.Phase.TLS, secureConnectStart);
+    }
+
+    @Override
+    public void connectEnd(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress,
+                           @NonNull Proxy proxy, @Nullable Protocol protocol) {
+        record(NetworkTimingStats.Phase.CONNECT, connectStart);
+    }
+
+    @Override
+    public void requestHeadersStart(@NonNull Call call) {
+        requestStart = System.nanoTime();
+    }
+
+    @Override
+    public void requestHeadersEnd(@NonNull Call call, @NonNull Request request) {
+        requestEnd = System.nanoTime();
+    }
+
+    @Override
+    public void requestBodyEnd(@NonNull Call call, long byteCount) {
+        requestEnd = System.nanoTime();
+    }
+
+    @Override
+    public void responseHeadersStart(@NonNull Call call) {
+        if (requestStart != 0L) {
+            record(NetworkTimingStats.Phase.REQUEST_WRITE, requestStart, requestEnd);
+            record(NetworkTimingStats.Phase.TIME_TO_FIRST_BYTE, requestEnd);
+        }
+    }
+
+    @Override
+    public void responseBodyStart(@NonNull Call call) {
+        responseBodyStart = System.nanoTime();
+    }
+
+    @Override
+    public void responseBodyEnd(@NonNull Call call, long byteCount) {
+        record(NetworkTimingStats.Phase.BODY_READ, responseBodyStart);
+    }
+
+    @Override
+    public void callEnd(@NonNull Call call) {
+        record(NetworkTimingStats.Phase.TOTAL, callStart);
+    }
+
+    @Override
+    public void callFailed(@NonNull Call call, @NonNull IOException ioe) {
+        record(NetworkTimingStats.Phase.TOTAL, callStart);
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    private void record(@NonNull NetworkTimingStats.Phase phase, long startNanos) {
+        record(phase, startNanos, System.nanoTime());
+    }
+
+    private void record(@NonNull NetworkTimingStats.Phase phase, long startNanos, long endNanos) {
+        if (startNanos == 0L || endNanos < startNanos) return;
+        NetworkTimingStats.record(endpoint, phase, (endNanos - startNanos) / 1_000_000L);
+    }
+
+    /**
+     * "GET api/doctors/{doctorId}/weekly-calendar" for Retrofit calls,
+     * "GET /ws-mobile" (concrete path) for anything else (e.g. the WebSocket).
+     */
+    @NonNull
+    static String endpointOf(@NonNull Request request) {
+        Invocation invocation = request.tag(Invocation.class);
+        if (invocation != null) {
+            for (Annotation annotation : invocation.method().getAnnotations()) {
+                String template = templateOf(annotation);
+                if (template != null) {
+                    String path = template.startsWith("/") ? template.substring(1) : template;
+                    return request.method() + " " + path;
+                }
+            }
+        }
+        return request.method() + " " + request.url().encodedPath();
+    }
+
+    @Nullable
+    private static String templateOf(@NonNull Annotation annotation) {
+        if (annotation instanceof GET) return ((GET) annotation).value();
+        if (annotation instanceof POST) return ((POST) annotation).value();
+        if (annotation instanceof PUT) return ((PUT) annotation).value();
+        if (annotation instanceof DELETE) return ((DELETE) annotation).value();
+        if (annotation instanceof PATCH) return ((PATCH) annotation).value();
+        if (annotation instanceof HTTP) return ((HTTP) annotation).path();
+        return null;
+    }
+}
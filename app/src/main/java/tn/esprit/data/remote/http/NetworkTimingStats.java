@@ -0,0 +1,94 @@
+package tn.esprit.data.remote.http;
+
+import androidx.annotation.NonNull;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory per-endpoint timing histograms, fed by {@link NetworkTimingEventListener}.
+ *
+ * Endpoints are keyed by their Retrofit template ("GET api/doctors/{doctorId}/weekly-calendar"),
+ * so every doctor id lands in the same histograms.
+ */
+public final class NetworkTimingStats {
+
+    public enum Phase {
+        DNS,
+        CONNECT,
+        TLS,
+        REQUEST_WRITE,
+        TIME_TO_FIRST_BYTE,
+        BODY_READ,
+        TOTAL
+    }
+
+    private static final ConcurrentHashMap<String, LatencyHistogram[]> endpoints =
+            new ConcurrentHashMap<>();
+
+    private NetworkTimingStats() {
+        // No instances
+    }
+
+    static void record(@NonNull String endpoint, @NonNull Phase phase, long millis) {
+        LatencyHistogram[] histograms = endpoints.get(endpoint);
+        if (histograms == null) {
+            LatencyHistogram[] created = new LatencyHistogram[Phase.values().length];
+            for (int i = 0; i < created.length; i++) {
+                created[i] = new LatencyHistogram();
+            }
+            LatencyHistogram[] existing = endpoints.putIfAbsent(endpoint, created);
+            histograms = existing != null ? existing : created;
+        }
+        histograms[phase.ordinal()].record(millis);
+    }
+
+    public static void reset() {
+        endpoints.clear();
+    }
+
+    /**
+     * Plain-text report: one block per endpoint, one line per phase with count and p50/p95/p99.
+     */
+    @NonNull
+    public static String report() {
+        List<String> keys = new ArrayList<>(endpoints.keySet());
+        Collections.sort(keys);
+
+        StringBuilder sb = new StringBuilder();
+        for (String key : keys) {
+            LatencyHistogram[] histograms = endpoints.get(key);
+            if (histograms == null) continue;
+
+            sb.append(key).append('\n');
+            for (Phase phase : Phase.values()) {
+                LatencyHistogram h = histograms[phase.ordinal()];
+                long count = h.count();
+                if (count == 0) continue;
+                sb.append("  ").append(phase.name())
+                        .append(" n=").append(count)
+                        .append(" p50=").append(h.percentile(50)).append("ms")
+                        .append(" p95=").append(h.percentile(95)).append("ms")
+                        .append(" p99=").append(h.percentile(99)).append("ms")
+                        .append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes {@link #report()} and the scheduler queue waits to the given file (overwritten).
+     */
+    public static void dumpTo(@NonNull File file) throws IOException {
+        try (Writer writer = new FileWriter(file, false)) {
+            writer.write(report());
+            writer.write(RequestScheduler.report());
+        }
+    }
+}
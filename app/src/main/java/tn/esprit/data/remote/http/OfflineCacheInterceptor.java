@@ -0,0 +1,61 @@
+package tn.esprit.data.remote.http;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.CacheControl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * APPLICATION interceptor for endpoints annotated with {@link CachePolicy}:
+ *
+ *  - records whether each response came from disk, from a 304 revalidation
+ *    or from a full download (see {@link HttpCacheStats});
+ *  - when the network call fails, retries from the disk cache only, accepting
+ *    an entry up to {@link CachePolicy#maxStaleSeconds()} old.
+ *
+ * Calls retried by {@link RequestScheduler} only fall back on their last attempt; served
+ * from disk earlier, the failure would never reach the scheduler and never be retried.
+ */
+public class OfflineCacheInterceptor implements Interceptor {
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        CachePolicy policy = CachePolicyInterceptor.findPolicy(request);
+        if (policy == null) {
+            return chain.proceed(request);
+        }
+
+        try {
+            Response response = chain.proceed(request);
+            HttpCacheStats.record(response);
+            return response;
+        } catch (IOException networkError) {
+            if (policy.maxStaleSeconds() <= 0 || RequestScheduler.willRetryOnFailure(request)) {
+                throw networkError;
+            }
+
+            Request cacheOnly = request.newBuilder()
+                    .cacheControl(new CacheControl.Builder()
+                            .onlyIfCached()
+                            .maxStale(policy.maxStaleSeconds(), TimeUnit.SECONDS)
+                            .build())
+                    .build();
+
+            Response cached = chain.proceed(cacheOnly);
+            if (cached.code() == 504) {
+                // 504 = "only-if-cached" and nothing usable on disk
+                cached.close();
+                throw networkError;
+            }
+            HttpCacheStats.recordOfflineHit();
+            return cached;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package tn.esprit.data.remote.http;
+
+/**
+ * Scheduling class of a request, see {@link RequestScheduler}.
+ */
+public enum Priority {
+    /**
+     * The user is looking at a spinner waiting for this (slot picker, search as you type...).
+     */
+    INTERACTIVE,
+    /**
+     * Regular screen loads.
+     */
+    NORMAL,
+    /**
+     * Prefetch / catalog refresh: only runs when nothing interactive is waiting.
+     */
+    BACKGROUND
+}
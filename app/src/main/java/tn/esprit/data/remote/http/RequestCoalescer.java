@@ -0,0 +1,220 @@
+package tn.esprit.data.remote.http;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Collapses identical in-flight GET requests into one network call.
+ *
+ * Repositories call {@link #enqueue(Call, Callback)} instead of {@code call.enqueue(callback)}.
+ * While a GET with the same URL is running for the same session, new callers are
+ * attached to it instead of hitting the network; when it completes, every attached
+ * callback receives the result.
+ *
+ * The Authorization header is only added inside OkHttp (AuthInterceptor), so the session
+ * comes from {@link #setSessionKeySource}: after logout / login, /me is never shared with
+ * a call still running for the previous user.
+ *
+ * Notes:
+ *  - Success bodies are shared (same object), so callers must not mutate them.
+ *  - Error bodies are buffered once and handed to each callback as a fresh ResponseBody,
+ *    so every caller can still read errorBody().
+ *  - Non-GET calls are passed straight through.
+ *  - Cancelling a returned handle only detaches that caller; the shared call is aborted
+ *    once every attached caller has cancelled.
+ */
+public final class RequestCoalescer {
+
+    private static final Object LOCK = new Object();
+    private static final Map<String, InFlight> inFlight = new HashMap<>();
+
+    private static final AtomicLong networkCalls = new AtomicLong();
+    private static final AtomicLong coalescedCalls = new AtomicLong();
+
+    // Current session (access token), null when signed out
+    private static volatile Supplier<String> sessionKeySource = () -> null;
+
+    private RequestCoalescer() {
+        // No instances
+    }
+
+    /**
+     * Where the current session comes from; set once by ApiClient.init().
+     */
+    public static void setSessionKeySource(@NonNull Supplier<String> source) {
+        sessionKeySource = source;
+    }
+
+    /**
+     * One shared network call and the callers attached to it.
+     */
+    private static final class InFlight {
+        final Call<?> call;
+        final List<GuardedCallback<?>> waiting = new ArrayList<>();
+
+        InFlight(@NonNull Call<?> call) {
+            this.call = call;
+        }
+    }
+
+    @NonNull
+    public static <T> RequestHandle enqueue(@NonNull Call<T> call, @NonNull Callback<T> callback) {
+        Request request = call.request();
+        if (!"GET".equals(request.method())) {
+            return RequestHandle.enqueue(call, callback);
+        }
+
+        final String key = keyOf(request);
+        final InFlight entry;
+        final GuardedCallback<T> guarded;
+        synchronized (LOCK) {
+            InFlight existing = inFlight.get(key);
+            if (existing != null) {
+                guarded = new GuardedCallback<>(callback, () -> detach(key, existing));
+                existing.waiting.add(guarded);
+                coalescedCalls.incrementAndGet();
+                return guarded;
+            }
+            entry = new InFlight(call);
+            guarded = new GuardedCallback<>(callback, () -> detach(key, entry));
+            entry.waiting.add(guarded);
+            inFlight.put(key, entry);
+        }
+
+        networkCalls.incrementAndGet();
+        RequestScheduler.enqueue(call, new Callback<T>() {
+            @Override
+            public void onResponse(@NonNull Call<T> call, @NonNull Response<T> response) {
+                List<Callback<T>> waiting = drain(key, entry);
+
+                if (response.isSuccessful() || waiting.size() == 1) {
+                    for (Callback<T> cb : waiting) {
+                        cb.onResponse(call, response);
+                    }
+                    return;
+                }
+
+                // Error body can only be read once: buffer it and give each caller a copy
+                ResponseBody errorBody = response.errorBody();
+                MediaType contentType = errorBody != null ? errorBody.contentType() : null;
+                byte[] errorBytes = readQuietly(errorBody);
+                for (Callback<T> cb : waiting) {
+                    Response<T> copy = Response.error(
+                            ResponseBody.create(errorBytes, contentType),
+                            response.raw()
+                    );
+                    cb.onResponse(call, copy);
+                }
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<T> call, @NonNull Throwable t) {
+                for (Callback<T> cb : RequestCoalescer.<T>drain(key, entry)) {
+                    cb.onFailure(call, t);
+                }
+            }
+        });
+        return guarded;
+    }
+
+    // -------------------------------------------------------------------------
+    // Metrics
+    // -------------------------------------------------------------------------
+
+    /**
+     * GETs that actually went to the network through the coalescer.
+     */
+    public static long getNetworkCalls() {
+        return networkCalls.get();
+    }
+
+    /**
+     * GETs answered by piggy-backing on an identical in-flight call
+     * (= network calls saved).
+     */
+    public static long getCoalescedCalls() {
+        return coalescedCalls.get();
+    }
+
+    public static void resetMetrics() {
+        networkCalls.set(0);
+        coalescedCalls.set(0);
+    }
+
+    @NonNull
+    public static String summary() {
+        return "network=" + networkCalls.get() + ", coalesced=" + coalescedCalls.get();
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    @NonNull
+    private static String keyOf(@NonNull Request request) {
+        String session = sessionKeySource.get();
+        return request.url() + "|" + (session != null ? session : "");
+    }
+
+    /**
+     * Called when one caller cancels: the shared call is only aborted once nobody is left.
+     */
+    private static void detach(@NonNull String key, @NonNull InFlight entry) {
+        boolean abort = false;
+        synchronized (LOCK) {
+            Iterator<GuardedCallback<?>> it = entry.waiting.iterator();
+            while (it.hasNext()) {
+                if (it.next().isCanceled()) it.remove();
+            }
+            if (entry.waiting.isEmpty() && inFlight.get(key) == entry) {
+                inFlight.remove(key);
+                abort = true;
+            }
+        }
+        if (abort) {
+            RequestScheduler.cancel(entry.call);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @NonNull
+    private static <T> List<Callback<T>> drain(@NonNull String key, @NonNull InFlight entry) {
+        List<Callback<T>> result = new ArrayList<>();
+        synchronized (LOCK) {
+            // The key may already belong to a newer call if this one was aborted
+            if (inFlight.get(key) == entry) {
+                inFlight.remove(key);
+            }
+            for (GuardedCallback<?> cb : entry.waiting) {
+                result.add((Callback<T>) cb);
+            }
+            entry.waiting.clear();
+        }
+        return result;
+    }
+
+    @NonNull
+    private static byte[] readQuietly(ResponseBody body) {
+        if (body == null) return new byte[0];
+        try {
+            return body.bytes();
+        } catch (IOException e) {
+            return new byte[0];
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package tn.esprit.data.remote.http;
+
+import androidx.annotation.NonNull;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+
+/**
+ * Cancellable handle returned by every repository request.
+ *
+ * Cancelling aborts the underlying HTTP call (so the body is neither downloaded nor parsed)
+ * and guarantees the repository callback is never invoked afterwards, including the
+ * "Canceled" IOException Retrofit would otherwise report through onFailure.
+ *
+ * Handles are usually collected in a {@link RequestScope} owned by a ViewModel or a
+ * Fragment and cancelled together when that owner goes away.
+ */
+public interface RequestHandle {
+
+    /**
+     * Handle for requests that completed synchronously (e.g. "not authenticated" errors).
+     */
+    RequestHandle NONE = new RequestHandle() {
+        @Override
+        public void cancel() {
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return false;
+        }
+
+        @Override
+        public boolean isDone() {
+            return true;
+        }
+    };
+
+    void cancel();
+
+    boolean isCanceled();
+
+    /**
+     * True once the callback has been delivered or the request has been cancelled.
+     */
+    boolean isDone();
+
+    /**
+     * Replacement for {@code call.enqueue(callback)} that returns a handle. The call goes
+     * through {@link RequestScheduler}, so its {@link RequestPriority} is honoured.
+     */
+    @NonNull
+    static <T> RequestHandle enqueue(@NonNull Call<T> call, @NonNull Callback<T> callback) {
+        GuardedCallback<T> guarded = new GuardedCallback<>(callback, () -> RequestScheduler.cancel(call));
+        RequestScheduler.enqueue(call, guarded);
+        return guarded;
+    }
+}
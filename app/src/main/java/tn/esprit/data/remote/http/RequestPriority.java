@@ -0,0 +1,19 @@
+package tn.esprit.data.remote.http;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Scheduling priority of a Retrofit call, read by {@link RequestScheduler}.
+ *
+ * Can be put on a whole service interface or on a single method (method wins).
+ * Calls without the annotation are {@link Priority#NORMAL}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface RequestPriority {
+
+    Priority value();
+}
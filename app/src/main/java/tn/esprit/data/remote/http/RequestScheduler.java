@@ -0,0 +1,344 @@
+package tn.esprit.data.remote.http;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Invocation;
+import retrofit2.Response;
+
+/**
+ * Priority queue in front of OkHttp's FIFO dispatcher.
+ *
+ * Every repository call ({@link RequestHandle#enqueue}, {@link RequestCoalescer}) goes through
+ * here. At most {@link #MAX_IN_FLIGHT} calls are handed to OkHttp at once; when a slot frees up
+ * the next call is taken from the highest non-empty class:
+ *
+ *  - INTERACTIVE first, then NORMAL;
+ *  - BACKGROUND only when no INTERACTIVE call is waiting, and never more than
+ *    {@link #MAX_BACKGROUND_IN_FLIGHT} at a time, so a prefetch burst cannot fill every slot.
+ *
+ * Calls with a {@link RetryPolicy} are retried here rather than in {@link RetryInterceptor}:
+ * a failed attempt gives its slot back, waits out its backoff on a timer, then goes back to
+ * the front of its class. Sleeping inside the interceptor would hold both a slot here and
+ * OkHttp's per-host slot, so a few retrying calls could stall every other request.
+ * Retries run on clones of the caller's call; {@link #cancel(Call)} reaches the attempt
+ * currently running, and {@link OfflineCacheInterceptor} waits for the last attempt before
+ * falling back to disk.
+ *
+ * Time spent waiting here is recorded per priority (see {@link #report()}).
+ */
+public final class RequestScheduler {
+
+    // All calls hit the same backend host: same value as the dispatcher's per-host limit
+    private static final int MAX_IN_FLIGHT = 8;
+    private static final int MAX_BACKGROUND_IN_FLIGHT = 2;
+
+    private static final Object LOCK = new Object();
+    private static final Map<Priority, ArrayDeque<Pending<?>>> queues = new EnumMap<>(Priority.class);
+    private static int inFlight;
+    private static int backgroundInFlight;
+
+    // Invocation of every attempt currently handed to OkHttp (identity: one per raw call)
+    private static final Map<Invocation, Pending<?>> running = new IdentityHashMap<>();
+    // Caller's call -> its pending entry, until the callback is delivered
+    private static final Map<Call<?>, Pending<?>> active = new IdentityHashMap<>();
+
+    private static final LatencyHistogram[] queueWait = new LatencyHistogram[Priority.values().length];
+
+    // Backoffs between attempts; the thread only re-queues, it never runs a call
+    private static final ScheduledExecutorService retryTimer =
+            Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "RequestScheduler-retry");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    static {
+        for (Priority priority : Priority.values()) {
+            queues.put(priority, new ArrayDeque<>());
+            queueWait[priority.ordinal()] = new LatencyHistogram();
+        }
+    }
+
+    private RequestScheduler() {
+        // No instances
+    }
+
+    /**
+     * Queues the call with the priority declared by its {@link RequestPriority} annotation.
+     */
+    static <T> void enqueue(@NonNull Call<T> call, @NonNull Callback<T> callback) {
+        Pending<T> pending = new Pending<>(call, callback, priorityOf(call.request()));
+        synchronized (LOCK) {
+            queues.get(pending.priority).addLast(pending);
+            active.put(call, pending);
+        }
+        dispatch();
+    }
+
+    /**
+     * Cancels a call given to {@link #enqueue}: the caller's call and, when it is being
+     * retried, the clone currently running. Use this instead of {@code call.cancel()}.
+     */
+    static void cancel(@NonNull Call<?> call) {
+        call.cancel();
+        Pending<?> pending;
+        synchronized (LOCK) {
+            pending = active.remove(call);
+        }
+        // Read after the original is marked cancelled: a clone made later is never started
+        if (pending != null) pending.call.cancel();
+    }
+
+    /**
+     * True if the scheduler retries this request between attempts, in which case
+     * {@link RetryInterceptor} must leave it alone.
+     */
+    static boolean retriesBetweenAttempts(@NonNull Request request) {
+        Invocation invocation = request.tag(Invocation.class);
+        if (invocation == null) return false;
+        synchronized (LOCK) {
+            return running.containsKey(invocation);
+        }
+    }
+
+    /**
+     * True if the scheduler will send this request again after an IOException, in which
+     * case {@link OfflineCacheInterceptor} must not answer it from disk yet.
+     */
+    static boolean willRetryOnFailure(@NonNull Request request) {
+        Invocation invocation = request.tag(Invocation.class);
+        if (invocation == null) return false;
+        Pending<?> pending;
+        synchronized (LOCK) {
+            pending = running.get(invocation);
+        }
+        return pending != null && pending.canRetry();
+    }
+
+    // -------------------------------------------------------------------------
+    // Metrics
+    // -------------------------------------------------------------------------
+
+    /**
+     * Queue-wait histogram for the given class (time between enqueue and hand-off to OkHttp).
+     */
+    @NonNull
+    public static LatencyHistogram getQueueWait(@NonNull Priority priority) {
+        return queueWait[priority.ordinal()];
+    }
+
+    /**
+     * One line per priority with count and p50/p95/p99 queue wait.
+     */
+    @NonNull
+    public static String report() {
+        StringBuilder sb = new StringBuilder("QUEUE_WAIT\n");
+        for (Priority priority : Priority.values()) {
+            LatencyHistogram h = queueWait[priority.ordinal()];
+            long count = h.count();
+            if (count == 0) continue;
+            sb.append("  ").append(priority.name())
+                    .append(" n=").append(count)
+                    .append(" p50=").append(h.percentile(50)).append("ms")
+                    .append(" p95=").append(h.percentile(95)).append("ms")
+                    .append(" p99=").append(h.percentile(99)).append("ms")
+                    .append('\n');
+        }
+        return sb.toString();
+    }
+
+    // -------------------------------------------------------------------------
+    // Internals
+    // -------------------------------------------------------------------------
+
+    private static void dispatch() {
+        List<Pending<?>> ready = new ArrayList<>();
+        synchronized (LOCK) {
+            while (inFlight < MAX_IN_FLIGHT) {
+                Pending<?> next = pollNext();
+                if (next == null) break;
+                // Cancelled while queued (or backing off): its handle already dropped the callback
+                if (next.original.isCanceled()) {
+                    active.remove(next.original);
+                    continue;
+                }
+
+                inFlight++;
+                if (next.priority == Priority.BACKGROUND) backgroundInFlight++;
+                ready.add(next);
+            }
+        }
+        for (Pending<?> pending : ready) {
+            pending.start();
+        }
+    }
+
+    @Nullable
+    private static Pending<?> pollNext() {
+        ArrayDeque<Pending<?>> interactive = queues.get(Priority.INTERACTIVE);
+        if (!interactive.isEmpty()) return interactive.pollFirst();
+
+        ArrayDeque<Pending<?>> normal = queues.get(Priority.NORMAL);
+        if (!normal.isEmpty()) return normal.pollFirst();
+
+        if (backgroundInFlight < MAX_BACKGROUND_IN_FLIGHT) {
+            return queues.get(Priority.BACKGROUND).pollFirst();
+        }
+        return null;
+    }
+
+    private static void finished(@NonNull Priority priority) {
+        synchronized (LOCK) {
+            inFlight--;
+            if (priority == Priority.BACKGROUND) backgroundInFlight--;
+        }
+        dispatch();
+    }
+
+    @NonNull
+    private static Priority priorityOf(@NonNull Request request) {
+        Invocation invocation = request.tag(Invocation.class);
+        if (invocation == null) {
+            return Priority.NORMAL;
+        }
+        RequestPriority annotation = invocation.method().getAnnotation(RequestPriority.class);
+        if (annotation == null) {
+            annotation = invocation.method().getDeclaringClass().getAnnotation(RequestPriority.class);
+        }
+        return annotation != null ? annotation.value() : Priority.NORMAL;
+    }
+
+    private static void requeue(@NonNull Pending<?> pending) {
+        synchronized (LOCK) {
+            // Ahead of calls queued while it was backing off: it was admitted before them
+            queues.get(pending.priority).addFirst(pending);
+        }
+        dispatch();
+    }
+
+    private static final class Pending<T> {
+        // The call the caller holds (and cancels); retries run on clones of it
+        final Call<T> original;
+        final Callback<T> callback;
+        final Priority priority;
+        @Nullable
+        final RetryPolicy policy;
+        // Attempt to run or running; read by cancel() from the caller's thread
+        volatile Call<T> call;
+        volatile int attempt;
+        long enqueuedAtNanos = System.nanoTime();
+
+        Pending(@NonNull Call<T> call, @NonNull Callback<T> callback, @NonNull Priority priority) {
+            this.original = call;
+            this.call = call;
+            this.callback = callback;
+            this.priority = priority;
+            Request request = call.request();
+            RetryPolicy found = RetryInterceptor.findPolicy(request);
+            this.policy = found != null && found.maxRetries() > 0
+                    && RetryInterceptor.isRetryable(request) ? found : null;
+        }
+
+        void start() {
+            queueWait[priority.ordinal()].record((System.nanoTime() - enqueuedAtNanos) / 1_000_000L);
+            Invocation invocation = call.request().tag(Invocation.class);
+            if (policy != null && invocation != null) {
+                synchronized (LOCK) {
+                    running.put(invocation, this);
+                }
+            }
+            call.enqueue(new Callback<T>() {
+                @Override
+                public void onResponse(@NonNull Call<T> call, @NonNull Response<T> response) {
+                    done(invocation);
+                    if (retryable(response)) {
+                        long delay = retryDelay(response);
+                        if (delay >= 0L) {
+                            ResponseBody errorBody = response.errorBody();
+                            if (errorBody != null) errorBody.close();
+                            retryAfter(delay);
+                            return;
+                        }
+                    }
+                    // Free the slot first so the next call is not delayed by the UI callback
+                    finished(priority);
+                    delivered();
+                    callback.onResponse(original, response);
+                }
+
+                @Override
+                public void onFailure(@NonNull Call<T> call, @NonNull Throwable t) {
+                    done(invocation);
+                    if (t instanceof IOException && !call.isCanceled() && canRetry()) {
+                        retryAfter(RetryInterceptor.backoffMillis(policy, attempt));
+                        return;
+                    }
+                    finished(priority);
+                    delivered();
+                    callback.onFailure(original, t);
+                }
+            });
+        }
+
+        boolean canRetry() {
+            return policy != null && attempt < policy.maxRetries() && !original.isCanceled();
+        }
+
+        private boolean retryable(@NonNull Response<T> response) {
+            return canRetry() && RetryInterceptor.isRetryableStatus(response.code());
+        }
+
+        /**
+         * Backoff before the next attempt, or -1 if the server asks for a longer wait than
+         * the policy allows (the response is then delivered as-is).
+         */
+        private long retryDelay(@NonNull Response<T> response) {
+            Long retryAfter = RetryInterceptor.parseRetryAfterMillis(response.headers().get("Retry-After"));
+            if (retryAfter == null) return RetryInterceptor.backoffMillis(policy, attempt);
+            return retryAfter <= policy.maxDelayMillis() ? retryAfter : -1L;
+        }
+
+        /**
+         * Gives the slot back for the backoff, then re-queues a fresh copy of the call.
+         */
+        private void retryAfter(long delayMillis) {
+            finished(priority);
+            attempt++;
+            retryTimer.schedule(() -> {
+                if (original.isCanceled()) return;
+                call = call.clone();
+                enqueuedAtNanos = System.nanoTime();
+                requeue(this);
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        }
+
+        private void delivered() {
+            synchronized (LOCK) {
+                active.remove(original);
+            }
+        }
+
+        private void done(@Nullable Invocation invocation) {
+            if (invocation == null) return;
+            synchronized (LOCK) {
+                running.remove(invocation);
+            }
+        }
+    }
+}
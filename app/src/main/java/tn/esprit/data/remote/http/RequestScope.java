@@ -0,0 +1,47 @@
+package tn.esprit.data.remote.http;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Collects the {@link RequestHandle}s started on behalf of one owner so they can be
+ * cancelled together:
+ *
+ *  - ViewModels: {@code requests.cancelAll()} in onCleared();
+ *  - Fragments calling repositories directly: {@code requests.cancelAll()} in onDestroyView().
+ *
+ * The scope stays usable after cancelAll(), so a Fragment whose view is recreated can keep
+ * the same instance. Mutations (create / update / delete) are normally left untracked so a
+ * save started just before navigating away still reaches the server.
+ */
+public final class RequestScope {
+
+    private final List<RequestHandle> handles = new ArrayList<>();
+
+    @NonNull
+    public synchronized RequestHandle track(@NonNull RequestHandle handle) {
+        if (handle.isDone()) return handle;
+
+        // Forget finished requests so long-lived ViewModels don't accumulate handles
+        Iterator<RequestHandle> it = handles.iterator();
+        while (it.hasNext()) {
+            if (it.next().isDone()) it.remove();
+        }
+        handles.add(handle);
+        return handle;
+    }
+
+    public void cancelAll() {
+        List<RequestHandle> toCancel;
+        synchronized (this) {
+            toCancel = new ArrayList<>(handles);
+            handles.clear();
+        }
+        for (RequestHandle handle : toCancel) {
+            handle.cancel();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package tn.esprit.data.remote.http;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ThreadLocalRandom;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import retrofit2.Invocation;
+
+/**
+ * APPLICATION interceptor implementing {@link RetryPolicy}.
+ *
+ * Retries on:
+ *  - IOException (timeout, connection reset, DNS...) unless the call was canceled;
+ *  - HTTP 408, 429, 502, 503, 504.
+ *
+ * Backoff is "full jitter": random(0, min(max, base * 2^attempt)). A Retry-After header
+ * (seconds or HTTP date) replaces the computed backoff; if it asks for more than
+ * {@link RetryPolicy#maxDelayMillis()} the response is returned as-is instead.
+ *
+ * Sleeping happens on the OkHttp dispatcher thread of the call, never on the main thread.
+ * Calls queued through {@link RequestScheduler} are not retried here: the scheduler applies
+ * the same policy between attempts, so a call waiting out its backoff holds neither a
+ * scheduler slot nor an OkHttp dispatcher slot.
+ */
+public class RetryInterceptor implements Interceptor {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    /**
+     * Blocks the calling thread for a backoff; replaced in tests to record the delays.
+     */
+    @VisibleForTesting
+    interface Sleeper {
+        void sleep(long millis) throws InterruptedIOException;
+    }
+
+    private final Sleeper sleeper;
+
+    public RetryInterceptor() {
+        this(RetryInterceptor::sleep);
+    }
+
+    @VisibleForTesting
+    RetryInterceptor(@NonNull Sleeper sleeper) {
+        this.sleeper = sleeper;
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        RetryPolicy policy = findPolicy(request);
+        if (policy == null || policy.maxRetries() <= 0 || !isRetryable(request)
+                || RequestScheduler.retriesBetweenAttempts(request)) {
+            return chain.proceed(request);
+        }
+
+        int attempt = 0;
+        while (true) {
+            Response response;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                if (attempt >= policy.maxRetries() || chain.call().isCanceled()) {
+                    throw e;
+                }
+                sleeper.sleep(backoffMillis(policy, attempt));
+                attempt++;
+                continue;
+            }
+
+            if (attempt >= policy.maxRetries() || !isRetryableStatus(response.code())) {
+                return response;
+            }
+
+            long delay = backoffMillis(policy, attempt);
+            Long retryAfter = parseRetryAfterMillis(response.header("Retry-After"));
+            if (retryAfter != null) {
+                if (retryAfter > policy.maxDelayMillis()) {
+                    // Server asks us to wait longer than we are willing to block
+                    return response;
+                }
+                delay = retryAfter;
+            }
+
+            response.close();
+            sleeper.sleep(delay);
+            attempt++;
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    @Nullable
+    static RetryPolicy findPolicy(@NonNull Request request) {
+        Invocation invocation = request.tag(Invocation.class);
+        if (invocation == null) {
+            return null;
+        }
+        RetryPolicy methodPolicy = invocation.method().getAnnotation(RetryPolicy.class);
+        if (methodPolicy != null) {
+            return methodPolicy;
+        }
+        return invocation.method().getDeclaringClass().getAnnotation(RetryPolicy.class);
+    }
+
+    static boolean isRetryable(@NonNull Request request) {
+        switch (request.method()) {
+            case "GET":
+            case "HEAD":
+            case "PUT":
+            case "DELETE":
+            case "OPTIONS":
+                return true;
+            default:
+                // POST / PATCH: only when the server can de-duplicate them
+                return request.header(IDEMPOTENCY_KEY_HEADER) != null;
+        }
+    }
+
+    static boolean isRetryableStatus(int code) {
+        return code == 408 || code == 429 || code == 502 || code == 503 || code == 504;
+    }
+
+    static long backoffMillis(@NonNull RetryPolicy policy, int attempt) {
+        long exp = policy.baseDelayMillis() << Math.min(attempt, 16);
+        long cap = Math.min(policy.maxDelayMillis(), exp);
+        return cap <= 0 ? 0 : ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    @Nullable
+    static Long parseRetryAfterMillis(@Nullable String value) {
+        if (value == null || value.trim().isEmpty()) return null;
+        String v = value.trim();
+        try {
+            return Math.max(0L, Long.parseLong(v) * 1000L);
+        } catch (NumberFormatException ignored) {
+            // Not delta-seconds: try HTTP-date
+        }
+        SimpleDateFormat httpDate = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        httpDate.setTimeZone(TimeZone.getTimeZone("GMT"));
+        try {
+            Date date = httpDate.parse(v);
+            return date != null ? Math.max(0L, date.getTime() - System.currentTimeMillis()) : null;
+        } catch (ParseException e) {
+            return null;
+        }
+    }
+
+    private static void sleep(long millis) throws InterruptedIOException {
+        if (millis <= 0) return;
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Retry backoff interrupted");
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package tn.esprit.data.remote.http;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Enables automatic retries (capped exponential backoff + full jitter) for a Retrofit
+ * service interface or a single method. A method-level annotation overrides the
+ * interface-level one; {@code maxRetries = 0} disables retries for that method.
+ *
+ * Only idempotent calls are ever retried (GET / HEAD / PUT / DELETE / OPTIONS).
+ * POST and PATCH are retried only when the request carries an
+ * {@value RetryInterceptor#IDEMPOTENCY_KEY_HEADER} header.
+ *
+ * See {@link RetryInterceptor} for which failures are retried.
+ */
+@Documented
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryPolicy {
+
+    /** Retries after the first attempt (so 2 = up to 3 attempts). */
+    int maxRetries() default 2;
+
+    /** Backoff before the first retry; doubles on each retry. */
+    long baseDelayMillis() default 300L;
+
+    /** Upper bound for a single backoff (and for an honored Retry-After). */
+    long maxDelayMillis() default 5_000L;
+}
@@ -11,6 +11,9 @@ import retrofit2.http.POST;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
 import tn.esprit.data.remote.common.ListResponseDto;
+import tn.esprit.data.remote.http.CachePolicy;
+import tn.esprit.data.remote.http.RetryInterceptor;
+import tn.esprit.data.remote.http.RetryPolicy;
 import tn.esprit.domain.indicator.IndicatorType;
 import tn.esprit.domain.indicator.PatientIndicator;
 
@@ -24,14 +27,17 @@ import tn.esprit.domain.indicator.PatientIndicator;
  *  - DELETE /indicators/me/{id}
  *  - GET /indicators/patient/{patientUserId}
  */
+@RetryPolicy
 public interface IndicatorApiService {
 
     /**
      * GET /indicator-types
      *
      * Returns the static catalog of available indicator types.
-     * (If you later require auth for this, we can add Authorization header.)
+     *
+     * Cached on disk (see {@link CachePolicy}): repeat loads come from disk or as 304s.
      */
+    @CachePolicy(maxAgeSeconds = 60 * 60, maxStaleSeconds = 7 * 24 * 60 * 60)
     @GET("indicator-types")
     Call<ListResponseDto<IndicatorType>> getIndicatorTypes();
 
@@ -47,7 +53,6 @@ public interface IndicatorApiService {
      */
     @GET("indicators/me")
     Call<ListResponseDto<PatientIndicator>> getMyIndicators(
-            @Header("Authorization") String authorization,
             @Query("indicatorTypeId") Long indicatorTypeId,
             @Query("from") String fromIso,
             @Query("to") String toIso
@@ -60,7 +65,7 @@ public interface IndicatorApiService {
      */
     @POST("indicators/me")
     Call<PatientIndicator> addMyIndicator(
-            @Header("Authorization") String authorization,
+            @Header(RetryInterceptor.IDEMPOTENCY_KEY_HEADER) String idempotencyKey,
             @Body PatientIndicatorCreateRequestDto request
     );
 
@@ -71,7 +76,6 @@ public interface IndicatorApiService {
      */
     @DELETE("indicators/me/{id}")
     Call<Void> deleteMyIndicator(
-            @Header("Authorization") String authorization,
             @Path("id") Long indicatorId
     );
 
@@ -83,7 +87,6 @@ public interface IndicatorApiService {
      */
     @GET("indicators/patient/{patientUserId}")
     Call<ListResponseDto<PatientIndicator>> getIndicatorsForPatientAsDoctor(
-            @Header("Authorization") String authorization,
             @Path("patientUserId") Long patientUserId,
             @Query("indicatorTypeId") Long indicatorTypeId,
             @Query("from") String fromIso,
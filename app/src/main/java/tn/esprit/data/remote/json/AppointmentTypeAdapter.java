@@ -0,0 +1,92 @@
+package tn.esprit.data.remote.json;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+import tn.esprit.domain.appointment.Appointment;
+
+/**
+ * Streaming adapter for {@link Appointment} (see {@link DomainTypeAdapterFactory}).
+ */
+class AppointmentTypeAdapter extends TypeAdapter<Appointment> {
+
+    @Override
+    public void write(JsonWriter out, Appointment value) throws IOException {
+        out.beginObject();
+        JsonFields.write(out, "id", value.getId());
+        JsonFields.write(out, "doctorId", value.getDoctorId());
+        JsonFields.write(out, "doctorUserId", value.getDoctorUserId());
+        JsonFields.write(out, "doctorFirstName", value.getDoctorFirstName());
+        JsonFields.write(out, "doctorLastName", value.getDoctorLastName());
+        JsonFields.write(out, "patientId", value.getPatientId());
+        JsonFields.write(out, "patientUserId", value.getPatientUserId());
+        JsonFields.write(out, "patientFirstName", value.getPatientFirstName());
+        JsonFields.write(out, "patientLastName", value.getPatientLastName());
+        JsonFields.write(out, "startAt", value.getStartAt());
+        JsonFields.write(out, "endAt", value.getEndAt());
+        JsonFields.write(out, "status", value.getStatus());
+        JsonFields.write(out, "reason", value.getReason());
+        JsonFields.write(out, "teleconsultation", value.getTeleconsultation());
+        out.endObject();
+    }
+
+    @Override
+    public Appointment read(JsonReader in) throws IOException {
+        Appointment a = new Appointment();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    a.setId(JsonFields.readLong(in));
+                    break;
+                case "doctorId":
+                    a.setDoctorId(JsonFields.readLong(in));
+                    break;
+                case "doctorUserId":
+                    a.setDoctorUserId(JsonFields.readLong(in));
+                    break;
+                case "doctorFirstName":
+                    a.setDoctorFirstName(JsonFields.readString(in));
+                    break;
+                case "doctorLastName":
+                    a.setDoctorLastName(JsonFields.readString(in));
+                    break;
+                case "patientId":
+                    a.setPatientId(JsonFields.readLong(in));
+                    break;
+                case "patientUserId":
+                    a.setPatientUserId(JsonFields.readLong(in));
+                    break;
+                case "patientFirstName":
+                    a.setPatientFirstName(JsonFields.readString(in));
+                    break;
+                case "patientLastName":
+                    a.setPatientLastName(JsonFields.readString(in));
+                    break;
+                case "startAt":
+                    a.setStartAt(JsonFields.readString(in));
+                    break;
+                case "endAt":
+                    a.setEndAt(JsonFields.readString(in));
+                    break;
+                case "status":
+                    a.setStatus(JsonFields.readString(in));
+                    break;
+                case "reason":
+                    a.setReason(JsonFields.readString(in));
+                    break;
+                case "teleconsultation":
+                    a.setTeleconsultation(JsonFields.readBoolean(in));
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return a;
+    }
+}
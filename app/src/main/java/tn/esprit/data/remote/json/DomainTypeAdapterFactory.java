@@ -0,0 +1,44 @@
+package tn.esprit.data.remote.json;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import tn.esprit.domain.appointment.Appointment;
+import tn.esprit.domain.history.UserHistoryEntry;
+import tn.esprit.domain.indicator.PatientIndicator;
+import tn.esprit.domain.medication.Medication;
+import tn.esprit.domain.notification.NotificationItem;
+
+/**
+ * Hand-written streaming adapters for the domain types that arrive in bulk
+ * (appointment lists, notifications, history, medication catalog, indicators).
+ *
+ * They read fields straight off the JsonReader without reflection and without
+ * an intermediate JsonElement tree. Returning null for any other type lets Gson
+ * pick its reflective adapter.
+ *
+ * When adding a field to one of these classes, update its adapter too.
+ */
+public class DomainTypeAdapterFactory implements TypeAdapterFactory {
+
+    private final Map<Class<?>, TypeAdapter<?>> adapters = new HashMap<>();
+
+    public DomainTypeAdapterFactory() {
+        adapters.put(Appointment.class, new AppointmentTypeAdapter().nullSafe());
+        adapters.put(NotificationItem.class, new NotificationItemTypeAdapter().nullSafe());
+        adapters.put(UserHistoryEntry.class, new UserHistoryEntryTypeAdapter().nullSafe());
+        adapters.put(Medication.class, new MedicationTypeAdapter().nullSafe());
+        adapters.put(PatientIndicator.class, new PatientIndicatorTypeAdapter().nullSafe());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        return (TypeAdapter<T>) adapters.get(type.getRawType());
+    }
+}
@@ -0,0 +1,27 @@
+package tn.esprit.data.remote.json;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * The one Gson instance of the app (Retrofit converter + WebSocket parsing).
+ *
+ * Hot domain types (the ones that come back in large lists) are bound by the
+ * streaming adapters of {@link DomainTypeAdapterFactory}; every other type falls
+ * back to Gson's reflective binding. Sharing the instance also shares Gson's
+ * per-type adapter cache, so reflection metadata is only built once per process.
+ */
+public final class GsonProvider {
+
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapterFactory(new DomainTypeAdapterFactory())
+            .create();
+
+    private GsonProvider() {
+        // No instances
+    }
+
+    public static Gson get() {
+        return GSON;
+    }
+}
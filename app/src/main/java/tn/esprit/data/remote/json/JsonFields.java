@@ -0,0 +1,73 @@
+package tn.esprit.data.remote.json;
+
+import androidx.annotation.Nullable;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Null-aware read / write helpers shared by the streaming adapters.
+ */
+final class JsonFields {
+
+    private JsonFields() {
+        // No instances
+    }
+
+    @Nullable
+    static Long readLong(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextLong();
+    }
+
+    @Nullable
+    static String readString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    @Nullable
+    static Boolean readBoolean(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextBoolean();
+    }
+
+    @Nullable
+    static BigDecimal readBigDecimal(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return new BigDecimal(in.nextString());
+    }
+
+    static void write(JsonWriter out, String name, @Nullable Long value) throws IOException {
+        out.name(name);
+        if (value == null) out.nullValue(); else out.value(value);
+    }
+
+    static void write(JsonWriter out, String name, @Nullable String value) throws IOException {
+        out.name(name).value(value);
+    }
+
+    static void write(JsonWriter out, String name, @Nullable Boolean value) throws IOException {
+        out.name(name).value(value);
+    }
+
+    static void write(JsonWriter out, String name, @Nullable BigDecimal value) throws IOException {
+        out.name(name).value(value);
+    }
+}
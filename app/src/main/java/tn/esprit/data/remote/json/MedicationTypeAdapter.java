@@ -0,0 +1,62 @@
+package tn.esprit.data.remote.json;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+import tn.esprit.domain.medication.Medication;
+
+/**
+ * Streaming adapter for {@link Medication} (see {@link DomainTypeAdapterFactory}).
+ */
+class MedicationTypeAdapter extends TypeAdapter<Medication> {
+
+    @Override
+    public void write(JsonWriter out, Medication value) throws IOException {
+        out.beginObject();
+        JsonFields.write(out, "id", value.getId());
+        JsonFields.write(out, "code", value.getCode());
+        JsonFields.write(out, "name", value.getName());
+        JsonFields.write(out, "description", value.getDescription());
+        JsonFields.write(out, "active", value.getActive());
+        out.endObject();
+    }
+
+    @Override
+    public Medication read(JsonReader in) throws IOException {
+        Long id = null;
+        String code = null;
+        String name = null;
+        String description = null;
+        Boolean active = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    id = JsonFields.readLong(in);
+                    break;
+                case "code":
+                    code = JsonFields.readString(in);
+                    break;
+                case "name":
+                    name = JsonFields.readString(in);
+                    break;
+                case "description":
+                    description = JsonFields.readString(in);
+                    break;
+                case "active":
+                    active = JsonFields.readBoolean(in);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+
+        return new Medication(id, code, name, description, active);
+    }
+}
@@ -0,0 +1,65 @@
+package tn.esprit.data.remote.json;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+import tn.esprit.domain.notification.NotificationItem;
+
+/**
+ * Streaming adapter for {@link NotificationItem} (see {@link DomainTypeAdapterFactory}).
+ */
+class NotificationItemTypeAdapter extends TypeAdapter<NotificationItem> {
+
+    @Override
+    public void write(JsonWriter out, NotificationItem value) throws IOException {
+        out.beginObject();
+        JsonFields.write(out, "id", value.getId());
+        JsonFields.write(out, "type", value.getType());
+        JsonFields.write(out, "title", value.getTitle());
+        JsonFields.write(out, "message", value.getMessage());
+        JsonFields.write(out, "appointmentId", value.getAppointmentId());
+        JsonFields.write(out, "createdAt", value.getCreatedAt());
+        out.name("read").value(value.isRead());
+        out.endObject();
+    }
+
+    @Override
+    public NotificationItem read(JsonReader in) throws IOException {
+        NotificationItem n = new NotificationItem();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    n.setId(JsonFields.readLong(in));
+                    break;
+                case "type":
+                    n.setType(JsonFields.readString(in));
+                    break;
+                case "title":
+                    n.setTitle(JsonFields.readString(in));
+                    break;
+                case "message":
+                    n.setMessage(JsonFields.readString(in));
+                    break;
+                case "appointmentId":
+                    n.setAppointmentId(JsonFields.readLong(in));
+                    break;
+                case "createdAt":
+                    n.setCreatedAt(JsonFields.readString(in));
+                    break;
+                case "read":
+                    Boolean read = JsonFields.readBoolean(in);
+                    n.setRead(read != null && read);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return n;
+    }
+}
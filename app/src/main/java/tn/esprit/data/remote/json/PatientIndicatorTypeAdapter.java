@@ -0,0 +1,72 @@
+package tn.esprit.data.remote.json;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+import tn.esprit.domain.indicator.PatientIndicator;
+
+/**
+ * Streaming adapter for {@link PatientIndicator} (see {@link DomainTypeAdapterFactory}).
+ */
+class PatientIndicatorTypeAdapter extends TypeAdapter<PatientIndicator> {
+
+    @Override
+    public void write(JsonWriter out, PatientIndicator value) throws IOException {
+        out.beginObject();
+        JsonFields.write(out, "id", value.getId());
+        JsonFields.write(out, "indicatorTypeId", value.getIndicatorTypeId());
+        JsonFields.write(out, "indicatorCode", value.getIndicatorCode());
+        JsonFields.write(out, "indicatorName", value.getIndicatorName());
+        JsonFields.write(out, "unit", value.getUnit());
+        JsonFields.write(out, "numericValue", value.getNumericValue());
+        JsonFields.write(out, "textValue", value.getTextValue());
+        JsonFields.write(out, "measuredAt", value.getMeasuredAt());
+        JsonFields.write(out, "note", value.getNote());
+        out.endObject();
+    }
+
+    @Override
+    public PatientIndicator read(JsonReader in) throws IOException {
+        PatientIndicator p = new PatientIndicator();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    p.setId(JsonFields.readLong(in));
+                    break;
+                case "indicatorTypeId":
+                    p.setIndicatorTypeId(JsonFields.readLong(in));
+                    break;
+                case "indicatorCode":
+                    p.setIndicatorCode(JsonFields.readString(in));
+                    break;
+                case "indicatorName":
+                    p.setIndicatorName(JsonFields.readString(in));
+                    break;
+                case "unit":
+                    p.setUnit(JsonFields.readString(in));
+                    break;
+                case "numericValue":
+                    p.setNumericValue(JsonFields.readBigDecimal(in));
+                    break;
+                case "textValue":
+                    p.setTextValue(JsonFields.readString(in));
+                    break;
+                case "measuredAt":
+                    p.setMeasuredAt(JsonFields.readString(in));
+                    break;
+                case "note":
+                    p.setNote(JsonFields.readString(in));
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return p;
+    }
+}
@@ -0,0 +1,72 @@
+package tn.esprit.data.remote.json;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+import tn.esprit.domain.history.UserHistoryEntry;
+
+/**
+ * Streaming adapter for {@link UserHistoryEntry} (see {@link DomainTypeAdapterFactory}).
+ */
+class UserHistoryEntryTypeAdapter extends TypeAdapter<UserHistoryEntry> {
+
+    @Override
+    public void write(JsonWriter out, UserHistoryEntry value) throws IOException {
+        out.beginObject();
+        JsonFields.write(out, "id", value.getId());
+        JsonFields.write(out, "eventType", value.getEventType());
+        JsonFields.write(out, "message", value.getMessage());
+        JsonFields.write(out, "detailsJson", value.getDetailsJson());
+        JsonFields.write(out, "createdAt", value.getCreatedAt());
+        JsonFields.write(out, "updatedAt", value.getUpdatedAt());
+        JsonFields.write(out, "deleted", value.getDeleted());
+        out.endObject();
+    }
+
+    @Override
+    public UserHistoryEntry read(JsonReader in) throws IOException {
+        Long id = null;
+        String eventType = null;
+        String message = null;
+        String detailsJson = null;
+        String createdAt = null;
+        String updatedAt = null;
+        Boolean deleted = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    id = JsonFields.readLong(in);
+                    break;
+                case "eventType":
+                    eventType = JsonFields.readString(in);
+                    break;
+                case "message":
+                    message = JsonFields.readString(in);
+                    break;
+                case "detailsJson":
+                    detailsJson = JsonFields.readString(in);
+                    break;
+                case "createdAt":
+                    createdAt = JsonFields.readString(in);
+                    break;
+                case "updatedAt":
+                    updatedAt = JsonFields.readString(in);
+                    break;
+                case "deleted":
+                    deleted = JsonFields.readBoolean(in);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+
+        return new UserHistoryEntry(id, eventType, message, detailsJson, createdAt, updatedAt, deleted);
+    }
+}
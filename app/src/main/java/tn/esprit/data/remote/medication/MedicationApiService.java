@@ -7,6 +7,10 @@ import retrofit2.http.GET;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
 import tn.esprit.data.remote.common.ListResponseDto;
+import tn.esprit.data.remote.http.CachePolicy;
+import tn.esprit.data.remote.http.Priority;
+import tn.esprit.data.remote.http.RequestPriority;
+import tn.esprit.data.remote.http.RetryPolicy;
 import tn.esprit.domain.medication.Medication;
 
 /**
@@ -17,7 +21,11 @@ import tn.esprit.domain.medication.Medication;
  *  - GET /api/medications/{id}
  *
  * Public catalog-style endpoints: no Authorization header required.
+ * Both are cached on disk (see {@link CachePolicy}) and revalidated with ETag.
+ * The catalog is loaded ahead of the prescription dialog, so it runs as BACKGROUND work.
  */
+@RequestPriority(Priority.BACKGROUND)
+@RetryPolicy
 public interface MedicationApiService {
 
     /**
@@ -25,6 +33,7 @@ public interface MedicationApiService {
      *
      * Returns list of medications, optionally filtered by query.
      */
+    @CachePolicy(maxAgeSeconds = 10 * 60, maxStaleSeconds = 7 * 24 * 60 * 60)
     @GET("/api/medications")
     Call<ListResponseDto<Medication>> getMedications(
             @Query("q") String query
@@ -35,6 +44,7 @@ public interface MedicationApiService {
      *
      * Returns a single medication by id.
      */
+    @CachePolicy(maxAgeSeconds = 10 * 60, maxStaleSeconds = 7 * 24 * 60 * 60)
     @GET("/api/medications/{id}")
     Call<Medication> getMedication(
             @Path("id") long id
@@ -4,12 +4,12 @@ import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.DELETE;
 import retrofit2.http.GET;
-import retrofit2.http.Header;
 import retrofit2.http.PATCH;
 import retrofit2.http.POST;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
 import tn.esprit.data.remote.common.ListResponseDto;
+import tn.esprit.data.remote.http.RetryPolicy;
 import tn.esprit.domain.medication.Prescription;
 import tn.esprit.domain.medication.PrescriptionCreateRequest;
 import tn.esprit.domain.medication.PrescriptionLine;
@@ -24,6 +24,7 @@ import tn.esprit.domain.medication.PrescriptionLine;
  * NOTE:
  *  - Uses domain models directly as DTOs (Prescription, PrescriptionLine, request DTOs).
  */
+@RetryPolicy
 public interface PrescriptionApiService {
 
     // ---------------------------------------------------------------------
@@ -38,7 +39,6 @@ public interface PrescriptionApiService {
      */
     @GET("/api/doctors/me/patients/{patientUserId}/prescriptions")
     Call<ListResponseDto<Prescription>> getPrescriptionsForPatientAsDoctor(
-            @Header("Authorization") String authHeader,
             @Path("patientUserId") long patientUserId,
             @Query("activeOnly") Boolean activeOnly
     );
@@ -51,7 +51,6 @@ public interface PrescriptionApiService {
      */
     @POST("/api/doctors/me/patients/{patientUserId}/prescriptions")
     Call<Prescription> createPrescriptionForPatientAsDoctor(
-            @Header("Authorization") String authHeader,
             @Path("patientUserId") long patientUserId,
             @Body PrescriptionCreateRequest body
     );
@@ -63,7 +62,6 @@ public interface PrescriptionApiService {
      */
     @GET("/api/doctors/me/prescriptions/{prescriptionId}")
     Call<Prescription> getPrescriptionAsDoctor(
-            @Header("Authorization") String authHeader,
             @Path("prescriptionId") long prescriptionId
     );
 
@@ -74,7 +72,6 @@ public interface PrescriptionApiService {
      */
     @DELETE("/api/doctors/me/prescriptions/{prescriptionId}")
     Call<Void> deletePrescriptionAsDoctor(
-            @Header("Authorization") String authHeader,
             @Path("prescriptionId") long prescriptionId
     );
 
@@ -89,7 +86,6 @@ public interface PrescriptionApiService {
      */
     @GET("/api/prescriptions/me")
     Call<ListResponseDto<Prescription>> getMyPrescriptions(
-            @Header("Authorization") String authHeader,
             @Query("activeOnly") Boolean activeOnly
     );
 
@@ -100,7 +96,6 @@ public interface PrescriptionApiService {
      */
     @GET("/api/prescriptions/me/{prescriptionId}")
     Call<Prescription> getMyPrescription(
-            @Header("Authorization") String authHeader,
             @Path("prescriptionId") long prescriptionId
     );
 
@@ -110,9 +105,7 @@ public interface PrescriptionApiService {
      * Returns active prescription lines for the current patient.
      */
     @GET("/api/prescriptions/me/lines/active")
-    Call<ListResponseDto<PrescriptionLine>> getMyActiveLines(
-            @Header("Authorization") String authHeader
-    );
+    Call<ListResponseDto<PrescriptionLine>> getMyActiveLines();
 
     /**
      * PATCH /api/prescriptions/me/lines/{lineId}/reminder
@@ -123,7 +116,6 @@ public interface PrescriptionApiService {
      */
     @PATCH("/api/prescriptions/me/lines/{lineId}/reminder")
     Call<PrescriptionLine> updateMyLineReminder(
-            @Header("Authorization") String authHeader,
             @Path("lineId") long lineId,
             @Body ReminderUpdateRequestDto body
     );
@@ -5,27 +5,59 @@ import retrofit2.http.GET;
 import retrofit2.http.Header;
 import retrofit2.http.POST;
 import retrofit2.http.Path;
+import retrofit2.http.Query;
 
 import tn.esprit.data.remote.common.ListResponseDto;
+import tn.esprit.data.remote.http.RetryInterceptor;
+import tn.esprit.data.remote.http.RetryPolicy;
 import tn.esprit.domain.notification.NotificationItem;
 
 /**
  * REST API for notifications.
  *
  * Backend endpoints:
- *  - GET /api/notifications/me
+ *  - GET /api/notifications/me?limit=30&before=1234 (newest first; "before" is the id
+ *    of the last item of the previous page, exclusive; null parameters are left out)
+ *  - GET /api/notifications/me?limit=30&after=1234 (newest first, only ids > "after":
+ *    what was missed while the socket was down)
+ *  - GET /api/notifications/me/unread-count
  *  - POST /api/notifications/{id}/read
  */
+@RetryPolicy
 public interface NotificationApiService {
 
     @GET("/api/notifications/me")
     Call<ListResponseDto<NotificationItem>> getMyNotifications(
-            @Header("Authorization") String authHeader
+            @Query("limit") Integer limit,
+            @Query("before") Long beforeId,
+            @Query("after") Long afterId
     );
 
+    @GET("/api/notifications/me/unread-count")
+    Call<UnreadCountDto> getUnreadCount();
+
     @POST("/api/notifications/{id}/read")
     Call<Void> markAsRead(
-            @Header("Authorization") String authHeader,
+            @Header(RetryInterceptor.IDEMPOTENCY_KEY_HEADER) String idempotencyKey,
             @Path("id") Long notificationId
     );
+
+    /**
+     * Response of GET /api/notifications/me/unread-count.
+     */
+    class UnreadCountDto {
+
+        private long count;
+
+        public UnreadCountDto() {
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+    }
 }
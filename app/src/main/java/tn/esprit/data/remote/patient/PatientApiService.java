@@ -3,8 +3,8 @@ package tn.esprit.data.remote.patient;
 import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.GET;
-import retrofit2.http.Header;
 import retrofit2.http.PUT;
+import tn.esprit.data.remote.http.RetryPolicy;
 import tn.esprit.domain.patient.PatientProfile;
 
 /**
@@ -12,6 +12,7 @@ import tn.esprit.domain.patient.PatientProfile;
  *
  * We directly return the domain PatientProfile model.
  */
+@RetryPolicy
 public interface PatientApiService {
 
     /**
@@ -19,7 +20,7 @@ public interface PatientApiService {
      * Authorization: Bearer <access_token>
      */
     @GET("patients/me")
-    Call<PatientProfile> getMyProfile(@Header("Authorization") String authorization);
+    Call<PatientProfile> getMyProfile();
 
     /**
      * PUT /patients/me
@@ -30,7 +31,6 @@ public interface PatientApiService {
      */
     @PUT("patients/me")
     Call<PatientProfile> updateMyProfile(
-            @Header("Authorization") String authorization,
             @Body PatientProfileUpdateRequestDto request
     );
 
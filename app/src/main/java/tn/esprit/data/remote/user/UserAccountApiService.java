@@ -2,7 +2,6 @@ package tn.esprit.data.remote.user;
 
 import retrofit2.Call;
 import retrofit2.http.Body;
-import retrofit2.http.Header;
 import retrofit2.http.PUT;
 
 import tn.esprit.domain.user.User;
@@ -56,7 +55,6 @@ public interface UserAccountApiService {
 
     @PUT("/me")
     Call<User> updateCurrentUser(
-            @Header("Authorization") String authHeader,
             @Body UserUpdateRequestDto body
     );
 }
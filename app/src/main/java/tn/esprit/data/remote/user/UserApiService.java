@@ -2,7 +2,7 @@ package tn.esprit.data.remote.user;
 
 import retrofit2.Call;
 import retrofit2.http.GET;
-import retrofit2.http.Header;
+import tn.esprit.data.remote.http.RetryPolicy;
 import tn.esprit.domain.user.User;
 
 /**
@@ -10,6 +10,7 @@ import tn.esprit.domain.user.User;
  *
  * We directly return the domain User model to avoid extra mapping.
  */
+@RetryPolicy
 public interface UserApiService {
 
     /**
@@ -17,5 +18,5 @@ public interface UserApiService {
      * Authorization: Bearer <access_token>
      */
     @GET("me")
-    Call<User> getCurrentUser(@Header("Authorization") String authorization);
+    Call<User> getCurrentUser();
 }
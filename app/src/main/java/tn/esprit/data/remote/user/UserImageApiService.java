@@ -2,7 +2,6 @@ package tn.esprit.data.remote.user;
 
 import okhttp3.MultipartBody;
 import retrofit2.Call;
-import retrofit2.http.Header;
 import retrofit2.http.Multipart;
 import retrofit2.http.POST;
 import retrofit2.http.Part;
@@ -21,7 +20,6 @@ public interface UserImageApiService {
     @Multipart
     @POST("/users/me/profile-image")
     Call<User> uploadMyProfileImage(
-            @Header("Authorization") String authHeader,
             @Part MultipartBody.Part image
     );
 }
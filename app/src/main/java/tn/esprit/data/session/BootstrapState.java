@@ -0,0 +1,158 @@
+package tn.esprit.data.session;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.List;
+
+import tn.esprit.data.profile.ProfileSnapshot;
+import tn.esprit.domain.doctor.DoctorHomeStats;
+import tn.esprit.domain.doctor.DoctorProfile;
+import tn.esprit.domain.notification.NotificationItem;
+import tn.esprit.domain.patient.PatientProfile;
+import tn.esprit.domain.user.User;
+
+/**
+ * Immutable snapshot of what {@link SessionBootstrap} has loaded so far.
+ *
+ * Each finished request publishes a new snapshot; {@link #isReady()} turns true once every
+ * request started for the session (common + role branch) has completed, successfully or not.
+ */
+public final class BootstrapState {
+
+    @Nullable
+    private final User user;
+    @Nullable
+    private final DoctorProfile doctorProfile;
+    @Nullable
+    private final PatientProfile patientProfile;
+    @Nullable
+    private final List<NotificationItem> notifications;
+    @Nullable
+    private final Long notificationsNextCursor;
+    @Nullable
+    private final DoctorHomeStats doctorStats;
+    @Nullable
+    private final Integer userErrorCode;
+    private final boolean userFailed;
+    private final boolean ready;
+    private final long elapsedMillis;
+
+    private BootstrapState(@Nullable User user,
+                           @Nullable DoctorProfile doctorProfile,
+                           @Nullable PatientProfile patientProfile,
+                           @Nullable List<NotificationItem> notifications,
+                           @Nullable Long notificationsNextCursor,
+                           @Nullable DoctorHomeStats doctorStats,
+                           @Nullable Integer userErrorCode,
+                           boolean userFailed,
+                           boolean ready,
+                           long elapsedMillis) {
+        this.user = user;
+        this.doctorProfile = doctorProfile;
+        this.patientProfile = patientProfile;
+        this.notifications = notifications;
+        this.notificationsNextCursor = notificationsNextCursor;
+        this.doctorStats = doctorStats;
+        this.userErrorCode = userErrorCode;
+        this.userFailed = userFailed;
+        this.ready = ready;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    @NonNull
+    static BootstrapState empty() {
+        return new BootstrapState(null, null, null, null, null, null, null, false, false, -1L);
+    }
+
+    @Nullable
+    public User getUser() {
+        return user;
+    }
+
+    @Nullable
+    public DoctorProfile getDoctorProfile() {
+        return doctorProfile;
+    }
+
+    @Nullable
+    public PatientProfile getPatientProfile() {
+        return patientProfile;
+    }
+
+    @Nullable
+    public List<NotificationItem> getNotifications() {
+        return notifications;
+    }
+
+    /**
+     * "before" of the page after {@link #getNotifications()}, null when that was the last one.
+     */
+    @Nullable
+    public Long getNotificationsNextCursor() {
+        return notificationsNextCursor;
+    }
+
+    @Nullable
+    public DoctorHomeStats getDoctorStats() {
+        return doctorStats;
+    }
+
+    /**
+     * True when /me failed; {@link #getUserErrorCode()} holds the HTTP code (null on I/O errors).
+     */
+    public boolean isUserFailed() {
+        return userFailed;
+    }
+
+    @Nullable
+    public Integer getUserErrorCode() {
+        return userErrorCode;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Time from start to ready in ms, -1 while not ready.
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    // -------------------------------------------------------------------------
+    // Copies (used by SessionBootstrap only)
+    // -------------------------------------------------------------------------
+
+    @NonNull
+    BootstrapState withProfile(@NonNull ProfileSnapshot value) {
+        return new BootstrapState(value.getUser(), value.getDoctorProfile(), value.getPatientProfile(),
+                notifications, notificationsNextCursor, doctorStats, null, false, ready, elapsedMillis);
+    }
+
+    @NonNull
+    BootstrapState withUserError(@Nullable Integer code) {
+        return new BootstrapState(null, doctorProfile, patientProfile, notifications,
+                notificationsNextCursor, doctorStats, code, true, ready, elapsedMillis);
+    }
+
+    @NonNull
+    BootstrapState withNotifications(@Nullable List<NotificationItem> value,
+                                     @Nullable Long nextCursor) {
+        return new BootstrapState(user, doctorProfile, patientProfile, value, nextCursor,
+                doctorStats, userErrorCode, userFailed, ready, elapsedMillis);
+    }
+
+    @NonNull
+    BootstrapState withDoctorStats(@Nullable DoctorHomeStats value) {
+        return new BootstrapState(user, doctorProfile, patientProfile, notifications,
+                notificationsNextCursor, value, userErrorCode, userFailed, ready, elapsedMillis);
+    }
+
+    @NonNull
+    BootstrapState withReady(long elapsed) {
+        return new BootstrapState(user, doctorProfile, patientProfile, notifications,
+                notificationsNextCursor, doctorStats, userErrorCode, userFailed, true, elapsed);
+    }
+}
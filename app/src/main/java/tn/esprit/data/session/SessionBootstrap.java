@@ -0,0 +1,449 @@
+package tn.esprit.data.session;
+
+import android.content.Context;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import java.util.List;
+
+import tn.esprit.data.appointment.AppointmentLocalStore;
+import tn.esprit.data.appointment.AppointmentRepository;
+import tn.esprit.data.auth.AuthTokenHolder;
+import tn.esprit.data.history.HistoryPageStore;
+import tn.esprit.data.indicator.IndicatorSeriesStore;
+import tn.esprit.data.notification.NotificationPageStore;
+import tn.esprit.data.notification.NotificationRepository;
+import tn.esprit.data.outbox.Outbox;
+import tn.esprit.data.profile.ProfileRepository;
+import tn.esprit.data.profile.ProfileSnapshot;
+import tn.esprit.data.profile.ProfileStore;
+import tn.esprit.data.remote.http.RequestHandle;
+import tn.esprit.data.remote.http.RequestScope;
+import tn.esprit.domain.auth.AuthTokens;
+import tn.esprit.domain.doctor.DoctorHomeStats;
+import tn.esprit.domain.notification.NotificationItem;
+
+/**
+ * Loads everything the home screen needs, in parallel, as soon as tokens exist.
+ *
+ * Before, MainActivity loaded /me, then the role profile, then notifications, then the
+ * home data, one after another. Here all requests start together:
+ *
+ *  - always: the profile through {@link ProfileStore} (GET /me + role profile, itself in
+ *    parallel) and the newest page of GET /notifications/me;
+ *  - role branch, started from the role cached by the previous /me (no waiting):
+ *      DOCTOR  → GET /api/doctors/me/home-stats
+ *
+ * If the cached role is missing or wrong, the branch is (re)started when the profile answers.
+ * Progress is published as one {@link BootstrapState}; it is ready when every request
+ * has completed.
+ *
+ * Started from AuthGateActivity / LoginActivity (as soon as tokens exist) and again from
+ * MainActivity; {@link #start()} reuses a run that is in flight or recently finished, and
+ * the screens' own calls coalesce with in-flight bootstrap GETs (see RequestCoalescer).
+ *
+ * Every callback checks the run it belongs to (and, for the role branch, the branch it
+ * belongs to): a cancelled request can still deliver if it had already completed, and must
+ * then neither publish its result nor count as one of the current run's requests.
+ */
+public final class SessionBootstrap {
+
+    private static final String TAG = "SessionBootstrap";
+
+    // A finished run is reused (and its results handed out) within this window
+    private static final long REUSE_WINDOW_MILLIS = 30_000L;
+
+    private static final String ROLE_DOCTOR = "DOCTOR";
+
+    private static SessionBootstrap instance;
+
+    public static synchronized SessionBootstrap getInstance(@NonNull Context context) {
+        if (instance == null) {
+            instance = new SessionBootstrap(new AppSources(context.getApplicationContext()));
+        }
+        return instance;
+    }
+
+    /**
+     * Where a run gets its data from; {@link AppSources} in the app, a local server in tests.
+     */
+    @VisibleForTesting
+    interface Sources {
+
+        @Nullable
+        String getAccessToken();
+
+        /**
+         * Role returned by the previous /me, if any.
+         */
+        @Nullable
+        String getCachedRole();
+
+        void flushOutbox();
+
+        void loadProfile(@NonNull ProfileRepository.ProfileSnapshotCallback callback);
+
+        @NonNull
+        RequestHandle loadNotifications(
+                @NonNull NotificationRepository.LoadNotificationsCallback callback);
+
+        @NonNull
+        RequestHandle loadDoctorStats(@NonNull AppointmentRepository.HomeStatsCallback callback);
+
+        /**
+         * Drops everything cached for the signed-out user.
+         */
+        void clear();
+    }
+
+    private final Sources sources;
+
+    private final MutableLiveData<BootstrapState> state = new MutableLiveData<>();
+
+    // Everything below is guarded by "this"
+    private final RequestScope requests = new RequestScope();
+    private final RequestScope branchRequests = new RequestScope();
+    @Nullable
+    private BootstrapState current;
+    @Nullable
+    private String sessionAccessToken;
+    @Nullable
+    private String branchRole;
+    // Bumped by start()/reset(): results of an older run are ignored
+    private int generation;
+    // Bumped by startBranch(): results of a replaced branch are ignored
+    private int branchGeneration;
+    private int pending;
+    private int branchPending;
+    private long startedAt;
+    private long finishedAt;
+
+    private boolean notificationsTaken;
+    private boolean doctorStatsTaken;
+
+    @VisibleForTesting
+    SessionBootstrap(@NonNull Sources sources) {
+        this.sources = sources;
+    }
+
+    /**
+     * Latest snapshot; null before the first start() and after reset().
+     */
+    public LiveData<BootstrapState> getState() {
+        return state;
+    }
+
+    /**
+     * Starts a bootstrap run for the current tokens, unless one is in flight or finished
+     * less than {@link #REUSE_WINDOW_MILLIS} ago for the same access token.
+     */
+    public synchronized void start() {
+        String accessToken = sources.getAccessToken();
+        if (accessToken == null) {
+            return;
+        }
+        if (current != null && accessToken.equals(sessionAccessToken)
+                && (!current.isReady() || isFresh())) {
+            return;
+        }
+
+        requests.cancelAll();
+        branchRequests.cancelAll();
+        generation++;
+        sessionAccessToken = accessToken;
+        branchRole = null;
+        pending = 0;
+        branchPending = 0;
+        notificationsTaken = false;
+        doctorStatsTaken = false;
+        startedAt = SystemClock.elapsedRealtime();
+        finishedAt = 0L;
+        publish(BootstrapState.empty());
+
+        // Writes queued while signed out or offline go out before the fresh reads
+        sources.flushOutbox();
+        loadProfile();
+        loadNotifications();
+
+        String cachedRole = sources.getCachedRole();
+        if (cachedRole != null) {
+            startBranch(cachedRole);
+        }
+    }
+
+    /**
+     * Logout: drop in-flight requests and results of the previous user
+     * (including the shared {@link ProfileStore} snapshot, the local appointment DB, the
+     * cached indicator series, history and notification pages, and the writes still queued in the
+     * {@link Outbox}).
+     */
+    public synchronized void reset() {
+        requests.cancelAll();
+        branchRequests.cancelAll();
+        sources.clear();
+        generation++;
+        current = null;
+        sessionAccessToken = null;
+        branchRole = null;
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            state.setValue(null);
+        } else {
+            state.postValue(null);
+        }
+    }
+
+    /**
+     * Prefetched notifications, handed out once while fresh; null otherwise
+     * (caller then loads from the network as usual).
+     */
+    @Nullable
+    public synchronized List<NotificationItem> takeNotifications() {
+        if (current == null || notificationsTaken || !isFresh()) return null;
+        List<NotificationItem> list = current.getNotifications();
+        if (list != null) notificationsTaken = true;
+        return list;
+    }
+
+    /**
+     * "before" of the page after the prefetched notifications (see
+     * {@link BootstrapState#getNotificationsNextCursor()}); read right after
+     * {@link #takeNotifications()}.
+     */
+    @Nullable
+    public synchronized Long getNotificationsNextCursor() {
+        return current != null ? current.getNotificationsNextCursor() : null;
+    }
+
+    /**
+     * Prefetched doctor home stats, handed out once while fresh; null otherwise.
+     */
+    @Nullable
+    public synchronized DoctorHomeStats takeDoctorStats() {
+        if (current == null || doctorStatsTaken || !isFresh()) return null;
+        DoctorHomeStats stats = current.getDoctorStats();
+        if (stats != null) doctorStatsTaken = true;
+        return stats;
+    }
+
+    // -------------------------------------------------------------------------
+    // Common requests
+    // -------------------------------------------------------------------------
+
+    private void loadProfile() {
+        pending++;
+        final int run = generation;
+        sources.loadProfile(new ProfileRepository.ProfileSnapshotCallback() {
+            @Override
+            public void onSuccess(ProfileSnapshot snapshot) {
+                synchronized (SessionBootstrap.this) {
+                    if (run != generation) return;
+                    String role = snapshot.getRole();
+                    if (!sameRole(role, branchRole)) {
+                        // Cached role was missing / wrong: switch branch now
+                        startBranch(role);
+                    }
+                    complete(current.withProfile(snapshot));
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable,
+                                @Nullable Integer httpCode,
+                                @Nullable String errorBody) {
+                synchronized (SessionBootstrap.this) {
+                    if (run != generation) return;
+                    complete(current.withUserError(httpCode));
+                }
+            }
+        });
+    }
+
+    private void loadNotifications() {
+        pending++;
+        final int run = generation;
+        requests.track(sources.loadNotifications(
+                new NotificationRepository.LoadNotificationsCallback() {
+                    @Override
+                    public void onSuccess(List<NotificationItem> notifications,
+                                          @Nullable Long nextCursor) {
+                        synchronized (SessionBootstrap.this) {
+                            if (run != generation) return;
+                            complete(current.withNotifications(notifications, nextCursor));
+                        }
+                    }
+
+                    @Override
+                    public void onError(@Nullable Throwable throwable,
+                                        @Nullable Integer httpCode,
+                                        @Nullable String errorBody) {
+                        synchronized (SessionBootstrap.this) {
+                            if (run != generation) return;
+                            complete(current);
+                        }
+                    }
+                }));
+    }
+
+    // -------------------------------------------------------------------------
+    // Role branch
+    // -------------------------------------------------------------------------
+
+    private void startBranch(@Nullable String role) {
+        // Drop a branch started from a wrong cached role
+        branchRequests.cancelAll();
+        branchGeneration++;
+        pending -= branchPending;
+        branchPending = 0;
+        branchRole = role;
+        if (current != null) {
+            current = current.withDoctorStats(null);
+        }
+
+        if (ROLE_DOCTOR.equalsIgnoreCase(role)) {
+            loadDoctorStats();
+        }
+    }
+
+    private void loadDoctorStats() {
+        pending++;
+        branchPending++;
+        final int run = generation;
+        final int branch = branchGeneration;
+        branchRequests.track(sources.loadDoctorStats(new AppointmentRepository.HomeStatsCallback() {
+            @Override
+            public void onSuccess(@NonNull DoctorHomeStats stats) {
+                synchronized (SessionBootstrap.this) {
+                    // Already taken off "pending" by startBranch() if the branch was replaced
+                    if (run != generation || branch != branchGeneration) return;
+                    branchPending--;
+                    complete(current.withDoctorStats(stats));
+                }
+            }
+
+            @Override
+            public void onError(@Nullable Throwable throwable,
+                                @Nullable Integer httpCode,
+                                @Nullable String errorBody) {
+                synchronized (SessionBootstrap.this) {
+                    if (run != generation || branch != branchGeneration) return;
+                    branchPending--;
+                    complete(current);
+                }
+            }
+        }));
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    private void complete(@NonNull BootstrapState next) {
+        pending--;
+        if (pending <= 0 && !next.isReady()) {
+            finishedAt = SystemClock.elapsedRealtime();
+            long elapsed = finishedAt - startedAt;
+            Log.d(TAG, "Bootstrap ready in " + elapsed + " ms");
+            next = next.withReady(elapsed);
+        }
+        publish(next);
+    }
+
+    private void publish(@NonNull BootstrapState next) {
+        current = next;
+        // Synchronous on the main thread so observers never see the previous session's state
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            state.setValue(next);
+        } else {
+            state.postValue(next);
+        }
+    }
+
+    private boolean isFresh() {
+        long reference = finishedAt > 0L ? finishedAt : startedAt;
+        return SystemClock.elapsedRealtime() - reference < REUSE_WINDOW_MILLIS;
+    }
+
+    private static boolean sameRole(@Nullable String a, @Nullable String b) {
+        return a == null ? b == null : a.equalsIgnoreCase(b);
+    }
+
+    // -------------------------------------------------------------------------
+    // App sources
+    // -------------------------------------------------------------------------
+
+    private static final class AppSources implements Sources {
+
+        private final AuthTokenHolder tokenHolder;
+        private final ProfileStore profileStore;
+        private final NotificationRepository notificationRepository;
+        private final AppointmentRepository appointmentRepository;
+        private final AppointmentLocalStore appointmentLocalStore;
+        private final HistoryPageStore historyPageStore;
+        private final NotificationPageStore notificationPageStore;
+        private final Outbox outbox;
+
+        AppSources(Context appContext) {
+            this.tokenHolder = AuthTokenHolder.getInstance(appContext);
+            this.profileStore = ProfileStore.getInstance(appContext);
+            this.notificationRepository = new NotificationRepository(appContext);
+            this.appointmentRepository = new AppointmentRepository(appContext);
+            this.appointmentLocalStore = AppointmentLocalStore.getInstance(appContext);
+            this.historyPageStore = HistoryPageStore.getInstance(appContext);
+            this.notificationPageStore = NotificationPageStore.getInstance(appContext);
+            this.outbox = Outbox.getInstance(appContext);
+        }
+
+        @Nullable
+        @Override
+        public String getAccessToken() {
+            AuthTokens tokens = tokenHolder.getTokens();
+            return tokens != null ? tokens.getAccessToken() : null;
+        }
+
+        @Nullable
+        @Override
+        public String getCachedRole() {
+            return tokenHolder.getCachedRole();
+        }
+
+        @Override
+        public void flushOutbox() {
+            outbox.flush();
+        }
+
+        @Override
+        public void loadProfile(@NonNull ProfileRepository.ProfileSnapshotCallback callback) {
+            profileStore.refresh(callback);
+        }
+
+        @NonNull
+        @Override
+        public RequestHandle loadNotifications(
+                @NonNull NotificationRepository.LoadNotificationsCallback callback) {
+            return notificationRepository.getMyNotifications(callback);
+        }
+
+        @NonNull
+        @Override
+        public RequestHandle loadDoctorStats(@NonNull AppointmentRepository.HomeStatsCallback callback) {
+            return appointmentRepository.getDoctorHomeStats(callback);
+        }
+
+        @Override
+        public void clear() {
+            profileStore.clear();
+            appointmentLocalStore.clear();
+            IndicatorSeriesStore.getInstance().clear();
+            historyPageStore.clear();
+            notificationPageStore.clear();
+            outbox.clear();
+        }
+    }
+}
@@ -28,55 +28,111 @@ public class Appointment {
         return id;
     }
 
+    public void setId(Long id) {
+        this.id = id;
+    }
+
     public Long getDoctorId() {
         return doctorId;
     }
 
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
     public Long getDoctorUserId() {
         return doctorUserId;
     }
 
+    public void setDoctorUserId(Long doctorUserId) {
+        this.doctorUserId = doctorUserId;
+    }
+
     public String getDoctorFirstName() {
         return doctorFirstName;
     }
 
+    public void setDoctorFirstName(String doctorFirstName) {
+        this.doctorFirstName = doctorFirstName;
+    }
+
     public String getDoctorLastName() {
         return doctorLastName;
     }
 
+    public void setDoctorLastName(String doctorLastName) {
+        this.doctorLastName = doctorLastName;
+    }
+
     public Long getPatientId() {
         return patientId;
     }
 
+    public void setPatientId(Long patientId) {
+        this.patientId = patientId;
+    }
+
     public Long getPatientUserId() {
         return patientUserId;
     }
 
+    public void setPatientUserId(Long patientUserId) {
+        this.patientUserId = patientUserId;
+    }
+
     public String getPatientFirstName() {
         return patientFirstName;
     }
 
+    public void setPatientFirstName(String patientFirstName) {
+        this.patientFirstName = patientFirstName;
+    }
+
     public String getPatientLastName() {
         return patientLastName;
     }
 
+    public void setPatientLastName(String patientLastName) {
+        this.patientLastName = patientLastName;
+    }
+
     public String getStartAt() {
         return startAt;
     }
 
+    public void setStartAt(String startAt) {
+        this.startAt = startAt;
+    }
+
     public String getEndAt() {
         return endAt;
     }
 
+    public void setEndAt(String endAt) {
+        this.endAt = endAt;
+    }
+
     public String getStatus() {
         return status;
     }
 
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
     public String getReason() {
         return reason;
     }
 
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
     public Boolean getTeleconsultation() {
         return teleconsultation;
     }
+
+    public void setTeleconsultation(Boolean teleconsultation) {
+        this.teleconsultation = teleconsultation;
+    }
 }
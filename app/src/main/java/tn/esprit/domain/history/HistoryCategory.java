@@ -0,0 +1,59 @@
+package tn.esprit.domain.history;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Locale;
+
+/**
+ * History filter chips, grouping backend event types.
+ *
+ * {@link #getApiValue()} is sent as the "category" query parameter of /api/history
+ * (null for {@link #ALL}).
+ */
+public enum HistoryCategory {
+    ALL,
+    APPOINTMENTS,
+    MEDICATIONS,
+    INDICATORS,
+    PROFILE,
+    OTHER;
+
+    @Nullable
+    public String getApiValue() {
+        return this == ALL ? null : name();
+    }
+
+    /**
+     * Category of one event type; unknown or null types are {@link #OTHER}.
+     */
+    @NonNull
+    public static HistoryCategory fromEventType(@Nullable String eventType) {
+        if (eventType == null) return OTHER;
+
+        switch (eventType.trim().toUpperCase(Locale.ROOT)) {
+            case "APPOINTMENT_CREATED":
+            case "APPOINTMENT_CANCELLED":
+            case "APPOINTMENT_RESCHEDULED":
+            case "APPOINTMENT_ACCEPTED":
+            case "APPOINTMENT_REJECTED":
+                return APPOINTMENTS;
+            case "PRESCRIPTION_CREATED":
+            case "PRESCRIPTION_DELETED":
+            case "MEDICATION_REMINDER_UPDATED":
+                return MEDICATIONS;
+            case "INDICATOR_ADDED":
+            case "INDICATOR_DELETED":
+                return INDICATORS;
+            case "PROFILE_UPDATED":
+            case "PASSWORD_CHANGED":
+                return PROFILE;
+            default:
+                return OTHER;
+        }
+    }
+
+    public boolean matches(@NonNull UserHistoryEntry entry) {
+        return this == ALL || fromEventType(entry.getEventType()) == this;
+    }
+}
@@ -31,22 +31,42 @@ public class NotificationItem {
         return id;
     }
 
+    public void setId(Long id) {
+        this.id = id;
+    }
+
     public String getType() {
         return type;
     }
 
+    public void setType(String type) {
+        this.type = type;
+    }
+
     public String getTitle() {
         return title;
     }
 
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
     public String getMessage() {
         return message;
     }
 
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
     public Long getAppointmentId() {
         return appointmentId;
     }
 
+    public void setAppointmentId(Long appointmentId) {
+        this.appointmentId = appointmentId;
+    }
+
     /**
      * ISO-8601 datetime string from backend.
      */
@@ -54,7 +74,15 @@ public class NotificationItem {
         return createdAt;
     }
 
+    public void setCreatedAt(String createdAt) {
+        this.createdAt = createdAt;
+    }
+
     public boolean isRead() {
         return read;
     }
+
+    public void setRead(boolean read) {
+        this.read = read;
+    }
 }
@@ -15,12 +15,14 @@ import java.util.Locale;
 
 import tn.esprit.R;
 import tn.esprit.data.appointment.AppointmentRepository;
+import tn.esprit.data.remote.http.RequestScope;
 import tn.esprit.domain.appointment.Appointment;
 import tn.esprit.domain.appointment.AppointmentStatusUpdateRequest;
 
 public class DoctorAppointmentsViewModel extends AndroidViewModel {
 
     private final AppointmentRepository repository;
+    private final RequestScope requests = new RequestScope();
 
     private final MutableLiveData<Boolean> loading = new MutableLiveData<>(false);
 
@@ -43,8 +45,8 @@ public class DoctorAppointmentsViewModel extends AndroidViewModel {
     private final MutableLiveData<String> errorMessage = new MutableLiveData<>();
     private final MutableLiveData<String> actionMessage = new MutableLiveData<>();
 
-    // Keep full list in memory to allow client-side date filtering
-    private List<Appointment> allAppointments = new ArrayList<>();
+    // Keep full list in memory to allow client-side date filtering (written off the main thread)
+    private volatile List<Appointment> allAppointments = new ArrayList<>();
 
     public DoctorAppointmentsViewModel(@NonNull Application application) {
         super(application);
@@ -72,25 +74,23 @@ public class DoctorAppointmentsViewModel extends AndroidViewModel {
     // Load appointments
     // -------------------------------------------------------------------------
 
+    /**
+     * Renders the locally stored agenda right away, then applies the delta refresh.
+     */
     public void loadAppointments() {
         loading.setValue(true);
 
-        repository.getDoctorAppointments(
-                null,
-                null,
-                new AppointmentRepository.LoadAppointmentsCallback() {
+        requests.track(repository.syncDoctorAppointments(
+                new AppointmentRepository.SyncAppointmentsCallback() {
                     @Override
-                    public void onSuccess(@NonNull List<Appointment> list) {
-                        loading.postValue(false);
-
-                        allAppointments = new ArrayList<>(list);
-                        splitIntoSections(list);
+                    public void onCached(@NonNull List<Appointment> list) {
+                        applyAppointments(list);
+                    }
 
-                        Boolean isFiltered = filteredMode.getValue();
-                        String dateIso = selectedDateIso.getValue();
-                        if (Boolean.TRUE.equals(isFiltered) && dateIso != null) {
-                            applyDateFilter(dateIso);
-                        }
+                    @Override
+                    public void onSynced(@NonNull List<Appointment> list) {
+                        loading.postValue(false);
+                        applyAppointments(list);
                     }
 
                     @Override
@@ -104,7 +104,18 @@ public class DoctorAppointmentsViewModel extends AndroidViewModel {
                         errorMessage.postValue(msg);
                     }
                 }
-        );
+        ));
+    }
+
+    private void applyAppointments(@NonNull List<Appointment> list) {
+        allAppointments = new ArrayList<>(list);
+        splitIntoSections(list);
+
+        Boolean isFiltered = filteredMode.getValue();
+        String dateIso = selectedDateIso.getValue();
+        if (Boolean.TRUE.equals(isFiltered) && dateIso != null) {
+            applyDateFilter(dateIso);
+        }
     }
 
     private void splitIntoSections(@NonNull List<Appointment> list) {
@@ -233,7 +244,7 @@ public class DoctorAppointmentsViewModel extends AndroidViewModel {
         request.setStatus(newStatus);
 
         repository.updateAppointmentStatus(
-                id,
+                appointment,
                 request,
                 new AppointmentRepository.UpdateStatusCallback() {
                     @Override
@@ -243,6 +254,16 @@ public class DoctorAppointmentsViewModel extends AndroidViewModel {
                         loadAppointments();
                     }
 
+                    @Override
+                    public void onQueued(@NonNull Appointment pending) {
+                        // Offline: show the decision now, the outbox sends it later
+                        loading.postValue(false);
+                        applyLocalStatus(pending);
+                        actionMessage.postValue(getApplication().getString(
+                                R.string.doctor_appointments_action_queued
+                        ));
+                    }
+
                     @Override
                     public void onError(
                             @Nullable Throwable throwable,
@@ -251,8 +272,28 @@ public class DoctorAppointmentsViewModel extends AndroidViewModel {
                     ) {
                         loading.postValue(false);
                         actionMessage.postValue(errorMessageText);
+                        // Undo an optimistic status from onQueued
+                        loadAppointments();
                     }
                 }
         );
     }
+
+    /**
+     * Swaps in the queued copy; the cached instances are shared with the lists on screen.
+     */
+    private void applyLocalStatus(@NonNull Appointment pending) {
+        List<Appointment> updated = new ArrayList<>(allAppointments.size());
+        for (Appointment a : allAppointments) {
+            boolean same = a != null && a.getId() != null && a.getId().equals(pending.getId());
+            updated.add(same ? pending : a);
+        }
+        applyAppointments(updated);
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        requests.cancelAll();
+    }
 }
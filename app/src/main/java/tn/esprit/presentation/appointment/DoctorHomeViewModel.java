@@ -10,11 +10,14 @@ import androidx.lifecycle.MutableLiveData;
 
 import tn.esprit.R;
 import tn.esprit.data.appointment.AppointmentRepository;
+import tn.esprit.data.remote.http.RequestScope;
+import tn.esprit.data.session.SessionBootstrap;
 import tn.esprit.domain.doctor.DoctorHomeStats;
 
 public class DoctorHomeViewModel extends AndroidViewModel {
 
     private final AppointmentRepository repository;
+    private final RequestScope requests = new RequestScope();
 
     private final MutableLiveData<Boolean> loading = new MutableLiveData<>(false);
     private final MutableLiveData<DoctorHomeStats> stats = new MutableLiveData<>();
@@ -42,10 +45,17 @@ public class DoctorHomeViewModel extends AndroidViewModel {
     }
 
     public void loadStats() {
+        // First load after startup: SessionBootstrap may already have the stats
+        DoctorHomeStats prefetched = SessionBootstrap.getInstance(getApplication()).takeDoctorStats();
+        if (prefetched != null) {
+            stats.setValue(prefetched);
+            return;
+        }
+
         loading.setValue(true);
         errorMessage.setValue(null);
 
-        repository.getDoctorHomeStats(new AppointmentRepository.HomeStatsCallback() {
+        requests.track(repository.getDoctorHomeStats(new AppointmentRepository.HomeStatsCallback() {
             @Override
             public void onSuccess(@NonNull DoctorHomeStats result) {
                 stats.postValue(result);
@@ -62,6 +72,12 @@ public class DoctorHomeViewModel extends AndroidViewModel {
                 );
                 errorMessage.postValue(msg);
             }
-        });
+        }));
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        requests.cancelAll();
     }
 }
@@ -19,6 +19,7 @@ import java.util.Locale;
 
 import tn.esprit.R;
 import tn.esprit.data.appointment.AppointmentRepository;
+import tn.esprit.data.remote.http.RequestScope;
 import tn.esprit.domain.appointment.Appointment;
 
 /**
@@ -27,6 +28,7 @@ import tn.esprit.domain.appointment.Appointment;
 public class PatientAppointmentsViewModel extends AndroidViewModel {
 
     private final AppointmentRepository repository;
+    private final RequestScope requests = new RequestScope();
 
     private final MutableLiveData<Boolean> loading = new MutableLiveData<>(false);
     private final MutableLiveData<List<Appointment>> appointments = new MutableLiveData<>(Collections.emptyList());
@@ -67,18 +69,20 @@ public class PatientAppointmentsViewModel extends AndroidViewModel {
     }
 
     /**
-     * Load current patient's appointments (optionally in a date range).
-     * For now we pass null range -> backend decides.
+     * Load current patient's appointments: local copy first, then the delta refresh.
      */
     public void loadAppointments() {
         loading.setValue(true);
 
-        repository.getMyAppointments(
-                null,
-                null,
-                new AppointmentRepository.LoadAppointmentsCallback() {
+        requests.track(repository.syncMyAppointments(
+                new AppointmentRepository.SyncAppointmentsCallback() {
                     @Override
-                    public void onSuccess(@NonNull List<Appointment> list) {
+                    public void onCached(@NonNull List<Appointment> list) {
+                        appointments.postValue(sortByStart(list));
+                    }
+
+                    @Override
+                    public void onSynced(@NonNull List<Appointment> list) {
                         loading.postValue(false);
                         appointments.postValue(sortByStart(list));
                     }
@@ -92,7 +96,7 @@ public class PatientAppointmentsViewModel extends AndroidViewModel {
                         errorMessage.postValue(msg);
                     }
                 }
-        );
+        ));
     }
 
     /**
@@ -175,4 +179,10 @@ public class PatientAppointmentsViewModel extends AndroidViewModel {
         }
         return null;
     }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        requests.cancelAll();
+    }
 }
@@ -5,6 +5,7 @@ import android.os.Bundle;
 import android.view.View;
 
 import androidx.activity.EdgeToEdge;
+import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
@@ -12,24 +13,22 @@ import androidx.core.view.WindowInsetsCompat;
 
 import tn.esprit.MainActivity;
 import tn.esprit.R;
-import tn.esprit.data.auth.AuthLocalDataSource;
 import tn.esprit.data.auth.AuthRepository;
-import tn.esprit.data.remote.ApiClient;
-import tn.esprit.data.remote.user.UserApiService;
+import tn.esprit.data.auth.AuthTokenHolder;
+import tn.esprit.data.session.BootstrapState;
+import tn.esprit.data.session.SessionBootstrap;
 import tn.esprit.domain.auth.AuthTokens;
 import tn.esprit.domain.user.User;
 import tn.esprit.presentation.onboarding.PatientOnboardingActivity;
 import tn.esprit.presentation.onboarding.DoctorPracticeSetupActivity;
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
 
 public class AuthGateActivity extends AppCompatActivity {
 
     private View rootView;
-    private AuthLocalDataSource authLocalDataSource;
+    private AuthTokenHolder tokenHolder;
     private AuthRepository authRepository;
-    private UserApiService userApiService;
+    private SessionBootstrap sessionBootstrap;
+    private boolean routed = false;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -40,9 +39,9 @@ public class AuthGateActivity extends AppCompatActivity {
         rootView = findViewById(R.id.auth_gate_root);
         applyWindowInsets();
 
-        authLocalDataSource = new AuthLocalDataSource(getApplicationContext());
+        tokenHolder = AuthTokenHolder.getInstance(getApplicationContext());
         authRepository = new AuthRepository();
-        userApiService = ApiClient.createService(UserApiService.class);
+        sessionBootstrap = SessionBootstrap.getInstance(getApplicationContext());
 
         checkSession();
     }
@@ -66,9 +65,12 @@ public class AuthGateActivity extends AppCompatActivity {
     }
 
     /**
-     * If we have an access token, we try /me directly.
+     * If we have an access token, we start the session bootstrap and route on its /me.
      * No automatic refresh here to avoid redirecting to login on first use.
      *
+     * The bootstrap also starts notifications and the role-specific home data in parallel,
+     * so MainActivity finds them loaded (or in flight) instead of starting from scratch.
+     *
      * First-login routing:
      * - PATIENT + isFirstLogin -> PatientOnboardingActivity (optional, 1 screen)
      * - DOCTOR + isFirstLogin  -> DoctorPracticeSetupActivity (mandatory step 1;
@@ -76,57 +78,49 @@ public class AuthGateActivity extends AppCompatActivity {
      * - Otherwise              -> MainActivity
      */
     private void checkSession() {
-        AuthTokens tokens = authLocalDataSource.getTokens();
+        AuthTokens tokens = tokenHolder.getTokens();
 
         if (tokens == null ||
                 tokens.getAccessToken() == null ||
                 tokens.getAccessToken().isEmpty()) {
+            // Session ended without a logout (refresh token rejected): drop the persisted
+            // profile and appointments before someone else signs in
+            sessionBootstrap.reset();
             goToLogin();
             return;
         }
 
-        fetchUserAndRoute(tokens);
+        sessionBootstrap.start();
+        sessionBootstrap.getState().observe(this, this::routeOnBootstrapState);
     }
 
-    private void fetchUserAndRoute(AuthTokens tokens) {
-        String authHeader = buildAuthHeader(tokens);
-
-        userApiService.getCurrentUser(authHeader).enqueue(new Callback<User>() {
-            @Override
-            public void onResponse(Call<User> call, Response<User> response) {
-                if (!response.isSuccessful() || response.body() == null) {
-                    // If we can't load /me, fallback to login to be safe
-                    authLocalDataSource.clearTokens();
-                    goToLogin();
-                    return;
-                }
-
-                User user = response.body();
-                String role = user.getRole();
-                Boolean firstLoginFlag = user.getFirstLogin();
-                boolean isFirstLogin = firstLoginFlag != null && firstLoginFlag;
-
-                if ("PATIENT".equalsIgnoreCase(role) && isFirstLogin) {
-                    goToPatientOnboarding();
-                } else if ("DOCTOR".equalsIgnoreCase(role) && isFirstLogin) {
-                    goToDoctorPracticeOnboarding();
-                } else {
-                    goToMain();
-                }
-            }
-
-            @Override
-            public void onFailure(Call<User> call, Throwable t) {
-                // On network failure, safest is to go to login
-                authLocalDataSource.clearTokens();
-                goToLogin();
-            }
-        });
-    }
+    private void routeOnBootstrapState(@Nullable BootstrapState state) {
+        if (state == null || routed) return;
+
+        if (state.isUserFailed()) {
+            // If we can't load /me, fallback to login to be safe
+            routed = true;
+            tokenHolder.clearTokens();
+            sessionBootstrap.reset();
+            goToLogin();
+            return;
+        }
+
+        User user = state.getUser();
+        if (user == null) return; // /me still in flight
 
-    private String buildAuthHeader(AuthTokens tokens) {
-        String type = tokens.getTokenType() != null ? tokens.getTokenType() : "Bearer";
-        return type + " " + tokens.getAccessToken();
+        routed = true;
+        String role = user.getRole();
+        Boolean firstLoginFlag = user.getFirstLogin();
+        boolean isFirstLogin = firstLoginFlag != null && firstLoginFlag;
+
+        if ("PATIENT".equalsIgnoreCase(role) && isFirstLogin) {
+            goToPatientOnboarding();
+        } else if ("DOCTOR".equalsIgnoreCase(role) && isFirstLogin) {
+            goToDoctorPracticeOnboarding();
+        } else {
+            goToMain();
+        }
     }
 
     private void goToLogin() {
@@ -19,8 +19,9 @@ import com.google.android.material.snackbar.Snackbar;
 import com.google.android.material.textfield.TextInputEditText;
 
 import tn.esprit.R;
-import tn.esprit.data.auth.AuthLocalDataSource;
 import tn.esprit.data.auth.AuthRepository;
+import tn.esprit.data.auth.AuthTokenHolder;
+import tn.esprit.data.session.SessionBootstrap;
 import tn.esprit.domain.auth.AuthTokens;
 
 public class LoginActivity extends AppCompatActivity {
@@ -33,7 +34,7 @@ public class LoginActivity extends AppCompatActivity {
     private TextView signupHintText;
 
     private AuthRepository authRepository;
-    private AuthLocalDataSource authLocalDataSource;
+    private AuthTokenHolder tokenHolder;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -49,7 +50,7 @@ public class LoginActivity extends AppCompatActivity {
         signupHintText = findViewById(R.id.text_signup_hint);
 
         authRepository = new AuthRepository();
-        authLocalDataSource = new AuthLocalDataSource(getApplicationContext());
+        tokenHolder = AuthTokenHolder.getInstance(getApplicationContext());
 
         applyWindowInsets();
         setupListeners();
@@ -125,7 +126,9 @@ public class LoginActivity extends AppCompatActivity {
                 showLoading(false);
 
                 // Persist tokens locally
-                authLocalDataSource.saveTokens(tokens);
+                tokenHolder.saveTokens(tokens);
+                // Start /me, notifications and home data now; AuthGate picks up the same run
+                SessionBootstrap.getInstance(getApplicationContext()).start();
 
                 Toast.makeText(LoginActivity.this, getString(R.string.login_success), Toast.LENGTH_SHORT).show();
 
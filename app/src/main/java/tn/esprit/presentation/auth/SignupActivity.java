@@ -21,8 +21,8 @@ import com.google.android.material.snackbar.Snackbar;
 import com.google.android.material.textfield.TextInputEditText;
 
 import tn.esprit.R;
-import tn.esprit.data.auth.AuthLocalDataSource;
 import tn.esprit.data.auth.AuthRepository;
+import tn.esprit.data.auth.AuthTokenHolder;
 import tn.esprit.domain.auth.AuthTokens;
 
 public class SignupActivity extends AppCompatActivity {
@@ -43,7 +43,7 @@ public class SignupActivity extends AppCompatActivity {
     private TextView textBackToLogin;
 
     private AuthRepository authRepository;
-    private AuthLocalDataSource authLocalDataSource;
+    private AuthTokenHolder tokenHolder;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -52,7 +52,7 @@ public class SignupActivity extends AppCompatActivity {
         setContentView(R.layout.activity_signup);
 
         authRepository = new AuthRepository();
-        authLocalDataSource = new AuthLocalDataSource(getApplicationContext());
+        tokenHolder = AuthTokenHolder.getInstance(getApplicationContext());
 
         bindViews();
         applyWindowInsets();
@@ -210,7 +210,7 @@ public class SignupActivity extends AppCompatActivity {
                     public void onSuccess(AuthTokens tokens) {
                         showLoading(false);
 
-                        authLocalDataSource.saveTokens(tokens);
+                        tokenHolder.saveTokens(tokens);
                         Toast.makeText(SignupActivity.this, "Account created", Toast.LENGTH_SHORT).show();
 
                         // IMPORTANT: let AuthGate decide (onboarding vs home)
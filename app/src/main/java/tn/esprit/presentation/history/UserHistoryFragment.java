@@ -22,12 +22,12 @@ import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 import tn.esprit.MainActivity;
 import tn.esprit.R;
+import tn.esprit.domain.history.HistoryCategory;
 import tn.esprit.domain.history.UserHistoryEntry;
 
 /**
@@ -53,19 +53,8 @@ public class UserHistoryFragment extends Fragment {
     private UserHistoryViewModel viewModel;
     private UserHistoryAdapter adapter;
 
-    // Full list from backend (unfiltered)
-    private final List<UserHistoryEntry> fullHistory = new ArrayList<>();
-
-    private enum FilterType {
-        ALL,
-        APPOINTMENTS,
-        MEDICATIONS,
-        INDICATORS,
-        PROFILE,
-        OTHER
-    }
-
-    private FilterType currentFilter = FilterType.ALL;
+    // Ask for the next page when this close to the end of the list
+    private static final int PREFETCH_DISTANCE = 10;
 
     public UserHistoryFragment() {
         // Required empty public constructor
@@ -105,6 +94,18 @@ public class UserHistoryFragment extends Fragment {
         recyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
         adapter = new UserHistoryAdapter(this::onHistoryItemClicked);
         recyclerView.setAdapter(adapter);
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                if (dy <= 0 || viewModel == null) return;
+                LinearLayoutManager lm = (LinearLayoutManager) rv.getLayoutManager();
+                if (lm == null) return;
+                int lastVisible = lm.findLastVisibleItemPosition();
+                if (lastVisible >= adapter.getItemCount() - PREFETCH_DISTANCE) {
+                    viewModel.loadMore();
+                }
+            }
+        });
 
         // Swipe-to-refresh
         swipeRefreshLayout.setOnRefreshListener(() -> {
@@ -135,103 +136,23 @@ public class UserHistoryFragment extends Fragment {
         if (chipFilterAll != null) {
             chipFilterAll.setChecked(true);
         }
-        currentFilter = FilterType.ALL;
 
-        if (chipFilterAll != null) {
-            chipFilterAll.setOnClickListener(v -> {
-                currentFilter = FilterType.ALL;
-                applyFilterAndUpdateList();
-            });
-        }
-
-        if (chipFilterAppointments != null) {
-            chipFilterAppointments.setOnClickListener(v -> {
-                currentFilter = FilterType.APPOINTMENTS;
-                applyFilterAndUpdateList();
-            });
-        }
-
-        if (chipFilterMedications != null) {
-            chipFilterMedications.setOnClickListener(v -> {
-                currentFilter = FilterType.MEDICATIONS;
-                applyFilterAndUpdateList();
-            });
-        }
-
-        if (chipFilterIndicators != null) {
-            chipFilterIndicators.setOnClickListener(v -> {
-                currentFilter = FilterType.INDICATORS;
-                applyFilterAndUpdateList();
-            });
-        }
-
-        if (chipFilterProfile != null) {
-            chipFilterProfile.setOnClickListener(v -> {
-                currentFilter = FilterType.PROFILE;
-                applyFilterAndUpdateList();
-            });
-        }
-
-        if (chipFilterOther != null) {
-            chipFilterOther.setOnClickListener(v -> {
-                currentFilter = FilterType.OTHER;
-                applyFilterAndUpdateList();
-            });
-        }
+        bindFilterChip(chipFilterAll, HistoryCategory.ALL);
+        bindFilterChip(chipFilterAppointments, HistoryCategory.APPOINTMENTS);
+        bindFilterChip(chipFilterMedications, HistoryCategory.MEDICATIONS);
+        bindFilterChip(chipFilterIndicators, HistoryCategory.INDICATORS);
+        bindFilterChip(chipFilterProfile, HistoryCategory.PROFILE);
+        bindFilterChip(chipFilterOther, HistoryCategory.OTHER);
     }
 
-    private void applyFilterAndUpdateList() {
-        if (!isAdded()) return;
-
-        List<UserHistoryEntry> source =
-                fullHistory.isEmpty() ? Collections.emptyList() : new ArrayList<>(fullHistory);
-
-        List<UserHistoryEntry> filtered = new ArrayList<>();
-
-        for (UserHistoryEntry entry : source) {
-            if (matchesFilter(entry, currentFilter)) {
-                filtered.add(entry);
+    private void bindFilterChip(@Nullable Chip chip, @NonNull HistoryCategory category) {
+        if (chip == null) return;
+        // Each category is paged (and cached) on its own
+        chip.setOnClickListener(v -> {
+            if (viewModel != null) {
+                viewModel.setCategory(category);
             }
-        }
-
-        adapter.submitList(filtered);
-
-        boolean isEmpty = filtered.isEmpty();
-        recyclerView.setVisibility(isEmpty ? View.GONE : View.VISIBLE);
-        textEmpty.setVisibility(isEmpty ? View.VISIBLE : View.GONE);
-    }
-
-    private boolean matchesFilter(@NonNull UserHistoryEntry entry, @NonNull FilterType filter) {
-        if (filter == FilterType.ALL) {
-            return true;
-        }
-
-        String type = entry.getEventType();
-        if (type == null) {
-            // Unknown -> show only in OTHER
-            return filter == FilterType.OTHER;
-        }
-
-        type = type.trim().toUpperCase();
-
-        switch (filter) {
-            case APPOINTMENTS:
-                return isAppointmentEvent(type);
-            case MEDICATIONS:
-                return isMedicationEvent(type);
-            case INDICATORS:
-                return isIndicatorEvent(type);
-            case PROFILE:
-                return isProfileEvent(type);
-            case OTHER:
-                // Anything not in the known categories
-                return !isAppointmentEvent(type)
-                        && !isMedicationEvent(type)
-                        && !isIndicatorEvent(type)
-                        && !isProfileEvent(type);
-            default:
-                return true;
-        }
+        });
     }
 
     // ---------------------------------------------------------------------
@@ -257,12 +178,12 @@ public class UserHistoryFragment extends Fragment {
     private void applyHistoryItems(@Nullable List<UserHistoryEntry> items) {
         if (!isAdded()) return;
 
-        fullHistory.clear();
-        if (items != null) {
-            fullHistory.addAll(items);
-        }
+        List<UserHistoryEntry> list = items != null ? items : Collections.emptyList();
+        adapter.submitList(list);
 
-        applyFilterAndUpdateList();
+        boolean isEmpty = list.isEmpty();
+        recyclerView.setVisibility(isEmpty ? View.GONE : View.VISIBLE);
+        textEmpty.setVisibility(isEmpty ? View.VISIBLE : View.GONE);
     }
 
     private void showLoading(boolean loading) {
@@ -279,70 +200,23 @@ public class UserHistoryFragment extends Fragment {
     // ---------------------------------------------------------------------
 
     private void onHistoryItemClicked(@NonNull UserHistoryEntry entry) {
-        String eventType = entry.getEventType();
-        if (eventType == null) {
-            // No event type → try details bottom sheet or simple toast.
-            maybeShowDetailsOrToast(entry);
-            return;
-        }
-
-        eventType = eventType.trim().toUpperCase();
-
-        if (isAppointmentEvent(eventType)) {
-            openAppointmentsForCurrentRole();
-        } else if (isMedicationEvent(eventType)) {
-            openMedicationsScreen();
-        } else if (isIndicatorEvent(eventType)) {
-            openIndicatorsScreen();
-        } else if (isProfileEvent(eventType)) {
-            openProfileScreen();
-        } else {
-            // For LOGIN / LOGOUT / PATIENT_ACCOUNT_CREATED / etc.
-            maybeShowDetailsOrToast(entry);
-        }
-    }
-
-    private boolean isAppointmentEvent(@NonNull String type) {
-        switch (type) {
-            case "APPOINTMENT_CREATED":
-            case "APPOINTMENT_CANCELLED":
-            case "APPOINTMENT_RESCHEDULED":
-            case "APPOINTMENT_ACCEPTED":
-            case "APPOINTMENT_REJECTED":
-                return true;
-            default:
-                return false;
-        }
-    }
-
-    private boolean isMedicationEvent(@NonNull String type) {
-        switch (type) {
-            case "PRESCRIPTION_CREATED":
-            case "PRESCRIPTION_DELETED":
-            case "MEDICATION_REMINDER_UPDATED":
-                return true;
-            default:
-                return false;
-        }
-    }
-
-    private boolean isIndicatorEvent(@NonNull String type) {
-        switch (type) {
-            case "INDICATOR_ADDED":
-            case "INDICATOR_DELETED":
-                return true;
-            default:
-                return false;
-        }
-    }
-
-    private boolean isProfileEvent(@NonNull String type) {
-        switch (type) {
-            case "PROFILE_UPDATED":
-            case "PASSWORD_CHANGED":
-                return true;
+        switch (HistoryCategory.fromEventType(entry.getEventType())) {
+            case APPOINTMENTS:
+                openAppointmentsForCurrentRole();
+                break;
+            case MEDICATIONS:
+                openMedicationsScreen();
+                break;
+            case INDICATORS:
+                openIndicatorsScreen();
+                break;
+            case PROFILE:
+                openProfileScreen();
+                break;
             default:
-                return false;
+                // For LOGIN / LOGOUT / PATIENT_ACCOUNT_CREATED / unknown, etc.
+                maybeShowDetailsOrToast(entry);
+                break;
         }
     }
 
@@ -4,23 +4,35 @@ import android.app.Application;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 import tn.esprit.data.history.UserHistoryRepository;
+import tn.esprit.data.remote.http.RequestHandle;
+import tn.esprit.data.remote.http.RequestScope;
+import tn.esprit.domain.history.HistoryCategory;
 import tn.esprit.domain.history.UserHistoryEntry;
 
 /**
  * ViewModel for the user's history screen.
  * Wraps UserHistoryRepository and exposes LiveData for the fragment.
+ *
+ * Holds the pages loaded so far for the selected category; the fragment asks for the
+ * next one ({@link #loadMore()}) when the list gets close to its end.
  */
 public class UserHistoryViewModel extends AndroidViewModel {
 
+    // Keep loading while a filtered page leaves the screen nearly empty
+    private static final int MIN_VISIBLE_AFTER_PAGE = UserHistoryRepository.PAGE_SIZE / 2;
+
     private final UserHistoryRepository repository;
+    private final RequestScope requests = new RequestScope();
 
     private final MutableLiveData<List<UserHistoryEntry>> historyEntries =
             new MutableLiveData<>(Collections.emptyList());
@@ -29,9 +41,24 @@ public class UserHistoryViewModel extends AndroidViewModel {
     private final MutableLiveData<String> errorMessage =
             new MutableLiveData<>(null);
 
+    // Paging state, guarded by "this" (callbacks run on background threads)
+    private HistoryCategory category = HistoryCategory.ALL;
+    private final List<UserHistoryEntry> loaded = new ArrayList<>();
+    @Nullable
+    private Long nextCursor;
+    private boolean pageInFlight;
+    // Bumped on reload / category change: pages of an older run are dropped
+    private int generation;
+
     public UserHistoryViewModel(@NonNull Application application) {
+        this(application, new UserHistoryRepository(application.getApplicationContext()));
+    }
+
+    @VisibleForTesting
+    UserHistoryViewModel(@NonNull Application application,
+                         @NonNull UserHistoryRepository repository) {
         super(application);
-        repository = new UserHistoryRepository(application.getApplicationContext());
+        this.repository = repository;
     }
 
     // ---------------------------------------------------------------------
@@ -64,39 +91,135 @@ public class UserHistoryViewModel extends AndroidViewModel {
     // Loading
     // ---------------------------------------------------------------------
 
+    /**
+     * Switches the filter chip: history restarts from the newest page of that category.
+     */
+    public void setCategory(@NonNull HistoryCategory newCategory) {
+        synchronized (this) {
+            if (category == newCategory) return;
+            category = newCategory;
+        }
+        reloadHistory();
+    }
+
     /**
      * Reloads history from backend (used on initial load + pull-to-refresh).
      */
     public void reloadHistory() {
+        requests.cancelAll();
+        HistoryCategory requested;
+        int run;
+        synchronized (this) {
+            run = ++generation;
+            requested = category;
+            loaded.clear();
+            nextCursor = null;
+            pageInFlight = true;
+        }
         loading.setValue(true);
         errorMessage.setValue(null);
 
-        repository.loadHistory(new UserHistoryRepository.LoadCallback() {
+        requests.track(repository.loadPage(requested, null, pageCallback(run, true)));
+    }
+
+    /**
+     * Next page, if any and none is already loading.
+     */
+    public void loadMore() {
+        HistoryCategory requested;
+        Long before;
+        int run;
+        synchronized (this) {
+            if (pageInFlight || nextCursor == null) return;
+            pageInFlight = true;
+            requested = category;
+            before = nextCursor;
+            run = generation;
+        }
+        requests.track(repository.loadPage(requested, before, pageCallback(run, false)));
+    }
+
+    /** Friendly alias for initial load from Fragment. */
+    public void loadHistory() {
+        reloadHistory();
+    }
+
+    /** Alias for SwipeRefreshLayout refresh. */
+    public void refreshHistory() {
+        reloadHistory();
+    }
+
+    @NonNull
+    private UserHistoryRepository.PageCallback pageCallback(int run, boolean head) {
+        return new UserHistoryRepository.PageCallback() {
             @Override
-            public void onSuccess(List<UserHistoryEntry> items) {
-                loading.postValue(false);
-                historyEntries.postValue(
-                        items != null ? items : Collections.emptyList()
-                );
+            public void onPage(@NonNull List<UserHistoryEntry> items,
+                               @Nullable Long cursor,
+                               boolean fromCache) {
+                List<UserHistoryEntry> snapshot;
+                boolean continueLoading;
+                synchronized (UserHistoryViewModel.this) {
+                    if (run != generation) return;
+                    if (head) {
+                        // Cached head first, then the fresh one replaces it
+                        loaded.clear();
+                    }
+                    loaded.addAll(items);
+                    nextCursor = cursor;
+                    boolean finalForThisPage = !(head && fromCache);
+                    if (finalForThisPage) {
+                        pageInFlight = false;
+                    }
+                    snapshot = new ArrayList<>(loaded);
+                    continueLoading = finalForThisPage
+                            && nextCursor != null
+                            && items.size() < MIN_VISIBLE_AFTER_PAGE
+                            && loaded.size() < MIN_VISIBLE_AFTER_PAGE * 2;
+                }
+
+                if (head && !fromCache) {
+                    loading.postValue(false);
+                }
+                historyEntries.postValue(snapshot);
+
+                if (continueLoading) {
+                    // Category not filtered server-side: fetch on until the screen fills
+                    requests.track(loadNextFromBackground(run));
+                }
             }
 
             @Override
             public void onError(@Nullable Throwable throwable,
                                 @Nullable Integer httpCode,
                                 @Nullable String errorBody) {
+                synchronized (UserHistoryViewModel.this) {
+                    if (run != generation) return;
+                    pageInFlight = false;
+                }
                 loading.postValue(false);
                 errorMessage.postValue("Failed to load history.");
             }
-        });
+        };
     }
 
-    /** Friendly alias for initial load from Fragment. */
-    public void loadHistory() {
-        reloadHistory();
+    @NonNull
+    private RequestHandle loadNextFromBackground(int run) {
+        HistoryCategory requested;
+        Long before;
+        synchronized (this) {
+            if (run != generation || pageInFlight || nextCursor == null) {
+                return RequestHandle.NONE;
+            }
+            pageInFlight = true;
+            requested = category;
+            before = nextCursor;
+        }
+        return repository.loadPage(requested, before, pageCallback(run, false));
     }
 
-    /** Alias for SwipeRefreshLayout refresh. */
-    public void refreshHistory() {
-        reloadHistory();
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        requests.cancelAll();
     }
 }
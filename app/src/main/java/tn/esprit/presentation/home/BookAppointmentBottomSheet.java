@@ -35,6 +35,7 @@ import java.util.Locale;
 
 import tn.esprit.R;
 import tn.esprit.data.appointment.AppointmentRepository;
+import tn.esprit.data.remote.http.RequestScope;
 import tn.esprit.domain.appointment.AppointmentCreateRequest;
 import tn.esprit.domain.appointment.DailySchedule;
 import tn.esprit.domain.appointment.Slot;
@@ -83,6 +84,7 @@ public class BookAppointmentBottomSheet extends BottomSheetDialogFragment {
     private boolean teleEnabledByDoctor = false;
 
     private AppointmentRepository appointmentRepository;
+    private final RequestScope requests = new RequestScope();
 
     // UI
     private TextView textDoctorName;
@@ -255,6 +257,12 @@ public class BookAppointmentBottomSheet extends BottomSheetDialogFragment {
         }
     }
 
+    @Override
+    public void onDestroyView() {
+        requests.cancelAll();
+        super.onDestroyView();
+    }
+
     // -------------------------------------------------------------------------
     // Weekly calendar loading
     // -------------------------------------------------------------------------
@@ -271,7 +279,7 @@ public class BookAppointmentBottomSheet extends BottomSheetDialogFragment {
             weekStartIso = computeNextWeekStartIso();
         }
 
-        appointmentRepository.getDoctorWeeklyCalendar(
+        requests.track(appointmentRepository.getDoctorWeeklyCalendar(
                 doctorId,
                 weekStartIso,
                 new AppointmentRepository.WeeklyCalendarCallback() {
@@ -296,7 +304,7 @@ public class BookAppointmentBottomSheet extends BottomSheetDialogFragment {
                         ).show();
                     }
                 }
-        );
+        ));
     }
 
     private void applyWeeklyCalendar(@NonNull WeeklyCalendarResponse calendarResponse) {
@@ -492,6 +500,19 @@ public class BookAppointmentBottomSheet extends BottomSheetDialogFragment {
                         navigateToPatientAppointments();
                     }
 
+                    @Override
+                    public void onQueued() {
+                        // Offline: the booking is sent as soon as the network is back
+                        if (!isAdded()) return;
+                        setConfirmLoading(false);
+                        Toast.makeText(
+                                requireContext(),
+                                getString(R.string.doctor_book_queued),
+                                Toast.LENGTH_LONG
+                        ).show();
+                        navigateToPatientAppointments();
+                    }
+
                     @Override
                     public void onError(@Nullable Throwable throwable,
                                         @Nullable Integer httpCode,
@@ -15,6 +15,7 @@ import java.util.Date;
 import java.util.Locale;
 
 import tn.esprit.data.appointment.AppointmentRepository;
+import tn.esprit.data.remote.http.RequestScope;
 import tn.esprit.domain.appointment.Appointment;
 import tn.esprit.domain.appointment.AppointmentCreateRequest;
 import tn.esprit.domain.appointment.WeeklyCalendarResponse;
@@ -22,6 +23,7 @@ import tn.esprit.domain.appointment.WeeklyCalendarResponse;
 public class BookAppointmentViewModel extends AndroidViewModel {
 
     private final AppointmentRepository repository;
+    private final RequestScope requests = new RequestScope();
 
     private final MutableLiveData<Boolean> loadingCalendar = new MutableLiveData<>(false);
     private final MutableLiveData<WeeklyCalendarResponse> calendar = new MutableLiveData<>();
@@ -56,7 +58,7 @@ public class BookAppointmentViewModel extends AndroidViewModel {
 
     public void loadWeeklyCalendar(long doctorId, @Nullable String weekStartIso) {
         loadingCalendar.setValue(true);
-        repository.getDoctorWeeklyCalendar(doctorId, weekStartIso,
+        requests.track(repository.getDoctorWeeklyCalendar(doctorId, weekStartIso,
                 new AppointmentRepository.WeeklyCalendarCallback() {
                     @Override
                     public void onSuccess(@NonNull WeeklyCalendarResponse calendarResponse) {
@@ -71,7 +73,7 @@ public class BookAppointmentViewModel extends AndroidViewModel {
                         loadingCalendar.postValue(false);
                         errorMessage.postValue(errorBody != null ? errorBody : "error_calendar");
                     }
-                });
+                }));
     }
 
     /**
@@ -104,6 +106,12 @@ public class BookAppointmentViewModel extends AndroidViewModel {
                 bookingSuccess.postValue(appointment);
             }
 
+            @Override
+            public void onQueued() {
+                // Stored offline and listed as pending; bookingSuccess follows once it is sent
+                bookingInProgress.postValue(false);
+            }
+
             @Override
             public void onError(@Nullable Throwable throwable,
                                 @Nullable Integer httpCode,
@@ -129,4 +137,10 @@ public class BookAppointmentViewModel extends AndroidViewModel {
             return startIso;
         }
     }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        requests.cancelAll();
+    }
 }
@@ -11,6 +11,7 @@ import java.util.Collections;
 import java.util.List;
 
 import tn.esprit.data.appointment.DoctorScheduleRepository;
+import tn.esprit.data.remote.http.RequestScope;
 import tn.esprit.domain.appointment.DoctorSchedule;
 
 /**
@@ -29,6 +30,7 @@ public class DoctorOfficeViewModel extends ViewModel {
     };
 
     private final DoctorScheduleRepository repository;
+    private final RequestScope requests = new RequestScope();
 
     private final MutableLiveData<DoctorScheduleUiState> uiState =
             new MutableLiveData<>(DoctorScheduleUiState.createInitial());
@@ -61,7 +63,7 @@ public class DoctorOfficeViewModel extends ViewModel {
                 Collections.emptyList()
         ));
 
-        repository.getMySchedule(new DoctorScheduleRepository.LoadScheduleCallback() {
+        requests.track(repository.getMySchedule(new DoctorScheduleRepository.LoadScheduleCallback() {
             @Override
             public void onSuccess(List<DoctorSchedule> schedule) {
                 currentSchedule = (schedule != null)
@@ -78,7 +80,7 @@ public class DoctorOfficeViewModel extends ViewModel {
                 uiState.setValue(DoctorScheduleUiState.createInitial());
                 loadErrorEvents.setValue(Boolean.TRUE);
             }
-        });
+        }));
     }
 
     // Will be used later when implementing editing
@@ -182,4 +184,10 @@ public class DoctorOfficeViewModel extends ViewModel {
             throw new IllegalArgumentException("Unknown ViewModel class: " + modelClass.getName());
         }
     }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        requests.cancelAll();
+    }
 }
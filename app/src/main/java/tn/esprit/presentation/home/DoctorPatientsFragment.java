@@ -19,6 +19,7 @@ import java.util.List;
 
 import tn.esprit.R;
 import tn.esprit.data.doctor.DoctorPatientsRepository;
+import tn.esprit.data.remote.http.RequestScope;
 import tn.esprit.domain.patient.PatientProfile;
 
 /**
@@ -38,6 +39,7 @@ public class DoctorPatientsFragment extends Fragment {
 
     private DoctorPatientsAdapter adapter;
     private DoctorPatientsRepository repository;
+    private final RequestScope requests = new RequestScope();
 
     @Nullable
     @Override
@@ -65,11 +67,17 @@ public class DoctorPatientsFragment extends Fragment {
         loadPatients();
     }
 
+    @Override
+    public void onDestroyView() {
+        requests.cancelAll();
+        super.onDestroyView();
+    }
+
     private void loadPatients() {
         showLoading(true);
         showEmpty(false);
 
-        repository.getMyPatients(new DoctorPatientsRepository.LoadPatientsCallback() {
+        requests.track(repository.getMyPatients(new DoctorPatientsRepository.LoadPatientsCallback() {
             @Override
             public void onSuccess(List<PatientProfile> patients) {
                 if (!isAdded()) return;
@@ -96,7 +104,7 @@ public class DoctorPatientsFragment extends Fragment {
                 emptyView.setText(R.string.doctor_patients_error_generic);
                 showEmpty(true);
             }
-        });
+        }));
     }
 
     private void onPatientClicked(@NonNull PatientProfile patient) {
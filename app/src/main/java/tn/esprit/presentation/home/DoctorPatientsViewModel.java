@@ -12,6 +12,7 @@ import java.util.List;
 
 import tn.esprit.R;
 import tn.esprit.data.doctor.DoctorPatientsRepository;
+import tn.esprit.data.remote.http.RequestScope;
 import tn.esprit.domain.patient.PatientProfile;
 
 /**
@@ -25,6 +26,7 @@ import tn.esprit.domain.patient.PatientProfile;
 public class DoctorPatientsViewModel extends AndroidViewModel {
 
     private final DoctorPatientsRepository repository;
+    private final RequestScope requests = new RequestScope();
 
     private final MutableLiveData<List<PatientProfile>> patients =
             new MutableLiveData<>(new ArrayList<>());
@@ -56,7 +58,7 @@ public class DoctorPatientsViewModel extends AndroidViewModel {
         loading.setValue(true);
         errorMessage.setValue(null);
 
-        repository.getMyPatients(new DoctorPatientsRepository.LoadPatientsCallback() {
+        requests.track(repository.getMyPatients(new DoctorPatientsRepository.LoadPatientsCallback() {
             @Override
             public void onSuccess(List<PatientProfile> list) {
                 loading.postValue(false);
@@ -78,6 +80,12 @@ public class DoctorPatientsViewModel extends AndroidViewModel {
 
                 errorMessage.postValue(msg);
             }
-        });
+        }));
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        requests.cancelAll();
     }
 }
@@ -26,6 +26,7 @@ import java.util.List;
 
 import tn.esprit.R;
 import tn.esprit.data.doctor.DoctorDirectoryRepository;
+import tn.esprit.data.remote.http.RequestScope;
 import tn.esprit.domain.doctor.DoctorPublicProfile;
 
 /**
@@ -43,6 +44,7 @@ public class DoctorPublicProfileFragment extends Fragment {
     private static final String ARG_DOCTOR_ID = "doctorId";
 
     private DoctorDirectoryRepository doctorDirectoryRepository;
+    private final RequestScope requests = new RequestScope();
 
     @Nullable
     private DoctorPublicProfile currentProfile;
@@ -142,13 +144,19 @@ public class DoctorPublicProfileFragment extends Fragment {
         loadDoctorProfile(doctorId);
     }
 
+    @Override
+    public void onDestroyView() {
+        requests.cancelAll();
+        super.onDestroyView();
+    }
+
     private void loadDoctorProfile(long doctorId) {
         showLoading(true);
         showError(null, false);
         showContent(false);
         currentProfile = null;
 
-        doctorDirectoryRepository.getDoctorPublicProfile(doctorId,
+        requests.track(doctorDirectoryRepository.getDoctorPublicProfile(doctorId,
                 new DoctorDirectoryRepository.PublicProfileCallback() {
                     @Override
                     public void onSuccess(DoctorPublicProfile profile) {
@@ -177,7 +185,7 @@ public class DoctorPublicProfileFragment extends Fragment {
 
                         showError(msg, true);
                     }
-                });
+                }));
     }
 
     private void bindProfile(@NonNull DoctorPublicProfile profile) {
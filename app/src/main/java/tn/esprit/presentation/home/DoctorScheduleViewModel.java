@@ -14,6 +14,7 @@ import java.util.List;
 
 import tn.esprit.R;
 import tn.esprit.data.appointment.DoctorScheduleRepository;
+import tn.esprit.data.remote.http.RequestScope;
 import tn.esprit.domain.appointment.DoctorSchedule;
 
 /**
@@ -28,6 +29,7 @@ import tn.esprit.domain.appointment.DoctorSchedule;
 public class DoctorScheduleViewModel extends AndroidViewModel {
 
     private final DoctorScheduleRepository repository;
+    private final RequestScope requests = new RequestScope();
 
     private final MutableLiveData<DoctorScheduleUiState> uiState =
             new MutableLiveData<>(DoctorScheduleUiState.createInitial());
@@ -135,7 +137,7 @@ public class DoctorScheduleViewModel extends AndroidViewModel {
                 current.getDays()
         ));
 
-        repository.getMySchedule(new DoctorScheduleRepository.LoadScheduleCallback() {
+        requests.track(repository.getMySchedule(new DoctorScheduleRepository.LoadScheduleCallback() {
             @Override
             public void onSuccess(List<DoctorSchedule> schedule) {
                 lastLoadedSchedule = schedule != null
@@ -162,7 +164,7 @@ public class DoctorScheduleViewModel extends AndroidViewModel {
                         prev.getDays()
                 ));
             }
-        });
+        }));
     }
 
     private DoctorScheduleUiState buildStateFromSchedule(List<DoctorSchedule> schedule) {
@@ -229,4 +231,10 @@ public class DoctorScheduleViewModel extends AndroidViewModel {
 
         return new DoctorScheduleUiState.DayScheduleSummary(dayCode, summary, anyActive);
     }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        requests.cancelAll();
+    }
 }
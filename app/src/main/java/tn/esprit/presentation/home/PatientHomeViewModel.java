@@ -12,6 +12,8 @@ import java.util.List;
 
 import tn.esprit.R;
 import tn.esprit.data.doctor.DoctorDirectoryRepository;
+import tn.esprit.data.remote.http.RequestHandle;
+import tn.esprit.data.remote.http.RequestScope;
 import tn.esprit.domain.doctor.DoctorSearchFilters;
 import tn.esprit.domain.doctor.DoctorSearchResult;
 
@@ -22,6 +24,7 @@ public class PatientHomeViewModel extends AndroidViewModel {
     private static final int MIN_QUERY_LENGTH = 2;
 
     private final DoctorDirectoryRepository doctorDirectoryRepository;
+    private final RequestScope requests = new RequestScope();
 
     private final MutableLiveData<String> query = new MutableLiveData<>("");
     private final MutableLiveData<List<DoctorSearchResult>> results = new MutableLiveData<>(new ArrayList<>());
@@ -31,6 +34,8 @@ public class PatientHomeViewModel extends AndroidViewModel {
 
     // Remember last query we actually sent to backend
     private String lastExecutedQuery = null;
+    // In-flight search; superseded by the next query
+    private RequestHandle pendingSearch = RequestHandle.NONE;
 
     public PatientHomeViewModel(@NonNull Application application) {
         super(application);
@@ -75,6 +80,7 @@ public class PatientHomeViewModel extends AndroidViewModel {
             results.setValue(new ArrayList<>());
             hasSearched.setValue(false);
             lastExecutedQuery = null;
+            pendingSearch.cancel();
             return;
         }
 
@@ -89,7 +95,8 @@ public class PatientHomeViewModel extends AndroidViewModel {
 
         DoctorSearchFilters filters = DoctorSearchFilters.fromQuery(trimmed);
 
-        doctorDirectoryRepository.searchDoctors(filters, new DoctorDirectoryRepository.SearchCallback() {
+        pendingSearch.cancel();
+        pendingSearch = requests.track(doctorDirectoryRepository.searchDoctors(filters, new DoctorDirectoryRepository.SearchCallback() {
             @Override
             public void onSuccess(List<DoctorSearchResult> searchResults) {
                 loading.postValue(false);
@@ -140,7 +147,7 @@ public class PatientHomeViewModel extends AndroidViewModel {
 
                 errorMessage.postValue(msg);
             }
-        });
+        }));
     }
 
     /**
@@ -154,4 +161,10 @@ public class PatientHomeViewModel extends AndroidViewModel {
         hasSearched.setValue(false);
         lastExecutedQuery = null;
     }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        requests.cancelAll();
+    }
 }
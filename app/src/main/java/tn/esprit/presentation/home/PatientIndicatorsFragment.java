@@ -27,10 +27,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 import tn.esprit.R;
-import tn.esprit.data.auth.AuthLocalDataSource;
 import tn.esprit.data.indicator.PatientIndicatorRepository;
+import tn.esprit.data.remote.http.RequestScope;
 import tn.esprit.data.remote.indicator.IndicatorApiService.PatientIndicatorCreateRequestDto;
-import tn.esprit.domain.auth.AuthTokens;
 import tn.esprit.domain.indicator.IndicatorType;
 import tn.esprit.domain.indicator.PatientIndicator;
 import tn.esprit.presentation.indicator.PatientIndicatorAdapter;
@@ -54,7 +53,7 @@ public class PatientIndicatorsFragment extends Fragment {
 
     private PatientIndicatorAdapter indicatorAdapter;
     private PatientIndicatorRepository indicatorRepository;
-    private AuthLocalDataSource authLocalDataSource;
+    private final RequestScope requests = new RequestScope();
 
     private final List<IndicatorType> indicatorTypes = new ArrayList<>();
     private boolean typesLoaded = false;
@@ -81,7 +80,6 @@ public class PatientIndicatorsFragment extends Fragment {
         buttonAddIndicator = view.findViewById(R.id.button_add_indicator);
 
         indicatorRepository = new PatientIndicatorRepository(requireContext());
-        authLocalDataSource = new AuthLocalDataSource(requireContext().getApplicationContext());
 
         indicatorAdapter = new PatientIndicatorAdapter();
         recyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
@@ -96,6 +94,12 @@ public class PatientIndicatorsFragment extends Fragment {
         loadIndicators();
     }
 
+    @Override
+    public void onDestroyView() {
+        requests.cancelAll();
+        super.onDestroyView();
+    }
+
     // ---------------------------------------------------------------------
     // Types spinner
     // ---------------------------------------------------------------------
@@ -175,7 +179,7 @@ public class PatientIndicatorsFragment extends Fragment {
     }
 
     private void loadIndicatorTypes() {
-        indicatorRepository.getIndicatorTypes(new PatientIndicatorRepository.IndicatorTypesCallback() {
+        requests.track(indicatorRepository.getIndicatorTypes(new PatientIndicatorRepository.IndicatorTypesCallback() {
             @Override
             public void onSuccess(List<IndicatorType> types) {
                 if (!isAdded()) return;
@@ -194,7 +198,7 @@ public class PatientIndicatorsFragment extends Fragment {
                         Toast.LENGTH_SHORT
                 ).show();
             }
-        });
+        }));
     }
 
     // ---------------------------------------------------------------------
@@ -202,12 +206,10 @@ public class PatientIndicatorsFragment extends Fragment {
     // ---------------------------------------------------------------------
 
     private void loadIndicators() {
-        String authHeader = buildAuthHeaderIfAvailable();
         showLoading(true);
         showEmpty(false);
 
-        indicatorRepository.getMyIndicators(
-                authHeader,
+        requests.track(indicatorRepository.getMyIndicators(
                 selectedIndicatorTypeId,
                 null,
                 null,
@@ -237,7 +239,7 @@ public class PatientIndicatorsFragment extends Fragment {
                         showEmpty(true);
                     }
                 }
-        );
+        ));
     }
 
     private void showLoading(boolean loading) {
@@ -376,10 +378,7 @@ public class PatientIndicatorsFragment extends Fragment {
                 request.setMeasuredAt(null); // let backend use now()
                 request.setNote(note);
 
-                String authHeader = buildAuthHeaderIfAvailable();
-
                 indicatorRepository.addMyIndicator(
-                        authHeader,
                         request,
                         new PatientIndicatorRepository.AddIndicatorCallback() {
                             @Override
@@ -397,6 +396,19 @@ public class PatientIndicatorsFragment extends Fragment {
                                 loadIndicators();
                             }
 
+                            @Override
+                            public void onQueued() {
+                                if (!isAdded()) return;
+
+                                Toast.makeText(
+                                        requireContext(),
+                                        getString(R.string.patient_indicators_add_queued),
+                                        Toast.LENGTH_LONG
+                                ).show();
+
+                                dialog.dismiss();
+                            }
+
                             @Override
                             public void onError(@Nullable Throwable throwable,
                                                 @Nullable Integer httpCode,
@@ -422,17 +434,4 @@ public class PatientIndicatorsFragment extends Fragment {
         if (position < 0 || position >= indicatorTypes.size()) return null;
         return indicatorTypes.get(position);
     }
-
-    // ---------------------------------------------------------------------
-    // Auth header helper
-    // ---------------------------------------------------------------------
-
-    @Nullable
-    private String buildAuthHeaderIfAvailable() {
-        AuthTokens tokens = authLocalDataSource.getTokens();
-        if (tokens == null || tokens.getAccessToken() == null) {
-            return null;
-        }
-        return "Bearer " + tokens.getAccessToken();
-    }
 }
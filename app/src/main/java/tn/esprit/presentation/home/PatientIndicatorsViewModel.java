@@ -12,10 +12,9 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
-import tn.esprit.data.auth.AuthLocalDataSource;
 import tn.esprit.data.indicator.PatientIndicatorRepository;
+import tn.esprit.data.remote.http.RequestScope;
 import tn.esprit.data.remote.indicator.IndicatorApiService.PatientIndicatorCreateRequestDto;
-import tn.esprit.domain.auth.AuthTokens;
 import tn.esprit.domain.indicator.IndicatorType;
 import tn.esprit.domain.indicator.PatientIndicator;
 
@@ -30,7 +29,7 @@ import tn.esprit.domain.indicator.PatientIndicator;
 public class PatientIndicatorsViewModel extends AndroidViewModel {
 
     private final PatientIndicatorRepository patientIndicatorRepository;
-    private final AuthLocalDataSource authLocalDataSource;
+    private final RequestScope requests = new RequestScope();
 
     private final MutableLiveData<List<PatientIndicator>> indicators =
             new MutableLiveData<>(new ArrayList<>());
@@ -56,8 +55,6 @@ public class PatientIndicatorsViewModel extends AndroidViewModel {
         super(application);
         patientIndicatorRepository =
                 new PatientIndicatorRepository(application.getApplicationContext());
-        authLocalDataSource =
-                new AuthLocalDataSource(application.getApplicationContext());
     }
 
     public LiveData<List<PatientIndicator>> getIndicators() {
@@ -92,7 +89,7 @@ public class PatientIndicatorsViewModel extends AndroidViewModel {
      * Load all indicator types from backend (blood pressure, heart rate, etc.).
      */
     public void loadIndicatorTypes() {
-        patientIndicatorRepository.getIndicatorTypes(new PatientIndicatorRepository.IndicatorTypesCallback() {
+        requests.track(patientIndicatorRepository.getIndicatorTypes(new PatientIndicatorRepository.IndicatorTypesCallback() {
             @Override
             public void onSuccess(List<IndicatorType> types) {
                 if (types == null) {
@@ -124,7 +121,7 @@ public class PatientIndicatorsViewModel extends AndroidViewModel {
                 }
                 errorMessage.postValue(msg);
             }
-        });
+        }));
     }
 
     /**
@@ -143,6 +140,14 @@ public class PatientIndicatorsViewModel extends AndroidViewModel {
         loadIndicatorsInternal(indicatorTypeId);
     }
 
+    /**
+     * User-triggered refresh: reloads the current filter from the backend even if the
+     * local series still covers it (measurements may have been added elsewhere).
+     */
+    public void refreshIndicators() {
+        loadIndicatorsInternal(lastIndicatorTypeIdFilter, true);
+    }
+
     /**
      * Explicitly report an error from UI, if ever needed.
      */
@@ -175,10 +180,7 @@ public class PatientIndicatorsViewModel extends AndroidViewModel {
         dto.setMeasuredAt(null);
         dto.setNote(note);
 
-        String authorizationHeader = buildAuthorizationHeader();
-
         patientIndicatorRepository.addMyIndicator(
-                authorizationHeader,
                 dto,
                 new PatientIndicatorRepository.AddIndicatorCallback() {
                     @Override
@@ -188,11 +190,19 @@ public class PatientIndicatorsViewModel extends AndroidViewModel {
                         lastAddSuccess.postValue(true);
                     }
 
+                    @Override
+                    public void onQueued() {
+                        // Stored offline: the list already shows it, pending
+                        loadIndicatorsInternal(lastIndicatorTypeIdFilter);
+                        errorMessage.postValue("Offline: the indicator will be saved when the connection is back.");
+                    }
+
                     @Override
                     public void onError(@Nullable Throwable throwable,
                                         @Nullable Integer httpCode,
                                         @Nullable String errorBody) {
-                        loading.postValue(false);
+                        // Drops the pending one if it had been queued
+                        loadIndicatorsInternal(lastIndicatorTypeIdFilter);
                         lastAddSuccess.postValue(false);
 
                         String msg = null;
@@ -228,10 +238,7 @@ public class PatientIndicatorsViewModel extends AndroidViewModel {
         loading.setValue(true);
         errorMessage.setValue(null);
 
-        String authorizationHeader = buildAuthorizationHeader();
-
         patientIndicatorRepository.deleteMyIndicator(
-                authorizationHeader,
                 indicatorId,
                 new PatientIndicatorRepository.DeleteIndicatorCallback() {
                     @Override
@@ -277,17 +284,20 @@ public class PatientIndicatorsViewModel extends AndroidViewModel {
     // ---------------------------------------------------------------------
 
     private void loadIndicatorsInternal(@Nullable Long indicatorTypeId) {
+        loadIndicatorsInternal(indicatorTypeId, false);
+    }
+
+    private void loadIndicatorsInternal(@Nullable Long indicatorTypeId, boolean refresh) {
         loading.setValue(true);
         errorMessage.setValue(null);
         lastIndicatorTypeIdFilter = indicatorTypeId;
 
-        String authorizationHeader = buildAuthorizationHeader();
-
-        patientIndicatorRepository.getMyIndicators(
-                authorizationHeader,
+        // Filter changes and reloads after add / delete are answered from the local series
+        requests.track(patientIndicatorRepository.loadMyIndicators(
                 indicatorTypeId,
                 null,   // fromIso
                 null,   // toIso
+                refresh,
                 new PatientIndicatorRepository.IndicatorsCallback() {
                     @Override
                     public void onSuccess(List<PatientIndicator> list) {
@@ -328,30 +338,12 @@ public class PatientIndicatorsViewModel extends AndroidViewModel {
                         errorMessage.postValue(msg);
                     }
                 }
-        );
+        ));
     }
 
-    /**
-     * Builds Authorization header using locally stored tokens.
-     * Returns something like "Bearer <accessToken>", or null if not available.
-     */
-    @Nullable
-    private String buildAuthorizationHeader() {
-        AuthTokens tokens = authLocalDataSource.getTokens();
-        if (tokens == null) {
-            return null;
-        }
-
-        String accessToken = tokens.getAccessToken();
-        if (accessToken == null || accessToken.trim().isEmpty()) {
-            return null;
-        }
-
-        String type = tokens.getTokenType();
-        if (type == null || type.trim().isEmpty()) {
-            type = "Bearer";
-        }
-
-        return type + " " + accessToken;
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        requests.cancelAll();
     }
 }
@@ -6,7 +6,6 @@ import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
 import android.widget.AutoCompleteTextView;
 import android.widget.Button;
 import android.widget.EditText;
@@ -30,18 +29,16 @@ import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 
 import tn.esprit.R;
-import tn.esprit.data.auth.AuthLocalDataSource;
 import tn.esprit.data.doctor.DoctorPatientsRepository;
 import tn.esprit.data.indicator.PatientIndicatorRepository;
-import tn.esprit.data.medication.MedicationRepository;
+import tn.esprit.data.medication.MedicationCatalogStore;
 import tn.esprit.data.medication.PrescriptionRepository;
-import tn.esprit.domain.auth.AuthTokens;
+import tn.esprit.data.remote.http.RequestScope;
 import tn.esprit.domain.indicator.PatientIndicator;
 import tn.esprit.domain.medication.Medication;
 import tn.esprit.domain.medication.Prescription;
@@ -50,6 +47,7 @@ import tn.esprit.domain.medication.PrescriptionLine;
 import tn.esprit.domain.medication.PrescriptionLineCreateRequest;
 import tn.esprit.domain.patient.PatientProfile;
 import tn.esprit.presentation.indicator.PatientIndicatorAdapter;
+import tn.esprit.presentation.medication.MedicationAutoCompleteAdapter;
 
 /**
  * Doctor view: public-ish profile of a patient.
@@ -91,12 +89,9 @@ public class PatientPublicProfileFragment extends Fragment {
     private DoctorPatientsRepository doctorPatientsRepository;
     private PatientIndicatorRepository indicatorRepository;
     private PrescriptionRepository prescriptionRepository;
-    private MedicationRepository medicationRepository;
-    private AuthLocalDataSource authLocalDataSource;
-
-    // Cached medication catalog for doctor create flow
-    @Nullable
-    private List<Medication> medicationCatalog = null;
+    // Local, indexed medication catalog for the doctor create flow
+    private MedicationCatalogStore medicationCatalog;
+    private final RequestScope requests = new RequestScope();
 
     private long patientUserId = -1L;
 
@@ -144,8 +139,7 @@ public class PatientPublicProfileFragment extends Fragment {
         doctorPatientsRepository = new DoctorPatientsRepository(requireContext());
         indicatorRepository = new PatientIndicatorRepository(requireContext());
         prescriptionRepository = new PrescriptionRepository(requireContext());
-        medicationRepository = new MedicationRepository(requireContext());
-        authLocalDataSource = new AuthLocalDataSource(requireContext().getApplicationContext());
+        medicationCatalog = MedicationCatalogStore.getInstance(requireContext());
 
         if (textMedicationsAdd != null) {
             textMedicationsAdd.setOnClickListener(v -> onAddMedicationClicked());
@@ -163,6 +157,12 @@ public class PatientPublicProfileFragment extends Fragment {
         loadPatientProfile(patientUserId);
     }
 
+    @Override
+    public void onDestroyView() {
+        requests.cancelAll();
+        super.onDestroyView();
+    }
+
     // ---------------------------------------------------------------------
     // Arg handling
     // ---------------------------------------------------------------------
@@ -190,7 +190,7 @@ public class PatientPublicProfileFragment extends Fragment {
     // ---------------------------------------------------------------------
 
     private void loadPatientProfile(long patientUserId) {
-        doctorPatientsRepository.getMyPatient(patientUserId,
+        requests.track(doctorPatientsRepository.getMyPatient(patientUserId,
                 new DoctorPatientsRepository.LoadPatientCallback() {
                     @Override
                     public void onSuccess(PatientProfile patient) {
@@ -220,7 +220,7 @@ public class PatientPublicProfileFragment extends Fragment {
                         // Still show empty UI with placeholder info
                         bindPatientInfo(null);
                     }
-                });
+                }));
     }
 
     private void bindPatientInfo(@Nullable PatientProfile patient) {
@@ -315,15 +315,14 @@ public class PatientPublicProfileFragment extends Fragment {
     // ---------------------------------------------------------------------
 
     private void loadIndicatorsForPatient(long patientUserId) {
-        String authHeader = buildAuthHeaderIfAvailable();
-
-        // Doctor read-only endpoint: GET /indicators/patient/{patientUserId}
-        indicatorRepository.getIndicatorsForPatientAsDoctor(
-                authHeader,
+        // Doctor read-only endpoint: GET /indicators/patient/{patientUserId}, kept in the
+        // local series so reopening this patient within a few minutes needs no request
+        requests.track(indicatorRepository.loadIndicatorsForPatient(
                 patientUserId,
                 null,   // no type filter
                 null,   // no from
                 null,   // no to
+                false,  // the local series is fine when opened again
                 new PatientIndicatorRepository.IndicatorsCallback() {
                     @Override
                     public void onSuccess(List<PatientIndicator> indicators) {
@@ -348,7 +347,7 @@ public class PatientPublicProfileFragment extends Fragment {
                         textIndicatorsEmpty.setVisibility(View.VISIBLE);
                     }
                 }
-        );
+        ));
     }
 
     // ---------------------------------------------------------------------
@@ -357,7 +356,7 @@ public class PatientPublicProfileFragment extends Fragment {
 
     private void loadMedicationsForPatient(long patientUserId) {
         // Doctor endpoint: GET /api/doctors/me/patients/{patientUserId}/prescriptions?activeOnly=true
-        prescriptionRepository.getPrescriptionsForPatientAsDoctor(
+        requests.track(prescriptionRepository.getPrescriptionsForPatientAsDoctor(
                 patientUserId,
                 true,
                 new PrescriptionRepository.PrescriptionsCallback() {
@@ -388,7 +387,7 @@ public class PatientPublicProfileFragment extends Fragment {
                         );
                     }
                 }
-        );
+        ));
     }
 
     private void showDeletePrescriptionConfirmation(@NonNull Prescription prescription) {
@@ -444,28 +443,14 @@ public class PatientPublicProfileFragment extends Fragment {
     // ---------------------------------------------------------------------
 
     private void loadMedicationCatalog() {
-        medicationRepository.getMedications(
-                null,
-                new MedicationRepository.MedicationsCallback() {
-                    @Override
-                    public void onSuccess(List<Medication> medications) {
-                        medicationCatalog = medications;
-                    }
-
-                    @Override
-                    public void onError(@Nullable Throwable throwable,
-                                        @Nullable Integer httpCode,
-                                        @Nullable String errorBody) {
-                        medicationCatalog = null;
-                    }
-                }
-        );
+        // Stored catalog + background refresh when stale; nothing to wait for here
+        medicationCatalog.ensureFresh();
     }
 
     private void onAddMedicationClicked() {
         if (!isAdded()) return;
 
-        if (medicationCatalog == null || medicationCatalog.isEmpty()) {
+        if (medicationCatalog.isEmpty()) {
             Toast.makeText(
                     requireContext(),
                     getString(R.string.patient_medication_add_error_catalog),
@@ -497,21 +482,9 @@ public class PatientPublicProfileFragment extends Fragment {
         setupDatePicker(inputStartDate);
         setupDatePicker(inputEndDate);
 
-        // Prepare medication names adapter for auto-complete
-        final List<Medication> meds =
-                medicationCatalog != null ? medicationCatalog : Collections.emptyList();
-
-        List<String> medNames = new ArrayList<>();
-        for (Medication med : meds) {
-            if (med == null) continue;
-            medNames.add(med.getDisplayName());
-        }
-
-        ArrayAdapter<String> medsAdapter = new ArrayAdapter<>(
-                requireContext(),
-                android.R.layout.simple_dropdown_item_1line,
-                medNames
-        );
+        // Auto-complete backed by the catalog index (ranked, bounded suggestions)
+        MedicationAutoCompleteAdapter medsAdapter =
+                new MedicationAutoCompleteAdapter(requireContext(), medicationCatalog);
 
         // Keep references to all line views
         List<MedicationLineViews> lineViews = new ArrayList<>();
@@ -614,7 +587,7 @@ public class PatientPublicProfileFragment extends Fragment {
                     }
 
                     // Find medication by name
-                    Long medicationId = findMedicationIdByDisplayName(meds, medNameInput);
+                    Long medicationId = findMedicationIdByDisplayName(medNameInput);
                     if (medicationId == null) {
                         Toast.makeText(
                                 requireContext(),
@@ -712,7 +685,7 @@ public class PatientPublicProfileFragment extends Fragment {
 
     private void addMedicationLineView(@NonNull LayoutInflater inflater,
                                        @NonNull LinearLayout container,
-                                       @NonNull ArrayAdapter<String> medsAdapter,
+                                       @NonNull MedicationAutoCompleteAdapter medsAdapter,
                                        @NonNull List<MedicationLineViews> lineViews) {
         View lineView = inflater.inflate(R.layout.item_dialog_prescription_line, container, false);
 
@@ -741,16 +714,9 @@ public class PatientPublicProfileFragment extends Fragment {
     }
 
     @Nullable
-    private Long findMedicationIdByDisplayName(@NonNull List<Medication> meds,
-                                               @NonNull String displayName) {
-        for (Medication med : meds) {
-            if (med == null) continue;
-            String name = med.getDisplayName();
-            if (name.equals(displayName)) {
-                return med.getId();
-            }
-        }
-        return null;
+    private Long findMedicationIdByDisplayName(@NonNull String displayName) {
+        Medication med = medicationCatalog.findByDisplayName(displayName);
+        return med != null ? med.getId() : null;
     }
 
     private String trimToEmpty(@Nullable String value) {
@@ -825,19 +791,6 @@ public class PatientPublicProfileFragment extends Fragment {
         }
     }
 
-    // ---------------------------------------------------------------------
-    // Auth header helper
-    // ---------------------------------------------------------------------
-
-    @Nullable
-    private String buildAuthHeaderIfAvailable() {
-        AuthTokens tokens = authLocalDataSource.getTokens();
-        if (tokens == null || tokens.getAccessToken() == null) {
-            return null;
-        }
-        return "Bearer " + tokens.getAccessToken();
-    }
-
     // ---------------------------------------------------------------------
     // Helper holder for medication line views
     // ---------------------------------------------------------------------
@@ -16,28 +16,31 @@ import java.util.ArrayList;
 import java.util.List;
 
 import tn.esprit.R;
+import tn.esprit.data.medication.MedicationCatalogStore;
 import tn.esprit.domain.medication.Medication;
 
 /**
  * Auto-complete adapter for medication search.
  *
- * - Filters on Medication.getDisplayName() (name or code).
+ * - Looks up name and code in the local {@link MedicationCatalogStore} index
+ *   (prefix matches first, then infix), at most {@link #MAX_SUGGESTIONS} rows.
  * - Shows name and, if available, code in the dropdown row.
  */
 public class MedicationAutoCompleteAdapter
         extends ArrayAdapter<Medication>
         implements Filterable {
 
-    private final List<Medication> allItems;
-    private final List<Medication> filteredItems;
+    private static final int MAX_SUGGESTIONS = 20;
+
+    private final MedicationCatalogStore catalog;
+    private final List<Medication> filteredItems = new ArrayList<>();
 
     public MedicationAutoCompleteAdapter(
             @NonNull Context context,
-            @NonNull List<Medication> items
+            @NonNull MedicationCatalogStore catalog
     ) {
-        super(context, 0, new ArrayList<>(items));
-        this.allItems = new ArrayList<>(items);
-        this.filteredItems = new ArrayList<>(items);
+        super(context, 0, new ArrayList<>());
+        this.catalog = catalog;
     }
 
     @Override
@@ -111,20 +114,11 @@ public class MedicationAutoCompleteAdapter
     private final Filter medicationFilter = new Filter() {
         @Override
         protected FilterResults performFiltering(CharSequence constraint) {
-            List<Medication> suggestions = new ArrayList<>();
-
-            if (constraint == null || constraint.length() == 0) {
-                suggestions.addAll(allItems);
-            } else {
-                String pattern = constraint.toString().toLowerCase().trim();
-                for (Medication med : allItems) {
-                    if (med == null) continue;
-                    String name = med.getDisplayName().toLowerCase();
-                    if (name.contains(pattern)) {
-                        suggestions.add(med);
-                    }
-                }
-            }
+            // Worker thread: the catalog index answers in memory
+            List<Medication> suggestions = catalog.search(
+                    constraint != null ? constraint.toString() : null,
+                    MAX_SUGGESTIONS
+            );
 
             FilterResults results = new FilterResults();
             results.values = suggestions;
@@ -8,7 +8,8 @@ import androidx.annotation.NonNull;
 
 /**
  * Receives BOOT_COMPLETED and re-schedules all medication reminders
- * from SharedPreferences.
+ * from the reminder store, on a background thread (goAsync) so the
+ * database read never blocks the receiver's main thread.
  */
 public class MedicationBootReceiver extends BroadcastReceiver {
 
@@ -19,7 +20,15 @@ public class MedicationBootReceiver extends BroadcastReceiver {
         String action = intent.getAction();
         if (Intent.ACTION_BOOT_COMPLETED.equals(action)) {
             // Re-schedule all reminders we know about
-            MedicationReminderScheduler.rescheduleAllReminders(context);
+            Context appContext = context.getApplicationContext();
+            PendingResult pendingResult = goAsync();
+            new Thread(() -> {
+                try {
+                    MedicationReminderScheduler.rescheduleAllReminders(appContext);
+                } finally {
+                    pendingResult.finish();
+                }
+            }, "medication-boot").start();
         }
     }
 }
@@ -4,7 +4,6 @@ import android.app.AlarmManager;
 import android.app.PendingIntent;
 import android.content.Context;
 import android.content.Intent;
-import android.content.SharedPreferences;
 import android.os.Build;
 import android.text.TextUtils;
 
@@ -12,25 +11,21 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import java.util.Calendar;
+import java.util.List;
 import java.util.Locale;
-import java.util.Map;
+
+import tn.esprit.data.medication.MedicationReminderStore;
+import tn.esprit.data.medication.MedicationReminderStore.Reminder;
 
 /**
  * Helper class to schedule/cancel daily medication reminders for a given prescription line.
  *
- * All configuration is stored in SharedPreferences so that we can:
+ * All configuration is stored in {@link MedicationReminderStore} so that we can:
  *  - show the current time in the UI (adapter)
  *  - reschedule all alarms after reboot.
  */
 public final class MedicationReminderScheduler {
 
-    private static final String PREFS_NAME = "medication_reminders";
-
-    private static final String KEY_PREFIX_LINE = "line_";
-    private static final String KEY_SUFFIX_HOUR = "_hour";
-    private static final String KEY_SUFFIX_MINUTE = "_minute";
-    private static final String KEY_SUFFIX_NAME = "_name";
-
     private MedicationReminderScheduler() {
         // no instances
     }
@@ -41,7 +36,7 @@ public final class MedicationReminderScheduler {
 
     /**
      * Schedule a daily alarm for a prescription line at the given time.
-     * This also persists the config (time + medication name) in SharedPreferences.
+     * This also persists the config (time + medication name) in the reminder store.
      *
      * Uses an inexact repeating alarm so it works without SCHEDULE_EXACT_ALARM permission.
      */
@@ -57,8 +52,17 @@ public final class MedicationReminderScheduler {
         Context appCtx = context.getApplicationContext();
 
         // Persist config
-        saveReminderConfig(appCtx, lineId, medicationName, hourOfDay, minute);
+        MedicationReminderStore.getInstance(appCtx)
+                .put(new Reminder(lineId, hourOfDay, minute, medicationName));
 
+        scheduleAlarm(appCtx, lineId, medicationName, hourOfDay, minute);
+    }
+
+    private static void scheduleAlarm(@NonNull Context appCtx,
+                                      long lineId,
+                                      @NonNull String medicationName,
+                                      int hourOfDay,
+                                      int minute) {
         AlarmManager alarmManager =
                 (AlarmManager) appCtx.getSystemService(Context.ALARM_SERVICE);
         if (alarmManager == null) {
@@ -137,123 +141,51 @@ public final class MedicationReminderScheduler {
             }
         }
 
-        clearReminderConfig(appCtx, lineId);
+        MedicationReminderStore.getInstance(appCtx).remove(lineId);
     }
 
     /**
-     * Returns [hour, minute] for this line's reminder, or null if none stored.
+     * Returns [hour, minute] for this line's reminder, or null if none stored (or not
+     * loaded yet, see {@link MedicationReminderStore#whenLoaded}).
      */
     @Nullable
     public static int[] getReminderTime(@NonNull Context context,
                                         long lineId) {
-        Context appCtx = context.getApplicationContext();
-        SharedPreferences prefs =
-                appCtx.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-
-        String baseKey = KEY_PREFIX_LINE + lineId;
-        int hour = prefs.getInt(baseKey + KEY_SUFFIX_HOUR, -1);
-        int minute = prefs.getInt(baseKey + KEY_SUFFIX_MINUTE, -1);
-
-        if (hour < 0 || minute < 0) {
+        Reminder reminder = MedicationReminderStore.getInstance(context).get(lineId);
+        if (reminder == null) {
             return null;
         }
-        return new int[]{hour, minute};
+        return new int[]{reminder.hour, reminder.minute};
     }
 
     /**
-     * Called from BOOT_COMPLETED receiver to reschedule all known reminders
-     * after device reboot.
+     * Called from BOOT_COMPLETED receiver (off the main thread) to reschedule all known
+     * reminders after device reboot. Reads the store once; nothing is written back.
      */
     public static void rescheduleAllReminders(@NonNull Context context) {
         Context appCtx = context.getApplicationContext();
-        SharedPreferences prefs =
-                appCtx.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-
-        Map<String, ?> all = prefs.getAll();
-        if (all == null || all.isEmpty()) {
+        List<Reminder> all = MedicationReminderStore.getInstance(appCtx).getAll();
+        if (all.isEmpty()) {
             android.util.Log.d("MedScheduler", "rescheduleAllReminders: no stored reminders");
             return;
         }
 
         android.util.Log.d("MedScheduler", "rescheduleAllReminders: entries=" + all.size());
 
-        for (Map.Entry<String, ?> entry : all.entrySet()) {
-            String key = entry.getKey();
-            if (!key.startsWith(KEY_PREFIX_LINE) || !key.endsWith(KEY_SUFFIX_HOUR)) {
-                continue;
-            }
-
-            // Extract lineId from "line_<id>_hour"
-            String idPart = key.substring(
-                    KEY_PREFIX_LINE.length(),
-                    key.length() - KEY_SUFFIX_HOUR.length()
-            );
-            long lineId;
-            try {
-                lineId = Long.parseLong(idPart);
-            } catch (NumberFormatException e) {
+        for (Reminder reminder : all) {
+            if (TextUtils.isEmpty(reminder.medicationName)) {
                 continue;
             }
-
-            int hour = prefs.getInt(key, -1);
-            int minute = prefs.getInt(
-                    KEY_PREFIX_LINE + idPart + KEY_SUFFIX_MINUTE,
-                    -1
-            );
-            String medName = prefs.getString(
-                    KEY_PREFIX_LINE + idPart + KEY_SUFFIX_NAME,
-                    null
-            );
-
-            if (hour < 0 || minute < 0 || TextUtils.isEmpty(medName)) {
-                continue;
-            }
-
-            android.util.Log.d(
-                    "MedScheduler",
-                    "rescheduleAllReminders: lineId=" + lineId +
-                            " name=" + medName +
-                            " time=" + String.format(Locale.getDefault(), "%02d:%02d", hour, minute)
-            );
-
-            // Re-schedule alarm (repeating)
-            scheduleDailyReminder(appCtx, lineId, medName, hour, minute);
+            // Re-schedule alarm (repeating); the config is already stored
+            scheduleAlarm(appCtx, reminder.lineId, reminder.medicationName,
+                    reminder.hour, reminder.minute);
         }
     }
 
     // ---------------------------------------------------------------------
-    // Internal helpers for prefs + PendingIntent
+    // Internal helpers for PendingIntent
     // ---------------------------------------------------------------------
 
-    private static void saveReminderConfig(@NonNull Context context,
-                                           long lineId,
-                                           @NonNull String medicationName,
-                                           int hour,
-                                           int minute) {
-        SharedPreferences prefs =
-                context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-        String baseKey = KEY_PREFIX_LINE + lineId;
-
-        prefs.edit()
-                .putInt(baseKey + KEY_SUFFIX_HOUR, hour)
-                .putInt(baseKey + KEY_SUFFIX_MINUTE, minute)
-                .putString(baseKey + KEY_SUFFIX_NAME, medicationName)
-                .apply();
-    }
-
-    private static void clearReminderConfig(@NonNull Context context,
-                                            long lineId) {
-        SharedPreferences prefs =
-                context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-        String baseKey = KEY_PREFIX_LINE + lineId;
-
-        prefs.edit()
-                .remove(baseKey + KEY_SUFFIX_HOUR)
-                .remove(baseKey + KEY_SUFFIX_MINUTE)
-                .remove(baseKey + KEY_SUFFIX_NAME)
-                .apply();
-    }
-
     private static PendingIntent buildPendingIntent(@NonNull Context context,
                                                     long lineId,
                                                     @NonNull String medicationName) {
@@ -330,7 +330,7 @@ public class PatientMedicationAdapter
                 textDates.setText("");
             }
 
-            // Reminder time (from SharedPreferences, via scheduler)
+            // Reminder time (from the in-memory reminder store, via scheduler)
             if (textReminderTime != null) {
                 Long lineId = line.getId();
                 if (lineId != null) {
@@ -20,7 +20,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 import tn.esprit.R;
+import tn.esprit.data.medication.MedicationReminderStore;
 import tn.esprit.data.medication.PrescriptionRepository;
+import tn.esprit.data.remote.http.RequestScope;
 import tn.esprit.domain.medication.Prescription;
 import tn.esprit.domain.medication.PrescriptionLine;
 
@@ -39,6 +41,7 @@ public class PatientMedicationsFragment extends Fragment
     private RecyclerView recyclerView;
     private PatientMedicationAdapter adapter;
     private PrescriptionRepository prescriptionRepository;
+    private final RequestScope requests = new RequestScope();
 
     @Nullable
     @Override
@@ -62,6 +65,17 @@ public class PatientMedicationsFragment extends Fragment
         adapter = new PatientMedicationAdapter(this);
         recyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
         recyclerView.setAdapter(adapter);
+
+        // Reminder times are read from disk in the background: rebind once they are in memory
+        MedicationReminderStore.getInstance(requireContext()).whenLoaded(() -> {
+            if (isAdded() && adapter != null) adapter.notifyDataSetChanged();
+        });
+    }
+
+    @Override
+    public void onDestroyView() {
+        requests.cancelAll();
+        super.onDestroyView();
     }
 
     @Override
@@ -78,7 +92,7 @@ public class PatientMedicationsFragment extends Fragment
         showLoading(true);
 
         // Patient endpoint: GET /api/prescriptions/me?activeOnly=<null for ALL>
-        prescriptionRepository.getMyPrescriptions(
+        requests.track(prescriptionRepository.getMyPrescriptions(
                 null,   // <-- IMPORTANT: null = both active and past prescriptions
                 new PrescriptionRepository.PrescriptionsCallback() {
                     @Override
@@ -124,7 +138,7 @@ public class PatientMedicationsFragment extends Fragment
                         ).show();
                     }
                 }
-        );
+        ));
     }
 
     private void showLoading(boolean loading) {
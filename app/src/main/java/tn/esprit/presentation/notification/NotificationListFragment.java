@@ -26,12 +26,16 @@ import tn.esprit.domain.notification.NotificationItem;
  *
  * Responsibilities:
  *  - Shows list / empty state / loading
+ *  - Asks for older / newer pages as the list is scrolled near its ends
  *  - Uses activity-scoped NotificationsViewModel
  *  - Clicking a notification marks it as read and navigates
  *    to the appropriate appointments screen based on role.
  */
 public class NotificationListFragment extends Fragment {
 
+    // Load the next page this many rows before reaching an end of the list
+    private static final int PREFETCH_DISTANCE = 10;
+
     private NotificationsViewModel viewModel;
 
     private ProgressBar progressBar;
@@ -79,6 +83,20 @@ public class NotificationListFragment extends Fragment {
         if (recyclerView != null) {
             recyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
             recyclerView.setAdapter(adapter);
+            recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+                @Override
+                public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                    if (dy == 0 || viewModel == null) return;
+                    LinearLayoutManager lm = (LinearLayoutManager) rv.getLayoutManager();
+                    if (lm == null) return;
+                    if (dy > 0 && lm.findLastVisibleItemPosition()
+                            >= adapter.getItemCount() - PREFETCH_DISTANCE) {
+                        viewModel.loadOlder();
+                    } else if (dy < 0 && lm.findFirstVisibleItemPosition() <= PREFETCH_DISTANCE) {
+                        viewModel.loadNewer();
+                    }
+                }
+            });
         }
 
         // Activity-scoped ViewModel so drawer badge + screen share state
@@ -12,6 +12,7 @@ import java.util.Collections;
 import java.util.List;
 
 import tn.esprit.data.notification.NotificationRepository;
+import tn.esprit.data.remote.http.RequestScope;
 import tn.esprit.domain.notification.NotificationItem;
 
 /**
@@ -25,6 +26,7 @@ import tn.esprit.domain.notification.NotificationItem;
 public class NotificationListViewModel extends AndroidViewModel {
 
     private final NotificationRepository repository;
+    private final RequestScope requests = new RequestScope();
 
     private final MutableLiveData<Boolean> loading = new MutableLiveData<>(false);
     private final MutableLiveData<List<NotificationItem>> notifications =
@@ -68,9 +70,9 @@ public class NotificationListViewModel extends AndroidViewModel {
         loading.setValue(true);
         errorMessage.setValue(null);
 
-        repository.getMyNotifications(new NotificationRepository.LoadNotificationsCallback() {
+        requests.track(repository.getMyNotifications(new NotificationRepository.LoadNotificationsCallback() {
             @Override
-            public void onSuccess(@NonNull List<NotificationItem> list) {
+            public void onSuccess(@NonNull List<NotificationItem> list, @Nullable Long nextCursor) {
                 loading.postValue(false);
                 notifications.postValue(list);
                 unreadCount.postValue(calculateUnreadCount(list));
@@ -92,7 +94,7 @@ public class NotificationListViewModel extends AndroidViewModel {
 
                 errorMessage.postValue(msg);
             }
-        });
+        }));
     }
 
     /**
@@ -142,4 +144,10 @@ public class NotificationListViewModel extends AndroidViewModel {
         }
         return count;
     }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        requests.cancelAll();
+    }
 }
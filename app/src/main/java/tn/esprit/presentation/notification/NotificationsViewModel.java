@@ -6,29 +6,33 @@ import android.os.Looper;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 
 import tn.esprit.R;
 import tn.esprit.data.notification.NotificationRepository;
 import tn.esprit.data.notification.NotificationSocketManager;
+import tn.esprit.data.notification.NotificationStore;
+import tn.esprit.data.remote.http.RequestScope;
+import tn.esprit.data.session.SessionBootstrap;
 import tn.esprit.domain.notification.NotificationItem;
 
 /**
  * ViewModel backing the notifications list screen.
  *
  * Responsibilities:
- *  - Load notifications via REST
+ *  - Load the newest page via REST (resync), then older / newer pages while scrolling;
+ *    the {@link NotificationStore} only keeps a bounded window of pages
  *  - Expose loading + error state
- *  - Expose unread count
- *  - Listen to WebSocket pushes and refresh list
- *  - Mark individual notifications as read and refresh list
+ *  - Expose unread count (server count, tracked apart from the window)
+ *  - Apply WebSocket pushes to the store in place; after a reconnect or a lost message,
+ *    fetch only the notifications newer than the last one seen
+ *  - Mark individual notifications as read (store updated locally)
  *
  * IMPORTANT:
  *  - Intended to be scoped to MainActivity (activity scope), then
@@ -37,8 +41,11 @@ import tn.esprit.domain.notification.NotificationItem;
 public class NotificationsViewModel extends AndroidViewModel {
 
     private final NotificationRepository repository;
+    private final RequestScope requests = new RequestScope();
     private final NotificationSocketManager socketManager;
+    private final SessionBootstrap sessionBootstrap;
     private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final NotificationStore store = new NotificationStore();
 
     private final MutableLiveData<Boolean> loading =
             new MutableLiveData<>(false);
@@ -52,10 +59,55 @@ public class NotificationsViewModel extends AndroidViewModel {
     @Nullable
     private Long currentUserId = null;
 
+    private boolean firstLoadDone = false;
+
+    // Older / newer page requests, guarded by "this" (callbacks run on background threads)
+    private boolean pageInFlight;
+    // Bumped on each resync: pages asked for before it are dropped
+    private int generation;
+
+    private final NotificationSocketManager.Listener socketListener =
+            new NotificationSocketManager.Listener() {
+                @Override
+                public void onNotification(@Nullable NotificationItem item) {
+                    // OkHttp thread: the store is thread-safe, LiveData uses postValue
+                    if (item == null || !store.upsert(item)) {
+                        mainHandler.post(NotificationsViewModel.this::loadNotifications);
+                        return;
+                    }
+                    publishStore();
+                }
+
+                @Override
+                public void onSubscribed(boolean resumed) {
+                    if (resumed) {
+                        // Pushes sent while we were disconnected are lost
+                        mainHandler.post(NotificationsViewModel.this::catchUp);
+                    }
+                }
+
+                @Override
+                public void onMessageLost() {
+                    mainHandler.post(NotificationsViewModel.this::catchUp);
+                }
+            };
+
     public NotificationsViewModel(@NonNull Application application) {
+        this(application,
+                new NotificationRepository(application.getApplicationContext()),
+                NotificationSocketManager.getInstance(application.getApplicationContext()),
+                SessionBootstrap.getInstance(application.getApplicationContext()));
+    }
+
+    @VisibleForTesting
+    NotificationsViewModel(@NonNull Application application,
+                           @NonNull NotificationRepository repository,
+                           @NonNull NotificationSocketManager socketManager,
+                           @NonNull SessionBootstrap sessionBootstrap) {
         super(application);
-        repository = new NotificationRepository(application.getApplicationContext());
-        socketManager = NotificationSocketManager.getInstance(application.getApplicationContext());
+        this.repository = repository;
+        this.socketManager = socketManager;
+        this.sessionBootstrap = sessionBootstrap;
     }
 
     public LiveData<Boolean> getLoading() {
@@ -78,6 +130,14 @@ public class NotificationsViewModel extends AndroidViewModel {
         errorMessage.setValue(null);
     }
 
+    /**
+     * Listener to register on {@link NotificationSocketManager} (done by MainActivity).
+     */
+    @NonNull
+    public NotificationSocketManager.Listener getSocketListener() {
+        return socketListener;
+    }
+
     // -------------------------------------------------------------------------
     // WebSocket wiring
     // -------------------------------------------------------------------------
@@ -87,7 +147,7 @@ public class NotificationsViewModel extends AndroidViewModel {
      * This will:
      *  - connect the WebSocket
      *  - subscribe to /topic/users/{userId}/appointments
-     *  - on each MESSAGE, reload notifications via REST
+     *  - on each MESSAGE, insert the pushed notification into the store
      */
     public void setCurrentUserId(long userId) {
         if (userId <= 0L) return;
@@ -99,12 +159,7 @@ public class NotificationsViewModel extends AndroidViewModel {
 
         currentUserId = userId;
 
-        // Listener: whenever we receive a pushed notification, reload list from backend.
-        socketManager.setListener(item -> {
-            // This callback is on a background thread (OkHttp).
-            // We just trigger a reload on main thread.
-            mainHandler.post(this::loadNotifications);
-        });
+        socketManager.setListener(socketListener);
 
         // Connect STOMP over WebSocket for this user
         socketManager.connect(userId);
@@ -116,6 +171,7 @@ public class NotificationsViewModel extends AndroidViewModel {
     @Override
     protected void onCleared() {
         super.onCleared();
+        requests.cancelAll();
         // Clean up socket to avoid leaks
         socketManager.setListener(null);
         socketManager.disconnect();
@@ -126,30 +182,186 @@ public class NotificationsViewModel extends AndroidViewModel {
     // -------------------------------------------------------------------------
 
     public void loadNotifications() {
+        int run;
+        synchronized (this) {
+            run = ++generation;
+            pageInFlight = false;
+        }
+        loadUnreadCount();
+
+        // First load after startup: SessionBootstrap may already have the newest page.
+        // Later loads (pull-to-refresh, reconnect, lost push) always go to the backend.
+        if (!firstLoadDone) {
+            firstLoadDone = true;
+            List<NotificationItem> prefetched = sessionBootstrap.takeNotifications();
+            if (prefetched != null) {
+                store.replaceHead(prefetched, sessionBootstrap.getNotificationsNextCursor());
+                publishStore();
+                return;
+            }
+        }
+
         // Use postValue so this is safe from any thread (incl. WebSocket callback)
         loading.postValue(true);
         errorMessage.postValue(null);
 
-        repository.getMyNotifications(new NotificationRepository.LoadNotificationsCallback() {
+        requests.track(repository.loadPage(null, new NotificationRepository.PageCallback() {
+            @Override
+            public void onPage(@NonNull List<NotificationItem> items,
+                               @Nullable Long nextCursor,
+                               boolean fromCache) {
+                synchronized (NotificationsViewModel.this) {
+                    if (run != generation) return;
+                }
+                if (!fromCache) {
+                    loading.postValue(false);
+                }
+                store.replaceHead(items, nextCursor);
+                publishStore();
+            }
+
             @Override
-            public void onSuccess(List<NotificationItem> list) {
+            public void onError(@Nullable Throwable throwable,
+                                @Nullable Integer httpCode,
+                                @Nullable String errorBody) {
+                synchronized (NotificationsViewModel.this) {
+                    if (run != generation) return;
+                }
                 loading.postValue(false);
 
-                List<NotificationItem> sorted = sortByCreatedAtDesc(list);
-                notifications.postValue(sorted);
-                unreadCount.postValue(computeUnread(sorted));
+                String msg = getApplication().getString(R.string.notifications_error_generic);
+                errorMessage.postValue(msg);
+            }
+        }));
+    }
+
+    /**
+     * Socket back (or a push lost): fetch what was missed since the newest notification
+     * seen; a full reload only when that does not fit in one page.
+     */
+    public void catchUp() {
+        long newestId = store.getNewestId();
+        if (newestId <= 0L) {
+            loadNotifications();
+            return;
+        }
+        int run;
+        synchronized (this) {
+            run = generation;
+        }
+        requests.track(repository.loadSince(newestId, new NotificationRepository.MissedCallback() {
+            @Override
+            public void onSuccess(@NonNull List<NotificationItem> missed, boolean complete) {
+                synchronized (NotificationsViewModel.this) {
+                    if (run != generation) return;
+                }
+                if (!complete) {
+                    mainHandler.post(NotificationsViewModel.this::loadNotifications);
+                    return;
+                }
+                if (missed.isEmpty()) return;
+                // Oldest first: the store takes an id below the newest seen for an update
+                for (int i = missed.size() - 1; i >= 0; i--) {
+                    store.upsert(missed.get(i));
+                }
+                publishStore();
+                // Badge: pushes missed may include read marks from another device
+                loadUnreadCount();
             }
 
             @Override
             public void onError(@Nullable Throwable throwable,
                                 @Nullable Integer httpCode,
                                 @Nullable String errorBody) {
-                loading.postValue(false);
+                mainHandler.post(NotificationsViewModel.this::loadNotifications);
+            }
+        }));
+    }
+
+    /**
+     * Next older page, when the list is scrolled close to its end.
+     */
+    public void loadOlder() {
+        Long before = store.getOlderCursor();
+        if (before == null) return;
+        int run;
+        synchronized (this) {
+            if (pageInFlight) return;
+            pageInFlight = true;
+            run = generation;
+        }
+        requests.track(repository.loadPage(before, pageCallback(run, before, true)));
+    }
 
+    /**
+     * Page dropped above the window, when the list is scrolled back close to its top.
+     */
+    public void loadNewer() {
+        if (!store.hasNewer()) return;
+        Long before = store.getNewerCursor();
+        int run;
+        synchronized (this) {
+            if (pageInFlight) return;
+            pageInFlight = true;
+            run = generation;
+        }
+        requests.track(repository.loadPage(before, pageCallback(run, before, false)));
+    }
+
+    @NonNull
+    private NotificationRepository.PageCallback pageCallback(int run,
+                                                             @Nullable Long before,
+                                                             boolean older) {
+        return new NotificationRepository.PageCallback() {
+            @Override
+            public void onPage(@NonNull List<NotificationItem> items,
+                               @Nullable Long nextCursor,
+                               boolean fromCache) {
+                boolean changed;
+                synchronized (NotificationsViewModel.this) {
+                    if (run != generation) return;
+                    // The newest page answers twice (cache, then network)
+                    if (before != null || !fromCache) {
+                        pageInFlight = false;
+                    }
+                    changed = older
+                            ? store.appendOlder(before, items, nextCursor)
+                            : store.prependNewer(before, items, nextCursor);
+                }
+                if (changed) {
+                    publishStore();
+                }
+            }
+
+            @Override
+            public void onError(@Nullable Throwable throwable,
+                                @Nullable Integer httpCode,
+                                @Nullable String errorBody) {
+                synchronized (NotificationsViewModel.this) {
+                    if (run != generation) return;
+                    pageInFlight = false;
+                }
                 String msg = getApplication().getString(R.string.notifications_error_generic);
                 errorMessage.postValue(msg);
             }
-        });
+        };
+    }
+
+    private void loadUnreadCount() {
+        requests.track(repository.getUnreadCount(new NotificationRepository.UnreadCountCallback() {
+            @Override
+            public void onSuccess(int count) {
+                store.setUnreadCount(count);
+                unreadCount.postValue(store.getUnreadCount());
+            }
+
+            @Override
+            public void onError(@Nullable Throwable throwable,
+                                @Nullable Integer httpCode,
+                                @Nullable String errorBody) {
+                // Badge keeps counting from the loaded pages
+            }
+        }));
     }
 
     // -------------------------------------------------------------------------
@@ -162,17 +374,30 @@ public class NotificationsViewModel extends AndroidViewModel {
             return;
         }
 
+        // Optimistic: row and badge update now, undone if the backend refuses
+        final boolean marked = store.markRead(id);
+        if (marked) {
+            publishStore();
+        }
+
         repository.markAsRead(id, new NotificationRepository.MarkAsReadCallback() {
             @Override
             public void onSuccess() {
-                // Simplest and safest: reload the list from backend
-                loadNotifications();
+                // Already applied
+            }
+
+            @Override
+            public void onQueued() {
+                // Offline: stays read locally, the outbox sends it later
             }
 
             @Override
             public void onError(@Nullable Throwable throwable,
                                 @Nullable Integer httpCode,
                                 @Nullable String errorBody) {
+                if (marked && store.markUnread(id)) {
+                    publishStore();
+                }
                 String msg = getApplication().getString(R.string.notifications_error_mark_read);
                 errorMessage.postValue(msg);
             }
@@ -183,31 +408,8 @@ public class NotificationsViewModel extends AndroidViewModel {
     // Helpers
     // -------------------------------------------------------------------------
 
-    private List<NotificationItem> sortByCreatedAtDesc(@Nullable List<NotificationItem> list) {
-        if (list == null) return Collections.emptyList();
-
-        List<NotificationItem> copy = new ArrayList<>(list);
-        // LocalDateTime ISO strings sort lexicographically
-        Collections.sort(copy, new Comparator<NotificationItem>() {
-            @Override
-            public int compare(NotificationItem o1, NotificationItem o2) {
-                String d1 = o1 != null && o1.getCreatedAt() != null ? o1.getCreatedAt() : "";
-                String d2 = o2 != null && o2.getCreatedAt() != null ? o2.getCreatedAt() : "";
-                // Descending: newest first
-                return d2.compareTo(d1);
-            }
-        });
-        return copy;
-    }
-
-    private int computeUnread(@Nullable List<NotificationItem> list) {
-        if (list == null) return 0;
-        int count = 0;
-        for (NotificationItem n : list) {
-            if (n != null && !n.isRead()) {
-                count++;
-            }
-        }
-        return count;
+    private void publishStore() {
+        notifications.postValue(store.snapshot());
+        unreadCount.postValue(store.getUnreadCount());
     }
 }
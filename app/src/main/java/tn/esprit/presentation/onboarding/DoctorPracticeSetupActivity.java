@@ -28,11 +28,10 @@ import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
 import tn.esprit.R;
-import tn.esprit.data.auth.AuthLocalDataSource;
+import tn.esprit.data.auth.AuthTokenHolder;
 import tn.esprit.data.remote.ApiClient;
 import tn.esprit.data.remote.doctor.DoctorApiService;
 import tn.esprit.data.remote.specialty.SpecialtyApiService;
-import tn.esprit.domain.auth.AuthTokens;
 
 public class DoctorPracticeSetupActivity extends AppCompatActivity {
 
@@ -46,7 +45,7 @@ public class DoctorPracticeSetupActivity extends AppCompatActivity {
     private TextView textActsEmptyState;
     private MaterialButton buttonSaveContinue;
 
-    private AuthLocalDataSource authLocalDataSource;
+    private AuthTokenHolder tokenHolder;
     private SpecialtyApiService specialtyApiService;
     private DoctorApiService doctorApiService;
 
@@ -99,7 +98,7 @@ public class DoctorPracticeSetupActivity extends AppCompatActivity {
     }
 
     private void initServices() {
-        authLocalDataSource = new AuthLocalDataSource(getApplicationContext());
+        tokenHolder = AuthTokenHolder.getInstance(getApplicationContext());
         specialtyApiService = ApiClient.createService(SpecialtyApiService.class);
         doctorApiService = ApiClient.createService(DoctorApiService.class);
     }
@@ -128,25 +127,20 @@ public class DoctorPracticeSetupActivity extends AppCompatActivity {
 
     // ----------------- Network helpers -------------------
 
-    private String getAuthHeaderOrFallback() {
-        AuthTokens tokens = authLocalDataSource.getTokens();
-        if (tokens == null || TextUtils.isEmpty(tokens.getAccessToken())) {
-            Intent intent = new Intent(this, tn.esprit.presentation.auth.AuthGateActivity.class);
-            startActivity(intent);
-            finish();
-            return null;
-        }
-        String type = tokens.getTokenType() != null ? tokens.getTokenType() : "Bearer";
-        return type + " " + tokens.getAccessToken();
+    private boolean ensureSignedIn() {
+        if (tokenHolder.isSignedIn()) return true;
+        Intent intent = new Intent(this, tn.esprit.presentation.auth.AuthGateActivity.class);
+        startActivity(intent);
+        finish();
+        return false;
     }
 
     private void loadSpecialties() {
-        String authHeader = getAuthHeaderOrFallback();
-        if (authHeader == null) return;
+        if (!ensureSignedIn()) return;
 
         showLoading(true);
 
-        specialtyApiService.getAllSpecialties(authHeader)
+        specialtyApiService.getAllSpecialties()
                 .enqueue(new Callback<List<SpecialtyApiService.SpecialtyDto>>() {
                     @Override
                     public void onResponse(
@@ -221,14 +215,13 @@ public class DoctorPracticeSetupActivity extends AppCompatActivity {
     }
 
     private void loadActsForSpecialty(Long specialtyId) {
-        String authHeader = getAuthHeaderOrFallback();
-        if (authHeader == null) return;
+        if (!ensureSignedIn()) return;
 
         showLoading(true);
         chipGroupActs.removeAllViews();
         textActsEmptyState.setVisibility(View.GONE);
 
-        specialtyApiService.getActsBySpecialty(authHeader, specialtyId)
+        specialtyApiService.getActsBySpecialty(specialtyId)
                 .enqueue(new Callback<List<SpecialtyApiService.ActDto>>() {
                     @Override
                     public void onResponse(
@@ -326,8 +319,7 @@ public class DoctorPracticeSetupActivity extends AppCompatActivity {
             return;
         }
 
-        String authHeader = getAuthHeaderOrFallback();
-        if (authHeader == null) return;
+        if (!ensureSignedIn()) return;
 
         DoctorApiService.DoctorPracticeSetupRequestDto request =
                 new DoctorApiService.DoctorPracticeSetupRequestDto();
@@ -336,7 +328,7 @@ public class DoctorPracticeSetupActivity extends AppCompatActivity {
 
         showLoading(true);
 
-        doctorApiService.setupPracticeForCurrentDoctor(authHeader, request)
+        doctorApiService.setupPracticeForCurrentDoctor(request)
                 .enqueue(new Callback<tn.esprit.domain.doctor.DoctorProfile>() {
                     @Override
                     public void onResponse(
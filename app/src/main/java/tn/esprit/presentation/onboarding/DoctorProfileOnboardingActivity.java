@@ -21,10 +21,9 @@ import java.math.BigDecimal;
 
 import tn.esprit.MainActivity;
 import tn.esprit.R;
-import tn.esprit.data.auth.AuthLocalDataSource;
+import tn.esprit.data.auth.AuthTokenHolder;
 import tn.esprit.data.remote.ApiClient;
 import tn.esprit.data.remote.doctor.DoctorApiService;
-import tn.esprit.domain.auth.AuthTokens;
 import tn.esprit.domain.doctor.DoctorProfile;
 import tn.esprit.presentation.auth.AuthGateActivity;
 import retrofit2.Call;
@@ -50,9 +49,8 @@ public class DoctorProfileOnboardingActivity extends AppCompatActivity {
     private MaterialButton buttonSave;
     private MaterialButton buttonSkip;
 
-    private AuthLocalDataSource authLocalDataSource;
+    private AuthTokenHolder tokenHolder;
     private DoctorApiService doctorApiService;
-    private String authHeader;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -60,12 +58,12 @@ public class DoctorProfileOnboardingActivity extends AppCompatActivity {
         EdgeToEdge.enable(this);
         setContentView(R.layout.activity_doctor_profile_onboarding);
 
-        authLocalDataSource = new AuthLocalDataSource(getApplicationContext());
+        tokenHolder = AuthTokenHolder.getInstance(getApplicationContext());
         doctorApiService = ApiClient.createService(DoctorApiService.class);
 
         bindViews();
         applyWindowInsets();
-        initAuthHeader();
+        checkSignedIn();
         setupListeners();
         loadExistingProfile();
     }
@@ -109,14 +107,10 @@ public class DoctorProfileOnboardingActivity extends AppCompatActivity {
         });
     }
 
-    private void initAuthHeader() {
-        AuthTokens tokens = authLocalDataSource.getTokens();
-        if (tokens == null || tokens.getAccessToken() == null) {
+    private void checkSignedIn() {
+        if (!tokenHolder.isSignedIn()) {
             goToLoginFallback();
-            return;
         }
-        String type = tokens.getTokenType() != null ? tokens.getTokenType() : "Bearer";
-        authHeader = type + " " + tokens.getAccessToken();
     }
 
     private void setupListeners() {
@@ -126,11 +120,11 @@ public class DoctorProfileOnboardingActivity extends AppCompatActivity {
     }
 
     private void loadExistingProfile() {
-        if (authHeader == null) return;
+        if (!tokenHolder.isSignedIn()) return;
 
         showLoading(true);
 
-        doctorApiService.getMyProfile(authHeader)
+        doctorApiService.getMyProfile()
                 .enqueue(new Callback<DoctorProfile>() {
                     @Override
                     public void onResponse(Call<DoctorProfile> call, Response<DoctorProfile> response) {
@@ -185,7 +179,7 @@ public class DoctorProfileOnboardingActivity extends AppCompatActivity {
     }
 
     private void submitProfile() {
-        if (authHeader == null) {
+        if (!tokenHolder.isSignedIn()) {
             goToLoginFallback();
             return;
         }
@@ -207,7 +201,7 @@ public class DoctorProfileOnboardingActivity extends AppCompatActivity {
 
         showLoading(true);
 
-        doctorApiService.updateMyProfile(authHeader, request)
+        doctorApiService.updateMyProfile(request)
                 .enqueue(new Callback<DoctorProfile>() {
                     @Override
                     public void onResponse(Call<DoctorProfile> call, Response<DoctorProfile> response) {
@@ -18,11 +18,10 @@ import com.google.android.material.textfield.TextInputEditText;
 
 import tn.esprit.MainActivity;
 import tn.esprit.R;
-import tn.esprit.data.auth.AuthLocalDataSource;
+import tn.esprit.data.auth.AuthTokenHolder;
 import tn.esprit.data.remote.ApiClient;
 import tn.esprit.data.remote.patient.PatientApiService;
 import tn.esprit.data.remote.patient.PatientApiService.PatientProfileUpdateRequestDto;
-import tn.esprit.domain.auth.AuthTokens;
 import tn.esprit.domain.patient.PatientProfile;
 import tn.esprit.presentation.auth.AuthGateActivity;
 import retrofit2.Call;
@@ -49,7 +48,7 @@ public class PatientOnboardingActivity extends AppCompatActivity {
     private MaterialButton buttonComplete;
     private MaterialButton buttonSkip;
 
-    private AuthLocalDataSource authLocalDataSource;
+    private AuthTokenHolder tokenHolder;
     private PatientApiService patientApiService;
 
     @Override
@@ -58,7 +57,7 @@ public class PatientOnboardingActivity extends AppCompatActivity {
         EdgeToEdge.enable(this);
         setContentView(R.layout.activity_patient_onboarding);
 
-        authLocalDataSource = new AuthLocalDataSource(getApplicationContext());
+        tokenHolder = AuthTokenHolder.getInstance(getApplicationContext());
         patientApiService = ApiClient.createService(PatientApiService.class);
 
         bindViews();
@@ -158,8 +157,7 @@ public class PatientOnboardingActivity extends AppCompatActivity {
         request.setAlcoholUse(checkAlcohol.isChecked());
         request.setNotes(emptyToNull(notes));
 
-        AuthTokens tokens = authLocalDataSource.getTokens();
-        if (tokens == null || tokens.getAccessToken() == null) {
+        if (!tokenHolder.isSignedIn()) {
             Snackbar.make(
                     rootView,
                     getString(R.string.onboarding_patient_error_not_authenticated),
@@ -169,11 +167,9 @@ public class PatientOnboardingActivity extends AppCompatActivity {
             return;
         }
 
-        String authHeader = buildAuthHeader(tokens);
-
         showLoading(true);
 
-        patientApiService.updateMyProfile(authHeader, request)
+        patientApiService.updateMyProfile(request)
                 .enqueue(new Callback<PatientProfile>() {
                     @Override
                     public void onResponse(Call<PatientProfile> call, Response<PatientProfile> response) {
@@ -208,11 +204,6 @@ public class PatientOnboardingActivity extends AppCompatActivity {
                 });
     }
 
-    private String buildAuthHeader(AuthTokens tokens) {
-        String type = tokens.getTokenType() != null ? tokens.getTokenType() : "Bearer";
-        return type + " " + tokens.getAccessToken();
-    }
-
     private String textOf(TextInputEditText editText) {
         return editText.getText() != null ? editText.getText().toString().trim() : "";
     }
@@ -1,6 +1,5 @@
 package tn.esprit.presentation.profile;
 
-import android.app.Activity;
 import android.app.DatePickerDialog;
 import android.content.res.Resources;
 import android.os.Bundle;
@@ -30,9 +29,10 @@ import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Locale;
 
-import tn.esprit.MainActivity;
 import tn.esprit.R;
 import tn.esprit.data.profile.ProfileRepository;
+import tn.esprit.data.profile.ProfileStore;
+import tn.esprit.data.remote.http.RequestScope;
 import tn.esprit.data.remote.patient.PatientApiService.PatientProfileUpdateRequestDto;
 import tn.esprit.domain.doctor.DoctorProfile;
 import tn.esprit.domain.patient.PatientProfile;
@@ -63,6 +63,7 @@ public class EditPatientProfileFragment extends Fragment {
     private View loadingOverlay;
 
     private ProfileRepository profileRepository;
+    private final RequestScope requests = new RequestScope();
     private PatientProfile currentPatientProfile;
     private User currentUser;
 
@@ -142,6 +143,12 @@ public class EditPatientProfileFragment extends Fragment {
         loadProfileForEdit();
     }
 
+    @Override
+    public void onDestroyView() {
+        requests.cancelAll();
+        super.onDestroyView();
+    }
+
     // ------------------------------------------------------------
     // Picker dialogs for gender / blood type / marital status / city
     // ------------------------------------------------------------
@@ -255,7 +262,7 @@ public class EditPatientProfileFragment extends Fragment {
     // ------------------------------------------------------------
     private void loadProfileForEdit() {
         showLoading(true);
-        profileRepository.loadProfile(new ProfileRepository.ProfileCallback() {
+        requests.track(profileRepository.loadProfile(new ProfileRepository.ProfileCallback() {
             @Override
             public void onSuccess(User user,
                                   DoctorProfile doctorProfile,
@@ -355,7 +362,7 @@ public class EditPatientProfileFragment extends Fragment {
                         R.string.profile_error_loading,
                         Toast.LENGTH_SHORT).show();
             }
-        });
+        }));
     }
 
     // ------------------------------------------------------------
@@ -392,10 +399,8 @@ public class EditPatientProfileFragment extends Fragment {
                         R.string.profile_saved,
                         Toast.LENGTH_SHORT).show();
 
-                Activity activity = getActivity();
-                if (activity instanceof MainActivity) {
-                    ((MainActivity) activity).refreshUserProfileUi();
-                }
+                // The response is the saved state: applied to the shared profile, no reload
+                ProfileStore.getInstance(requireContext()).applyPatientProfile(updatedProfile);
                 NavHostFragment.findNavController(EditPatientProfileFragment.this).navigateUp();
             }
 
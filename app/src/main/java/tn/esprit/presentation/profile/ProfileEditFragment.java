@@ -1,6 +1,5 @@
 package tn.esprit.presentation.profile;
 
-import android.app.Activity;
 import android.content.res.Resources;
 import android.os.Bundle;
 import android.text.TextUtils;
@@ -26,10 +25,11 @@ import com.google.android.material.textfield.TextInputLayout;
 import java.math.BigDecimal;
 import java.util.Locale;
 
-import tn.esprit.MainActivity;
 import tn.esprit.R;
 import tn.esprit.data.profile.ProfileRepository;
+import tn.esprit.data.profile.ProfileStore;
 import tn.esprit.data.remote.doctor.DoctorApiService.DoctorProfileUpdateRequestDto;
+import tn.esprit.data.remote.http.RequestScope;
 import tn.esprit.domain.doctor.DoctorProfile;
 import tn.esprit.domain.patient.PatientProfile;
 import tn.esprit.domain.user.User;
@@ -59,6 +59,7 @@ public class ProfileEditFragment extends Fragment {
     private Chip chipFee100;
 
     private ProfileRepository profileRepository;
+    private final RequestScope requests = new RequestScope();
     private User currentUser;
     private DoctorProfile currentDoctorProfile;
 
@@ -146,6 +147,12 @@ public class ProfileEditFragment extends Fragment {
         loadProfileForEdit();
     }
 
+    @Override
+    public void onDestroyView() {
+        requests.cancelAll();
+        super.onDestroyView();
+    }
+
     private void setupFeeQuickChips() {
         if (inputFee == null) return;
 
@@ -168,7 +175,7 @@ public class ProfileEditFragment extends Fragment {
 
     private void loadProfileForEdit() {
         showLoading(true);
-        profileRepository.loadProfile(new ProfileRepository.ProfileCallback() {
+        requests.track(profileRepository.loadProfile(new ProfileRepository.ProfileCallback() {
             @Override
             public void onSuccess(User user,
                                   DoctorProfile doctorProfile,
@@ -256,7 +263,7 @@ public class ProfileEditFragment extends Fragment {
                         R.string.profile_error_loading,
                         Toast.LENGTH_SHORT).show();
             }
-        });
+        }));
     }
 
     private void saveDoctorProfile() {
@@ -382,10 +389,8 @@ public class ProfileEditFragment extends Fragment {
                         R.string.profile_saved,
                         Toast.LENGTH_SHORT).show();
 
-                Activity activity = getActivity();
-                if (activity instanceof MainActivity) {
-                    ((MainActivity) activity).refreshUserProfileUi();
-                }
+                // The response is the saved state: applied to the shared profile, no reload
+                ProfileStore.getInstance(requireContext()).applyDoctorProfile(updatedProfile);
                 NavHostFragment.findNavController(ProfileEditFragment.this).navigateUp();
             }
 
@@ -1,6 +1,5 @@
 package tn.esprit.presentation.profile;
 
-import android.app.Activity;
 import android.content.ContentResolver;
 import android.net.Uri;
 import android.os.Bundle;
@@ -32,9 +31,10 @@ import okhttp3.MediaType;
 import okhttp3.MultipartBody;
 import okhttp3.RequestBody;
 
-import tn.esprit.MainActivity;
 import tn.esprit.R;
 import tn.esprit.data.profile.ProfileRepository;
+import tn.esprit.data.profile.ProfileSnapshot;
+import tn.esprit.data.profile.ProfileStore;
 import tn.esprit.domain.doctor.DoctorProfile;
 import tn.esprit.domain.patient.PatientProfile;
 import tn.esprit.domain.user.User;
@@ -77,7 +77,11 @@ public class ProfileFragment extends Fragment {
     private MaterialButton buttonChangeAvatar;
     private MaterialButton buttonEditProfile;
 
+    // Snapshot younger than this is shown as is; an older or restored one is revalidated
+    private static final long PROFILE_MAX_AGE_MS = 30_000L;
+
     private ProfileRepository profileRepository;
+    private ProfileStore profileStore;
     private User currentUser;
     private DoctorProfile currentDoctorProfile;
     private PatientProfile currentPatientProfile;
@@ -93,6 +97,7 @@ public class ProfileFragment extends Fragment {
     public void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         profileRepository = new ProfileRepository(requireContext());
+        profileStore = ProfileStore.getInstance(requireContext());
 
         imagePickerLauncher = registerForActivityResult(
                 new ActivityResultContracts.GetContent(),
@@ -185,38 +190,20 @@ public class ProfileFragment extends Fragment {
     }
 
     private void loadProfile() {
-        if (progressBar != null) {
-            progressBar.setVisibility(View.VISIBLE);
-        }
         if (sectionDoctor != null) sectionDoctor.setVisibility(View.GONE);
         if (sectionPatient != null) sectionPatient.setVisibility(View.GONE);
 
-        profileRepository.loadProfile(new ProfileRepository.ProfileCallback() {
-            @Override
-            public void onSuccess(User user,
-                                  DoctorProfile doctorProfile,
-                                  PatientProfile patientProfile) {
-                if (!isAdded()) return;
-
-                currentUser = user;
-                currentDoctorProfile = doctorProfile;
-                currentPatientProfile = patientProfile;
-
-                if (progressBar != null) {
-                    progressBar.setVisibility(View.GONE);
-                }
+        // Same snapshot as the MainActivity header; later refreshes rebind through the observer
+        profileStore.getSnapshot().observe(getViewLifecycleOwner(), this::onProfileSnapshot);
 
-                bindUser(user);
+        if (profileStore.peek() == null && progressBar != null) {
+            progressBar.setVisibility(View.VISIBLE);
+        }
 
-                String role = user != null ? user.getRole() : null;
-                if (role != null && "DOCTOR".equalsIgnoreCase(role)) {
-                    bindDoctorSection(doctorProfile);
-                } else if (role != null && "PATIENT".equalsIgnoreCase(role)) {
-                    bindPatientSection(patientProfile);
-                } else {
-                    if (sectionDoctor != null) sectionDoctor.setVisibility(View.GONE);
-                    if (sectionPatient != null) sectionPatient.setVisibility(View.GONE);
-                }
+        profileStore.loadIfStale(PROFILE_MAX_AGE_MS, new ProfileRepository.ProfileSnapshotCallback() {
+            @Override
+            public void onSuccess(ProfileSnapshot snapshot) {
+                // Bound by the snapshot observer
             }
 
             @Override
@@ -232,6 +219,31 @@ public class ProfileFragment extends Fragment {
         });
     }
 
+    private void onProfileSnapshot(@Nullable ProfileSnapshot snapshot) {
+        if (snapshot == null || !isAdded()) return;
+
+        User user = snapshot.getUser();
+        currentUser = user;
+        currentDoctorProfile = snapshot.getDoctorProfile();
+        currentPatientProfile = snapshot.getPatientProfile();
+
+        if (progressBar != null) {
+            progressBar.setVisibility(View.GONE);
+        }
+
+        bindUser(user);
+
+        String role = user.getRole();
+        if (role != null && "DOCTOR".equalsIgnoreCase(role)) {
+            bindDoctorSection(currentDoctorProfile);
+        } else if (role != null && "PATIENT".equalsIgnoreCase(role)) {
+            bindPatientSection(currentPatientProfile);
+        } else {
+            if (sectionDoctor != null) sectionDoctor.setVisibility(View.GONE);
+            if (sectionPatient != null) sectionPatient.setVisibility(View.GONE);
+        }
+    }
+
     private void bindUser(@Nullable User user) {
         String displayName = null;
         String role = null;
@@ -302,7 +314,7 @@ public class ProfileFragment extends Fragment {
         if (imageProfileAvatar != null) {
             if (!TextUtils.isEmpty(imageUrl)) {
                 Glide.with(this)
-                        .load(imageUrl)
+                        .load(profileStore.avatarModel(imageUrl))
                         .placeholder(R.drawable.logo)
                         .error(R.drawable.logo)
                         .circleCrop()
@@ -682,15 +694,6 @@ public class ProfileFragment extends Fragment {
                 .navigate(R.id.action_profileFragment_to_userBaseInfoFragment);
     }
 
-    @Override
-    public void onResume() {
-        super.onResume();
-        Activity activity = getActivity();
-        if (activity instanceof MainActivity) {
-            ((MainActivity) activity).refreshUserProfileUi();
-        }
-    }
-
     // ------------------------------------------------------------
     // Image upload helpers
     // ------------------------------------------------------------
@@ -700,7 +703,10 @@ public class ProfileFragment extends Fragment {
             progressBar.setVisibility(View.VISIBLE);
         }
 
-        MultipartBody.Part imagePart = createImagePartFromUri(uri);
+        byte[] imageBytes = readImageBytes(uri);
+        MultipartBody.Part imagePart = imageBytes != null
+                ? createImagePart(uri, imageBytes)
+                : null;
         if (imagePart == null) {
             if (progressBar != null) {
                 progressBar.setVisibility(View.GONE);
@@ -720,12 +726,12 @@ public class ProfileFragment extends Fragment {
                             progressBar.setVisibility(View.GONE);
                         }
 
-                        // Reload profile for fresh data (including avatar URL)
-                        loadProfile();
-
-                        Activity activity = getActivity();
-                        if (activity instanceof MainActivity) {
-                            ((MainActivity) activity).refreshUserProfileUi();
+                        // No reload: the returned user carries the new URL, and the picked
+                        // image is shown for it (this screen and the MainActivity header)
+                        if (updatedUser != null) {
+                            profileStore.applyUploadedAvatar(updatedUser, imageBytes);
+                        } else {
+                            profileStore.applyUser(null);
                         }
                     }
 
@@ -745,36 +751,38 @@ public class ProfileFragment extends Fragment {
     }
 
     @Nullable
-    private MultipartBody.Part createImagePartFromUri(@NonNull Uri uri) {
-        try {
-            ContentResolver resolver = requireContext().getContentResolver();
-            String mimeType = resolver.getType(uri);
-            if (mimeType == null) {
-                mimeType = "image/*";
-            }
-
-            InputStream inputStream = resolver.openInputStream(uri);
+    private byte[] readImageBytes(@NonNull Uri uri) {
+        try (InputStream inputStream = requireContext().getContentResolver().openInputStream(uri)) {
             if (inputStream == null) {
                 return null;
             }
-
-            byte[] bytes = readAllBytes(inputStream);
-            RequestBody requestBody = RequestBody.create(
-                    MediaType.parse(mimeType),
-                    bytes
-            );
-
-            return MultipartBody.Part.createFormData(
-                    "image",
-                    "profile.jpg",
-                    requestBody
-            );
+            return readAllBytes(inputStream);
         } catch (Exception e) {
             e.printStackTrace();
             return null;
         }
     }
 
+    @NonNull
+    private MultipartBody.Part createImagePart(@NonNull Uri uri, @NonNull byte[] bytes) {
+        ContentResolver resolver = requireContext().getContentResolver();
+        String mimeType = resolver.getType(uri);
+        if (mimeType == null) {
+            mimeType = "image/*";
+        }
+
+        RequestBody requestBody = RequestBody.create(
+                MediaType.parse(mimeType),
+                bytes
+        );
+
+        return MultipartBody.Part.createFormData(
+                "image",
+                "profile.jpg",
+                requestBody
+        );
+    }
+
     private byte[] readAllBytes(InputStream inputStream) throws IOException {
         ByteArrayOutputStream buffer = new ByteArrayOutputStream();
         byte[] data = new byte[4096];
@@ -10,6 +10,7 @@ import androidx.lifecycle.MutableLiveData;
 import java.math.BigDecimal;
 
 import tn.esprit.data.profile.ProfileRepository;
+import tn.esprit.data.remote.http.RequestScope;
 import tn.esprit.domain.doctor.DoctorProfile;
 import tn.esprit.domain.patient.PatientProfile;
 import tn.esprit.domain.user.User;
@@ -28,6 +29,7 @@ import tn.esprit.domain.user.User;
 public class ProfileViewModel extends AndroidViewModel {
 
     private final ProfileRepository profileRepository;
+    private final RequestScope requests = new RequestScope();
 
     private final MutableLiveData<User> user = new MutableLiveData<>();
     private final MutableLiveData<DoctorProfile> doctorProfile = new MutableLiveData<>();
@@ -78,7 +80,7 @@ public class ProfileViewModel extends AndroidViewModel {
         loading.setValue(true);
         errorMessage.setValue(null);
 
-        profileRepository.loadProfile(new ProfileRepository.ProfileCallback() {
+        requests.track(profileRepository.loadProfile(new ProfileRepository.ProfileCallback() {
             @Override
             public void onSuccess(User u,
                                   DoctorProfile d,
@@ -110,7 +112,7 @@ public class ProfileViewModel extends AndroidViewModel {
 
                 errorMessage.postValue(msg);
             }
-        });
+        }));
     }
 
     /**
@@ -165,4 +167,10 @@ public class ProfileViewModel extends AndroidViewModel {
 
         doctorProfile.setValue(current);
     }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        requests.cancelAll();
+    }
 }
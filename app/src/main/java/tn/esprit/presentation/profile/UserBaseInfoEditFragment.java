@@ -1,6 +1,5 @@
 package tn.esprit.presentation.profile;
 
-import android.app.Activity;
 import android.os.Bundle;
 import android.text.Editable;
 import android.text.TextUtils;
@@ -21,9 +20,10 @@ import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textfield.TextInputLayout;
 
-import tn.esprit.MainActivity;
 import tn.esprit.R;
 import tn.esprit.data.profile.ProfileRepository;
+import tn.esprit.data.profile.ProfileStore;
+import tn.esprit.data.remote.http.RequestScope;
 import tn.esprit.data.remote.user.UserAccountApiService.UserUpdateRequestDto;
 import tn.esprit.domain.doctor.DoctorProfile;
 import tn.esprit.domain.patient.PatientProfile;
@@ -46,6 +46,7 @@ public class UserBaseInfoEditFragment extends Fragment {
     private MaterialButton buttonSave;
 
     private ProfileRepository profileRepository;
+    private final RequestScope requests = new RequestScope();
     private User currentUser;
 
     public UserBaseInfoEditFragment() {
@@ -110,6 +111,12 @@ public class UserBaseInfoEditFragment extends Fragment {
         loadUser();
     }
 
+    @Override
+    public void onDestroyView() {
+        requests.cancelAll();
+        super.onDestroyView();
+    }
+
     private void attachClearErrorTextWatchers() {
         if (inputFirstname != null && layoutFirstname != null) {
             inputFirstname.addTextChangedListener(new SimpleClearErrorWatcher(layoutFirstname));
@@ -169,7 +176,7 @@ public class UserBaseInfoEditFragment extends Fragment {
 
     private void loadUser() {
         showLoading(true);
-        profileRepository.loadProfile(new ProfileRepository.ProfileCallback() {
+        requests.track(profileRepository.loadProfile(new ProfileRepository.ProfileCallback() {
             @Override
             public void onSuccess(User user,
                                   DoctorProfile doctorProfile,
@@ -202,7 +209,7 @@ public class UserBaseInfoEditFragment extends Fragment {
                         R.string.profile_error_loading,
                         Toast.LENGTH_SHORT).show();
             }
-        });
+        }));
     }
 
     private void saveBaseInfo() {
@@ -282,10 +289,8 @@ public class UserBaseInfoEditFragment extends Fragment {
                         R.string.profile_saved,
                         Toast.LENGTH_SHORT).show();
 
-                Activity activity = getActivity();
-                if (activity instanceof MainActivity) {
-                    ((MainActivity) activity).refreshUserProfileUi();
-                }
+                // The response is the saved state: applied to the shared profile, no reload
+                ProfileStore.getInstance(requireContext()).applyUser(updatedUser);
 
                 // Go back to base info view
                 NavHostFragment.findNavController(UserBaseInfoEditFragment.this).navigateUp();
@@ -18,6 +18,7 @@ import androidx.navigation.fragment.NavHostFragment;
 
 import tn.esprit.R;
 import tn.esprit.data.profile.ProfileRepository;
+import tn.esprit.data.remote.http.RequestScope;
 import tn.esprit.domain.doctor.DoctorProfile;
 import tn.esprit.domain.patient.PatientProfile;
 import tn.esprit.domain.user.User;
@@ -34,6 +35,7 @@ public class UserBaseInfoFragment extends Fragment {
     private ProgressBar progressBar;
 
     private ProfileRepository profileRepository;
+    private final RequestScope requests = new RequestScope();
 
     public UserBaseInfoFragment() {
         // Required empty ctor
@@ -82,6 +84,12 @@ public class UserBaseInfoFragment extends Fragment {
         loadBaseInfo();
     }
 
+    @Override
+    public void onDestroyView() {
+        requests.cancelAll();
+        super.onDestroyView();
+    }
+
     @Override
     public void onResume() {
         super.onResume();
@@ -96,7 +104,7 @@ public class UserBaseInfoFragment extends Fragment {
 
     private void loadBaseInfo() {
         setLoading(true);
-        profileRepository.loadProfile(new ProfileRepository.ProfileCallback() {
+        requests.track(profileRepository.loadProfile(new ProfileRepository.ProfileCallback() {
             @Override
             public void onSuccess(User user,
                                   DoctorProfile doctorProfile,
@@ -170,6 +178,6 @@ public class UserBaseInfoFragment extends Fragment {
                         R.string.profile_error_loading,
                         Toast.LENGTH_SHORT).show();
             }
-        });
+        }));
     }
 }
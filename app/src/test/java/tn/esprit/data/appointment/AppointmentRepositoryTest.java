@@ -0,0 +1,289 @@
+package tn.esprit.data.appointment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+import tn.esprit.data.auth.AuthTokenHolder;
+import tn.esprit.data.outbox.Outbox;
+import tn.esprit.data.remote.appointment.AppointmentApiService;
+import tn.esprit.data.remote.common.ListResponseDto;
+import tn.esprit.data.remote.indicator.IndicatorApiService;
+import tn.esprit.data.remote.json.GsonProvider;
+import tn.esprit.data.remote.notification.NotificationApiService;
+import tn.esprit.domain.appointment.Appointment;
+import tn.esprit.domain.appointment.AppointmentCreateRequest;
+import tn.esprit.domain.appointment.AppointmentStatusUpdateRequest;
+import tn.esprit.domain.auth.AuthTokens;
+
+/**
+ * Writes waiting in the outbox (server unavailable) against the local appointment store:
+ * syncs, windowed or full, must not undo them before they are sent.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class AppointmentRepositoryTest {
+
+    private static final String START_AT = "2099-01-05T09:00:00";
+
+    private MockWebServer server;
+    private Outbox outbox;
+    private AppointmentLocalStore localStore;
+    private AppointmentRepository repository;
+
+    // What GET /api/doctors/me/appointments and /api/appointments/me answer
+    private final AtomicReference<List<Appointment>> doctorList = new AtomicReference<>(new ArrayList<>());
+    private final AtomicReference<List<Appointment>> patientList = new AtomicReference<>(new ArrayList<>());
+    private final List<String> listRequests = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @NonNull
+            @Override
+            public MockResponse dispatch(@NonNull RecordedRequest request) {
+                String path = request.getPath();
+                if ("GET".equals(request.getMethod())) {
+                    listRequests.add(path);
+                    if (path.startsWith("/api/doctors/me/appointments")) return json(doctorList.get());
+                    if (path.startsWith("/api/appointments/me")) return json(patientList.get());
+                }
+                // Writes: backend unavailable, they stay queued
+                return new MockResponse().setResponseCode(503);
+            }
+        });
+        server.start();
+
+        Application app = RuntimeEnvironment.getApplication();
+        AuthTokenHolder tokenHolder = AuthTokenHolder.getInstance(app);
+        tokenHolder.saveTokens(new AuthTokens("access", "refresh", "Bearer", 3600L));
+        Retrofit retrofit = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .client(new OkHttpClient())
+                .addConverterFactory(GsonConverterFactory.create(GsonProvider.get()))
+                .build();
+        AppointmentApiService api = retrofit.create(AppointmentApiService.class);
+        outbox = new Outbox(app, tokenHolder, api,
+                retrofit.create(NotificationApiService.class),
+                retrofit.create(IndicatorApiService.class));
+        outbox.clear();
+        localStore = AppointmentLocalStore.getInstance(app);
+        localStore.clear();
+        repository = new AppointmentRepository(tokenHolder, api, localStore, outbox);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    // -------------------------------------------------------------------------
+    // Status decisions
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void queuedStatusSurvivesCacheAndSync() throws Exception {
+        doctorList.set(List.of(appointment(5L, "PENDING")));
+        Appointment shown = sync(true).get(0);
+
+        AtomicReference<Appointment> queued = new AtomicReference<>();
+        repository.updateAppointmentStatus(shown, statusRequest("ACCEPTED"),
+                new AppointmentRepository.UpdateStatusCallback() {
+                    @Override
+                    public void onSuccess(@NonNull Appointment updated) {
+                        throw new AssertionError("Backend is down");
+                    }
+
+                    @Override
+                    public void onQueued(@NonNull Appointment pending) {
+                        queued.set(pending);
+                    }
+
+                    @Override
+                    public void onError(@Nullable Throwable throwable,
+                                        @Nullable Integer httpCode,
+                                        @Nullable String errorBody) {
+                        throw new AssertionError("Backend is down");
+                    }
+                });
+        await(() -> queued.get() != null);
+
+        // A copy: the instance on screen is not changed behind the adapter's back
+        assertEquals("ACCEPTED", queued.get().getStatus());
+        assertNotSame(shown, queued.get());
+        assertEquals("PENDING", shown.getStatus());
+
+        // Server still answers PENDING: the queued decision wins, cached and synced
+        Sync next = startSync(true);
+        await(() -> next.synced.get() != null);
+        assertEquals("ACCEPTED", next.cached.get().get(0).getStatus());
+        assertEquals("ACCEPTED", next.synced.get().get(0).getStatus());
+        assertTrue(listRequests.get(1).contains("from="));
+    }
+
+    // -------------------------------------------------------------------------
+    // Booking placeholders
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void windowedSyncKeepsQueuedBooking() throws Exception {
+        sync(false);
+        AtomicReference<Boolean> queued = new AtomicReference<>(false);
+        repository.createAppointment(bookingRequest(), new AppointmentRepository.CreateAppointmentCallback() {
+            @Override
+            public void onSuccess(@NonNull Appointment appointment) {
+                throw new AssertionError("Backend is down");
+            }
+
+            @Override
+            public void onQueued() {
+                queued.set(true);
+            }
+
+            @Override
+            public void onError(@Nullable Throwable throwable,
+                                @Nullable Integer httpCode,
+                                @Nullable String errorBody) {
+                throw new AssertionError("Backend is down");
+            }
+        });
+        await(queued::get);
+
+        // Delta sync whose window covers the booking, which the server does not know yet
+        List<Appointment> synced = sync(false);
+        assertTrue(listRequests.get(1).contains("from="));
+        assertEquals(1, synced.size());
+        assertTrue(synced.get(0).getId() < 0L);
+        assertEquals(START_AT, synced.get(0).getStartAt());
+    }
+
+    @Test
+    public void placeholderWhoseBookingLeftTheOutboxIsDropped() throws Exception {
+        windowedSyncKeepsQueuedBooking();
+
+        // Sent or refused with nobody listening, e.g. after a process restart
+        outbox.clear();
+        patientList.set(List.of(appointment(9L, "PENDING")));
+
+        List<Appointment> synced = sync(false);
+        assertEquals(1, synced.size());
+        assertEquals(Long.valueOf(9L), synced.get(0).getId());
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    private static final class Sync implements AppointmentRepository.SyncAppointmentsCallback {
+        final AtomicReference<List<Appointment>> cached = new AtomicReference<>();
+        final AtomicReference<List<Appointment>> synced = new AtomicReference<>();
+
+        @Override
+        public void onCached(@NonNull List<Appointment> list) {
+            cached.set(list);
+        }
+
+        @Override
+        public void onSynced(@NonNull List<Appointment> list) {
+            synced.set(list);
+        }
+
+        @Override
+        public void onError(@Nullable Throwable throwable,
+                            @Nullable Integer httpCode,
+                            @Nullable String errorBody) {
+            throw new AssertionError("Sync failed: " + httpCode, throwable);
+        }
+    }
+
+    private Sync startSync(boolean doctor) {
+        Sync sync = new Sync();
+        if (doctor) {
+            repository.syncDoctorAppointments(sync);
+        } else {
+            repository.syncMyAppointments(sync);
+        }
+        return sync;
+    }
+
+    private List<Appointment> sync(boolean doctor) throws InterruptedException {
+        Sync sync = startSync(doctor);
+        await(() -> sync.synced.get() != null);
+        return sync.synced.get();
+    }
+
+    /**
+     * Outbox callbacks and pending-operation reads are delivered on the main thread.
+     */
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (true) {
+            ShadowLooper.idleMainLooper();
+            if (condition.getAsBoolean()) return;
+            if (System.nanoTime() > deadline) throw new AssertionError("Timed out");
+            Thread.sleep(10L);
+        }
+    }
+
+    private static Appointment appointment(long id, String status) {
+        Appointment appointment = new Appointment();
+        appointment.setId(id);
+        appointment.setDoctorId(3L);
+        appointment.setStartAt(START_AT);
+        appointment.setEndAt("2099-01-05T09:30:00");
+        appointment.setStatus(status);
+        return appointment;
+    }
+
+    private static AppointmentCreateRequest bookingRequest() {
+        AppointmentCreateRequest request = new AppointmentCreateRequest();
+        request.setDoctorId(3L);
+        request.setStartAt(START_AT);
+        request.setEndAt("2099-01-05T09:30:00");
+        return request;
+    }
+
+    private static AppointmentStatusUpdateRequest statusRequest(String status) {
+        AppointmentStatusUpdateRequest request = new AppointmentStatusUpdateRequest();
+        request.setStatus(status);
+        return request;
+    }
+
+    private static MockResponse json(List<Appointment> items) {
+        ListResponseDto<Appointment> body = new ListResponseDto<>();
+        body.setItems(items);
+        body.setTotal(items.size());
+        return new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody(GsonProvider.get().toJson(body));
+    }
+}
@@ -0,0 +1,219 @@
+package tn.esprit.data.doctor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import tn.esprit.domain.doctor.DoctorSearchFilters;
+import tn.esprit.domain.doctor.DoctorSearchResult;
+
+/**
+ * {@link DoctorSearchCache}: which filters share an entry, and how an entry ages from
+ * fresh to stale to gone, in memory and across restarts on disk.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class DoctorSearchCacheTest {
+
+    private static final long T0 = 1_700_000_000_000L;
+
+    @Rule
+    public final TemporaryFolder cacheDir = new TemporaryFolder();
+
+    private final AtomicLong now = new AtomicLong(T0);
+    private DoctorSearchCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new DoctorSearchCache(cacheDir.getRoot(), now::get);
+        DoctorSearchCache.resetMetrics();
+    }
+
+    // -------------------------------------------------------------------------
+    // Key
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void textFiltersAreNormalized() {
+        assertEquals(
+                DoctorSearchCache.keyOf(filters("cardio paris", "tunis")),
+                DoctorSearchCache.keyOf(filters("  Cardio \t  PARIS ", " Tunis")));
+        assertEquals(
+                DoctorSearchCache.keyOf(filters(null, null)),
+                DoctorSearchCache.keyOf(filters("  ", "")));
+    }
+
+    @Test
+    public void otherFiltersSplitTheKey() {
+        DoctorSearchFilters plain = filters("cardio", null);
+        DoctorSearchFilters specialty = filters("cardio", null);
+        specialty.setSpecialtyId(4L);
+        DoctorSearchFilters teleconsultation = filters("cardio", null);
+        teleconsultation.setTeleconsultationEnabled(true);
+        DoctorSearchFilters inPerson = filters("cardio", null);
+        inPerson.setTeleconsultationEnabled(false);
+
+        String key = DoctorSearchCache.keyOf(plain);
+        assertNotEquals(key, DoctorSearchCache.keyOf(specialty));
+        assertNotEquals(key, DoctorSearchCache.keyOf(teleconsultation));
+        assertNotEquals(DoctorSearchCache.keyOf(teleconsultation), DoctorSearchCache.keyOf(inPerson));
+        // Query text and city do not collide either
+        assertNotEquals(
+                DoctorSearchCache.keyOf(filters("tunis", null)),
+                DoctorSearchCache.keyOf(filters(null, "tunis")));
+    }
+
+    // -------------------------------------------------------------------------
+    // Memory
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void memoryEntryAgesFromFreshToStaleToGone() {
+        String key = DoctorSearchCache.keyOf(filters("cardio", null));
+        cache.put(key, results(1L, 2L));
+
+        now.set(T0 + DoctorSearchCache.FRESH_MILLIS - 1L);
+        DoctorSearchCache.Entry fresh = cache.getFromMemory(key);
+        assertNotNull(fresh);
+        assertTrue(fresh.isFresh(now.get()));
+
+        // Stale: still served, the caller revalidates
+        now.set(T0 + DoctorSearchCache.FRESH_MILLIS);
+        DoctorSearchCache.Entry stale = cache.getFromMemory(key);
+        assertNotNull(stale);
+        assertFalse(stale.isFresh(now.get()));
+        assertEquals(2, stale.results.size());
+
+        now.set(T0 + DoctorSearchCache.MAX_STALE_MILLIS + 1L);
+        assertNull(cache.getFromMemory(key));
+        // Dropped, not just hidden
+        now.set(T0);
+        assertNull(cache.getFromMemory(key));
+
+        assertEquals("memory=2, disk=0, stale=1, misses=0, ratio=1.00", DoctorSearchCache.summary());
+    }
+
+    @Test
+    public void storedResultsAreACopy() {
+        String key = DoctorSearchCache.keyOf(filters("cardio", null));
+        List<DoctorSearchResult> results = results(1L);
+        cache.put(key, results);
+        results.clear();
+
+        assertEquals(1, cache.getFromMemory(key).results.size());
+    }
+
+    // -------------------------------------------------------------------------
+    // Disk
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void diskEntryIsServedStaleAfterARestart() throws Exception {
+        String key = DoctorSearchCache.keyOf(filters("cardio", null));
+        cache.put(key, results(1L, 2L));
+        flush(cache, key);
+
+        now.set(T0 + DoctorSearchCache.FRESH_MILLIS + 1L);
+        DoctorSearchCache restarted = new DoctorSearchCache(cacheDir.getRoot(), now::get);
+        assertNull(restarted.getFromMemory(key));
+
+        DoctorSearchCache.Entry stored = load(restarted, key);
+        assertNotNull(stored);
+        assertEquals(T0, stored.storedAt);
+        assertFalse(stored.isFresh(now.get()));
+        assertEquals(Long.valueOf(2L), stored.results.get(1).getDoctorId());
+        // Promoted to memory
+        assertNotNull(restarted.getFromMemory(key));
+    }
+
+    @Test
+    public void expiredDiskEntryIsAMiss() throws Exception {
+        String key = DoctorSearchCache.keyOf(filters("cardio", null));
+        cache.put(key, results(1L));
+        flush(cache, key);
+        DoctorSearchCache.resetMetrics();
+
+        now.set(T0 + DoctorSearchCache.MAX_STALE_MILLIS + 1L);
+        assertNull(load(new DoctorSearchCache(cacheDir.getRoot(), now::get), key));
+        assertEquals("memory=0, disk=0, stale=0, misses=1, ratio=0.00", DoctorSearchCache.summary());
+    }
+
+    @Test
+    public void unreadableFileIsDropped() throws Exception {
+        String key = DoctorSearchCache.keyOf(filters("cardio", null));
+        cache.put(key, results(1L));
+        flush(cache, key);
+
+        File[] files = cacheDir.getRoot().listFiles();
+        assertNotNull(files);
+        assertEquals(1, files.length);
+        try (FileOutputStream out = new FileOutputStream(files[0])) {
+            out.write("{ not json".getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertNull(load(new DoctorSearchCache(cacheDir.getRoot(), now::get), key));
+        assertFalse(files[0].exists());
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    /**
+     * Disk reads queue behind the pending writes of the same cache.
+     */
+    private static void flush(DoctorSearchCache cache, String key) throws InterruptedException {
+        load(cache, key);
+    }
+
+    private static DoctorSearchCache.Entry load(DoctorSearchCache cache, String key)
+            throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<DoctorSearchCache.Entry> loaded = new AtomicReference<>();
+        cache.loadFromDisk(key, entry -> {
+            loaded.set(entry);
+            done.countDown();
+        });
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        return loaded.get();
+    }
+
+    private static DoctorSearchFilters filters(String query, String city) {
+        DoctorSearchFilters filters = new DoctorSearchFilters();
+        filters.setQuery(query);
+        filters.setCity(city);
+        return filters;
+    }
+
+    private static List<DoctorSearchResult> results(long... doctorIds) {
+        List<DoctorSearchResult> results = new ArrayList<>();
+        for (long id : doctorIds) {
+            DoctorSearchResult result = new DoctorSearchResult();
+            result.setDoctorId(id);
+            result.setLastName("Doctor " + id);
+            results.add(result);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,144 @@
+package tn.esprit.data.history;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import tn.esprit.domain.history.UserHistoryEntry;
+
+/**
+ * {@link HistoryPageStore}: pages keyed by (category, cursor) and the
+ * {@value HistoryPageStore#MAX_PAGES}-page cap.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class HistoryPageStoreTest {
+
+    private HistoryPageStore store;
+
+    @Before
+    public void setUp() {
+        store = new HistoryPageStore(RuntimeEnvironment.getApplication());
+    }
+
+    @Test
+    public void missReturnsNull() throws Exception {
+        assertNull(read("ALL", null));
+        assertNull(read("ALL", 100L));
+    }
+
+    @Test
+    public void pagesAreKeyedByCategoryAndCursor() throws Exception {
+        store.write("ALL", null, entries(100, 71), 71L);
+        store.write("ALL", 71L, entries(70, 41), 41L);
+        store.write("APPOINTMENTS", null, entries(99, 99), null);
+
+        HistoryPageStore.Page head = read("ALL", null);
+        assertNotNull(head);
+        assertEquals(100L, (long) head.items.get(0).getId());
+        assertEquals(Long.valueOf(71L), head.nextCursor);
+
+        HistoryPageStore.Page older = read("ALL", 71L);
+        assertNotNull(older);
+        assertEquals(70L, (long) older.items.get(0).getId());
+        assertEquals(30, older.items.size());
+
+        HistoryPageStore.Page other = read("APPOINTMENTS", null);
+        assertNotNull(other);
+        assertNull(other.nextCursor);
+        assertNull(read("APPOINTMENTS", 71L));
+    }
+
+    @Test
+    public void rewriteReplacesPage() throws Exception {
+        store.write("ALL", null, entries(100, 71), 71L);
+        store.write("ALL", null, entries(102, 73), 73L);
+
+        HistoryPageStore.Page head = read("ALL", null);
+        assertNotNull(head);
+        assertEquals(102L, (long) head.items.get(0).getId());
+        assertEquals(Long.valueOf(73L), head.nextCursor);
+    }
+
+    @Test
+    public void leastRecentlyFetchedPagesAreEvicted() throws Exception {
+        int max = HistoryPageStore.MAX_PAGES;
+        for (long cursor = 1; cursor <= max; cursor++) {
+            store.write("ALL", cursor, entries(cursor, cursor), null);
+        }
+        // Fetched again: now the most recent one
+        store.write("ALL", 1L, entries(1, 1), null);
+        store.write("ALL", max + 1L, entries(max + 1L, max + 1L), null);
+
+        assertNotNull(read("ALL", 1L));
+        assertNull("Least recently fetched page kept", read("ALL", 2L));
+        assertNotNull(read("ALL", 3L));
+        assertNotNull(read("ALL", max + 1L));
+    }
+
+    @Test
+    public void clearForgetsEveryPage() throws Exception {
+        store.write("ALL", null, entries(10, 1), null);
+        store.write("ALL", 5L, entries(4, 1), null);
+
+        store.clear();
+
+        assertNull(read("ALL", null));
+        assertNull(read("ALL", 5L));
+    }
+
+    @Test
+    public void pageRemembersWhenItWasFetched() throws Exception {
+        long before = System.currentTimeMillis();
+        store.write("ALL", null, entries(3, 1), null);
+
+        HistoryPageStore.Page page = read("ALL", null);
+        assertNotNull(page);
+        assertTrue(page.fetchedAt >= before && page.fetchedAt <= System.currentTimeMillis());
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    private HistoryPageStore.Page read(String category, Long beforeId) throws InterruptedException {
+        AtomicReference<HistoryPageStore.Page> result = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        store.read(category, beforeId, page -> {
+            result.set(page);
+            done.countDown();
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        return result.get();
+    }
+
+    /**
+     * Entries newestId down to oldestId, newest first.
+     */
+    static List<UserHistoryEntry> entries(long newestId, long oldestId) {
+        List<UserHistoryEntry> list = new ArrayList<>();
+        for (long id = newestId; id >= oldestId; id--) {
+            list.add(entry(id, "APPOINTMENT_CREATED"));
+        }
+        return list;
+    }
+
+    static UserHistoryEntry entry(long id, String eventType) {
+        return new UserHistoryEntry(id, eventType, "event " + id, null,
+                String.format("2026-01-01T%08d", id), null, false);
+    }
+}
@@ -0,0 +1,293 @@
+package tn.esprit.data.history;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static tn.esprit.data.history.HistoryPageStoreTest.entries;
+import static tn.esprit.data.history.HistoryPageStoreTest.entry;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+import tn.esprit.data.auth.AuthTokenHolder;
+import tn.esprit.data.remote.history.UserHistoryApiService;
+import tn.esprit.data.remote.json.GsonProvider;
+import tn.esprit.domain.auth.AuthTokens;
+import tn.esprit.domain.history.HistoryCategory;
+import tn.esprit.domain.history.UserHistoryEntry;
+
+/**
+ * {@link UserHistoryRepository} against a local server: cursors, the "no paging" fallback
+ * and when a cached page is served instead of a fresh one.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class UserHistoryRepositoryTest {
+
+    private static final int PAGE = UserHistoryRepository.PAGE_SIZE;
+
+    private final AtomicLong clockOffset = new AtomicLong();
+    private MockWebServer server;
+    private AuthTokenHolder tokenHolder;
+    private UserHistoryRepository repository;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        Application app = RuntimeEnvironment.getApplication();
+        tokenHolder = AuthTokenHolder.getInstance(app);
+        tokenHolder.saveTokens(new AuthTokens("access", "refresh", "Bearer", 3600L));
+        HistoryPageStore pageStore = new HistoryPageStore(app);
+        pageStore.clear();
+        UserHistoryApiService api = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .addConverterFactory(GsonConverterFactory.create(GsonProvider.get()))
+                .build()
+                .create(UserHistoryApiService.class);
+        repository = new UserHistoryRepository(tokenHolder, api, pageStore,
+                () -> System.currentTimeMillis() + clockOffset.get());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    // -------------------------------------------------------------------------
+    // Cursors
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void fullPageContinuesFromItsLastEntry() throws Exception {
+        server.enqueue(json(entries(100, 71)));
+        server.enqueue(json(entries(70, 41)));
+
+        Event head = load(HistoryCategory.ALL, null).next();
+        assertEquals(PAGE, head.items.size());
+        assertEquals(Long.valueOf(71L), head.cursor);
+        assertFalse(head.fromCache);
+        assertEquals("/api/history?limit=30", server.takeRequest().getPath());
+
+        Event older = load(HistoryCategory.ALL, head.cursor).next();
+        assertEquals(Long.valueOf(70L), older.items.get(0).getId());
+        assertEquals(Long.valueOf(41L), older.cursor);
+        assertEquals("/api/history?limit=30&before=71", server.takeRequest().getPath());
+    }
+
+    @Test
+    public void shortPageIsTheLast() throws Exception {
+        server.enqueue(json(entries(12, 1)));
+
+        Event page = load(HistoryCategory.ALL, null).next();
+
+        assertEquals(12, page.items.size());
+        assertNull(page.cursor);
+    }
+
+    @Test
+    public void oversizedAnswerIsTheWholeHistory() throws Exception {
+        // Backend ignoring limit / before
+        server.enqueue(json(entries(75, 1)));
+
+        Event page = load(HistoryCategory.ALL, null).next();
+
+        assertEquals(75, page.items.size());
+        assertNull(page.cursor);
+    }
+
+    @Test
+    public void categoryIsFilteredHereWhenTheServerIgnoresIt() throws Exception {
+        List<UserHistoryEntry> mixed = new ArrayList<>();
+        for (long id = 100; id > 100 - PAGE; id--) {
+            mixed.add(entry(id, id % 3 == 0 ? "APPOINTMENT_CREATED" : "INDICATOR_ADDED"));
+        }
+        server.enqueue(json(mixed));
+
+        Event page = load(HistoryCategory.APPOINTMENTS, null).next();
+
+        assertEquals(10, page.items.size());
+        for (UserHistoryEntry item : page.items) {
+            assertEquals("APPOINTMENT_CREATED", item.getEventType());
+        }
+        // The server page was full: the cursor is its last entry, matching or not
+        assertEquals(Long.valueOf(71L), page.cursor);
+        assertEquals("/api/history?limit=30&category=APPOINTMENTS", server.takeRequest().getPath());
+    }
+
+    // -------------------------------------------------------------------------
+    // Cache
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void newestPageIsShownFromCacheThenRevalidated() throws Exception {
+        server.enqueue(json(entries(100, 71)));
+        load(HistoryCategory.ALL, null).next();
+
+        server.enqueue(json(entries(101, 72)));
+        Events second = load(HistoryCategory.ALL, null);
+
+        Event cached = second.next();
+        assertTrue(cached.fromCache);
+        assertEquals(Long.valueOf(100L), cached.items.get(0).getId());
+        Event fresh = second.next();
+        assertFalse(fresh.fromCache);
+        assertEquals(Long.valueOf(101L), fresh.items.get(0).getId());
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void olderPageWithinTtlIsServedFromCache() throws Exception {
+        server.enqueue(json(entries(70, 41)));
+        load(HistoryCategory.ALL, 71L).next();
+
+        clockOffset.set(UserHistoryRepository.OLDER_PAGE_TTL_MILLIS - 60_000L);
+        Events again = load(HistoryCategory.ALL, 71L);
+
+        Event cached = again.next();
+        assertTrue(cached.fromCache);
+        assertEquals(Long.valueOf(41L), cached.cursor);
+        again.assertNoMore();
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void olderPagePastTtlIsFetchedAgain() throws Exception {
+        server.enqueue(json(entries(70, 41)));
+        load(HistoryCategory.ALL, 71L).next();
+
+        clockOffset.set(UserHistoryRepository.OLDER_PAGE_TTL_MILLIS + 1L);
+        server.enqueue(json(entries(69, 40)));
+        Events again = load(HistoryCategory.ALL, 71L);
+
+        Event fresh = again.next();
+        assertFalse(fresh.fromCache);
+        assertEquals(Long.valueOf(69L), fresh.items.get(0).getId());
+        again.assertNoMore();
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void offlineStaleOlderPageBeatsAnError() throws Exception {
+        server.enqueue(json(entries(70, 41)));
+        load(HistoryCategory.ALL, 71L).next();
+
+        clockOffset.set(UserHistoryRepository.OLDER_PAGE_TTL_MILLIS + 1L);
+        server.shutdown();
+        Events offline = load(HistoryCategory.ALL, 71L);
+
+        Event stale = offline.next();
+        assertTrue(stale.fromCache);
+        assertEquals(Long.valueOf(70L), stale.items.get(0).getId());
+        offline.assertNoMore();
+    }
+
+    @Test
+    public void offlineNewestPageShowsCacheThenTheError() throws Exception {
+        server.enqueue(json(entries(100, 71)));
+        load(HistoryCategory.ALL, null).next();
+
+        server.shutdown();
+        Events offline = load(HistoryCategory.ALL, null);
+
+        assertTrue(offline.next().fromCache);
+        Event error = offline.next();
+        assertTrue(error.error);
+        assertNotNull(error.throwable);
+    }
+
+    @Test
+    public void signedOutFailsWithoutRequest() throws Exception {
+        tokenHolder.clearTokens();
+
+        Event error = load(HistoryCategory.ALL, null).next();
+
+        assertTrue(error.error);
+        assertEquals(Integer.valueOf(401), error.httpCode);
+        assertEquals(0, server.getRequestCount());
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    private Events load(HistoryCategory category, Long beforeId) {
+        Events events = new Events();
+        repository.loadPage(category, beforeId, events);
+        return events;
+    }
+
+    private static MockResponse json(List<UserHistoryEntry> entries) {
+        return new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody(GsonProvider.get().toJson(entries));
+    }
+
+    private static final class Event {
+        List<UserHistoryEntry> items;
+        Long cursor;
+        boolean fromCache;
+        Throwable throwable;
+        Integer httpCode;
+        boolean error;
+    }
+
+    private static final class Events implements UserHistoryRepository.PageCallback {
+        private final BlockingQueue<Event> queue = new LinkedBlockingQueue<>();
+
+        @Override
+        public void onPage(@NonNull List<UserHistoryEntry> items,
+                           @Nullable Long nextCursor,
+                           boolean fromCache) {
+            Event event = new Event();
+            event.items = items;
+            event.cursor = nextCursor;
+            event.fromCache = fromCache;
+            queue.add(event);
+        }
+
+        @Override
+        public void onError(@Nullable Throwable throwable,
+                            @Nullable Integer httpCode,
+                            @Nullable String errorBody) {
+            Event event = new Event();
+            event.error = true;
+            event.throwable = throwable;
+            event.httpCode = httpCode;
+            queue.add(event);
+        }
+
+        Event next() throws InterruptedException {
+            Event event = queue.poll(10, TimeUnit.SECONDS);
+            if (event == null) throw new AssertionError("No callback");
+            return event;
+        }
+
+        void assertNoMore() throws InterruptedException {
+            assertNull(queue.poll(300, TimeUnit.MILLISECONDS));
+        }
+    }
+}
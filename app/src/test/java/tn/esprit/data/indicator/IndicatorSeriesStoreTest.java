@@ -0,0 +1,198 @@
+package tn.esprit.data.indicator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import tn.esprit.domain.indicator.PatientIndicator;
+
+/**
+ * {@link IndicatorSeriesStore}: which part of a range still has to be fetched, and how a
+ * fetched range is folded into the series.
+ */
+public class IndicatorSeriesStoreTest {
+
+    private static final String SCOPE = "me";
+    private static final Long PULSE = 1L;
+    private static final Long WEIGHT = 2L;
+
+    private final IndicatorSeriesStore store = IndicatorSeriesStore.getInstance();
+
+    @Before
+    public void setUp() {
+        store.clear();
+    }
+
+    // -------------------------------------------------------------------------
+    // Coverage sweep
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void unknownScopeMissesWholeRange() {
+        assertRange(null, null, store.missingRange(SCOPE, null, null, null, false));
+        assertRange("2025-01-01", "2025-01-31",
+                store.missingRange(SCOPE, PULSE, "2025-01-01", "2025-01-31", false));
+    }
+
+    @Test
+    public void fetchedRangeIsCovered() {
+        store.mergeRange(SCOPE, null, "2025-01-01", "2025-01-31", Collections.emptyList());
+
+        assertNull(store.missingRange(SCOPE, null, "2025-01-01", "2025-01-31", false));
+        assertNull(store.missingRange(SCOPE, null, "2025-01-10", "2025-01-20", false));
+        // All-types fetch covers every type
+        assertNull(store.missingRange(SCOPE, PULSE, "2025-01-10", "2025-01-20", false));
+    }
+
+    @Test
+    public void gapAtEitherEndIsReturned() {
+        store.mergeRange(SCOPE, null, "2025-01-10", "2025-01-20", Collections.emptyList());
+
+        assertRange("2025-01-20", "2025-01-31",
+                store.missingRange(SCOPE, null, "2025-01-15", "2025-01-31", false));
+        assertRange("2025-01-01", "2025-01-10",
+                store.missingRange(SCOPE, null, "2025-01-01", "2025-01-15", false));
+        // Open bounds stay open
+        assertRange("2025-01-20", null,
+                store.missingRange(SCOPE, null, "2025-01-15", null, false));
+    }
+
+    @Test
+    public void gapsOnBothSidesAreSpannedByOneRange() {
+        store.mergeRange(SCOPE, null, "2025-01-10", "2025-01-20", Collections.emptyList());
+
+        assertRange("2025-01-01", "2025-01-31",
+                store.missingRange(SCOPE, null, "2025-01-01", "2025-01-31", false));
+    }
+
+    @Test
+    public void holeBetweenTwoFetchesIsReturned() {
+        store.mergeRange(SCOPE, null, "2025-01-01", "2025-01-10", Collections.emptyList());
+        store.mergeRange(SCOPE, null, "2025-01-20", "2025-01-31", Collections.emptyList());
+
+        assertRange("2025-01-10", "2025-01-20",
+                store.missingRange(SCOPE, null, "2025-01-01", "2025-01-31", false));
+    }
+
+    @Test
+    public void adjacentAndOverlappingFetchesJoin() {
+        // Fetched out of order, touching and overlapping
+        store.mergeRange(SCOPE, null, "2025-01-15", "2025-01-31", Collections.emptyList());
+        store.mergeRange(SCOPE, null, "2025-01-01", "2025-01-10", Collections.emptyList());
+        store.mergeRange(SCOPE, null, "2025-01-08", "2025-01-15", Collections.emptyList());
+
+        assertNull(store.missingRange(SCOPE, null, "2025-01-01", "2025-01-31", false));
+    }
+
+    @Test
+    public void typeFetchDoesNotCoverOtherTypes() {
+        store.mergeRange(SCOPE, PULSE, null, null, Collections.emptyList());
+
+        assertNull(store.missingRange(SCOPE, PULSE, "2025-01-01", "2025-01-31", false));
+        assertRange("2025-01-01", "2025-01-31",
+                store.missingRange(SCOPE, WEIGHT, "2025-01-01", "2025-01-31", false));
+        assertRange(null, null, store.missingRange(SCOPE, null, null, null, false));
+    }
+
+    @Test
+    public void refreshIgnoresCoverage() {
+        store.mergeRange(SCOPE, null, null, null, Collections.emptyList());
+        assertNull(store.missingRange(SCOPE, PULSE, "2025-01-01", "2025-01-31", false));
+
+        assertRange("2025-01-01", "2025-01-31",
+                store.missingRange(SCOPE, PULSE, "2025-01-01", "2025-01-31", true));
+        assertRange(null, null, store.missingRange(SCOPE, null, null, null, true));
+    }
+
+    // -------------------------------------------------------------------------
+    // Merging
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void queryFiltersByTypeAndRangeNewestFirst() {
+        store.mergeRange(SCOPE, null, null, null, List.of(
+                indicator(1, PULSE, "2025-01-05T08:00:00"),
+                indicator(2, WEIGHT, "2025-01-06T08:00:00"),
+                indicator(3, PULSE, "2025-01-20T08:00:00"),
+                indicator(4, PULSE, "2025-02-02T08:00:00")));
+
+        assertEquals(List.of(4L, 3L, 2L, 1L), ids(store.query(SCOPE, null, null, null)));
+        assertEquals(List.of(4L, 3L, 1L), ids(store.query(SCOPE, PULSE, null, null)));
+        // The upper bound is inclusive for the whole second
+        assertEquals(List.of(3L, 2L),
+                ids(store.query(SCOPE, null, "2025-01-06T08:00:00", "2025-01-20T08:00:00")));
+    }
+
+    @Test
+    public void mergeReplacesOnlyTheFetchedWindow() {
+        store.mergeRange(SCOPE, null, null, null, List.of(
+                indicator(1, PULSE, "2025-01-05T08:00:00"),
+                indicator(2, PULSE, "2025-01-15T08:00:00"),
+                indicator(3, PULSE, "2025-01-25T08:00:00")));
+
+        // Server answer for [01-10, 01-20]: #2 was deleted elsewhere, #5 added
+        store.mergeRange(SCOPE, null, "2025-01-10", "2025-01-20", List.of(
+                indicator(5, PULSE, "2025-01-12T08:00:00")));
+
+        assertEquals(List.of(3L, 5L, 1L), ids(store.query(SCOPE, null, null, null)));
+    }
+
+    @Test
+    public void typeMergeLeavesOtherTypes() {
+        store.mergeRange(SCOPE, null, null, null, List.of(
+                indicator(1, PULSE, "2025-01-05T08:00:00"),
+                indicator(2, WEIGHT, "2025-01-06T08:00:00")));
+
+        store.mergeRange(SCOPE, PULSE, null, null, Collections.emptyList());
+
+        assertEquals(List.of(2L), ids(store.query(SCOPE, null, null, null)));
+        assertEquals(List.of(2L), ids(store.query(SCOPE, WEIGHT, null, null)));
+    }
+
+    @Test
+    public void mergeMovesRemeasuredItem() {
+        store.mergeRange(SCOPE, null, null, null, List.of(
+                indicator(1, PULSE, "2025-01-05T08:00:00")));
+
+        // Same id, new timestamp and type: no stale copy left under the old keys
+        store.mergeRange(SCOPE, null, "2025-02-01", "2025-02-28", List.of(
+                indicator(1, WEIGHT, "2025-02-03T08:00:00")));
+
+        assertEquals(List.of(1L), ids(store.query(SCOPE, null, null, null)));
+        assertEquals(Collections.emptyList(), ids(store.query(SCOPE, PULSE, null, null)));
+        assertEquals(List.of(1L), ids(store.query(SCOPE, WEIGHT, "2025-02-01", null)));
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    private static void assertRange(String from, String to, IndicatorSeriesStore.Range range) {
+        assertNotNull("Expected a missing range", range);
+        assertEquals(from, range.fromIso);
+        assertEquals(to, range.toIso);
+    }
+
+    private static PatientIndicator indicator(long id, Long typeId, String measuredAt) {
+        PatientIndicator indicator = new PatientIndicator();
+        indicator.setId(id);
+        indicator.setIndicatorTypeId(typeId);
+        indicator.setMeasuredAt(measuredAt);
+        return indicator;
+    }
+
+    private static List<Long> ids(List<PatientIndicator> indicators) {
+        List<Long> ids = new ArrayList<>();
+        for (PatientIndicator indicator : indicators) {
+            ids.add(indicator.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,166 @@
+package tn.esprit.data.medication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Application;
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import tn.esprit.data.medication.MedicationReminderStore.Reminder;
+
+/**
+ * {@link MedicationReminderStore}: reminders of older versions imported from preferences,
+ * stored ones loaded off the caller's thread, and a failed load not taken for "none".
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class MedicationReminderStoreTest {
+
+    private static final String DB_NAME = "medication_reminders.db";
+
+    private Application app;
+    private SharedPreferences legacy;
+
+    @Before
+    public void setUp() {
+        app = RuntimeEnvironment.getApplication();
+        app.deleteDatabase(DB_NAME);
+        legacy = app.getSharedPreferences("medication_reminders", Context.MODE_PRIVATE);
+        legacy.edit().clear().commit();
+    }
+
+    // -------------------------------------------------------------------------
+    // Legacy preferences
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void legacyRemindersAreImportedOnce() {
+        legacy.edit()
+                .putInt("line_12_hour", 8)
+                .putInt("line_12_minute", 30)
+                .putString("line_12_name", "Aspirin")
+                // Incomplete or foreign keys are skipped
+                .putInt("line_13_hour", 9)
+                .putInt("line_x_hour", 10)
+                .putString("theme", "dark")
+                .commit();
+
+        List<Reminder> imported = new MedicationReminderStore(app).getAll();
+
+        assertEquals(1, imported.size());
+        assertReminder(imported.get(0), 12L, 8, 30, "Aspirin");
+        assertTrue(legacy.getAll().isEmpty());
+
+        // Now in SQLite: a new process reads it back without the preferences
+        List<Reminder> reloaded = new MedicationReminderStore(app).getAll();
+        assertEquals(1, reloaded.size());
+        assertReminder(reloaded.get(0), 12L, 8, 30, "Aspirin");
+    }
+
+    // -------------------------------------------------------------------------
+    // Loading
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void storedRemindersLoadInTheBackground() throws Exception {
+        MedicationReminderStore writer = new MedicationReminderStore(app);
+        writer.put(new Reminder(5L, 7, 15, "Metformin"));
+        writer.getAll();
+
+        MedicationReminderStore store = new MedicationReminderStore(app);
+        AtomicBoolean loaded = new AtomicBoolean();
+        store.whenLoaded(() -> loaded.set(true));
+
+        await(loaded::get);
+        assertReminder(store.get(5L), 5L, 7, 15, "Metformin");
+    }
+
+    @Test
+    public void writesMadeWhileLoadingAreKept() {
+        MedicationReminderStore writer = new MedicationReminderStore(app);
+        writer.put(new Reminder(5L, 7, 15, "Metformin"));
+        writer.put(new Reminder(6L, 20, 0, "Statin"));
+        writer.getAll();
+
+        MedicationReminderStore store = new MedicationReminderStore(app);
+        store.put(new Reminder(5L, 9, 45, "Metformin"));
+        store.remove(6L);
+
+        List<Reminder> all = store.getAll();
+        assertEquals(1, all.size());
+        assertReminder(all.get(0), 5L, 9, 45, "Metformin");
+        assertNull(store.get(6L));
+    }
+
+    @Test
+    public void failedLoadIsRetriedByTheNextRead() throws Exception {
+        legacy.edit()
+                .putInt("line_12_hour", 8)
+                .putInt("line_12_minute", 30)
+                .putString("line_12_name", "Aspirin")
+                .commit();
+        // A directory where the database file should be: opening it fails
+        File dbFile = app.getDatabasePath(DB_NAME);
+        assertTrue(dbFile.mkdirs());
+
+        MedicationReminderStore store = new MedicationReminderStore(app);
+        AtomicBoolean loaded = new AtomicBoolean();
+        store.whenLoaded(() -> loaded.set(true));
+        assertTrue(store.getAll().isEmpty());
+        ShadowLooper.idleMainLooper();
+        assertFalse(loaded.get());
+        // Legacy reminders are only dropped once they are in the database
+        assertFalse(legacy.getAll().isEmpty());
+
+        assertTrue(dbFile.delete());
+        store.get(12L);
+
+        await(loaded::get);
+        assertReminder(store.get(12L), 12L, 8, 30, "Aspirin");
+        assertTrue(legacy.getAll().isEmpty());
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    private static void assertReminder(Reminder reminder, long lineId, int hour, int minute,
+                                       String medicationName) {
+        assertNotNull(reminder);
+        assertEquals(lineId, reminder.lineId);
+        assertEquals(hour, reminder.hour);
+        assertEquals(minute, reminder.minute);
+        assertEquals(medicationName, reminder.medicationName);
+    }
+
+    /**
+     * {@link MedicationReminderStore#whenLoaded} posts to the main thread.
+     */
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (true) {
+            ShadowLooper.idleMainLooper();
+            if (condition.getAsBoolean()) return;
+            if (System.nanoTime() > deadline) throw new AssertionError("Timed out");
+            Thread.sleep(10L);
+        }
+    }
+}
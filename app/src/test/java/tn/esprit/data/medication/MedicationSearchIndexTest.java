@@ -0,0 +1,149 @@
+package tn.esprit.data.medication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import tn.esprit.domain.medication.Medication;
+
+/**
+ * {@link MedicationSearchIndex}: rank order (name prefix, code prefix, word start, infix),
+ * accent / case folding, and infix candidates taken from the trigram intersection.
+ */
+public class MedicationSearchIndexTest {
+
+    private final MedicationSearchIndex index = new MedicationSearchIndex(Arrays.asList(
+            med(1L, "J01CA04", "Amoxicilline"),
+            med(2L, null, "Amoxil"),
+            med(3L, "AMOX500", "Generique A"),
+            med(4L, null, "Acide amoxique"),
+            med(5L, "C1", "Clamoxyl"),
+            med(6L, null, "Éfferalgan"),
+            med(7L, null, "Paracétamol"),
+            null
+    ));
+
+    // -------------------------------------------------------------------------
+    // Ranking
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void ranksNamePrefixThenCodePrefixThenWordStartThenInfix() {
+        assertEquals(Arrays.asList(
+                        "Amoxicilline", "Amoxil",   // name prefix, alphabetical
+                        "Generique A",              // code AMOX500
+                        "Acide amoxique",           // word start
+                        "Clamoxyl"),                // infix
+                names(index.search("amox", 10)));
+    }
+
+    @Test
+    public void limitCutsAcrossRanks() {
+        assertEquals(Arrays.asList("Amoxicilline", "Amoxil", "Generique A"),
+                names(index.search("amox", 3)));
+        assertTrue(index.search("amox", 0).isEmpty());
+    }
+
+    @Test
+    public void shortQueriesMatchPrefixesOnly() {
+        // "am" is inside "Clamoxyl" and "Acide amoxique" but too short for the trigram index
+        assertEquals(Arrays.asList("Amoxicilline", "Amoxil", "Generique A"),
+                names(index.search("am", 10)));
+    }
+
+    @Test
+    public void codeInfixMatches() {
+        assertEquals(Arrays.asList("Amoxicilline"), names(index.search("1ca0", 10)));
+    }
+
+    @Test
+    public void emptyQueryListsAlphabetically() {
+        assertEquals(Arrays.asList("Acide amoxique", "Amoxicilline", "Amoxil"),
+                names(index.search("  ", 3)));
+        assertEquals(7, index.search(null, 100).size());
+    }
+
+    // -------------------------------------------------------------------------
+    // Normalization
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void accentsAndCaseAreFolded() {
+        assertEquals(Arrays.asList("Éfferalgan"), names(index.search("EFFER", 10)));
+        assertEquals(Arrays.asList("Paracétamol"), names(index.search("cetam", 10)));
+        assertEquals(Arrays.asList("Paracétamol"), names(index.search("  PARACÉ ", 10)));
+    }
+
+    // -------------------------------------------------------------------------
+    // Trigram intersection
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void everyTrigramMustMatchInOneRun() {
+        MedicationSearchIndex grams = new MedicationSearchIndex(Arrays.asList(
+                // Has "abc" and "bcd", not "abcd"
+                med(1L, null, "xabcx bcdx"),
+                // "abc" in the name, "bcd" in the code
+                med(2L, "bcdyy", "xxabc"),
+                med(3L, null, "zzabcdzz")
+        ));
+
+        assertEquals(Arrays.asList("zzabcdzz"), names(grams.search("abcd", 10)));
+    }
+
+    @Test
+    public void unknownTrigramMatchesNothing() {
+        assertTrue(index.search("moxq", 10).isEmpty());
+    }
+
+    @Test
+    public void infixCandidatesStayAlphabetical() {
+        MedicationSearchIndex grams = new MedicationSearchIndex(Arrays.asList(
+                med(1L, null, "zz-cillin"),
+                med(2L, null, "aa-cillin"),
+                med(3L, null, "mm-cillin")
+        ));
+
+        assertEquals(Arrays.asList("aa-cillin", "mm-cillin", "zz-cillin"),
+                names(grams.search("cillin", 10)));
+    }
+
+    // -------------------------------------------------------------------------
+    // Lookup
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void findsByDisplayName() {
+        MedicationSearchIndex byCode = new MedicationSearchIndex(Arrays.asList(
+                med(1L, "X42", null),
+                med(2L, null, " Amoxil ")
+        ));
+
+        assertEquals(Long.valueOf(1L), byCode.findByDisplayName("X42").getId());
+        assertEquals(Long.valueOf(2L), byCode.findByDisplayName("Amoxil").getId());
+        assertNull(byCode.findByDisplayName("amoxil"));
+        assertEquals(2, byCode.size());
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    private static Medication med(long id, String code, String name) {
+        return new Medication(id, code, name, null, true);
+    }
+
+    private static List<String> names(List<Medication> medications) {
+        List<String> names = new ArrayList<>();
+        for (Medication med : medications) {
+            names.add(med.getDisplayName());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,80 @@
+package tn.esprit.data.notification;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static tn.esprit.data.notification.NotificationStoreTest.item;
+import static tn.esprit.data.notification.NotificationStoreTest.items;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import tn.esprit.data.remote.common.ListResponseDto;
+import tn.esprit.domain.notification.NotificationItem;
+
+/**
+ * {@link NotificationRepository#nextCursorOf}: the server's cursor / has-more flag first,
+ * the page size only when the backend sends neither.
+ */
+public class NotificationRepositoryTest {
+
+    private static final int PAGE = NotificationRepository.PAGE_SIZE;
+
+    @Test
+    public void serverCursorWins() {
+        ListResponseDto<NotificationItem> body = body(items(12, 1));
+        body.setNextCursor(1L);
+        assertEquals(Long.valueOf(1L), NotificationRepository.nextCursorOf(body));
+
+        // Short page after filtering on the server side, still more to come
+        body = body(items(100, 90));
+        body.setNextCursor(42L);
+        assertEquals(Long.valueOf(42L), NotificationRepository.nextCursorOf(body));
+    }
+
+    @Test
+    public void hasMoreFlagOverridesThePageSize() {
+        ListResponseDto<NotificationItem> full = body(items(100, 71));
+        full.setHasMore(false);
+        assertNull(NotificationRepository.nextCursorOf(full));
+
+        ListResponseDto<NotificationItem> shortPage = body(items(100, 91));
+        shortPage.setHasMore(true);
+        assertEquals(Long.valueOf(91L), NotificationRepository.nextCursorOf(shortPage));
+    }
+
+    @Test
+    public void withoutFlagsOnlyAFullPageHasASuccessor() {
+        assertEquals(Long.valueOf(71L), NotificationRepository.nextCursorOf(body(items(100, 71))));
+        assertNull(NotificationRepository.nextCursorOf(body(items(100, 91))));
+        // Backend ignoring limit / before: the whole list
+        assertNull(NotificationRepository.nextCursorOf(body(items(100, 1))));
+        assertNull(NotificationRepository.nextCursorOf(null));
+    }
+
+    @Test
+    public void pageSizeCountsItemsDroppedAsInvalid() {
+        List<NotificationItem> sent = new ArrayList<>(items(100, 72));
+        sent.add(new NotificationItem());
+        assertEquals(PAGE, sent.size());
+
+        // Full page as sent: the cursor is its last item with an id
+        assertEquals(Long.valueOf(72L), NotificationRepository.nextCursorOf(body(sent)));
+
+        sent.set(0, item(101, false));
+        sent.remove(sent.size() - 1);
+        assertNull(NotificationRepository.nextCursorOf(body(sent)));
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    private static ListResponseDto<NotificationItem> body(List<NotificationItem> items) {
+        ListResponseDto<NotificationItem> body = new ListResponseDto<>();
+        body.setItems(items);
+        body.setTotal(items.size());
+        return body;
+    }
+}
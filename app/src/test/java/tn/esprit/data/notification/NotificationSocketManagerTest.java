@@ -0,0 +1,365 @@
+package tn.esprit.data.notification;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Application;
+import android.net.Network;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowNetwork;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import tn.esprit.data.auth.AuthTokenHolder;
+import tn.esprit.domain.auth.AuthTokens;
+import tn.esprit.domain.notification.NotificationItem;
+
+/**
+ * {@link NotificationSocketManager} against a local STOMP endpoint: the session state
+ * machine, reconnects (backoff, network changes) and what the listener is told.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class NotificationSocketManagerTest {
+
+    private static final long USER_ID = 7L;
+
+    private MockWebServer server;
+    private StompServer stomp;
+    private AuthTokenHolder tokenHolder;
+    private NotificationSocketManager manager;
+    private final Events events = new Events();
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        stomp = new StompServer();
+        server.setDispatcher(stomp.dispatcher());
+        server.start();
+        Application app = RuntimeEnvironment.getApplication();
+        tokenHolder = AuthTokenHolder.getInstance(app);
+        tokenHolder.saveTokens(new AuthTokens("access", "refresh", "Bearer", 3600L));
+        manager = new NotificationSocketManager(app, new OkHttpClient(), server.url("/"));
+        manager.setListener(events);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        manager.setListener(null);
+        manager.disconnect();
+        server.shutdown();
+    }
+
+    // -------------------------------------------------------------------------
+    // Session
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void connectSubscribesOnceConnected() throws Exception {
+        manager.connect(USER_ID);
+        assertEquals(NotificationSocketManager.State.CONNECTING, manager.getState());
+
+        String connect = stomp.nextFrame();
+        assertTrue(connect.startsWith("CONNECT\n"));
+        assertTrue(connect.contains("accept-version:1.1,1.2\n"));
+        String subscribe = stomp.nextFrame();
+        assertTrue(subscribe.startsWith("SUBSCRIBE\n"));
+        assertTrue(subscribe.contains("destination:/topic/users/7/appointments\n"));
+
+        await(() -> manager.getState() == NotificationSocketManager.State.CONNECTED);
+        assertEquals("subscribed:false", events.next());
+    }
+
+    @Test
+    public void pushesReachTheListener() throws Exception {
+        connected();
+
+        stomp.push("{\"id\":5,\"title\":\"Appointment confirmed\"}");
+        assertEquals("notification:5", events.next());
+
+        // Body that is not a notification: one push lost
+        stomp.push("not json");
+        assertEquals("lost", events.next());
+    }
+
+    @Test
+    public void lostConnectionIsRetriedAndResumed() throws Exception {
+        connected();
+
+        stomp.dropConnection();
+        await(() -> manager.getState() == NotificationSocketManager.State.WAITING_RETRY);
+
+        // First retry within the first backoff step
+        stomp.awaitSockets(2);
+        stomp.nextFrame();
+        stomp.nextFrame();
+        await(() -> manager.getState() == NotificationSocketManager.State.CONNECTED);
+        assertEquals("subscribed:true", events.next());
+    }
+
+    @Test
+    public void disconnectStopsRetrying() throws Exception {
+        connected();
+
+        manager.disconnect();
+        assertEquals(NotificationSocketManager.State.IDLE, manager.getState());
+
+        Thread.sleep(1_500L);
+        assertEquals(1, stomp.socketCount());
+        assertEquals(NotificationSocketManager.State.IDLE, manager.getState());
+        events.assertNoMore();
+    }
+
+    @Test
+    public void signedOutNeverConnects() throws Exception {
+        tokenHolder.clearTokens();
+
+        manager.connect(USER_ID);
+
+        assertEquals(NotificationSocketManager.State.IDLE, manager.getState());
+        assertEquals(0, server.getRequestCount());
+    }
+
+    // -------------------------------------------------------------------------
+    // Network changes
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void networkSwitchReconnectsEvenWhileConnected() throws Exception {
+        // Reported at registration, before any session
+        manager.onNetworkAvailable(network(1));
+        connected();
+
+        // Same network reported again: the socket is fine
+        manager.onNetworkAvailable(network(1));
+        assertEquals(NotificationSocketManager.State.CONNECTED, manager.getState());
+
+        manager.onNetworkAvailable(network(2));
+        assertEquals(NotificationSocketManager.State.CONNECTING, manager.getState());
+        stomp.awaitSockets(2);
+        stomp.nextFrame();
+        stomp.nextFrame();
+        await(() -> manager.getState() == NotificationSocketManager.State.CONNECTED);
+        assertEquals("subscribed:true", events.next());
+    }
+
+    @Test
+    public void networkBackSkipsTheBackoff() throws Exception {
+        manager.onNetworkAvailable(network(1));
+        connected();
+        stomp.dropConnection();
+        await(() -> manager.getState() == NotificationSocketManager.State.WAITING_RETRY);
+
+        manager.onNetworkAvailable(network(1));
+
+        assertEquals(NotificationSocketManager.State.CONNECTING, manager.getState());
+    }
+
+    @Test
+    public void networkChangeWithoutSessionDoesNothing() throws Exception {
+        manager.onNetworkAvailable(network(1));
+        manager.onNetworkAvailable(network(2));
+
+        assertEquals(NotificationSocketManager.State.IDLE, manager.getState());
+        assertEquals(0, server.getRequestCount());
+    }
+
+    // -------------------------------------------------------------------------
+    // Backoff
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void backoffDoublesWithJitterUpToTheCap() {
+        assertEquals(500L, NotificationSocketManager.backoffDelay(0, 0.0));
+        assertEquals(999L, NotificationSocketManager.backoffDelay(0, 0.999));
+        assertEquals(1_000L, NotificationSocketManager.backoffDelay(1, 0.0));
+        assertEquals(4_000L, NotificationSocketManager.backoffDelay(3, 0.0));
+        assertEquals(30_000L, NotificationSocketManager.backoffDelay(6, 0.0));
+        // Capped, and no overflow however long the outage
+        assertEquals(30_000L, NotificationSocketManager.backoffDelay(40, 0.0));
+        assertEquals(59_970L, NotificationSocketManager.backoffDelay(Integer.MAX_VALUE, 0.999));
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    private void connected() throws Exception {
+        manager.connect(USER_ID);
+        stomp.nextFrame();
+        stomp.nextFrame();
+        await(() -> manager.getState() == NotificationSocketManager.State.CONNECTED);
+        assertNotNull(events.next());
+    }
+
+    private static Network network(int netId) {
+        return ShadowNetwork.newInstance(netId);
+    }
+
+    static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) throw new AssertionError("Timed out");
+            Thread.sleep(5L);
+        }
+    }
+
+    /**
+     * Server side of the STOMP session: answers CONNECT with CONNECTED (no heart-beats),
+     * records every other frame and can push or drop the connection.
+     */
+    public static final class StompServer extends WebSocketListener {
+        private static final String WS_PATH = "/ws-mobile";
+
+        private final BlockingQueue<String> frames = new LinkedBlockingQueue<>();
+        private final BlockingQueue<WebSocket> sockets = new LinkedBlockingQueue<>();
+        @Nullable
+        private volatile WebSocket current;
+        private volatile int socketCount;
+        private int messageIds;
+
+        /**
+         * Upgrades requests for the socket path, 404 for anything else.
+         */
+        @NonNull
+        public Dispatcher dispatcher() {
+            return dispatcher(null);
+        }
+
+        /**
+         * Upgrades requests for the socket path, hands anything else to {@code rest}.
+         */
+        @NonNull
+        public Dispatcher dispatcher(@Nullable Dispatcher rest) {
+            return new Dispatcher() {
+                @NonNull
+                @Override
+                public MockResponse dispatch(@NonNull RecordedRequest request)
+                        throws InterruptedException {
+                    if (WS_PATH.equals(request.getPath())) {
+                        return new MockResponse().withWebSocketUpgrade(StompServer.this);
+                    }
+                    return rest != null
+                            ? rest.dispatch(request)
+                            : new MockResponse().setResponseCode(404);
+                }
+            };
+        }
+
+        @Override
+        public void onOpen(@NonNull WebSocket webSocket, @NonNull Response response) {
+            current = webSocket;
+            socketCount++;
+            sockets.add(webSocket);
+        }
+
+        @Override
+        public void onMessage(@NonNull WebSocket webSocket, @NonNull String text) {
+            if (text.trim().isEmpty()) return; // heart-beat
+            frames.add(text);
+            if (text.startsWith("CONNECT\n")) {
+                webSocket.send("CONNECTED\nversion:1.2\nheart-beat:0,0\n\n\u0000");
+            }
+        }
+
+        @Override
+        public void onClosing(@NonNull WebSocket webSocket, int code, @NonNull String reason) {
+            webSocket.close(1000, null);
+        }
+
+        /**
+         * Next frame sent by the client (CONNECT, SUBSCRIBE, ...).
+         */
+        @NonNull
+        public String nextFrame() throws InterruptedException {
+            String frame = frames.poll(10, TimeUnit.SECONDS);
+            if (frame == null) throw new AssertionError("No frame from the client");
+            return frame;
+        }
+
+        /**
+         * MESSAGE frame on the current socket.
+         */
+        public void push(@NonNull String body) {
+            WebSocket ws = current;
+            if (ws == null) throw new AssertionError("No socket");
+            ws.send("MESSAGE\n"
+                    + "destination:/topic/users/7/appointments\n"
+                    + "subscription:sub-appointments\n"
+                    + "message-id:" + (++messageIds) + "\n"
+                    + "content-type:application/json\n"
+                    + "\n"
+                    + body + "\u0000");
+        }
+
+        /**
+         * Server going away (restart, load balancer): closes the current socket.
+         */
+        public void dropConnection() {
+            WebSocket ws = current;
+            if (ws == null) throw new AssertionError("No socket");
+            current = null;
+            ws.close(1001, "Going away");
+        }
+
+        public void awaitSockets(int count) throws InterruptedException {
+            await(() -> socketCount >= count);
+        }
+
+        public int socketCount() {
+            return socketCount;
+        }
+    }
+
+    private static final class Events implements NotificationSocketManager.Listener {
+        private final BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+
+        @Override
+        public void onNotification(@Nullable NotificationItem item) {
+            queue.add("notification:" + (item != null ? item.getId() : null));
+        }
+
+        @Override
+        public void onSubscribed(boolean resumed) {
+            queue.add("subscribed:" + resumed);
+        }
+
+        @Override
+        public void onMessageLost() {
+            queue.add("lost");
+        }
+
+        String next() throws InterruptedException {
+            String event = queue.poll(10, TimeUnit.SECONDS);
+            if (event == null) throw new AssertionError("No listener call");
+            return event;
+        }
+
+        void assertNoMore() throws InterruptedException {
+            assertNull(queue.poll(100, TimeUnit.MILLISECONDS));
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package tn.esprit.data.notification;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import tn.esprit.domain.notification.NotificationItem;
+
+/**
+ * {@link NotificationStore}: pushes, read marks, the unread count and the sliding window.
+ */
+public class NotificationStoreTest {
+
+    private static final int PAGE = NotificationRepository.PAGE_SIZE;
+
+    private final NotificationStore store = new NotificationStore();
+
+    // -------------------------------------------------------------------------
+    // Pushes and unread count
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void pushOfNewItemIsCountedOnce() {
+        store.replaceHead(items(10, 1), null);
+        store.setUnreadCount(4);
+
+        assertTrue(store.upsert(item(11, false)));
+        assertEquals(5, store.getUnreadCount());
+
+        // Same push again (socket replay, catch-up overlapping the push)
+        assertTrue(store.upsert(item(11, false)));
+        assertEquals(5, store.getUnreadCount());
+        assertEquals(11, store.snapshot().size());
+    }
+
+    @Test
+    public void pushOfItemOutsideWindowIsNotCounted() {
+        store.replaceHead(items(100, 71), 71L);
+        store.setUnreadCount(40);
+
+        // Older than everything held: already in the server count
+        assertTrue(store.upsert(item(12, false)));
+        assertEquals(40, store.getUnreadCount());
+        assertEquals(PAGE, store.snapshot().size());
+    }
+
+    @Test
+    public void readStateChangeOfHeldItemAdjustsCount() {
+        store.replaceHead(items(5, 1), null);
+        assertEquals(5, store.getUnreadCount());
+
+        store.upsert(item(3, true));
+        assertEquals(4, store.getUnreadCount());
+        store.upsert(item(3, false));
+        assertEquals(5, store.getUnreadCount());
+    }
+
+    @Test
+    public void pushIsInsertedInOrder() {
+        store.replaceHead(List.of(item(9, true), item(5, true), item(1, true)), null);
+
+        // Sorted by creation date: a late push can land between held items
+        NotificationItem late = item(12, false);
+        late.setCreatedAt(item(7, false).getCreatedAt());
+        store.upsert(late);
+        store.upsert(item(13, false));
+
+        assertEquals(List.of(13L, 9L, 12L, 5L, 1L), ids(store.snapshot()));
+        assertEquals(2, store.getUnreadCount());
+    }
+
+    @Test
+    public void updateOfOlderItemNotHeldIsSkipped() {
+        store.replaceHead(List.of(item(9, true), item(5, true), item(1, true)), null);
+
+        // Id below the newest one and not in the window: not a new notification
+        store.upsert(item(7, false));
+
+        assertEquals(List.of(9L, 5L, 1L), ids(store.snapshot()));
+        assertEquals(0, store.getUnreadCount());
+    }
+
+    @Test
+    public void itemWithoutIdIsRejected() {
+        store.replaceHead(items(3, 1), null);
+        assertFalse(store.upsert(new NotificationItem()));
+        assertEquals(3, store.snapshot().size());
+    }
+
+    // -------------------------------------------------------------------------
+    // Size cap
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void pushesNeverGrowPastMaxItems() {
+        store.replaceHead(items(PAGE, 1), 1L);
+
+        int pushes = NotificationStore.MAX_ITEMS;
+        for (int i = 1; i <= pushes; i++) {
+            store.upsert(item(PAGE + i, false));
+        }
+
+        List<NotificationItem> held = store.snapshot();
+        assertEquals(NotificationStore.MAX_ITEMS, held.size());
+        assertEquals(Long.valueOf(PAGE + pushes), held.get(0).getId());
+        // Cursor moved up to the oldest item still held: the dropped ones load again
+        Long oldestHeld = held.get(held.size() - 1).getId();
+        assertEquals(oldestHeld, store.getOlderCursor());
+    }
+
+    @Test
+    public void capDropsOldestPageOnceEmptied() {
+        store.replaceHead(items(500, 471), 471L);
+        for (int page = 1; page < NotificationStore.MAX_PAGES; page++) {
+            long newest = 500 - page * PAGE;
+            long before = newest + 1;
+            assertTrue(store.appendOlder(before, items(newest, newest - PAGE + 1),
+                    newest - PAGE + 1));
+        }
+        assertEquals(NotificationStore.MAX_ITEMS, store.snapshot().size());
+        Long lastPageBefore = 500L - (NotificationStore.MAX_PAGES - 1) * PAGE + 1;
+
+        for (int i = 1; i <= PAGE; i++) {
+            store.upsert(item(500 + i, false));
+        }
+
+        assertEquals(NotificationStore.MAX_ITEMS, store.snapshot().size());
+        // Whole oldest page gone: the cursor is the one of the page above it
+        assertEquals(lastPageBefore, store.getOlderCursor());
+    }
+
+    // -------------------------------------------------------------------------
+    // Window slides
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void appendPastMaxPagesDropsNewestPageKeepingItsCursor() {
+        fillWindow();
+        assertFalse(store.hasNewer());
+
+        assertTrue(store.appendOlder(351L, items(350, 321), 321L));
+        List<NotificationItem> held = store.snapshot();
+        assertEquals(NotificationStore.MAX_ITEMS, held.size());
+        assertEquals(Long.valueOf(470L), held.get(0).getId());
+        assertTrue(store.hasNewer());
+        // The newest page is loaded again without "before"
+        assertNull(store.getNewerCursor());
+
+        assertTrue(store.appendOlder(321L, items(320, 291), 291L));
+        assertEquals(Long.valueOf(440L), store.snapshot().get(0).getId());
+        assertEquals(Long.valueOf(471L), store.getNewerCursor());
+        assertEquals(Long.valueOf(291L), store.getOlderCursor());
+    }
+
+    @Test
+    public void prependNewerRestoresDroppedPagesInOrder() {
+        fillWindow();
+        store.appendOlder(351L, items(350, 321), 321L);
+        store.appendOlder(321L, items(320, 291), 291L);
+
+        assertTrue(store.prependNewer(471L, items(470, 441), 441L));
+        assertEquals(Long.valueOf(470L), store.snapshot().get(0).getId());
+        // Oldest page dropped in turn: scrolling down loads it again
+        assertEquals(Long.valueOf(321L), store.getOlderCursor());
+        assertTrue(store.hasNewer());
+        assertNull(store.getNewerCursor());
+
+        assertTrue(store.prependNewer(null, items(500, 471), 471L));
+        List<NotificationItem> held = store.snapshot();
+        assertEquals(NotificationStore.MAX_ITEMS, held.size());
+        assertEquals(Long.valueOf(500L), held.get(0).getId());
+        assertFalse(store.hasNewer());
+        assertEquals(Long.valueOf(351L), store.getOlderCursor());
+    }
+
+    @Test
+    public void staleAppendOlderIsRejected() {
+        store.replaceHead(items(500, 471), 471L);
+
+        // Not the page following the window
+        assertFalse(store.appendOlder(441L, items(440, 411), 411L));
+        assertTrue(store.appendOlder(471L, items(470, 441), 441L));
+        // Same page answering twice
+        assertFalse(store.appendOlder(471L, items(470, 441), 441L));
+        assertEquals(2 * PAGE, store.snapshot().size());
+
+        // Refreshed while the next page was on its way
+        store.replaceHead(items(510, 481), 481L);
+        assertFalse(store.appendOlder(441L, items(440, 411), 411L));
+        assertEquals(PAGE, store.snapshot().size());
+    }
+
+    @Test
+    public void stalePrependNewerIsRejected() {
+        store.replaceHead(items(500, 471), 471L);
+        // Nothing dropped above the window
+        assertFalse(store.prependNewer(471L, items(470, 441), 441L));
+
+        fillWindow();
+        store.appendOlder(351L, items(350, 321), 321L);
+        store.appendOlder(321L, items(320, 291), 291L);
+        List<NotificationItem> before = store.snapshot();
+
+        // Pages come back last dropped first: the newest page is not next yet
+        assertFalse(store.prependNewer(null, items(500, 471), 471L));
+        assertFalse(store.prependNewer(999L, items(998, 969), 969L));
+        assertEquals(ids(before), ids(store.snapshot()));
+        assertEquals(Long.valueOf(471L), store.getNewerCursor());
+    }
+
+    @Test
+    public void newestPageAnsweringTwiceReplacesTheTop() {
+        // Shown from the cache, then the network answer arrives
+        store.replaceHead(items(500, 471), 471L);
+        store.appendOlder(471L, items(470, 441), 441L);
+
+        assertTrue(store.prependNewer(null, items(502, 473), 473L));
+
+        List<NotificationItem> held = store.snapshot();
+        assertEquals(2 * PAGE, held.size());
+        assertEquals(Long.valueOf(502L), held.get(0).getId());
+        assertFalse(ids(held).contains(471L));
+        assertFalse(store.hasNewer());
+        assertEquals(Long.valueOf(441L), store.getOlderCursor());
+    }
+
+    // -------------------------------------------------------------------------
+    // Read marks
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void markReadThenUnreadRestoresState() {
+        store.replaceHead(items(3, 1), null);
+        List<NotificationItem> before = store.snapshot();
+
+        assertTrue(store.markRead(2));
+        assertFalse(store.markRead(2));
+        assertEquals(2, store.getUnreadCount());
+        assertTrue(find(store.snapshot(), 2).isRead());
+        // The list already handed out is not mutated
+        assertFalse(find(before, 2).isRead());
+
+        assertTrue(store.markUnread(2));
+        assertFalse(store.markUnread(2));
+        assertEquals(3, store.getUnreadCount());
+        assertFalse(find(store.snapshot(), 2).isRead());
+        assertEquals(List.of(3L, 2L, 1L), ids(store.snapshot()));
+    }
+
+    @Test
+    public void markReadOfUnknownItemDoesNothing() {
+        store.replaceHead(items(3, 1), null);
+        assertFalse(store.markRead(42));
+        assertFalse(store.markUnread(42));
+        assertEquals(3, store.getUnreadCount());
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    /**
+     * Newest page 500..471 and older pages down to 351: a full window.
+     */
+    private void fillWindow() {
+        store.replaceHead(items(500, 471), 471L);
+        for (long before = 471; before > 351; before -= PAGE) {
+            assertTrue(store.appendOlder(before, items(before - 1, before - PAGE), before - PAGE));
+        }
+        assertEquals(NotificationStore.MAX_ITEMS, store.snapshot().size());
+    }
+
+    /**
+     * Unread items newestId down to oldestId, newest first; createdAt follows the id.
+     */
+    public static List<NotificationItem> items(long newestId, long oldestId) {
+        List<NotificationItem> list = new ArrayList<>();
+        for (long id = newestId; id >= oldestId; id--) {
+            list.add(item(id, false));
+        }
+        return list;
+    }
+
+    public static NotificationItem item(long id, boolean read) {
+        NotificationItem item = new NotificationItem();
+        item.setId(id);
+        item.setTitle("n" + id);
+        item.setCreatedAt(String.format("2026-01-01T%08d", id));
+        item.setRead(read);
+        return item;
+    }
+
+    public static List<Long> ids(List<NotificationItem> items) {
+        List<Long> ids = new ArrayList<>(items.size());
+        for (NotificationItem item : items) {
+            ids.add(item.getId());
+        }
+        return ids;
+    }
+
+    private static NotificationItem find(List<NotificationItem> items, long id) {
+        for (NotificationItem item : items) {
+            if (item.getId() == id) return item;
+        }
+        throw new AssertionError("No item " + id + " in " + ids(items));
+    }
+}
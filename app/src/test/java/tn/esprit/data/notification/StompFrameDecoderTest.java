@@ -0,0 +1,426 @@
+package tn.esprit.data.notification;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import okio.ByteString;
+
+/**
+ * {@link StompFrameDecoder}: frames split over messages or packed in one, content-length
+ * bodies, header escapes, heart-beats, dropped frames, and what decoding allocates.
+ */
+public class StompFrameDecoderTest {
+
+    private static final String MESSAGE = "MESSAGE\n"
+            + "destination:/topic/users/7/appointments\n"
+            + "subscription:sub-appointments\n"
+            + "message-id:1\n"
+            + "\n"
+            + "{\"id\":5}\u0000";
+
+    private static final int BENCHMARK_FRAMES = 20_000;
+    // Keeps the baseline's strings from being optimized away
+    private static volatile int sink;
+
+    private final Recorder recorder = new Recorder();
+    private final StompFrameDecoder decoder = new StompFrameDecoder(recorder);
+
+    // -------------------------------------------------------------------------
+    // Framing
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void wholeFrameInOneMessage() {
+        decoder.feed(MESSAGE);
+
+        assertEquals(1, recorder.frames.size());
+        Decoded frame = recorder.frames.get(0);
+        assertEquals("MESSAGE", frame.command);
+        assertEquals("/topic/users/7/appointments", frame.destination);
+        assertEquals("{\"id\":5}", frame.body);
+    }
+
+    @Test
+    public void frameSplitAtEveryPosition() {
+        for (int cut = 1; cut < MESSAGE.length(); cut++) {
+            Recorder split = new Recorder();
+            StompFrameDecoder d = new StompFrameDecoder(split);
+
+            d.feed(MESSAGE.substring(0, cut));
+            assertEquals("cut at " + cut, 0, split.frames.size());
+            d.feed(MESSAGE.substring(cut));
+
+            assertEquals("cut at " + cut, 1, split.frames.size());
+            assertEquals("{\"id\":5}", split.frames.get(0).body);
+            assertEquals("/topic/users/7/appointments", split.frames.get(0).destination);
+        }
+    }
+
+    @Test
+    public void frameFedByteByByte() {
+        byte[] bytes = MESSAGE.getBytes(StandardCharsets.UTF_8);
+        for (byte b : bytes) {
+            decoder.feed(ByteString.of(b));
+        }
+
+        assertEquals(1, recorder.frames.size());
+        assertEquals("{\"id\":5}", recorder.frames.get(0).body);
+    }
+
+    @Test
+    public void multibyteCharacterSplitAcrossBinaryMessages() {
+        byte[] bytes = MESSAGE.replace("{\"id\":5}", "Rendez-vous confirmé ✓")
+                .getBytes(StandardCharsets.UTF_8);
+        // Inside the two bytes of "é"
+        int cut = indexOf(bytes, (byte) 0xC3) + 1;
+
+        decoder.feed(ByteString.of(bytes, 0, cut));
+        decoder.feed(ByteString.of(bytes, cut, bytes.length - cut));
+
+        assertEquals("Rendez-vous confirmé ✓", recorder.frames.get(0).body);
+    }
+
+    @Test
+    public void textMessagesAreEncodedAsUtf8() {
+        decoder.feed(MESSAGE.replace("{\"id\":5}", "café 🩺"));
+
+        assertEquals("café 🩺", recorder.frames.get(0).body);
+    }
+
+    @Test
+    public void severalFramesInOneMessage() {
+        decoder.feed(MESSAGE + MESSAGE.replace("{\"id\":5}", "{\"id\":6}")
+                + "RECEIPT\nreceipt-id:77\n\n\u0000");
+
+        assertEquals(3, recorder.frames.size());
+        assertEquals("{\"id\":5}", recorder.frames.get(0).body);
+        assertEquals("{\"id\":6}", recorder.frames.get(1).body);
+        assertEquals("RECEIPT", recorder.frames.get(2).command);
+        assertEquals("", recorder.frames.get(2).body);
+    }
+
+    @Test
+    public void secondFrameCompletedByTheNextMessage() {
+        String second = MESSAGE.replace("{\"id\":5}", "{\"id\":6}");
+        decoder.feed(MESSAGE + second.substring(0, 20));
+        assertEquals(1, recorder.frames.size());
+
+        decoder.feed(second.substring(20));
+
+        assertEquals(2, recorder.frames.size());
+        assertEquals("{\"id\":6}", recorder.frames.get(1).body);
+    }
+
+    @Test
+    public void crLfLineEndings() {
+        decoder.feed("MESSAGE\r\ndestination:/topic/x\r\n\r\nbody\u0000");
+
+        Decoded frame = recorder.frames.get(0);
+        assertEquals("MESSAGE", frame.command);
+        assertEquals("/topic/x", frame.destination);
+        assertEquals("body", frame.body);
+    }
+
+    // -------------------------------------------------------------------------
+    // content-length
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void contentLengthBodyMayHoldNul() {
+        decoder.feed("MESSAGE\ncontent-length:5\n\nab\u0000cd\u0000" + MESSAGE);
+
+        assertEquals(2, recorder.frames.size());
+        assertEquals("ab\u0000cd", recorder.frames.get(0).body);
+        assertEquals("{\"id\":5}", recorder.frames.get(1).body);
+        assertTrue(recorder.malformed.isEmpty());
+    }
+
+    @Test
+    public void contentLengthBodySplitOnItsNul() {
+        decoder.feed("MESSAGE\ncontent-length:5\n\nab\u0000");
+        assertEquals(0, recorder.frames.size());
+
+        decoder.feed("cd\u0000");
+
+        assertEquals("ab\u0000cd", recorder.frames.get(0).body);
+    }
+
+    @Test
+    public void contentLengthCountsBytesNotChars() {
+        // "é" is two bytes
+        decoder.feed("MESSAGE\ncontent-length:5\n\ncafé\u0000");
+
+        assertEquals("café", recorder.frames.get(0).body);
+    }
+
+    @Test
+    public void bodyLongerThanContentLengthIsDroppedUpToItsNul() {
+        decoder.feed("MESSAGE\ncontent-length:2\n\nabc");
+        decoder.feed("def\u0000" + MESSAGE);
+
+        assertEquals(1, recorder.malformed.size());
+        assertEquals(1, recorder.frames.size());
+        assertEquals("{\"id\":5}", recorder.frames.get(0).body);
+    }
+
+    @Test
+    public void tooLargeContentLengthSkipsTheWholeBody() {
+        int length = StompFrameDecoder.MAX_FRAME_BYTES + 10;
+        char[] body = new char[length];
+        Arrays.fill(body, 'x');
+        // NULs inside the body must not end the skip early
+        body[100] = '\u0000';
+        body[length / 2] = '\u0000';
+        String dropped = "MESSAGE\ncontent-length:" + length + "\n\n" + new String(body) + "\u0000";
+
+        // Sent in pieces, the next frame right behind it
+        String stream = dropped + MESSAGE;
+        for (int i = 0; i < stream.length(); i += 64 * 1024) {
+            decoder.feed(stream.substring(i, Math.min(stream.length(), i + 64 * 1024)));
+        }
+
+        assertEquals(1, recorder.malformed.size());
+        assertEquals(1, recorder.frames.size());
+        assertEquals("{\"id\":5}", recorder.frames.get(0).body);
+    }
+
+    // -------------------------------------------------------------------------
+    // Oversized frames
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void oversizedFrameIsSkippedUpToItsNul() {
+        char[] chunk = new char[256 * 1024];
+        Arrays.fill(chunk, 'x');
+        String piece = new String(chunk);
+
+        decoder.feed("MESSAGE\ndestination:/topic/x\n\n");
+        for (int i = 0; i < 6; i++) {
+            decoder.feed(piece);
+        }
+        assertEquals(1, recorder.malformed.size());
+        assertEquals(0, recorder.frames.size());
+
+        // The rest of the dropped body, with lines that look like frames, then its NUL
+        decoder.feed("MESSAGE\nfake:1\n\n" + piece);
+        decoder.feed("tail\u0000" + MESSAGE);
+
+        assertEquals(1, recorder.malformed.size());
+        assertEquals(1, recorder.frames.size());
+        assertEquals("{\"id\":5}", recorder.frames.get(0).body);
+        assertEquals("/topic/users/7/appointments", recorder.frames.get(0).destination);
+    }
+
+    // -------------------------------------------------------------------------
+    // Headers
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void headerValuesAreUnescaped() {
+        decoder.feed("MESSAGE\nmessage:a\\cb\\nc\\\\d\\re\nkey:x:y\n\n\u0000");
+
+        Decoded frame = recorder.frames.get(0);
+        assertEquals("a:b\nc\\d\re", frame.message);
+        // Only the first colon separates name and value
+        assertEquals("x:y", frame.key);
+    }
+
+    @Test
+    public void connectedHeadersAreNotUnescaped() {
+        decoder.feed("CONNECTED\nversion:1.2\nmessage:a\\cb\n\n\u0000");
+
+        assertEquals("a\\cb", recorder.frames.get(0).message);
+    }
+
+    @Test
+    public void repeatedHeaderFirstWins() {
+        decoder.feed("MESSAGE\ndestination:/first\ndestination:/second\n\n\u0000");
+
+        assertEquals("/first", recorder.frames.get(0).destination);
+    }
+
+    @Test
+    public void missingHeaderIsNull() {
+        decoder.feed("RECEIPT\nreceipt-id:1\n\n\u0000");
+
+        assertNull(recorder.frames.get(0).destination);
+    }
+
+    // -------------------------------------------------------------------------
+    // Heart-beats
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void heartBeatsAreSkipped() {
+        decoder.feed("\n");
+        decoder.feed("\r\n");
+        decoder.feed(ByteString.encodeUtf8("\n"));
+        assertEquals(0, recorder.frames.size());
+
+        decoder.feed("\n\n" + MESSAGE + "\r\n\n" + MESSAGE + "\n");
+
+        assertEquals(2, recorder.frames.size());
+        assertTrue(recorder.malformed.isEmpty());
+    }
+
+    @Test
+    public void heartBeatBetweenPartsOfAFrameIsPartOfIt() {
+        decoder.feed("MESSAGE\ndestination:/topic/x\n\nab");
+        decoder.feed("\n");
+        decoder.feed("cd\u0000");
+
+        assertEquals("ab\ncd", recorder.frames.get(0).body);
+    }
+
+    // -------------------------------------------------------------------------
+    // Allocations
+    // -------------------------------------------------------------------------
+
+    /**
+     * Bytes allocated per frame once the buffer has grown: only what the handler asks
+     * for (here the command, compared in place) should allocate. A split/substring
+     * decoder is measured alongside as the baseline. Bounds are loose (GC and JIT noise
+     * aside): a few bytes per frame against the kilobytes the baseline allocates.
+     */
+    @Test
+    public void decodingAllocatesNothingPerFrame() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long thread = Thread.currentThread().getId();
+
+        // Four frames and a heart-beat per message, as a busy server sends them
+        String text = MESSAGE + "\n" + MESSAGE + MESSAGE + "\n" + MESSAGE;
+        ByteString bytes = ByteString.encodeUtf8(text);
+        int[] messages = new int[1];
+        StompFrameDecoder counting = new StompFrameDecoder(new StompFrameDecoder.Handler() {
+            @Override
+            public void onFrame(@NonNull StompFrameDecoder.Frame frame) {
+                if (frame.isCommand("MESSAGE")) messages[0]++;
+            }
+
+            @Override
+            public void onMalformed(@NonNull String reason) {
+                throw new AssertionError(reason);
+            }
+        });
+
+        // Warm up: buffer grown, code compiled
+        for (int i = 0; i < BENCHMARK_FRAMES / 4; i++) {
+            counting.feed(text);
+            counting.feed(bytes);
+            naiveDecode(text);
+        }
+        messages[0] = 0;
+
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < BENCHMARK_FRAMES / 8; i++) {
+            counting.feed(text);
+        }
+        long textBytes = threads.getThreadAllocatedBytes(thread) - before;
+
+        before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < BENCHMARK_FRAMES / 8; i++) {
+            counting.feed(bytes);
+        }
+        long binaryBytes = threads.getThreadAllocatedBytes(thread) - before;
+
+        before = threads.getThreadAllocatedBytes(thread);
+        int naiveFrames = 0;
+        for (int i = 0; i < BENCHMARK_FRAMES / 4; i++) {
+            naiveFrames += naiveDecode(text);
+        }
+        long naiveBytes = threads.getThreadAllocatedBytes(thread) - before;
+
+        assertEquals(BENCHMARK_FRAMES, messages[0]);
+        assertEquals(BENCHMARK_FRAMES, naiveFrames);
+        long textPerFrame = textBytes / (BENCHMARK_FRAMES / 2);
+        long binaryPerFrame = binaryBytes / (BENCHMARK_FRAMES / 2);
+        long naivePerFrame = naiveBytes / BENCHMARK_FRAMES;
+        String perFrame = "B/frame: text " + textPerFrame + ", binary " + binaryPerFrame
+                + ", split/substring " + naivePerFrame;
+        assertTrue(perFrame, textPerFrame < 16);
+        assertTrue(perFrame, binaryPerFrame < 16);
+        // The baseline really splits every frame: the bound above is not vacuous
+        assertTrue(perFrame, naivePerFrame > 16 * 16);
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    /**
+     * What decoding looks like without the decoder: split on NUL, then on lines.
+     *
+     * @return MESSAGE frames seen
+     */
+    private static int naiveDecode(String text) {
+        int count = 0;
+        for (String raw : text.split("\u0000")) {
+            String frame = raw.replaceFirst("^[\r\n]+", "");
+            if (frame.isEmpty()) continue;
+            int blank = frame.indexOf("\n\n");
+            String[] lines = frame.substring(0, blank).split("\n");
+            if (lines[0].equals("MESSAGE")) count++;
+            int hash = 0;
+            for (int i = 1; i < lines.length; i++) {
+                int colon = lines[i].indexOf(':');
+                hash += lines[i].substring(0, colon).hashCode();
+                hash += lines[i].substring(colon + 1).hashCode();
+            }
+            sink = hash + frame.substring(blank + 2).hashCode();
+        }
+        return count;
+    }
+
+    private static int indexOf(byte[] bytes, byte value) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == value) return i;
+        }
+        throw new AssertionError("Byte not found");
+    }
+
+    private static final class Decoded {
+        String command;
+        String body;
+        String destination;
+        String message;
+        String key;
+    }
+
+    private static final class Recorder implements StompFrameDecoder.Handler {
+        final List<Decoded> frames = new ArrayList<>();
+        final List<String> malformed = new ArrayList<>();
+
+        @Override
+        public void onFrame(@NonNull StompFrameDecoder.Frame frame) {
+            // The frame is a view over the decoder's buffer: copy what is needed now
+            Decoded decoded = new Decoded();
+            decoded.command = frame.getCommand();
+            decoded.body = frame.getBody();
+            decoded.destination = frame.getHeader("destination");
+            decoded.message = frame.getHeader("message");
+            decoded.key = frame.getHeader("key");
+            frames.add(decoded);
+        }
+
+        @Override
+        public void onMalformed(@NonNull String reason) {
+            malformed.add(reason);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package tn.esprit.data.remote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * REST services and the notifications WebSocket must go through the one shared
+ * OkHttpClient, so the socket handshake reuses the connection a REST call left in the pool.
+ */
+public class ApiClientConnectionSharingTest {
+
+    private MockWebServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        ApiClient.setBaseUrl(server.url("/"));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        ApiClient.getOkHttpClient().connectionPool().evictAll();
+        server.shutdown();
+    }
+
+    @Test
+    public void socketHandshakeReusesRestConnection() throws Exception {
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody("{\"accessToken\":\"a\",\"refreshToken\":\"r\",\"tokenType\":\"Bearer\"}"));
+        server.enqueue(new MockResponse().withWebSocketUpgrade(new WebSocketListener() {
+            @Override
+            public void onClosing(WebSocket webSocket, int code, String reason) {
+                webSocket.close(code, reason);
+            }
+        }));
+
+        retrofit2.Response<ApiClient.TokenResponseDto> rest = ApiClient.getAuthApiService()
+                .login(new ApiClient.LoginRequestDto("a@b.c", "secret"))
+                .execute();
+        assertTrue(rest.isSuccessful());
+        assertNotNull(rest.body());
+        assertEquals("a", rest.body().getAccessToken());
+
+        OkHttpClient client = ApiClient.getOkHttpClient();
+        CountDownLatch opened = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        Request request = new Request.Builder()
+                .url(ApiClient.getBaseUrl().resolve("ws-mobile"))
+                .build();
+        WebSocket socket = client.newWebSocket(request, new WebSocketListener() {
+            @Override
+            public void onOpen(WebSocket webSocket, Response response) {
+                opened.countDown();
+            }
+
+            @Override
+            public void onClosed(WebSocket webSocket, int code, String reason) {
+                closed.countDown();
+            }
+        });
+        try {
+            assertTrue("WebSocket did not open", opened.await(5, TimeUnit.SECONDS));
+
+            RecordedRequest login = server.takeRequest(5, TimeUnit.SECONDS);
+            RecordedRequest handshake = server.takeRequest(5, TimeUnit.SECONDS);
+            assertEquals("/auth/login", login.getPath());
+            assertEquals("/ws-mobile", handshake.getPath());
+            assertEquals("websocket", handshake.getHeader("Upgrade"));
+            // Same TCP connection: second exchange on it, not the first on a new one
+            assertEquals(0, login.getSequenceNumber());
+            assertEquals(1, handshake.getSequenceNumber());
+        } finally {
+            socket.close(1000, null);
+            closed.await(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void sameClientForEveryCaller() {
+        OkHttpClient client = ApiClient.getOkHttpClient();
+        assertSame(client, ApiClient.getOkHttpClient());
+
+        // Derived clients (per-call timeouts, ...) keep the pool and the dispatcher
+        OkHttpClient derived = client.newBuilder().readTimeout(1, TimeUnit.SECONDS).build();
+        assertSame(client.connectionPool(), derived.connectionPool());
+        assertSame(client.dispatcher(), derived.dispatcher());
+    }
+}
@@ -0,0 +1,125 @@
+package tn.esprit.data.remote.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Call;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.http.GET;
+
+/**
+ * {@link CachePolicyInterceptor} against a backend that sends "no-cache, no-store" on
+ * every response, 304s included: entries stay revalidatable however often they are hit.
+ */
+public class CachePolicyInterceptorTest {
+
+    private static final String BACKEND_CACHE_CONTROL = "no-cache, no-store, max-age=0, must-revalidate";
+
+    interface TestService {
+
+        @CachePolicy(maxAgeSeconds = 0, maxStaleSeconds = 3600)
+        @GET("catalog")
+        Call<ResponseBody> catalog();
+    }
+
+    @Rule
+    public final TemporaryFolder cacheDir = new TemporaryFolder();
+
+    private MockWebServer server;
+    private Cache cache;
+    private TestService service;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        cache = new Cache(cacheDir.getRoot(), 1024L * 1024L);
+        OkHttpClient client = new OkHttpClient.Builder()
+                .cache(cache)
+                .addInterceptor(new OfflineCacheInterceptor())
+                .addNetworkInterceptor(new CachePolicyInterceptor())
+                .readTimeout(5, TimeUnit.SECONDS)
+                .build();
+        service = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .client(client)
+                .build()
+                .create(TestService.class);
+        HttpCacheStats.reset();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        cache.close();
+        server.shutdown();
+    }
+
+    @Test
+    public void repeatedRevalidationsStayConditional() throws Exception {
+        server.enqueue(backend(new MockResponse().setBody("catalog v1")));
+        server.enqueue(backend(new MockResponse().setResponseCode(304)));
+        server.enqueue(backend(new MockResponse().setResponseCode(304)));
+
+        assertEquals("catalog v1", load());
+        assertEquals("catalog v1", load());
+        assertEquals("catalog v1", load());
+
+        RecordedRequest first = server.takeRequest();
+        assertNull(first.getHeader("If-None-Match"));
+        // Both revalidations, not a 304 followed by a full download
+        assertEquals("\"v1\"", server.takeRequest().getHeader("If-None-Match"));
+        assertEquals("\"v1\"", server.takeRequest().getHeader("If-None-Match"));
+        assertEquals(1, HttpCacheStats.getMisses());
+        assertEquals(2, HttpCacheStats.getConditionalHits());
+    }
+
+    @Test
+    public void errorsAreNotMadeCacheable() throws Exception {
+        server.enqueue(backend(new MockResponse().setResponseCode(500).setBody("boom")));
+        server.enqueue(backend(new MockResponse().setBody("catalog v1")));
+
+        assertEquals(500, service.catalog().execute().code());
+        assertEquals("catalog v1", load());
+
+        server.takeRequest();
+        assertNull(server.takeRequest().getHeader("If-None-Match"));
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    private String load() throws Exception {
+        Response<ResponseBody> response = service.catalog().execute();
+        assertEquals(200, response.code());
+        try (ResponseBody body = response.body()) {
+            return body.string();
+        }
+    }
+
+    /**
+     * Headers the backend puts on every answer.
+     */
+    private static MockResponse backend(MockResponse response) {
+        return response
+                .setHeader("Cache-Control", BACKEND_CACHE_CONTROL)
+                .setHeader("Pragma", "no-cache")
+                .setHeader("Expires", "0")
+                .setHeader("ETag", "\"v1\"");
+    }
+}
@@ -0,0 +1,128 @@
+package tn.esprit.data.remote.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.OkHttpClient;
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.http.GET;
+
+/**
+ * {@link RequestCoalescer}: identical GETs share one call within a session, never across
+ * sessions, and the saved calls are counted.
+ */
+public class RequestCoalescerTest {
+
+    interface TestService {
+
+        @GET("me")
+        Call<ResponseBody> me();
+    }
+
+    private final AtomicReference<String> session = new AtomicReference<>("token-a");
+    private MockWebServer server;
+    private TestService service;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        service = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .client(new OkHttpClient.Builder().readTimeout(5, TimeUnit.SECONDS).build())
+                .build()
+                .create(TestService.class);
+        RequestCoalescer.setSessionKeySource(session::get);
+        RequestCoalescer.resetMetrics();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        RequestCoalescer.setSessionKeySource(() -> null);
+        server.shutdown();
+    }
+
+    @Test
+    public void sameSessionSharesTheInFlightCall() throws Exception {
+        server.enqueue(new MockResponse().setBody("user a").setBodyDelay(300, TimeUnit.MILLISECONDS));
+
+        Result first = new Result();
+        Result second = new Result();
+        RequestCoalescer.enqueue(service.me(), first);
+        RequestCoalescer.enqueue(service.me(), second);
+
+        assertEquals("user a", first.await());
+        assertEquals("user a", second.await());
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1, RequestCoalescer.getNetworkCalls());
+        assertEquals(1, RequestCoalescer.getCoalescedCalls());
+        assertEquals("network=1, coalesced=1", RequestCoalescer.summary());
+    }
+
+    @Test
+    public void newSessionNeverJoinsThePreviousUsersCall() throws Exception {
+        server.enqueue(new MockResponse().setBody("user a").setBodyDelay(300, TimeUnit.MILLISECONDS));
+        server.enqueue(new MockResponse().setBody("user b"));
+
+        Result previous = new Result();
+        RequestCoalescer.enqueue(service.me(), previous);
+        server.takeRequest(5, TimeUnit.SECONDS);
+        // Logout / login while /me of the first user is still running
+        session.set("token-b");
+        Result current = new Result();
+        RequestCoalescer.enqueue(service.me(), current);
+
+        assertEquals("user a", previous.await());
+        assertEquals("user b", current.await());
+        assertEquals(2, server.getRequestCount());
+        assertEquals(0, RequestCoalescer.getCoalescedCalls());
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    private static final class Result implements Callback<ResponseBody> {
+        private final CountDownLatch done = new CountDownLatch(1);
+        private final AtomicReference<String> body = new AtomicReference<>();
+
+        @Override
+        public void onResponse(@NonNull Call<ResponseBody> call, @NonNull Response<ResponseBody> response) {
+            // Success bodies are shared between coalesced callers (and buffered): peek only
+            ResponseBody shared = response.body();
+            try {
+                body.set(shared != null ? shared.source().peek().readUtf8() : null);
+            } catch (IOException e) {
+                body.set(null);
+            }
+            done.countDown();
+        }
+
+        @Override
+        public void onFailure(@NonNull Call<ResponseBody> call, @NonNull Throwable t) {
+            done.countDown();
+        }
+
+        String await() throws InterruptedException {
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            return body.get();
+        }
+    }
+}
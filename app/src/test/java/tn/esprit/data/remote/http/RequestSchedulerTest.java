@@ -0,0 +1,310 @@
+package tn.esprit.data.remote.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.Cache;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.http.GET;
+import retrofit2.http.Path;
+
+/**
+ * Retries of scheduled calls: they happen between attempts, in the scheduler, so a call
+ * backing off holds no slot (neither here nor in OkHttp's dispatcher). Cancelling reaches
+ * the attempt in flight, and the offline fallback only answers the last attempt.
+ */
+public class RequestSchedulerTest {
+
+    private static final int SLOTS = 8;
+
+    @RetryPolicy(maxRetries = 2, baseDelayMillis = 50L, maxDelayMillis = 2_000L)
+    interface TestService {
+
+        @GET("flaky/{id}")
+        Call<ResponseBody> flaky(@Path("id") int id);
+
+        @RequestPriority(Priority.INTERACTIVE)
+        @GET("fast")
+        Call<ResponseBody> fast();
+
+        @CachePolicy(maxAgeSeconds = 0, maxStaleSeconds = 3600)
+        @GET("catalog")
+        Call<ResponseBody> catalog();
+    }
+
+    @Rule
+    public final TemporaryFolder cacheDir = new TemporaryFolder();
+
+    // Delays the interceptor would have slept: must stay empty for scheduled calls
+    private final List<Long> interceptorDelays = new CopyOnWriteArrayList<>();
+    private MockWebServer server;
+    private Dispatcher dispatcher;
+    private Cache cache;
+    private TestService service;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(SLOTS);
+        cache = new Cache(cacheDir.getRoot(), 1024L * 1024L);
+        // Same interceptor order as ApiClient
+        OkHttpClient client = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .cache(cache)
+                .addInterceptor(new OfflineCacheInterceptor())
+                .addInterceptor(new RetryInterceptor(interceptorDelays::add))
+                .addNetworkInterceptor(new CachePolicyInterceptor())
+                .retryOnConnectionFailure(false)
+                .readTimeout(5, TimeUnit.SECONDS)
+                .build();
+        service = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .client(client)
+                .build()
+                .create(TestService.class);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        cache.close();
+        server.shutdown();
+    }
+
+    @Test
+    public void scheduledCallIsRetriedByTheScheduler() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(502));
+        server.enqueue(new MockResponse().setBody("ok"));
+
+        Result result = new Result();
+        RequestScheduler.enqueue(service.flaky(1), result);
+
+        assertTrue(result.await());
+        assertEquals(200, result.code.get());
+        assertEquals(3, server.getRequestCount());
+        assertTrue(interceptorDelays.isEmpty());
+    }
+
+    @Test
+    public void backingOffCallsDoNotHoldSlots() throws Exception {
+        Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+        CountDownLatch firstAttempts = new CountDownLatch(SLOTS);
+        server.setDispatcher(new okhttp3.mockwebserver.Dispatcher() {
+            @NonNull
+            @Override
+            public MockResponse dispatch(@NonNull RecordedRequest request) {
+                String path = request.getPath();
+                if ("/fast".equals(path)) return new MockResponse().setBody("fast");
+                if (hits.computeIfAbsent(path, k -> new AtomicInteger()).incrementAndGet() == 1) {
+                    firstAttempts.countDown();
+                    return new MockResponse().setResponseCode(503).setHeader("Retry-After", "1");
+                }
+                return new MockResponse().setBody("ok");
+            }
+        });
+
+        // Every slot taken by a call that is about to back off for a second
+        Result[] flaky = new Result[SLOTS];
+        for (int i = 0; i < SLOTS; i++) {
+            flaky[i] = new Result();
+            RequestScheduler.enqueue(service.flaky(i), flaky[i]);
+        }
+        assertTrue(firstAttempts.await(5, TimeUnit.SECONDS));
+
+        long start = System.nanoTime();
+        Result fast = new Result();
+        RequestScheduler.enqueue(service.fast(), fast);
+        assertTrue(fast.await());
+        long fastMillis = (System.nanoTime() - start) / 1_000_000L;
+
+        assertEquals(200, fast.code.get());
+        assertTrue("Interactive call waited " + fastMillis + " ms behind backoffs", fastMillis < 800L);
+
+        for (Result result : flaky) {
+            assertTrue(result.await());
+            assertEquals(200, result.code.get());
+        }
+        // 8 failed attempts, 8 retries, 1 interactive call
+        assertEquals(2 * SLOTS + 1, server.getRequestCount());
+        assertTrue(interceptorDelays.isEmpty());
+    }
+
+    @Test
+    public void retryAfterLongerThanMaxDelayIsDeliveredAsIs() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503).setHeader("Retry-After", "30"));
+        server.enqueue(new MockResponse().setBody("never requested"));
+
+        Result result = new Result();
+        RequestScheduler.enqueue(service.flaky(1), result);
+
+        assertTrue(result.await());
+        assertEquals(503, result.code.get());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void callCanceledDuringBackoffIsNotRetried() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503).setHeader("Retry-After", "1"));
+        server.enqueue(new MockResponse().setBody("never requested"));
+
+        Call<ResponseBody> call = service.flaky(1);
+        Result result = new Result();
+        RequestScheduler.enqueue(call, result);
+        server.takeRequest(5, TimeUnit.SECONDS);
+        // Let the 503 reach the client so the call is backing off, not in flight
+        Thread.sleep(300L);
+        call.cancel();
+
+        // Past the Retry-After: the retry would have been sent by now
+        assertFalse(result.done.await(1_500L, TimeUnit.MILLISECONDS));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void exhaustedRetriesDeliverLastResponse() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setResponseCode(503).setBody("busy " + i));
+        }
+
+        Result result = new Result();
+        RequestScheduler.enqueue(service.flaky(1), result);
+
+        assertTrue(result.await());
+        assertEquals(503, result.code.get());
+        assertEquals("busy 2", result.errorBody.get());
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    public void cancelReachesTheRetryAttemptInFlight() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setBody("too late").setHeadersDelay(5, TimeUnit.SECONDS));
+
+        Result result = new Result();
+        RequestHandle handle = RequestHandle.enqueue(service.flaky(1), result);
+        server.takeRequest(5, TimeUnit.SECONDS);
+        // Second attempt, on a clone of the caller's call
+        server.takeRequest(5, TimeUnit.SECONDS);
+        handle.cancel();
+
+        // Slot given back at once, not when the server finally answers
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (dispatcher.runningCallsCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10L);
+        }
+        assertEquals(0, dispatcher.runningCallsCount());
+        assertFalse(result.done.await(200L, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void offlineFallbackWaitsForTheLastAttempt() throws Exception {
+        server.enqueue(catalog("v1"));
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST));
+        server.enqueue(catalog("v2"));
+        assertEquals("v1", loadCatalog());
+        HttpCacheStats.reset();
+
+        // Failed first attempt: retried by the scheduler, not answered from disk
+        assertEquals("v2", loadCatalog());
+        assertEquals(3, server.getRequestCount());
+        assertEquals(0, HttpCacheStats.getOfflineHits());
+    }
+
+    @Test
+    public void offlineFallbackServesDiskOnceRetriesAreExhausted() throws Exception {
+        server.enqueue(catalog("v1"));
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST));
+        }
+        assertEquals("v1", loadCatalog());
+        HttpCacheStats.reset();
+
+        assertEquals("v1", loadCatalog());
+        // 1 attempt + maxRetries, then the stale copy
+        assertEquals(4, server.getRequestCount());
+        assertEquals(1, HttpCacheStats.getOfflineHits());
+        assertTrue(interceptorDelays.isEmpty());
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    private String loadCatalog() throws Exception {
+        Result result = new Result();
+        RequestScheduler.enqueue(service.catalog(), result);
+        assertTrue(result.await());
+        assertEquals(200, result.code.get());
+        return result.body.get();
+    }
+
+    private static MockResponse catalog(String version) {
+        return new MockResponse()
+                .setHeader("Cache-Control", "no-cache, no-store")
+                .setHeader("ETag", "\"" + version + "\"")
+                .setBody(version);
+    }
+
+    private static final class Result implements Callback<ResponseBody> {
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicInteger code = new AtomicInteger();
+        final AtomicReference<String> body = new AtomicReference<>();
+        final AtomicReference<String> errorBody = new AtomicReference<>();
+
+        @Override
+        public void onResponse(@NonNull Call<ResponseBody> call, @NonNull Response<ResponseBody> response) {
+            code.set(response.code());
+            try (ResponseBody body = response.isSuccessful() ? response.body() : response.errorBody()) {
+                String text = body != null ? body.string() : null;
+                if (response.isSuccessful()) {
+                    this.body.set(text);
+                } else {
+                    errorBody.set(text);
+                }
+            } catch (Exception ignored) {
+                // Only the status matters then
+            }
+            done.countDown();
+        }
+
+        @Override
+        public void onFailure(@NonNull Call<ResponseBody> call, @NonNull Throwable t) {
+            code.set(-1);
+            done.countDown();
+        }
+
+        boolean await() throws InterruptedException {
+            return done.await(10, TimeUnit.SECONDS);
+        }
+    }
+}
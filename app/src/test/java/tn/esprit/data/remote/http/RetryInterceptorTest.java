@@ -0,0 +1,253 @@
+package tn.esprit.data.remote.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+import retrofit2.Call;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.http.Body;
+import retrofit2.http.GET;
+import retrofit2.http.Header;
+import retrofit2.http.POST;
+
+/**
+ * Fault scripts against {@link RetryInterceptor}: which failures are retried, how many
+ * times, and how long it backs off in between (delays are recorded, never slept).
+ */
+public class RetryInterceptorTest {
+
+    private static final long BASE_DELAY = 100L;
+    private static final long MAX_DELAY = 1_000L;
+
+    @RetryPolicy(maxRetries = 2, baseDelayMillis = BASE_DELAY, maxDelayMillis = MAX_DELAY)
+    interface TestService {
+
+        @GET("items")
+        Call<ResponseBody> get();
+
+        @POST("items")
+        Call<ResponseBody> post(@Body RequestBody body);
+
+        @POST("items")
+        Call<ResponseBody> postIdempotent(
+                @Header(RetryInterceptor.IDEMPOTENCY_KEY_HEADER) String idempotencyKey,
+                @Body RequestBody body);
+
+        @RetryPolicy(maxRetries = 0)
+        @GET("items")
+        Call<ResponseBody> getWithoutRetries();
+    }
+
+    private final List<Long> delays = new CopyOnWriteArrayList<>();
+    private MockWebServer server;
+    private TestService service;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(new RetryInterceptor(delays::add))
+                // Only the interceptor may retry, not OkHttp's own connection recovery
+                .retryOnConnectionFailure(false)
+                .readTimeout(5, TimeUnit.SECONDS)
+                .build();
+        service = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .client(client)
+                .build()
+                .create(TestService.class);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void serviceUnavailableHonoursRetryAfter() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503).setHeader("Retry-After", "1"));
+        server.enqueue(new MockResponse().setBody("ok"));
+
+        Response<ResponseBody> response = service.get().execute();
+
+        assertEquals(200, response.code());
+        assertEquals(2, server.getRequestCount());
+        // Retry-After replaces the jittered backoff
+        assertEquals(List.of(1_000L), delays);
+    }
+
+    @Test
+    public void retryAfterLongerThanMaxDelayIsReturnedAsIs() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503).setHeader("Retry-After", "30"));
+        server.enqueue(new MockResponse().setBody("never requested"));
+
+        Response<ResponseBody> response = service.get().execute();
+
+        assertEquals(503, response.code());
+        assertEquals(1, server.getRequestCount());
+        assertTrue(delays.isEmpty());
+    }
+
+    @Test
+    public void droppedConnectionIsRetried() throws Exception {
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST));
+        server.enqueue(new MockResponse().setBody("ok"));
+
+        Response<ResponseBody> response = service.get().execute();
+
+        assertEquals(200, response.code());
+        assertEquals(2, server.getRequestCount());
+        assertEquals(1, delays.size());
+        assertBackoff(delays.get(0), 0);
+    }
+
+    @Test
+    public void postWithoutIdempotencyKeyIsNotRetried() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setBody("never requested"));
+
+        Response<ResponseBody> response = service.post(body()).execute();
+
+        assertEquals(503, response.code());
+        assertEquals(1, server.getRequestCount());
+        assertTrue(delays.isEmpty());
+    }
+
+    @Test
+    public void postWithoutIdempotencyKeyIsNotRetriedOnDroppedConnection() throws Exception {
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST));
+        server.enqueue(new MockResponse().setBody("never requested"));
+
+        try {
+            service.post(body()).execute();
+            fail("Expected the dropped connection to surface");
+        } catch (IOException expected) {
+            // The server may have applied it: not ours to repeat
+        }
+        assertEquals(1, server.getRequestCount());
+        assertTrue(delays.isEmpty());
+    }
+
+    @Test
+    public void postWithIdempotencyKeyIsRetriedWithSameKey() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(502));
+        server.enqueue(new MockResponse().setBody("created"));
+
+        Response<ResponseBody> response = service.postIdempotent("key-1", body()).execute();
+
+        assertEquals(200, response.code());
+        assertEquals(3, server.getRequestCount());
+        for (int i = 0; i < 3; i++) {
+            assertEquals("key-1",
+                    server.takeRequest().getHeader(RetryInterceptor.IDEMPOTENCY_KEY_HEADER));
+        }
+        assertEquals(2, delays.size());
+        assertBackoff(delays.get(0), 0);
+        assertBackoff(delays.get(1), 1);
+    }
+
+    @Test
+    public void exhaustedRetriesReturnLastResponse() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            server.enqueue(new MockResponse().setResponseCode(503));
+        }
+
+        Response<ResponseBody> response = service.get().execute();
+
+        assertEquals(503, response.code());
+        // 1 attempt + maxRetries
+        assertEquals(3, server.getRequestCount());
+        assertEquals(2, delays.size());
+        assertBackoff(delays.get(0), 0);
+        assertBackoff(delays.get(1), 1);
+    }
+
+    @Test
+    public void exhaustedRetriesThrowLastFailure() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST));
+        }
+
+        try {
+            service.get().execute();
+            fail("Expected the last connection failure");
+        } catch (IOException expected) {
+            // Surfaced once retries are used up
+        }
+        assertEquals(3, server.getRequestCount());
+        assertEquals(2, delays.size());
+    }
+
+    @Test
+    public void clientErrorsAreNotRetried() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(400));
+
+        Response<ResponseBody> response = service.get().execute();
+
+        assertEquals(400, response.code());
+        assertEquals(1, server.getRequestCount());
+        assertTrue(delays.isEmpty());
+    }
+
+    @Test
+    public void methodPolicyOverridesInterfacePolicy() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+
+        Response<ResponseBody> response = service.getWithoutRetries().execute();
+
+        assertEquals(503, response.code());
+        assertEquals(1, server.getRequestCount());
+        assertTrue(delays.isEmpty());
+    }
+
+    @Test
+    public void callsWithoutPolicyAreNotRetried() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(new RetryInterceptor(delays::add))
+                .build();
+
+        try (okhttp3.Response response = client.newCall(
+                new okhttp3.Request.Builder().url(server.url("/plain")).build()).execute()) {
+            assertEquals(503, response.code());
+        }
+        assertEquals(1, server.getRequestCount());
+        assertTrue(delays.isEmpty());
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    /**
+     * Full jitter: anywhere in [0, min(max, base * 2^attempt)].
+     */
+    private static void assertBackoff(long delay, int attempt) {
+        long cap = Math.min(MAX_DELAY, BASE_DELAY << attempt);
+        assertTrue("Backoff " + delay + " outside [0, " + cap + "]", delay >= 0 && delay <= cap);
+    }
+
+    private static RequestBody body() {
+        return RequestBody.create("{}", MediaType.get("application/json"));
+    }
+}
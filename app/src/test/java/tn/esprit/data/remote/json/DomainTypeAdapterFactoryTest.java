@@ -0,0 +1,137 @@
+package tn.esprit.data.remote.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import tn.esprit.domain.appointment.Appointment;
+import tn.esprit.domain.history.UserHistoryEntry;
+import tn.esprit.domain.indicator.PatientIndicator;
+import tn.esprit.domain.medication.Medication;
+import tn.esprit.domain.notification.NotificationItem;
+
+/**
+ * The streaming adapters must produce and accept exactly what Gson's reflective binding
+ * does: a field renamed or added to a domain class without its adapter would otherwise be
+ * dropped silently.
+ */
+public class DomainTypeAdapterFactoryTest {
+
+    private static final List<Class<?>> DOMAIN_TYPES = Arrays.asList(
+            Appointment.class,
+            NotificationItem.class,
+            UserHistoryEntry.class,
+            Medication.class,
+            PatientIndicator.class
+    );
+
+    private static final int LARGE_LIST_ITEMS = 5_000;
+
+    private final Gson streaming = GsonProvider.get();
+    private final Gson reflective = new Gson();
+
+    @Test
+    public void writesLikeReflection() throws Exception {
+        for (Class<?> type : DOMAIN_TYPES) {
+            Object value = filledInstance(type, 7);
+            assertEquals(type.getSimpleName(),
+                    JsonParser.parseString(reflective.toJson(value)),
+                    JsonParser.parseString(streaming.toJson(value)));
+        }
+    }
+
+    @Test
+    public void readsLikeReflection() throws Exception {
+        for (Class<?> type : DOMAIN_TYPES) {
+            String json = reflective.toJson(filledInstance(type, 7));
+            Object viaStreaming = streaming.fromJson(json, type);
+            Object viaReflection = reflective.fromJson(json, type);
+            // Compared through the reflective writer: every field, whatever the adapter does
+            assertEquals(type.getSimpleName(),
+                    JsonParser.parseString(reflective.toJson(viaReflection)),
+                    JsonParser.parseString(reflective.toJson(viaStreaming)));
+        }
+    }
+
+    @Test
+    public void nullsAndUnknownFields() throws Exception {
+        for (Class<?> type : DOMAIN_TYPES) {
+            String json = "{\"id\":null,\"notAField\":{\"nested\":[1,2]},\"other\":\"x\"}";
+            Object viaStreaming = streaming.fromJson(json, type);
+            Object viaReflection = reflective.fromJson(json, type);
+            assertNotNull(type.getSimpleName(), viaStreaming);
+            assertEquals(type.getSimpleName(),
+                    JsonParser.parseString(reflective.toJson(viaReflection)),
+                    JsonParser.parseString(reflective.toJson(viaStreaming)));
+        }
+        assertEquals("null", streaming.toJson(null, Appointment.class));
+    }
+
+    /**
+     * The list size the adapters were written for: every item must round-trip the same
+     * way through both paths.
+     */
+    @Test
+    public void largeListMatchesReflection() throws Exception {
+        List<Appointment> appointments = new ArrayList<>(LARGE_LIST_ITEMS);
+        for (int i = 0; i < LARGE_LIST_ITEMS; i++) {
+            appointments.add(filledInstance(Appointment.class, i));
+        }
+        Type listType = new TypeToken<List<Appointment>>() {}.getType();
+        String json = reflective.toJson(appointments, listType);
+
+        List<Appointment> viaStreaming = streaming.fromJson(json, listType);
+        List<Appointment> viaReflection = reflective.fromJson(json, listType);
+
+        assertEquals(LARGE_LIST_ITEMS, viaStreaming.size());
+        JsonElement expected = JsonParser.parseString(reflective.toJson(viaReflection, listType));
+        assertEquals(expected, JsonParser.parseString(reflective.toJson(viaStreaming, listType)));
+        assertEquals(expected, JsonParser.parseString(streaming.toJson(viaStreaming, listType)));
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    /**
+     * Instance with every field set to a distinct non-null value, so a field the adapter
+     * skips shows up as a difference.
+     */
+    private static <T> T filledInstance(Class<T> type, int seed) throws Exception {
+        T value = type.getDeclaredConstructor().newInstance();
+        int n = 0;
+        for (Field field : type.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) continue;
+            field.setAccessible(true);
+            n++;
+            Class<?> fieldType = field.getType();
+            if (fieldType == Long.class || fieldType == long.class) {
+                field.set(value, (long) seed * 100L + n);
+            } else if (fieldType == String.class) {
+                field.set(value, field.getName() + "-" + seed);
+            } else if (fieldType == Boolean.class || fieldType == boolean.class) {
+                field.set(value, (seed + n) % 2 == 0);
+            } else if (fieldType == BigDecimal.class) {
+                field.set(value, new BigDecimal(seed + "." + n));
+            } else {
+                throw new AssertionError("No test value for " + type.getSimpleName()
+                        + "." + field.getName() + " (" + fieldType + ")");
+            }
+        }
+        return value;
+    }
+}
@@ -0,0 +1,389 @@
+package tn.esprit.data.session;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+import tn.esprit.data.appointment.AppointmentRepository;
+import tn.esprit.data.notification.NotificationRepository;
+import tn.esprit.data.profile.ProfileRepository;
+import tn.esprit.data.profile.ProfileSnapshot;
+import tn.esprit.data.remote.ApiClient;
+import tn.esprit.data.remote.appointment.AppointmentApiService;
+import tn.esprit.data.remote.common.ListResponseDto;
+import tn.esprit.data.remote.http.RequestHandle;
+import tn.esprit.data.remote.notification.NotificationApiService;
+import tn.esprit.data.remote.user.UserApiService;
+import tn.esprit.domain.doctor.DoctorHomeStats;
+import tn.esprit.domain.notification.NotificationItem;
+import tn.esprit.domain.user.User;
+
+/**
+ * Run bookkeeping of {@link SessionBootstrap}: requests run in parallel, and a result that
+ * arrives for an older run or a replaced role branch is neither published nor counted.
+ */
+public class SessionBootstrapTest {
+
+    private static final long DELAY_MILLIS = 400L;
+
+    @Rule
+    public final InstantTaskExecutorRule instantTasks = new InstantTaskExecutorRule();
+
+    private MockWebServer server;
+
+    @After
+    public void tearDown() throws Exception {
+        if (server != null) {
+            ApiClient.getOkHttpClient().connectionPool().evictAll();
+            server.shutdown();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Time to ready
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void readyAfterSlowestRequestNotAfterTheirSum() throws Exception {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @NonNull
+            @Override
+            public MockResponse dispatch(@NonNull RecordedRequest request) {
+                String path = request.getPath() != null ? request.getPath() : "";
+                MockResponse response = new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setHeadersDelay(DELAY_MILLIS, TimeUnit.MILLISECONDS);
+                if (path.startsWith("/me")) {
+                    return response.setBody("{\"id\":1,\"role\":\"DOCTOR\"}");
+                }
+                if (path.startsWith("/api/notifications/me")) {
+                    return response.setBody("{\"items\":[{\"id\":5,\"title\":\"t\"}],\"total\":1}");
+                }
+                if (path.startsWith("/api/doctors/me/home-stats")) {
+                    return response.setBody("{\"todayAppointments\":3}");
+                }
+                return new MockResponse().setResponseCode(404);
+            }
+        });
+        server.start();
+        ApiClient.setBaseUrl(server.url("/"));
+
+        // First run pays for class loading and service creation; only the second is timed
+        runUntilReady();
+        long start = System.nanoTime();
+        BootstrapState state = runUntilReady();
+        long elapsed = (System.nanoTime() - start) / 1_000_000L;
+
+        assertNotNull(state.getUser());
+        assertEquals(1, state.getNotifications().size());
+        assertEquals(3L, state.getDoctorStats().todayAppointments);
+        assertEquals(6, server.getRequestCount());
+        // Three requests of DELAY_MILLIS each: in parallel, ready after about one of them
+        assertTrue("Ready after " + elapsed + " ms", elapsed >= DELAY_MILLIS);
+        assertTrue("Ready after " + elapsed + " ms: requests ran one after another",
+                elapsed < 2 * DELAY_MILLIS);
+    }
+
+    // -------------------------------------------------------------------------
+    // Stale results
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void notificationsOfPreviousRunAreIgnored() {
+        ManualSources sources = new ManualSources();
+        sources.accessToken = "first";
+        SessionBootstrap bootstrap = new SessionBootstrap(sources);
+        bootstrap.start();
+
+        // New session while the first run's notifications are still on their way
+        sources.accessToken = "second";
+        bootstrap.start();
+        assertEquals(2, sources.notifications.size());
+
+        sources.notifications.get(0).onSuccess(Collections.singletonList(item(1L)), null);
+        BootstrapState state = bootstrap.getState().getValue();
+        assertNull(state.getNotifications());
+        assertFalse(state.isReady());
+
+        // The old answer must not have counted as one of the current run's requests
+        sources.profiles.get(1).onSuccess(profile(null));
+        assertFalse(bootstrap.getState().getValue().isReady());
+
+        sources.notifications.get(1).onSuccess(Collections.singletonList(item(2L)), null);
+        state = bootstrap.getState().getValue();
+        assertTrue(state.isReady());
+        assertEquals(Long.valueOf(2L), state.getNotifications().get(0).getId());
+    }
+
+    @Test
+    public void errorsOfPreviousRunAreIgnored() {
+        ManualSources sources = new ManualSources();
+        sources.accessToken = "first";
+        sources.cachedRole = "DOCTOR";
+        SessionBootstrap bootstrap = new SessionBootstrap(sources);
+        bootstrap.start();
+
+        sources.accessToken = "second";
+        bootstrap.start();
+
+        sources.notifications.get(0).onError(null, 500, null);
+        sources.doctorStats.get(0).onError(null, 500, null);
+        sources.profiles.get(1).onSuccess(profile("DOCTOR"));
+        sources.notifications.get(1).onSuccess(Collections.emptyList(), null);
+        assertFalse(bootstrap.getState().getValue().isReady());
+
+        sources.doctorStats.get(1).onSuccess(new DoctorHomeStats());
+        assertTrue(bootstrap.getState().getValue().isReady());
+    }
+
+    @Test
+    public void statsOfReplacedBranchAreIgnored() {
+        ManualSources sources = new ManualSources();
+        sources.accessToken = "token";
+        // Stale cached role: the doctor branch starts, then /me says otherwise
+        sources.cachedRole = "DOCTOR";
+        SessionBootstrap bootstrap = new SessionBootstrap(sources);
+        bootstrap.start();
+        assertEquals(1, sources.doctorStats.size());
+
+        sources.profiles.get(0).onSuccess(profile("PATIENT"));
+        // Cancelled with its branch, but already delivered: the branch was already taken
+        // off the pending count, counting it again would report ready too early
+        sources.doctorStats.get(0).onSuccess(new DoctorHomeStats());
+        BootstrapState state = bootstrap.getState().getValue();
+        assertFalse(state.isReady());
+        assertNull(state.getDoctorStats());
+
+        sources.notifications.get(0).onSuccess(Collections.emptyList(), null);
+        state = bootstrap.getState().getValue();
+        assertTrue(state.isReady());
+        assertNull(state.getDoctorStats());
+    }
+
+    @Test
+    public void branchStartedByProfileCountsTowardsReady() {
+        ManualSources sources = new ManualSources();
+        sources.accessToken = "token";
+        SessionBootstrap bootstrap = new SessionBootstrap(sources);
+        bootstrap.start();
+        assertTrue(sources.doctorStats.isEmpty());
+
+        // No cached role: the branch starts when /me answers
+        sources.profiles.get(0).onSuccess(profile("DOCTOR"));
+        sources.notifications.get(0).onSuccess(Collections.emptyList(), null);
+        assertEquals(1, sources.doctorStats.size());
+        assertFalse(bootstrap.getState().getValue().isReady());
+
+        sources.doctorStats.get(0).onError(null, 503, null);
+        assertTrue(bootstrap.getState().getValue().isReady());
+    }
+
+    @Test
+    public void resultsAfterResetAreIgnored() {
+        ManualSources sources = new ManualSources();
+        sources.accessToken = "token";
+        SessionBootstrap bootstrap = new SessionBootstrap(sources);
+        bootstrap.start();
+
+        bootstrap.reset();
+        assertTrue(sources.cleared);
+
+        sources.notifications.get(0).onSuccess(Collections.singletonList(item(1L)), null);
+        sources.profiles.get(0).onSuccess(profile(null));
+        assertNull(bootstrap.getState().getValue());
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    @NonNull
+    private static BootstrapState runUntilReady() throws InterruptedException {
+        SessionBootstrap bootstrap = new SessionBootstrap(new ServerSources("DOCTOR"));
+        CountDownLatch ready = new CountDownLatch(1);
+        bootstrap.getState().observeForever(state -> {
+            if (state != null && state.isReady()) ready.countDown();
+        });
+        bootstrap.start();
+        assertTrue("Bootstrap never became ready", ready.await(10, TimeUnit.SECONDS));
+        return bootstrap.getState().getValue();
+    }
+
+    private static NotificationItem item(long id) {
+        NotificationItem item = new NotificationItem();
+        item.setId(id);
+        return item;
+    }
+
+    private static ProfileSnapshot profile(@Nullable String role) {
+        return new ProfileSnapshot(
+                new User(1L, null, null, null, null, null, false, role, null, null, null),
+                null, null);
+    }
+
+    /**
+     * Keeps every callback so the test decides when (and how often) each request answers.
+     * Handles ignore cancel(): a cancelled request that had already completed still delivers.
+     */
+    private static final class ManualSources implements SessionBootstrap.Sources {
+        final List<ProfileRepository.ProfileSnapshotCallback> profiles = new ArrayList<>();
+        final List<NotificationRepository.LoadNotificationsCallback> notifications = new ArrayList<>();
+        final List<AppointmentRepository.HomeStatsCallback> doctorStats = new ArrayList<>();
+        String accessToken;
+        String cachedRole;
+        boolean cleared;
+
+        @Nullable
+        @Override
+        public String getAccessToken() {
+            return accessToken;
+        }
+
+        @Nullable
+        @Override
+        public String getCachedRole() {
+            return cachedRole;
+        }
+
+        @Override
+        public void flushOutbox() {
+        }
+
+        @Override
+        public void loadProfile(@NonNull ProfileRepository.ProfileSnapshotCallback callback) {
+            profiles.add(callback);
+        }
+
+        @NonNull
+        @Override
+        public RequestHandle loadNotifications(
+                @NonNull NotificationRepository.LoadNotificationsCallback callback) {
+            notifications.add(callback);
+            return RequestHandle.NONE;
+        }
+
+        @NonNull
+        @Override
+        public RequestHandle loadDoctorStats(@NonNull AppointmentRepository.HomeStatsCallback callback) {
+            doctorStats.add(callback);
+            return RequestHandle.NONE;
+        }
+
+        @Override
+        public void clear() {
+            cleared = true;
+        }
+    }
+
+    /**
+     * Same requests as the app, against the local server.
+     */
+    private static final class ServerSources implements SessionBootstrap.Sources {
+        private final String cachedRole;
+
+        ServerSources(String cachedRole) {
+            this.cachedRole = cachedRole;
+        }
+
+        @Nullable
+        @Override
+        public String getAccessToken() {
+            return "token";
+        }
+
+        @Nullable
+        @Override
+        public String getCachedRole() {
+            return cachedRole;
+        }
+
+        @Override
+        public void flushOutbox() {
+        }
+
+        @Override
+        public void loadProfile(@NonNull ProfileRepository.ProfileSnapshotCallback callback) {
+            RequestHandle.enqueue(ApiClient.createService(UserApiService.class).getCurrentUser(),
+                    new Callback<User>() {
+                        @Override
+                        public void onResponse(@NonNull Call<User> call, @NonNull Response<User> response) {
+                            callback.onSuccess(new ProfileSnapshot(response.body(), null, null));
+                        }
+
+                        @Override
+                        public void onFailure(@NonNull Call<User> call, @NonNull Throwable t) {
+                            callback.onError(t, null, null);
+                        }
+                    });
+        }
+
+        @NonNull
+        @Override
+        public RequestHandle loadNotifications(
+                @NonNull NotificationRepository.LoadNotificationsCallback callback) {
+            return RequestHandle.enqueue(ApiClient.createService(NotificationApiService.class)
+                            .getMyNotifications(30, null, null),
+                    new Callback<ListResponseDto<NotificationItem>>() {
+                        @Override
+                        public void onResponse(@NonNull Call<ListResponseDto<NotificationItem>> call,
+                                               @NonNull Response<ListResponseDto<NotificationItem>> response) {
+                            callback.onSuccess(response.body().getItems(),
+                                    NotificationRepository.nextCursorOf(response.body()));
+                        }
+
+                        @Override
+                        public void onFailure(@NonNull Call<ListResponseDto<NotificationItem>> call,
+                                              @NonNull Throwable t) {
+                            callback.onError(t, null, null);
+                        }
+                    });
+        }
+
+        @NonNull
+        @Override
+        public RequestHandle loadDoctorStats(@NonNull AppointmentRepository.HomeStatsCallback callback) {
+            return RequestHandle.enqueue(ApiClient.createService(AppointmentApiService.class)
+                            .getDoctorHomeStats(),
+                    new Callback<DoctorHomeStats>() {
+                        @Override
+                        public void onResponse(@NonNull Call<DoctorHomeStats> call,
+                                               @NonNull Response<DoctorHomeStats> response) {
+                            callback.onSuccess(response.body());
+                        }
+
+                        @Override
+                        public void onFailure(@NonNull Call<DoctorHomeStats> call, @NonNull Throwable t) {
+                            callback.onError(t, null, null);
+                        }
+                    });
+        }
+
+        @Override
+        public void clear() {
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package tn.esprit.presentation.history;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+import tn.esprit.data.auth.AuthTokenHolder;
+import tn.esprit.data.history.HistoryPageStore;
+import tn.esprit.data.history.UserHistoryRepository;
+import tn.esprit.data.remote.history.UserHistoryApiService;
+import tn.esprit.data.remote.json.GsonProvider;
+import tn.esprit.domain.auth.AuthTokens;
+import tn.esprit.domain.history.HistoryCategory;
+import tn.esprit.domain.history.UserHistoryEntry;
+
+/**
+ * {@link UserHistoryViewModel}: pages appended as the list scrolls, filtered pages fetched
+ * on until the screen fills, and answers of a previous run dropped.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class UserHistoryViewModelTest {
+
+    private static final int PAGE = UserHistoryRepository.PAGE_SIZE;
+
+    @Rule
+    public final InstantTaskExecutorRule instantTasks = new InstantTaskExecutorRule();
+
+    private MockWebServer server;
+    private UserHistoryViewModel viewModel;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        Application app = RuntimeEnvironment.getApplication();
+        AuthTokenHolder tokenHolder = AuthTokenHolder.getInstance(app);
+        tokenHolder.saveTokens(new AuthTokens("access", "refresh", "Bearer", 3600L));
+        HistoryPageStore pageStore = HistoryPageStore.getInstance(app);
+        pageStore.clear();
+        UserHistoryApiService api = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .addConverterFactory(GsonConverterFactory.create(GsonProvider.get()))
+                .build()
+                .create(UserHistoryApiService.class);
+        viewModel = new UserHistoryViewModel(app,
+                new UserHistoryRepository(tokenHolder, api, pageStore, System::currentTimeMillis));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void loadMoreAppendsPagesUntilTheLast() throws Exception {
+        server.enqueue(json(entries(100, 71, "APPOINTMENT_CREATED")));
+        server.enqueue(json(entries(70, 41, "APPOINTMENT_CREATED")));
+        server.enqueue(json(entries(40, 31, "APPOINTMENT_CREATED")));
+
+        viewModel.reloadHistory();
+        awaitItems(PAGE);
+        assertEquals(Boolean.FALSE, viewModel.getLoading().getValue());
+
+        viewModel.loadMore();
+        awaitItems(2 * PAGE);
+        viewModel.loadMore();
+        awaitItems(2 * PAGE + 10);
+
+        // Short page was the last one
+        viewModel.loadMore();
+        Thread.sleep(300L);
+        assertEquals(3, server.getRequestCount());
+        List<UserHistoryEntry> items = viewModel.getHistoryItems().getValue();
+        assertEquals(Long.valueOf(100L), items.get(0).getId());
+        assertEquals(Long.valueOf(31L), items.get(items.size() - 1).getId());
+    }
+
+    @Test
+    public void loadMoreWhilePageInFlightIsIgnored() throws Exception {
+        server.enqueue(json(entries(100, 71, "APPOINTMENT_CREATED")));
+        server.enqueue(json(entries(70, 41, "APPOINTMENT_CREATED"))
+                .setBodyDelay(300, TimeUnit.MILLISECONDS));
+
+        viewModel.reloadHistory();
+        awaitItems(PAGE);
+        viewModel.loadMore();
+        viewModel.loadMore();
+        viewModel.loadMore();
+        awaitItems(2 * PAGE);
+
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void sparseFilteredPagesAreFetchedOnUntilTheScreenFills() throws Exception {
+        // Server ignores the category: 2 appointments per full page, then a short last page
+        server.enqueue(json(mixed(100, 2)));
+        server.enqueue(json(mixed(70, 2)));
+        server.enqueue(json(entries(40, 36, "APPOINTMENT_CREATED")));
+
+        viewModel.setCategory(HistoryCategory.APPOINTMENTS);
+
+        awaitItems(2 + 2 + 5);
+        assertEquals(3, server.getRequestCount());
+        for (UserHistoryEntry item : viewModel.getHistoryItems().getValue()) {
+            assertEquals("APPOINTMENT_CREATED", item.getEventType());
+        }
+    }
+
+    @Test
+    public void categoryChangeDropsPagesOfThePreviousRun() throws Exception {
+        server.setDispatcher(new Dispatcher() {
+            @NonNull
+            @Override
+            public MockResponse dispatch(@NonNull RecordedRequest request) {
+                if (request.getPath().contains("category=INDICATORS")) {
+                    return json(entries(12, 1, "INDICATOR_ADDED"));
+                }
+                // Slow answer of the first run
+                return json(entries(100, 71, "APPOINTMENT_CREATED"))
+                        .setBodyDelay(400, TimeUnit.MILLISECONDS);
+            }
+        });
+
+        viewModel.reloadHistory();
+        viewModel.setCategory(HistoryCategory.INDICATORS);
+
+        awaitItems(12);
+        // Past the slow answer: it must not have replaced or joined the list
+        Thread.sleep(700L);
+        List<UserHistoryEntry> items = viewModel.getHistoryItems().getValue();
+        assertEquals(12, items.size());
+        assertEquals("INDICATOR_ADDED", items.get(0).getEventType());
+    }
+
+    @Test
+    public void errorStopsLoadingAndReportsIt() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(400));
+
+        viewModel.reloadHistory();
+
+        await(() -> viewModel.getErrorMessage().getValue() != null);
+        assertEquals(Boolean.FALSE, viewModel.getLoading().getValue());
+        assertTrue(viewModel.getHistoryItems().getValue().isEmpty());
+
+        viewModel.clearError();
+        assertNull(viewModel.getErrorMessage().getValue());
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    private void awaitItems(int count) throws InterruptedException {
+        await(() -> {
+            List<UserHistoryEntry> items = viewModel.getHistoryItems().getValue();
+            return items != null && items.size() == count;
+        });
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) throw new AssertionError("Timed out");
+            Thread.sleep(10L);
+        }
+    }
+
+    private static List<UserHistoryEntry> entries(long newestId, long oldestId, String eventType) {
+        List<UserHistoryEntry> list = new ArrayList<>();
+        for (long id = newestId; id >= oldestId; id--) {
+            list.add(entry(id, eventType));
+        }
+        return list;
+    }
+
+    /**
+     * A full page from newestId down, the first {@code appointments} entries being appointments.
+     */
+    private static List<UserHistoryEntry> mixed(long newestId, int appointments) {
+        List<UserHistoryEntry> list = new ArrayList<>();
+        for (int i = 0; i < PAGE; i++) {
+            list.add(entry(newestId - i, i < appointments ? "APPOINTMENT_CREATED" : "INDICATOR_ADDED"));
+        }
+        return list;
+    }
+
+    private static UserHistoryEntry entry(long id, String eventType) {
+        return new UserHistoryEntry(id, eventType, "event " + id, null,
+                String.format("2026-01-01T%08d", id), null, false);
+    }
+
+    private static MockResponse json(List<UserHistoryEntry> entries) {
+        return new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody(GsonProvider.get().toJson(entries));
+    }
+}
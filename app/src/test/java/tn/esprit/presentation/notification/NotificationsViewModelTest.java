@@ -0,0 +1,240 @@
+package tn.esprit.presentation.notification;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static tn.esprit.data.notification.NotificationStoreTest.ids;
+import static tn.esprit.data.notification.NotificationStoreTest.items;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+import tn.esprit.data.auth.AuthTokenHolder;
+import tn.esprit.data.notification.NotificationPageStore;
+import tn.esprit.data.notification.NotificationRepository;
+import tn.esprit.data.notification.NotificationSocketManager;
+import tn.esprit.data.notification.NotificationSocketManagerTest.StompServer;
+import tn.esprit.data.outbox.Outbox;
+import tn.esprit.data.remote.common.ListResponseDto;
+import tn.esprit.data.remote.json.GsonProvider;
+import tn.esprit.data.remote.notification.NotificationApiService;
+import tn.esprit.data.session.SessionBootstrap;
+import tn.esprit.domain.auth.AuthTokens;
+import tn.esprit.domain.notification.NotificationItem;
+
+/**
+ * {@link NotificationsViewModel#catchUp()} driven by a real socket session: after a
+ * reconnect or a lost push, only what was missed is fetched; a full reload only when
+ * that does not fit in one page or the catch-up fails.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class NotificationsViewModelTest {
+
+    private static final int PAGE = NotificationRepository.PAGE_SIZE;
+
+    @Rule
+    public final InstantTaskExecutorRule instantTasks = new InstantTaskExecutorRule();
+
+    private MockWebServer server;
+    private StompServer stomp;
+    private NotificationSocketManager socketManager;
+    private NotificationsViewModel viewModel;
+
+    // Answers of GET /api/notifications/me, without and with "after"
+    private final AtomicReference<MockResponse> newestPage = new AtomicReference<>();
+    private final AtomicReference<MockResponse> missedPage = new AtomicReference<>();
+    private final List<String> listRequests = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        stomp = new StompServer();
+        server.setDispatcher(stomp.dispatcher(new Dispatcher() {
+            @NonNull
+            @Override
+            public MockResponse dispatch(@NonNull RecordedRequest request) {
+                String path = request.getPath();
+                if (path.startsWith("/api/notifications/me/unread-count")) {
+                    return new MockResponse().setBody("{\"count\":0}");
+                }
+                if (path.startsWith("/api/notifications/me")) {
+                    listRequests.add(path);
+                    return path.contains("after=") ? missedPage.get() : newestPage.get();
+                }
+                return new MockResponse().setResponseCode(404);
+            }
+        }));
+        server.start();
+
+        Application app = RuntimeEnvironment.getApplication();
+        AuthTokenHolder tokenHolder = AuthTokenHolder.getInstance(app);
+        tokenHolder.saveTokens(new AuthTokens("access", "refresh", "Bearer", 3600L));
+        NotificationPageStore pageStore = NotificationPageStore.getInstance(app);
+        pageStore.clear();
+        NotificationApiService api = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .addConverterFactory(GsonConverterFactory.create(GsonProvider.get()))
+                .build()
+                .create(NotificationApiService.class);
+        socketManager = new NotificationSocketManager(app, new OkHttpClient(), server.url("/"));
+        viewModel = new NotificationsViewModel(app,
+                new NotificationRepository(tokenHolder, api, Outbox.getInstance(app), pageStore),
+                socketManager,
+                SessionBootstrap.getInstance(app));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        socketManager.setListener(null);
+        socketManager.disconnect();
+        server.shutdown();
+    }
+
+    @Test
+    public void reconnectFetchesOnlyWhatWasMissed() throws Exception {
+        start(items(10, 1));
+
+        // Backend ignoring "after" overlaps what is held: filtered out
+        missedPage.set(json(items(12, 9), null));
+        stomp.dropConnection();
+
+        awaitIds(12);
+        assertEquals(List.of(12L, 11L, 10L, 9L, 8L, 7L, 6L, 5L, 4L, 3L, 2L, 1L),
+                ids(viewModel.getNotifications().getValue()));
+        assertEquals(2, listRequests.size());
+        assertTrue(listRequests.get(1).contains("after=10"));
+        assertTrue(listRequests.get(1).contains("limit=" + PAGE));
+    }
+
+    @Test
+    public void lostPushIsCaughtUpWithoutReconnecting() throws Exception {
+        start(items(10, 1));
+        missedPage.set(json(items(11, 11), null));
+
+        stomp.push("not json");
+
+        awaitIds(11);
+        assertEquals(1, stomp.socketCount());
+        assertTrue(listRequests.get(1).contains("after=10"));
+    }
+
+    @Test
+    public void fullPageOfMissedItemsReloadsTheNewestPage() throws Exception {
+        start(items(10, 1));
+        missedPage.set(json(items(10 + PAGE, 11), null));
+        newestPage.set(json(items(10 + PAGE, 11), null));
+
+        stomp.dropConnection();
+
+        // More may hide past the missed page: resync from the top instead
+        await(() -> listRequests.size() >= 3);
+        awaitIds(PAGE);
+        assertTrue(listRequests.get(1).contains("after=10"));
+        assertEquals("/api/notifications/me?limit=" + PAGE, listRequests.get(2));
+        assertEquals(Long.valueOf(10L + PAGE), viewModel.getNotifications().getValue().get(0).getId());
+    }
+
+    @Test
+    public void serverSayingNoMoreKeepsAFullMissedPage() throws Exception {
+        start(items(10, 1));
+        missedPage.set(json(items(10 + PAGE, 11), false));
+
+        stomp.dropConnection();
+
+        awaitIds(10 + PAGE);
+        Thread.sleep(300L);
+        pumpMainLooper();
+        assertEquals(2, listRequests.size());
+    }
+
+    @Test
+    public void failedCatchUpReloadsTheNewestPage() throws Exception {
+        start(items(10, 1));
+        // Not retried by the scheduler, unlike a 503
+        missedPage.set(new MockResponse().setResponseCode(400));
+        newestPage.set(json(items(13, 4), null));
+
+        stomp.dropConnection();
+
+        await(() -> listRequests.size() >= 3);
+        // The cached newest page shows first, then the fresh one
+        await(() -> viewModel.getNotifications().getValue().get(0).getId() == 13L);
+        assertEquals(10, viewModel.getNotifications().getValue().size());
+        assertEquals("/api/notifications/me?limit=" + PAGE, listRequests.get(2));
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    /**
+     * Signs the user in: socket subscribed and the newest page loaded.
+     */
+    private void start(List<NotificationItem> newest) throws Exception {
+        newestPage.set(json(newest, null));
+        viewModel.setCurrentUserId(7L);
+        stomp.nextFrame();
+        stomp.nextFrame();
+        awaitIds(newest.size());
+        assertEquals(1, listRequests.size());
+    }
+
+    private void awaitIds(int count) throws InterruptedException {
+        await(() -> {
+            List<NotificationItem> held = viewModel.getNotifications().getValue();
+            return held != null && held.size() == count;
+        });
+    }
+
+    /**
+     * The socket listener hands catch-up / reload over to the main thread.
+     */
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (true) {
+            pumpMainLooper();
+            if (condition.getAsBoolean()) return;
+            if (System.nanoTime() > deadline) throw new AssertionError("Timed out");
+            Thread.sleep(10L);
+        }
+    }
+
+    private static void pumpMainLooper() {
+        ShadowLooper.idleMainLooper();
+    }
+
+    private static MockResponse json(List<NotificationItem> items, Boolean hasMore) {
+        ListResponseDto<NotificationItem> body = new ListResponseDto<>();
+        body.setItems(items);
+        body.setTotal(items.size());
+        body.setHasMore(hasMore);
+        return new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody(GsonProvider.get().toJson(body));
+    }
+}